@@ -0,0 +1,166 @@
+package com.example.demologin.ai;
+
+import com.example.demologin.dto.request.question.OptionRequest;
+import com.example.demologin.dto.request.question.QuestionCreateRequest;
+import com.example.demologin.utils.QuestionOptionRules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Đọc kết quả dạng
+ * <pre>
+ * 1. {question} (type: ..., difficulty: ...)
+ * A. {option}
+ * B. {option} (đúng)
+ * </pre>
+ * thành các câu hỏi nháp có cùng shape với request tạo câu hỏi, để giáo viên duyệt rồi gửi lại.
+ * Markdown bold, "Câu 1:" and "A)" variants are accepted; lines before the first question and
+ * text after the options of a question are ignored.
+ * <p>
+ * Text can be fed in arbitrary chunks as it streams in: a question is emitted as soon as the
+ * next question starts (or {@link #close()} is called), so callers see it long before the whole
+ * answer is generated. Not thread-safe.
+ */
+public final class GeneratedQuestionParser {
+
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+    private static final Pattern QUESTION = Pattern.compile("^(?:câu\\s*)?(\\d{1,3})\\s*[.):]\\s*(.+)$", FLAGS);
+    private static final Pattern OPTION = Pattern.compile("^([A-Fa-f])\\s*[.)]\\s*(.*)$");
+    private static final Pattern METADATA = Pattern.compile("\\(\\s*type\\s*:[^)]*\\)\\s*$", FLAGS);
+    private static final Pattern CORRECT = Pattern.compile("\\(\\s*(?:đúng|dung|correct)\\s*\\)", FLAGS);
+
+    private final String type;
+    private final Long lessonId;
+    private final Long levelId;
+    private final Consumer<QuestionCreateRequest> onQuestion;
+    private final Consumer<String> onRejected;
+    private final StringBuilder pending = new StringBuilder();
+    private Draft current;
+
+    /**
+     * @param type       question type code given to every draft
+     * @param lessonId   lesson given to every draft
+     * @param levelId    level given to every draft, may be null
+     * @param onQuestion receives each draft that passes {@link QuestionOptionRules}
+     * @param onRejected receives "Question n: reason" for the others
+     */
+    public GeneratedQuestionParser(String type, Long lessonId, Long levelId,
+                                   Consumer<QuestionCreateRequest> onQuestion,
+                                   Consumer<String> onRejected) {
+        this.type = type;
+        this.lessonId = lessonId;
+        this.levelId = levelId;
+        this.onQuestion = onQuestion;
+        this.onRejected = onRejected;
+    }
+
+    /**
+     * Parse a complete answer.
+     */
+    public static Result parse(String text, String type, Long lessonId, Long levelId) {
+        List<QuestionCreateRequest> drafts = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        GeneratedQuestionParser parser = new GeneratedQuestionParser(type, lessonId, levelId, drafts::add, rejected::add);
+        if (text != null) {
+            parser.feed(text);
+        }
+        parser.close();
+        return new Result(drafts, rejected);
+    }
+
+    /**
+     * Add the next piece of text; only complete lines are interpreted until {@link #close()}.
+     */
+    public void feed(String chunk) {
+        pending.append(chunk);
+        int start = 0;
+        for (int i = 0; i < pending.length(); i++) {
+            char c = pending.charAt(i);
+            if (c == '\n' || c == '\r') {
+                line(pending.substring(start, i));
+                start = i + 1;
+            }
+        }
+        pending.delete(0, start);
+    }
+
+    /**
+     * End of text: interpret the last line and emit the last question.
+     */
+    public void close() {
+        if (!pending.isEmpty()) {
+            line(pending.toString());
+            pending.setLength(0);
+        }
+        emit();
+    }
+
+    private void line(String rawLine) {
+        String line = rawLine.replace("**", "").replace("__", "").strip();
+        if (line.isEmpty()) {
+            return;
+        }
+        Matcher option = OPTION.matcher(line);
+        if (current != null && option.matches()) {
+            current.addOption(option.group(2));
+            return;
+        }
+        Matcher question = QUESTION.matcher(line);
+        if (question.matches()) {
+            emit();
+            current = new Draft(Integer.parseInt(question.group(1)), question.group(2));
+        } else if (current != null && current.options.isEmpty()) {
+            current.text.append('\n').append(line);
+        }
+    }
+
+    private void emit() {
+        Draft draft = current;
+        current = null;
+        if (draft == null) {
+            return;
+        }
+        String questionText = METADATA.matcher(draft.text.toString().strip()).replaceFirst("").strip();
+        long correct = draft.options.stream().filter(OptionRequest::getIsCorrect).count();
+        try {
+            if (questionText.isEmpty()) {
+                throw new IllegalArgumentException("Question text is empty.");
+            }
+            QuestionOptionRules.validate(type, draft.options.size(), correct);
+        } catch (IllegalArgumentException ex) {
+            onRejected.accept("Question " + draft.number + ": " + ex.getMessage());
+            return;
+        }
+        QuestionCreateRequest request = new QuestionCreateRequest();
+        request.setQuestionText(questionText);
+        request.setType(type);
+        request.setLessonId(lessonId);
+        request.setLevelId(levelId);
+        request.setOptions(draft.options);
+        onQuestion.accept(request);
+    }
+
+    public record Result(List<QuestionCreateRequest> questions, List<String> rejected) {
+    }
+
+    private static final class Draft {
+        private final int number;
+        private final StringBuilder text;
+        private final List<OptionRequest> options = new ArrayList<>();
+
+        Draft(int number, String firstLine) {
+            this.number = number;
+            this.text = new StringBuilder(firstLine);
+        }
+
+        void addOption(String raw) {
+            Matcher marker = CORRECT.matcher(raw);
+            boolean correct = marker.find();
+            options.add(new OptionRequest(marker.replaceAll("").strip(), correct));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demologin.ai;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Everything that decides the model output; two prompts with the same {@link #cacheKey()} are
+ * answered from the result cache.
+ */
+public record GenerationPrompt(String model, float temperature, String systemInstruction, String userPrompt) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * SHA-256 of the model, temperature and both prompts with whitespace collapsed and case folded,
+     * so re-indented or re-cased templates still hit the cache.
+     */
+    public String cacheKey() {
+        String normalized = model + '\u0000' + temperature + '\u0000'
+                + normalize(systemInstruction) + '\u0000' + normalize(userPrompt);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
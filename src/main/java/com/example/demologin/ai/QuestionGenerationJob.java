@@ -0,0 +1,59 @@
+package com.example.demologin.ai;
+
+import com.example.demologin.dto.request.question.QuestionCreateRequest;
+import com.example.demologin.enums.GenerationJobStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One AI generation request. Written by the worker thread, read by status requests.
+ */
+@Getter
+public class QuestionGenerationJob {
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long ownerId;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile GenerationJobStatus status = GenerationJobStatus.QUEUED;
+    private volatile boolean cached;
+    private volatile int attempts;
+    private volatile String text;
+    private volatile List<QuestionCreateRequest> questions = List.of();
+    private volatile List<String> rejected = List.of();
+    private volatile String message;
+    private volatile LocalDateTime finishedAt;
+
+    public QuestionGenerationJob(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public void start() {
+        status = GenerationJobStatus.RUNNING;
+    }
+
+    public void complete(QuestionGenerator.Generation generation, GeneratedQuestionParser.Result parsed) {
+        text = generation.text();
+        cached = generation.cached();
+        attempts = generation.attempts();
+        questions = List.copyOf(parsed.questions());
+        rejected = List.copyOf(parsed.rejected());
+        finish(GenerationJobStatus.COMPLETED, null);
+    }
+
+    public void fail(String reason) {
+        finish(GenerationJobStatus.FAILED, reason);
+    }
+
+    private void finish(GenerationJobStatus finalStatus, String finalMessage) {
+        message = finalMessage;
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.demologin.ai;
+
+import com.example.demologin.config.GeminiConfig;
+import com.example.demologin.dto.request.ai.QuestionGenerate;
+import com.example.demologin.entity.Level;
+import com.example.demologin.exception.exceptions.BusinessException;
+import com.example.demologin.exception.exceptions.InternalServerErrorException;
+import com.example.demologin.repository.LevelRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.genai.errors.ApiException;
+import com.google.genai.types.Content;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.Part;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sinh câu hỏi bằng Gemini.
+ * <p>
+ * Every call to {@link GeminiConfig#generate} goes through here: at most
+ * {@code question-generation.max-concurrent} calls run at once (callers wait up to
+ * {@code acquire-timeout} for a slot), 429 and 503 answers are retried with full-jitter
+ * exponential backoff, and successful texts are cached by {@link GenerationPrompt#cacheKey()}.
+ * {@link #stream} does the same over the streaming API.
+ */
+@Component
+@Slf4j
+public class QuestionGenerator {
+
+    static final String MODEL = "gemini-2.5-flash";
+    static final float TEMPERATURE = 0.2f;
+    static final String OVERLOADED = "Hệ thống AI đang quá tải. Vui lòng thử lại sau.";
+
+    private final GeminiConfig geminiConfig;
+    private final LevelRepository levelRepository;
+    private final Semaphore slots;
+    private final Duration acquireTimeout;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final Cache<String, String> results;
+
+    public QuestionGenerator(GeminiConfig geminiConfig,
+                             LevelRepository levelRepository,
+                             @Value("${question-generation.max-concurrent:4}") int maxConcurrent,
+                             @Value("${question-generation.acquire-timeout:PT10S}") Duration acquireTimeout,
+                             @Value("${question-generation.max-attempts:4}") int maxAttempts,
+                             @Value("${question-generation.backoff:PT1S}") Duration backoff,
+                             @Value("${question-generation.max-backoff:PT15S}") Duration maxBackoff,
+                             @Value("${question-generation.cache-size:500}") long cacheSize,
+                             @Value("${question-generation.cache-ttl:PT6H}") Duration cacheTtl) {
+        this.geminiConfig = geminiConfig;
+        this.levelRepository = levelRepository;
+        this.slots = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.acquireTimeout = acquireTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(0, backoff.toMillis());
+        this.maxBackoffMillis = Math.max(backoffMillis, maxBackoff.toMillis());
+        this.results = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    public GenerationPrompt prompt(QuestionGenerate req) {
+        int questionCount = req.getQuantity() != null ? req.getQuantity() : 1;
+        String difficulty = "";
+        if (req.getLevelId() != null) {
+            difficulty = levelRepository.findById(req.getLevelId())
+                    .map(Level::getDifficulty)
+                    .orElse("");
+        }
+        return new GenerationPrompt(MODEL, TEMPERATURE,
+                systemInstruction(questionCount, req.getType(), difficulty),
+                userPrompt(questionCount, req.getType(), difficulty));
+    }
+
+    /**
+     * Answer from the cache or call the model, blocking the caller until done.
+     */
+    public Generation generate(GenerationPrompt prompt) {
+        String key = prompt.cacheKey();
+        String cached = results.getIfPresent(key);
+        if (cached != null) {
+            return new Generation(cached, true, 0);
+        }
+
+        acquire();
+        try {
+            // Một request giống hệt có thể vừa xong trong lúc chờ slot
+            cached = results.getIfPresent(key);
+            if (cached != null) {
+                return new Generation(cached, true, 0);
+            }
+            return call(prompt, key);
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Streaming variant: {@code onChunk} receives the text as the model writes it (a cached text
+     * arrives as one chunk). Overloaded answers are retried only until the first chunk has been
+     * passed on; after that a failure ends the stream.
+     */
+    public Generation stream(GenerationPrompt prompt, Consumer<String> onChunk) {
+        String key = prompt.cacheKey();
+        String cached = results.getIfPresent(key);
+        if (cached == null) {
+            acquire();
+            try {
+                cached = results.getIfPresent(key);
+                if (cached == null) {
+                    return callStreaming(prompt, key, onChunk);
+                }
+            } finally {
+                slots.release();
+            }
+        }
+        onChunk.accept(cached);
+        return new Generation(cached, true, 0);
+    }
+
+    private void acquire() {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(OVERLOADED);
+        }
+        if (!acquired) {
+            throw new BusinessException(OVERLOADED);
+        }
+    }
+
+    private Generation call(GenerationPrompt prompt, String key) {
+        GenerateContentConfig config = config(prompt);
+        Content content = Content.fromParts(Part.fromText(prompt.userPrompt()));
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                GenerateContentResponse response = geminiConfig.generate(prompt.model(), content, config);
+                String text = response.text();
+                if (text == null || text.isBlank()) {
+                    throw new InternalServerErrorException("AI returned an empty answer");
+                }
+                results.put(key, text);
+                return new Generation(text, false, attempt);
+            } catch (ApiException ex) {
+                if (!isRetryable(ex.code())) {
+                    throw new InternalServerErrorException("AI request failed: " + ex.message());
+                }
+                if (attempt >= maxAttempts) {
+                    log.warn("Gemini still answering {} after {} attempts", ex.code(), attempt);
+                    throw new BusinessException(OVERLOADED);
+                }
+                sleep(backoff(attempt));
+            }
+        }
+    }
+
+    private Generation callStreaming(GenerationPrompt prompt, String key, Consumer<String> onChunk) {
+        GenerateContentConfig config = config(prompt);
+        Content content = Content.fromParts(Part.fromText(prompt.userPrompt()));
+
+        for (int attempt = 1; ; attempt++) {
+            StringBuilder text = new StringBuilder();
+            try {
+                geminiConfig.generateStream(prompt.model(), content, config, chunk -> {
+                    text.append(chunk);
+                    onChunk.accept(chunk);
+                });
+                if (text.isEmpty() || text.toString().isBlank()) {
+                    throw new InternalServerErrorException("AI returned an empty answer");
+                }
+                results.put(key, text.toString());
+                return new Generation(text.toString(), false, attempt);
+            } catch (ApiException ex) {
+                if (!isRetryable(ex.code())) {
+                    throw new InternalServerErrorException("AI request failed: " + ex.message());
+                }
+                if (!text.isEmpty() || attempt >= maxAttempts) {
+                    log.warn("Gemini stream stopped with {} after {} attempts", ex.code(), attempt);
+                    throw new BusinessException(OVERLOADED);
+                }
+                sleep(backoff(attempt));
+            }
+        }
+    }
+
+    private static GenerateContentConfig config(GenerationPrompt prompt) {
+        return GenerateContentConfig.builder()
+                .temperature(prompt.temperature())
+                .systemInstruction(Content.fromParts(Part.fromText(prompt.systemInstruction())))
+                .build();
+    }
+
+    static boolean isRetryable(int status) {
+        return status == 429 || status == 503;
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^(attempt-1))]
+    long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(OVERLOADED);
+        }
+    }
+
+    private static String systemInstruction(int questionCount, String type, String difficulty) {
+        return """
+        Bạn là hệ thống tạo câu hỏi trắc nghiệm chính xác cao môn Toán học lớp 10–12.
+        Sinh %d câu hỏi dựa trên dữ liệu đầu vào.
+
+        type: %s
+        difficulty: %s
+
+        Quy tắc:
+        - Mỗi câu hỏi có 2–4 phương án.
+        - Mỗi câu có thể có nhiều phương án đúng.
+        - Ở phương án đúng, thêm chữ (đúng) trong ngoặc.
+        - Cuối mỗi câu hỏi phải ghi thêm:
+          (type: {type}, difficulty: {difficulty})
+
+        Format trả về:
+        1. {question} (type: {type}, difficulty: {difficulty})
+        A. {option 1}
+        B. {option 2 (đúng nếu đúng)}
+        C. {option 3}
+        D. {option 4}
+        """
+                .formatted(questionCount, type, difficulty);
+    }
+
+    private static String userPrompt(int questionCount, String type, String difficulty) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Sinh ").append(questionCount)
+                .append(" câu hỏi theo loại ").append(type).append(".\n");
+
+        if (!difficulty.isBlank()) {
+            sb.append("Mức độ: ").append(difficulty).append(".\n");
+        }
+
+        sb.append("""
+        Mỗi câu hỏi có 2–4 phương án và chỉ có 1 phương án đúng.
+        Cuối mỗi câu hỏi phải ghi thêm (type: {type}, difficulty: {difficulty}).
+        Xuất ra đúng format đánh số câu hỏi và các lựa chọn A/B/C/D.
+        """);
+
+        return sb.toString();
+    }
+
+    /**
+     * @param attempts model calls made, 0 when answered from the cache
+     */
+    public record Generation(String text, boolean cached, int attempts) {
+    }
+}
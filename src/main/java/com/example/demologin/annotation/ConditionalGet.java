@@ -0,0 +1,20 @@
+package com.example.demologin.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Đánh dấu GET endpoint trả về dữ liệu chỉ đổi khi các entity dưới đây đổi.
+ * Response 200 mang strong ETag tính từ version của các entity đó; request gửi lại
+ * {@code If-None-Match} khớp sẽ nhận 304 từ {@code ConditionalGetFilter}
+ * mà không chạy controller, service hay truy vấn DB.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+
+    /**
+     * Entity types the response is built from; a committed change to any of them changes the ETag.
+     */
+    Class<?>[] entities();
+}
@@ -5,8 +5,48 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Cache the result of a read method; on a write endpoint, invalidate instead.
+ * All attributes are optional: with none, every argument is part of the key and
+ * only writes through the same class (or the entity events below) invalidate.
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface SmartCache {
-    // No parameters needed - fully automatic
-}
\ No newline at end of file
+
+    /**
+     * Cache name; defaults to {@code DeclaringClass.method}.
+     */
+    String name() default "";
+
+    /**
+     * SpEL key over the method arguments ({@code #id}, {@code #p0}, {@code {#page, #size}});
+     * defaults to all arguments.
+     */
+    String key() default "";
+
+    /**
+     * Entry TTL in seconds; {@code -1} uses {@code smart-cache.default-ttl}.
+     */
+    long ttlSeconds() default -1;
+
+    /**
+     * Opt-in stale-while-revalidate: once an entry is older than this many seconds it is
+     * still returned, and one background refresh replaces it. {@link #ttlSeconds()} stays
+     * the hard limit after which callers wait for a reload. {@code -1} disables it.
+     */
+    long softTtlSeconds() default -1;
+
+    /**
+     * With {@link #softTtlSeconds()}: a hit in the last part of the soft TTL
+     * ({@code smart-cache.refresh-ahead-ratio}) refreshes the entry before it goes stale,
+     * so frequently read keys never expire in front of a caller.
+     */
+    boolean refreshAhead() default false;
+
+    /**
+     * Entity types the cached value is read from. A committed insert, update or delete
+     * of any of them evicts every entry of this cache.
+     */
+    Class<?>[] entities() default {};
+}
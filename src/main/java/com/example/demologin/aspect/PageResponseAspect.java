@@ -1,6 +1,8 @@
 package com.example.demologin.aspect;
 
 import com.example.demologin.annotation.PageResponse;
+import com.example.demologin.dto.response.KeysetPage;
+import com.example.demologin.dto.response.ResponseObject;
 import org.springframework.core.MethodParameter;
 import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
@@ -30,6 +32,14 @@ public class PageResponseAspect implements ResponseBodyAdvice<Object> {
     public Object beforeBodyWrite(Object body, MethodParameter returnType,
                                   MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType,
                                   ServerHttpRequest request, ServerHttpResponse response) {
+        // Keyset pages are converted wherever they are, including inside ResponseObject.data
+        if (body instanceof KeysetPage<?> keyset) {
+            return new com.example.demologin.dto.response.PageResponse<>(keyset);
+        }
+        if (body instanceof ResponseObject wrapper && wrapper.getData() instanceof KeysetPage<?> keyset) {
+            wrapper.setData(new com.example.demologin.dto.response.PageResponse<>(keyset));
+            return wrapper;
+        }
         // Convert Spring Data Page<T> to our custom PageResponse<T>
         if (body instanceof Page<?>) {
             return new com.example.demologin.dto.response.PageResponse<>((Page<?>) body);
@@ -2,7 +2,8 @@ package com.example.demologin.aspect;
 
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.exception.exceptions.*;
-import com.example.demologin.service.RolePermissionService;
+import com.example.demologin.security.PermissionMatrix;
+import com.example.demologin.security.VerifiedToken;
 import com.example.demologin.utils.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
@@ -11,16 +12,21 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Aspect
 @Component
 @Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
 public class SecuredEndpointAspect {
 
     @Autowired
@@ -30,7 +36,10 @@ public class SecuredEndpointAspect {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private RolePermissionService rolePermissionService;
+    private PermissionMatrix permissionMatrix;
+
+    // Permission bit per endpoint method, resolved on first call
+    private final Map<Method, Integer> permissionBits = new ConcurrentHashMap<>();
 
     @Around("@within(securedEndpoint) || @annotation(securedEndpoint)")
     public Object checkSecuredEndpoint(ProceedingJoinPoint joinPoint, SecuredEndpoint securedEndpoint) throws Throwable {
@@ -43,6 +52,7 @@ public class SecuredEndpointAspect {
         }
 
         String requiredPermission = securedEndpoint.value();
+        int requiredBit = resolvePermissionBit(joinPoint, requiredPermission);
         log.debug("Checking permission: {} for method: {}", requiredPermission, joinPoint.getSignature().getName());
 
         // Check authentication
@@ -52,21 +62,29 @@ public class SecuredEndpointAspect {
             throw new UserNotAuthenticatedException("Authentication required");
         }
 
-        // Extract token
-        String token = extractTokenFromRequest();
+        // Reuse the claims verified by the JWT filter; parse only when called outside of it
+        VerifiedToken verifiedToken = (VerifiedToken) request.getAttribute(VerifiedToken.REQUEST_ATTRIBUTE);
+        String token = verifiedToken == null ? extractTokenFromRequest() : null;
 
         try {
-            // Extract roles from token
-            Set<String> userRoles = jwtUtil.extractRoles(token);
-            String username = jwtUtil.extractUsernameWithValidation(token);
-
-            // Get permissions
-            Set<String> userPermissions = rolePermissionService.getPermissionsForRoles(userRoles);
+            Set<String> userRoles;
+            String username;
+            if (verifiedToken != null) {
+                userRoles = verifiedToken.getRoles();
+                if (userRoles == null) {
+                    throw new TokenValidationException("Invalid role format in token",
+                            TokenValidationException.TokenErrorType.MISSING_PERMISSIONS);
+                }
+                username = verifiedToken.getSubject();
+            } else {
+                userRoles = jwtUtil.extractRoles(token);
+                username = jwtUtil.extractUsernameWithValidation(token);
+            }
 
-            // Check permission
-            if (!userPermissions.contains(requiredPermission)) {
-                log.warn("Permission denied for user: {} - Required: {}, Available: {}",
-                        username, requiredPermission, userPermissions);
+            // Check permission: one bitwise AND per role
+            if (!permissionMatrix.hasPermission(userRoles, requiredBit)) {
+                log.warn("Permission denied for user: {} - Required: {}, Roles: {}",
+                        username, requiredPermission, userRoles);
                 throw new AccessDenyException("Insufficient permissions");
             }
 
@@ -91,6 +109,13 @@ public class SecuredEndpointAspect {
         return securedEndpoint;
     }
 
+    private int resolvePermissionBit(ProceedingJoinPoint joinPoint, String requiredPermission) {
+        if (!(joinPoint.getSignature() instanceof MethodSignature signature) || signature.getMethod() == null) {
+            return permissionMatrix.bitOf(requiredPermission);
+        }
+        return permissionBits.computeIfAbsent(signature.getMethod(), m -> permissionMatrix.bitOf(requiredPermission));
+    }
+
     private String extractTokenFromRequest() {
         String token = request.getHeader("Authorization");
         if (token == null || !token.startsWith("Bearer ")) {
@@ -1,8 +1,12 @@
 package com.example.demologin.aspect;
 
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.cache.CacheDependencyIndex;
 import com.example.demologin.cache.CacheDetector;
-import com.example.demologin.utils.JwtUtil;
-import jakarta.servlet.http.HttpServletRequest;
+import com.example.demologin.cache.CacheInvalidationBus;
+import com.example.demologin.cache.SmartCacheKey;
+import com.example.demologin.cache.SmartCacheRefresher;
+import com.example.demologin.cache.SmartCacheStore;
 import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -10,172 +14,294 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.util.ObjectUtils;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.Set;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Runs innermost so security aspects always see the call before a cached result is returned.
+ */
 @Aspect
 @Component
 @RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE)
 public class SmartCacheAspect {
     private static final Logger logger = LoggerFactory.getLogger(SmartCacheAspect.class);
-    private static final ConcurrentMap<String, Object> CACHE = new ConcurrentHashMap<>();
-    private static final ConcurrentMap<String, AtomicLong> DATA_VERSION = new ConcurrentHashMap<>();
-    private static final AtomicLong GLOBAL_VERSION = new AtomicLong(0);
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+    // Whether a type has value semantics; others are keyed by toString() as before
+    private static final Map<Class<?>, Boolean> VALUE_TYPES = new ConcurrentHashMap<>();
 
     private final CacheDetector detector;
-    private final JwtUtil jwtUtil;
+    private final SmartCacheStore store;
+    private final CacheDependencyIndex dependencyIndex;
+    private final CacheInvalidationBus invalidationBus;
+    private final SmartCacheRefresher refresher;
+
+    @Value("${smart-cache.default-ttl:PT10M}")
+    private Duration defaultTtl = Duration.ofMinutes(10);
+
+    // How long a concurrent caller waits for another caller loading the same key
+    @Value("${smart-cache.single-flight-timeout:PT5S}")
+    private Duration singleFlightTimeout = Duration.ofSeconds(5);
+
+    // Fraction of the soft TTL after which a hit on a refreshAhead cache refreshes the entry
+    @Value("${smart-cache.refresh-ahead-ratio:0.8}")
+    private double refreshAheadRatio = 0.8;
+
+    // Annotation resolved and key expression parsed once per method
+    private final Map<Method, CacheOperation> operations = new ConcurrentHashMap<>();
+    // One load per missing key; other callers wait on it instead of hitting the database
+    private final Map<SmartCacheKey, Flight> inFlight = new ConcurrentHashMap<>();
 
     @Around("@annotation(com.example.demologin.annotation.SmartCache)")
     public Object handleCache(ProceedingJoinPoint joinPoint) throws Throwable {
-        // Generate base cache key including method parameters
-        String baseCacheKey = generateCacheKeyWithArgs(joinPoint);
-        String enhancedCacheKey = enhanceCacheKeyWithUserContext(baseCacheKey, joinPoint);
-
-        boolean isWriteOperation = detector.isWriteOperation(joinPoint);
-
-        // For read operations - check cache first
-        if (!isWriteOperation) {
-            Object cachedValue = CACHE.get(enhancedCacheKey);
-            Long currentVersion = DATA_VERSION.get(enhancedCacheKey) != null ?
-                    DATA_VERSION.get(enhancedCacheKey).get() : null;
-
-            if (cachedValue != null && currentVersion != null) {
-                logger.info("✅ [CACHE HIT] Key: {} | Version: {} | Cached Value Type: {}",
-                        enhancedCacheKey,
-                        currentVersion,
-                        cachedValue.getClass().getSimpleName());
-                return cachedValue;
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        CacheOperation operation = operations.computeIfAbsent(signature.getMethod(),
+                method -> CacheOperation.of(method, signature.getDeclaringType(), defaultTtl,
+                        refreshAheadRatio, dependencyIndex));
+
+        if (detector.isWriteOperation(joinPoint)) {
+            long startTime = System.nanoTime();
+            Object result = joinPoint.proceed();
+            handleWriteOperation(operation, (System.nanoTime() - startTime) / 1_000_000);
+            return result;
+        }
+
+        SmartCacheKey key = operation.key(joinPoint.getArgs());
+        // Read before proceeding: a write committing meanwhile makes what we load stale
+        long generation = operation.generation.get();
+        Object cached = store.get(key);
+        if (cached instanceof CachedValue value) {
+            if (value.generation == generation) {
+                // Hits are counted by the store's meters; no per-hit logging
+                if (System.nanoTime() - value.loadedAt >= operation.refreshAfterNanos) {
+                    // Past the soft TTL (or in the refresh-ahead window): serve this value, reload behind it
+                    refresher.submit(key, () -> refresh(joinPoint, operation, key));
+                }
+                return value.value;
             }
+            store.invalidate(key);
         }
 
-        // Execute original method
-        long startTime = System.currentTimeMillis();
-        Object result = joinPoint.proceed();
-        long executionTime = System.currentTimeMillis() - startTime;
+        Flight flight = new Flight(generation);
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return awaitLeader(joinPoint, operation, key, leader, generation);
+        }
+        return load(joinPoint, operation, key, flight);
+    }
+
+    private Object load(ProceedingJoinPoint joinPoint, CacheOperation operation, SmartCacheKey key,
+                        Flight flight) throws Throwable {
+        try {
+            long startTime = System.nanoTime();
+            Object result = joinPoint.proceed();
+            // Stored before waiters are released, so late callers hit the cache instead of reloading
+            handleReadOperation(operation, key, result, flight.generation, (System.nanoTime() - startTime) / 1_000_000);
+            flight.result.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            flight.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
 
-        // For write operations - update versions
-        if (isWriteOperation) {
-            handleWriteOperation(enhancedCacheKey, joinPoint, executionTime);
-        } else {
-            handleReadOperation(enhancedCacheKey, result, executionTime);
+    private Object awaitLeader(ProceedingJoinPoint joinPoint, CacheOperation operation, SmartCacheKey key,
+                               Flight leader, long generation) throws Throwable {
+        // A load started before the last invalidation may return stale data; re-entrant calls would deadlock
+        if (leader.generation != generation || leader.thread == Thread.currentThread()) {
+            return proceedUncoalesced(joinPoint, operation, key, generation);
         }
+        try {
+            return leader.result.get(singleFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        } catch (TimeoutException ex) {
+            logger.warn("[CACHE] Waited {}ms for in-flight load of {}, loading directly",
+                    singleFlightTimeout.toMillis(), key);
+            return proceedUncoalesced(joinPoint, operation, key, generation);
+        }
+    }
 
+    private Object proceedUncoalesced(ProceedingJoinPoint joinPoint, CacheOperation operation, SmartCacheKey key,
+                                      long generation) throws Throwable {
+        long startTime = System.nanoTime();
+        Object result = joinPoint.proceed();
+        handleReadOperation(operation, key, result, generation, (System.nanoTime() - startTime) / 1_000_000);
         return result;
     }
 
-    private String generateCacheKeyWithArgs(ProceedingJoinPoint joinPoint) {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Object[] args = joinPoint.getArgs();
-        String argsKey = "";
-        if (args != null && args.length > 0) {
-            argsKey = ":" + Arrays.stream(args)
-                    .map(arg -> {
-                        if (arg != null) {
-                            // Handle arrays and collections for better cache key generation
-                            if (arg.getClass().isArray()) {
-                                return Arrays.toString((Object[]) arg);
-                            } else if (arg instanceof java.util.Collection) {
-                                return ((java.util.Collection<?>) arg).toString();
-                            }
-                            return arg.toString();
-                        }
-                        return "null";
-                    })
-                    .reduce((a, b) -> a + "," + b)
-                    .orElse("");
-        }
-        return signature.getDeclaringType().getSimpleName() +
-                ":" +
-                signature.getMethod().getName() +
-                argsKey;
+    private void refresh(ProceedingJoinPoint joinPoint, CacheOperation operation, SmartCacheKey key) {
+        long generation = operation.generation.get();
+        long startTime = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+        handleReadOperation(operation, key, result, generation, (System.nanoTime() - startTime) / 1_000_000);
     }
 
-    private String enhanceCacheKeyWithUserContext(String baseCacheKey, ProceedingJoinPoint joinPoint) {
-        // Only enhance cache key for permission-related methods
-        if (baseCacheKey.contains("RolePermissionServiceImpl") &&
-                baseCacheKey.contains("getPermissionsForRoles")) {
-            try {
-                HttpServletRequest request =
-                        ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
-                                .getRequest();
-
-                if (request != null) {
-                    String token = request.getHeader("Authorization");
-                    if (token != null && token.startsWith("Bearer ")) {
-                        Set<String> roles = jwtUtil.extractRoles(token.substring(7));
-                        return baseCacheKey + ":roles=" + String.join(",", roles);
-                    }
-                }
-            } catch (IllegalStateException e) {
-                logger.warn("No request bound to current thread, using basic cache key");
-            } catch (Exception e) {
-                logger.warn("Could not extract user roles for cache key enhancement", e);
-            }
+    private void handleWriteOperation(CacheOperation operation, long executionTime) {
+        // Caches on the same class, then every cache reading the declared entities
+        invalidationBus.invalidateOwner(operation.owner);
+        for (Class<?> entity : operation.entities) {
+            invalidationBus.invalidateEntity(entity);
         }
-        return baseCacheKey;
+        logger.debug("[CACHE INVALIDATED] Owner: {} | Entities: {} | Execution Time: {}ms",
+                operation.owner.getSimpleName(), Arrays.toString(operation.entities), executionTime);
     }
 
-    private void handleWriteOperation(String cacheKey, ProceedingJoinPoint joinPoint, long executionTime) {
-        long newVersion = GLOBAL_VERSION.incrementAndGet();
-        Set<String> relatedCacheKeys = detector.getRelatedCacheKeys(joinPoint);
+    private void handleReadOperation(CacheOperation operation, SmartCacheKey key, Object result,
+                                     long generation, long executionTime) {
+        if (result == null) {
+            return;
+        }
+        store.put(key, new CachedValue(result, generation, System.nanoTime()), operation.ttl);
+        logger.debug("[CACHE STORED] Key: {} | Execution Time: {}ms | Value Type: {}",
+                key, executionTime, result.getClass().getSimpleName());
+    }
 
-        // Invalidate all related caches
-        for (String relatedKey : relatedCacheKeys) {
-            DATA_VERSION.computeIfAbsent(relatedKey, k -> new AtomicLong(0))
-                    .set(newVersion);
-            CACHE.remove(relatedKey);
+    // Method to manually clear cache
+    public void clearCache(String cacheName) {
+        invalidationBus.invalidateCache(cacheName);
+    }
+
+    // Method to get cache statistics
+    public String getCacheStats() {
+        return String.format("Cache size: %d, Caches: %d", store.estimatedSize(), operations.size());
+    }
+
+    private record CachedValue(Object value, long generation, long loadedAt) {
+    }
+
+    private static final class Flight {
+        final long generation;
+        final Thread thread = Thread.currentThread();
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(long generation) {
+            this.generation = generation;
         }
+    }
 
-        // Also invalidate the current operation's cache
-        DATA_VERSION.computeIfAbsent(cacheKey, k -> new AtomicLong(0))
-                .set(newVersion);
-        CACHE.remove(cacheKey);
+    private static final class CacheOperation {
+        final String name;
+        final Class<?> owner;
+        final Method method;
+        final Expression keyExpression;
+        final Duration ttl;
+        // Age at which a hit triggers a background refresh; Long.MAX_VALUE when not enabled
+        final long refreshAfterNanos;
+        final Class<?>[] entities;
+        final AtomicLong generation;
 
-        // Special handling for permission updates - invalidate all permission caches
-        if (cacheKey.contains("updatePermissions")) {
-            CACHE.keySet().stream()
-                    .filter(key -> key.contains("getPermissionsForRoles"))
-                    .forEach(CACHE::remove);
+        private CacheOperation(String name, Class<?> owner, Method method, Expression keyExpression,
+                               Duration ttl, long refreshAfterNanos, Class<?>[] entities, AtomicLong generation) {
+            this.name = name;
+            this.owner = owner;
+            this.method = method;
+            this.keyExpression = keyExpression;
+            this.ttl = ttl;
+            this.refreshAfterNanos = refreshAfterNanos;
+            this.entities = entities;
+            this.generation = generation;
+        }
 
-            DATA_VERSION.keySet().stream()
-                    .filter(key -> key.contains("getPermissionsForRoles"))
-                    .forEach(key -> DATA_VERSION.computeIfAbsent(key, k -> new AtomicLong(0)).set(newVersion));
+        static CacheOperation of(Method method, Class<?> declaringType, Duration defaultTtl,
+                                 double refreshAheadRatio, CacheDependencyIndex dependencyIndex) {
+            SmartCache annotation = AnnotatedElementUtils.findMergedAnnotation(method, SmartCache.class);
+            String name = annotation != null && !annotation.name().isEmpty()
+                    ? annotation.name()
+                    : declaringType.getSimpleName() + "." + method.getName();
+            Expression keyExpression = annotation != null && !annotation.key().isEmpty()
+                    ? PARSER.parseExpression(annotation.key())
+                    : null;
+            Duration ttl = annotation != null && annotation.ttlSeconds() > 0
+                    ? Duration.ofSeconds(annotation.ttlSeconds())
+                    : defaultTtl;
+            long refreshAfterNanos = Long.MAX_VALUE;
+            if (annotation != null && annotation.softTtlSeconds() > 0) {
+                refreshAfterNanos = TimeUnit.SECONDS.toNanos(annotation.softTtlSeconds());
+                if (annotation.refreshAhead()) {
+                    refreshAfterNanos = (long) (refreshAfterNanos * refreshAheadRatio);
+                }
+            }
+            Class<?>[] entities = annotation != null ? annotation.entities() : new Class<?>[0];
+            AtomicLong generation = dependencyIndex.register(name, declaringType, entities);
+            return new CacheOperation(name, declaringType, method, keyExpression, ttl, refreshAfterNanos,
+                    entities, generation);
         }
 
-        logger.info("🔄 [CACHE INVALIDATED] Key: {} and Related Keys: {} | New Version: {} | Execution Time: {}ms",
-                cacheKey, relatedCacheKeys, newVersion, executionTime);
-    }
+        SmartCacheKey key(Object[] args) {
+            if (keyExpression == null) {
+                return new SmartCacheKey(name, normalize(args));
+            }
+            MethodBasedEvaluationContext context =
+                    new MethodBasedEvaluationContext(null, method, args, PARAMETER_NAMES);
+            Object value = keyExpression.getValue(context);
+            if (value instanceof Collection<?> parts) {
+                return new SmartCacheKey(name, normalize(parts.toArray()));
+            }
+            return new SmartCacheKey(name, normalizePart(value));
+        }
 
-    private void handleReadOperation(String cacheKey, Object result, long executionTime) {
-        if (!CACHE.containsKey(cacheKey)) {
-            DATA_VERSION.computeIfAbsent(cacheKey, k -> new AtomicLong(GLOBAL_VERSION.get()));
-            CACHE.put(cacheKey, result);
-            logger.info("📥 [CACHE STORED] Key: {} | Version: {} | Execution Time: {}ms | Value Type: {}",
-                    cacheKey,
-                    DATA_VERSION.get(cacheKey).get(),
-                    executionTime,
-                    result.getClass().getSimpleName());
+        private static Object[] normalize(Object[] args) {
+            if (args == null || args.length == 0) {
+                return new Object[0];
+            }
+            Object[] parts = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                parts[i] = normalizePart(args[i]);
+            }
+            return parts;
         }
-    }
 
-    // Method to manually clear cache
-    public static void clearCacheForKeys(String... keys) {
-        for (String key : keys) {
-            CACHE.remove(key);
-            DATA_VERSION.remove(key);
+        private static Object normalizePart(Object arg) {
+            if (arg == null) {
+                return null;
+            }
+            if (arg.getClass().isArray()) {
+                return ObjectUtils.nullSafeToString(arg);
+            }
+            return hasValueSemantics(arg.getClass()) ? arg : arg.toString();
         }
-    }
 
-    // Method to get cache statistics
-    public static String getCacheStats() {
-        return String.format("Cache size: %d, Data versions: %d, Global version: %d",
-                CACHE.size(), DATA_VERSION.size(), GLOBAL_VERSION.get());
+        private static boolean hasValueSemantics(Class<?> type) {
+            return VALUE_TYPES.computeIfAbsent(type, t -> {
+                try {
+                    return t.getMethod("equals", Object.class).getDeclaringClass() != Object.class
+                            && t.getMethod("hashCode").getDeclaringClass() != Object.class;
+                } catch (NoSuchMethodException e) {
+                    return false;
+                }
+            });
+        }
     }
-}
\ No newline at end of file
+}
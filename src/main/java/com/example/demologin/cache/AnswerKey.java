@@ -0,0 +1,136 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.dto.request.exam.AnswerPayload;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Đáp án của một đề, biên dịch cùng {@link ExamPaper}.
+ * <p>
+ * Question ids are kept sorted in a {@code long[]}; the correct option ids of question {@code i}
+ * are {@code correctIds[correctStart[i] .. correctStart[i + 1])}, also sorted. Grading is a
+ * binary search per answer plus two scans over the (few) chosen and correct ids, so it touches
+ * no database and allocates nothing per answer.
+ * <p>
+ * Rules are the ones submitAttempt always used: an answer counts when the set of chosen ids
+ * equals the set of correct ids (duplicates ignored, nothing missing, nothing extra), answers to
+ * questions outside the exam are skipped, and a question without a score is worth 1.
+ */
+public final class AnswerKey {
+
+    private final long[] questionIds;
+    private final double[] scores;
+    private final int[] correctStart;
+    private final long[] correctIds;
+    private final double maxScore;
+
+    /**
+     * @param entries questions in paper order; {@link #maxScore()} is summed in this order
+     */
+    public AnswerKey(List<Entry> entries) {
+        int count = entries.size();
+        double max = 0.0;
+        for (Entry entry : entries) {
+            max += scoreOf(entry.score());
+        }
+        maxScore = max;
+
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.questionId(), b.questionId()));
+        questionIds = new long[count];
+        scores = new double[count];
+        correctStart = new int[count + 1];
+        int total = 0;
+        for (Entry entry : sorted) {
+            total += entry.correctOptionIds().length;
+        }
+        correctIds = new long[total];
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            Entry entry = sorted[i];
+            questionIds[i] = entry.questionId();
+            scores[i] = scoreOf(entry.score());
+            correctStart[i] = next;
+            long[] correct = entry.correctOptionIds();
+            System.arraycopy(correct, 0, correctIds, next, correct.length);
+            Arrays.sort(correctIds, next, next + correct.length);
+            next += correct.length;
+        }
+        correctStart[count] = next;
+    }
+
+    public int questionCount() {
+        return questionIds.length;
+    }
+
+    public double maxScore() {
+        return maxScore;
+    }
+
+    public boolean contains(long questionId) {
+        return Arrays.binarySearch(questionIds, questionId) >= 0;
+    }
+
+    public Result grade(List<AnswerPayload> answers) {
+        int totalCorrect = 0;
+        double totalScore = 0.0;
+        if (answers != null) {
+            for (AnswerPayload answer : answers) {
+                Long questionId = answer.getQuestionId();
+                int position = questionId == null ? -1 : Arrays.binarySearch(questionIds, questionId);
+                if (position < 0) {
+                    continue; // câu không thuộc đề
+                }
+                if (matches(position, answer.getSelectedOptionIds())) {
+                    totalCorrect++;
+                    totalScore += scores[position];
+                }
+            }
+        }
+        return new Result(questionIds.length, totalCorrect, totalScore, maxScore);
+    }
+
+    private boolean matches(int position, List<Long> chosen) {
+        int from = correctStart[position];
+        int to = correctStart[position + 1];
+        int size = chosen == null ? 0 : chosen.size();
+        // Mọi lựa chọn đều phải là đáp án đúng...
+        for (int i = 0; i < size; i++) {
+            Long id = chosen.get(i);
+            if (id == null || Arrays.binarySearch(correctIds, from, to, id) < 0) {
+                return false;
+            }
+        }
+        // ...và mọi đáp án đúng đều phải được chọn
+        for (int c = from; c < to; c++) {
+            if (!contains(chosen, size, correctIds[c])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(List<Long> chosen, int size, long id) {
+        for (int i = 0; i < size; i++) {
+            if (chosen.get(i) == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double scoreOf(Double score) {
+        return score == null ? 1.0 : score;
+    }
+
+    /**
+     * @param score            null means 1 point
+     * @param correctOptionIds any order; not kept
+     */
+    public record Entry(long questionId, Double score, long[] correctOptionIds) {
+    }
+
+    public record Result(int totalQuestions, int totalCorrect, double totalScore, double maxScore) {
+    }
+}
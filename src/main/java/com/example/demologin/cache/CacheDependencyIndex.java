@@ -0,0 +1,131 @@
+package com.example.demologin.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks which {@code @SmartCache} caches depend on which entity types, and one generation
+ * counter per cache. Invalidating a cache bumps its generation; entries stored under an older
+ * generation are treated as misses, so eviction is O(1) however many entries the cache holds.
+ */
+@Component
+@Slf4j
+public class CacheDependencyIndex {
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> owners = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>[]> dependencies = new ConcurrentHashMap<>();
+    // Resolved lazily per concrete entity class; cleared when a cache registers
+    private final Map<Class<?>, List<AtomicLong>> dependentsByEntity = new ConcurrentHashMap<>();
+    // Bumped on every committed change of the exact entity class (HTTP validators build on these)
+    private final Map<Class<?>, AtomicLong> entityVersions = new ConcurrentHashMap<>();
+    // The part of entityVersions caused by changes committed on other nodes
+    private final Map<Class<?>, AtomicLong> remoteEntityVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Register a cache (idempotent) and return its generation counter.
+     */
+    public AtomicLong register(String cacheName, Class<?> owner, Class<?>[] entities) {
+        AtomicLong generation = generations.get(cacheName);
+        if (generation != null) {
+            return generation;
+        }
+        synchronized (this) {
+            generation = generations.get(cacheName);
+            if (generation == null) {
+                owners.put(cacheName, owner);
+                dependencies.put(cacheName, entities.clone());
+                generation = new AtomicLong();
+                generations.put(cacheName, generation);
+                dependentsByEntity.clear();
+            }
+            return generation;
+        }
+    }
+
+    public long generation(String cacheName) {
+        AtomicLong generation = generations.get(cacheName);
+        return generation == null ? 0 : generation.get();
+    }
+
+    public void invalidateCache(String cacheName) {
+        AtomicLong generation = generations.get(cacheName);
+        if (generation != null) {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Invalidate every cache declared on {@code owner}.
+     */
+    public void invalidateOwner(Class<?> owner) {
+        owners.forEach((name, cacheOwner) -> {
+            if (cacheOwner == owner) {
+                invalidateCache(name);
+            }
+        });
+    }
+
+    /**
+     * Invalidate every cache that declared {@code entityClass} (or a supertype) as a dependency.
+     */
+    public void invalidateEntity(Class<?> entityClass) {
+        List<AtomicLong> dependents = dependentsByEntity.get(entityClass);
+        if (dependents == null) {
+            // Resolve under the registration lock so a concurrent register cannot be missed
+            synchronized (this) {
+                dependents = dependentsByEntity.computeIfAbsent(entityClass, this::resolveDependents);
+            }
+        }
+        for (AtomicLong generation : dependents) {
+            generation.incrementAndGet();
+        }
+        // Last, so whoever sees the new version also misses the caches bumped above
+        entityVersions.computeIfAbsent(entityClass, type -> new AtomicLong()).incrementAndGet();
+        if (!dependents.isEmpty()) {
+            log.debug("Entity {} changed, invalidated {} caches", entityClass.getSimpleName(), dependents.size());
+        }
+    }
+
+    /**
+     * {@link #invalidateEntity} for a change committed on another node. In-memory structures that
+     * apply this node's writes themselves only need to reload when {@link #remoteEntityVersion} moves.
+     */
+    public void invalidateRemoteEntity(Class<?> entityClass) {
+        remoteEntityVersions.computeIfAbsent(entityClass, type -> new AtomicLong()).incrementAndGet();
+        invalidateEntity(entityClass);
+    }
+
+    public long entityVersion(Class<?> entityClass) {
+        AtomicLong version = entityVersions.get(entityClass);
+        return version == null ? 0 : version.get();
+    }
+
+    public long remoteEntityVersion(Class<?> entityClass) {
+        AtomicLong version = remoteEntityVersions.get(entityClass);
+        return version == null ? 0 : version.get();
+    }
+
+    public Map<String, Class<?>[]> dependencies() {
+        return Map.copyOf(dependencies);
+    }
+
+    private List<AtomicLong> resolveDependents(Class<?> entityClass) {
+        List<AtomicLong> dependents = new ArrayList<>();
+        dependencies.forEach((name, entities) -> {
+            for (Class<?> entity : entities) {
+                if (entity.isAssignableFrom(entityClass)) {
+                    dependents.add(generations.get(name));
+                    break;
+                }
+            }
+        });
+        return List.copyOf(dependents);
+    }
+}
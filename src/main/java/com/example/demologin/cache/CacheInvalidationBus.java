@@ -0,0 +1,172 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.annotation.ConditionalGet;
+import com.example.demologin.annotation.SmartCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entry point for every {@code @SmartCache} invalidation. Applies it to the local
+ * {@link CacheDependencyIndex} at once and publishes it to the other nodes through the
+ * {@link CacheInvalidationTransport}. Publication is batched and de-duplicated every
+ * {@code smart-cache.invalidation.flush-interval-ms}, off the writer's thread and transaction.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus {
+
+    private final CacheDependencyIndex dependencyIndex;
+    private final CacheInvalidationTransport transport;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Guarded by itself
+    private final Set<CacheInvalidationEvent> outbox = new LinkedHashSet<>();
+    private final Map<String, Class<?>> remoteClasses = new ConcurrentHashMap<>();
+    // Entity types some @SmartCache depends on; null until scanned, then only these are published
+    private volatile Set<Class<?>> declaredEntities;
+    private final Map<Class<?>, Boolean> publishedEntities = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBus(CacheDependencyIndex dependencyIndex, CacheInvalidationTransport transport) {
+        this.dependencyIndex = dependencyIndex;
+        this.transport = transport;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        transport.subscribe(this::applyRemote);
+    }
+
+    public void invalidateCache(String cacheName) {
+        dependencyIndex.invalidateCache(cacheName);
+        enqueue(CacheInvalidationEvent.Kind.CACHE, cacheName);
+    }
+
+    public void invalidateOwner(Class<?> owner) {
+        dependencyIndex.invalidateOwner(owner);
+        enqueue(CacheInvalidationEvent.Kind.OWNER, owner.getName());
+    }
+
+    public void invalidateEntity(Class<?> entityClass) {
+        dependencyIndex.invalidateEntity(entityClass);
+        if (isDeclared(entityClass)) {
+            enqueue(CacheInvalidationEvent.Kind.ENTITY, entityClass.getName());
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${smart-cache.invalidation.flush-interval-ms:100}")
+    public void flush() {
+        List<CacheInvalidationEvent> batch;
+        synchronized (outbox) {
+            if (outbox.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(outbox);
+            outbox.clear();
+        }
+        try {
+            transport.publish(batch);
+        } catch (RuntimeException ex) {
+            // Retried on the next flush; other nodes stay stale until then (at most the hard TTL)
+            log.warn("[CACHE] Publishing {} invalidations failed: {}", batch.size(), ex.getMessage());
+            synchronized (outbox) {
+                outbox.addAll(batch);
+            }
+        }
+    }
+
+    /**
+     * Collect the entity types declared on {@code @SmartCache} and {@code @ConditionalGet} methods
+     * of all beans, so changes
+     * to other entities (tokens, logs, ...) are not published. Caches register lazily, so the
+     * local index alone cannot tell what other nodes depend on.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void scanDeclaredEntities(ContextRefreshedEvent event) {
+        ListableBeanFactory beanFactory = event.getApplicationContext();
+        Set<Class<?>> entities = new HashSet<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> type = beanFactory.getType(beanName, false);
+            if (type == null) {
+                continue;
+            }
+            ReflectionUtils.doWithMethods(ClassUtils.getUserClass(type), method -> {
+                SmartCache annotation = AnnotatedElementUtils.findMergedAnnotation(method, SmartCache.class);
+                if (annotation != null) {
+                    entities.addAll(List.of(annotation.entities()));
+                }
+                ConditionalGet conditionalGet = AnnotatedElementUtils.findMergedAnnotation(method, ConditionalGet.class);
+                if (conditionalGet != null) {
+                    entities.addAll(List.of(conditionalGet.entities()));
+                }
+            });
+        }
+        declaredEntities = Set.copyOf(entities);
+        publishedEntities.clear();
+        log.info("[CACHE] Publishing invalidations for {} entity types", entities.size());
+    }
+
+    void applyRemote(List<CacheInvalidationEvent> events) {
+        for (CacheInvalidationEvent event : events) {
+            if (nodeId.equals(event.origin())) {
+                continue;
+            }
+            switch (event.kind()) {
+                case CACHE -> dependencyIndex.invalidateCache(event.target());
+                case OWNER -> resolve(event.target()).ifPresent(dependencyIndex::invalidateOwner);
+                case ENTITY -> resolve(event.target()).ifPresent(dependencyIndex::invalidateRemoteEntity);
+            }
+        }
+    }
+
+    private void enqueue(CacheInvalidationEvent.Kind kind, String target) {
+        synchronized (outbox) {
+            outbox.add(new CacheInvalidationEvent(kind, target, nodeId));
+        }
+    }
+
+    private boolean isDeclared(Class<?> entityClass) {
+        Set<Class<?>> declared = declaredEntities;
+        if (declared == null) {
+            return true;
+        }
+        return publishedEntities.computeIfAbsent(entityClass, type ->
+                declared.stream().anyMatch(entity -> entity.isAssignableFrom(type)));
+    }
+
+    private Optional<Class<?>> resolve(String className) {
+        Class<?> type = remoteClasses.computeIfAbsent(className, name -> {
+            try {
+                return ClassUtils.forName(name, getClass().getClassLoader());
+            } catch (ClassNotFoundException | LinkageError ex) {
+                // Raised by a node running another version of the code
+                log.warn("[CACHE] Ignoring invalidation for unknown class {}", name);
+                return Void.class;
+            }
+        });
+        return type == Void.class ? Optional.empty() : Optional.of(type);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demologin.cache;
+
+/**
+ * One invalidation as it travels between nodes.
+ *
+ * @param target cache name for {@link Kind#CACHE}, fully qualified class name otherwise
+ * @param origin id of the node that raised (and already applied) it
+ */
+public record CacheInvalidationEvent(Kind kind, String target, String origin) {
+
+    public enum Kind {
+        // One cache by name
+        CACHE,
+        // Every cache declared on a class, after a write method on it
+        OWNER,
+        // Every cache depending on an entity type, after a committed change
+        ENTITY
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demologin.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link CacheInvalidationEvent}s between nodes. The default implementation is the
+ * {@code cache_invalidation_log} table; a message broker can replace it by providing another
+ * bean and setting {@code smart-cache.invalidation.transport}.
+ * Delivery is at-least-once and may include this node's own events.
+ */
+public interface CacheInvalidationTransport {
+
+    void publish(List<CacheInvalidationEvent> events);
+
+    /**
+     * Register the receiver of events from all nodes, in batches.
+     */
+    void subscribe(Consumer<List<CacheInvalidationEvent>> receiver);
+}
@@ -0,0 +1,99 @@
+package com.example.demologin.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Default {@link SmartCacheStore}: a Caffeine cache (W-TinyLFU admission and eviction)
+ * bounded by the estimated retained bytes of its entries, with a TTL per entry.
+ * Hit, miss, eviction and weight meters are published as {@code cache.*{cache=smartCache}}.
+ */
+@Component
+@Slf4j
+public class CaffeineSmartCacheStore implements SmartCacheStore {
+
+    static final String CACHE_NAME = "smartCache";
+
+    private final Cache<Object, Entry> cache;
+
+    public CaffeineSmartCacheStore(MeterRegistry meterRegistry,
+                                   @Value("${smart-cache.max-weight-bytes:67108864}") long maxWeightBytes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Object key, Entry entry) -> entry.weight)
+                .expireAfter(new Expiry<Object, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Object key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Object key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Object key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        log.info("SmartCache store bounded at {} bytes", maxWeightBytes);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public void put(Object key, Object value, Duration ttl) {
+        if (value == null) {
+            return;
+        }
+        long bytes = ObjectSizeEstimator.estimate(key) + ObjectSizeEstimator.estimate(value);
+        int weight = (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes));
+        cache.put(key, new Entry(value, weight, ttl.toNanos()));
+    }
+
+    @Override
+    public void invalidate(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void invalidateIf(Predicate<Object> keyFilter) {
+        cache.asMap().keySet().removeIf(keyFilter);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public long weightedSize() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private record Entry(Object value, int weight, long ttlNanos) {
+    }
+}
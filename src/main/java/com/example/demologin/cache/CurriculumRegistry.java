@@ -0,0 +1,115 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
+import com.example.demologin.repository.ChapterRepository;
+import com.example.demologin.repository.GradeRepository;
+import com.example.demologin.repository.LessonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Holds the current {@link CurriculumSnapshot} and swaps in a new one when Grade, Chapter or
+ * Lesson change.
+ * <p>
+ * Staleness is detected from the per-entity versions of {@link CacheDependencyIndex}, which
+ * committed Hibernate changes (local or from other nodes through the invalidation bus) bump.
+ * Reads are a volatile read plus three counter reads; a rebuild runs three scalar queries in
+ * its own read-only transaction, so it never sees a caller's uncommitted rows.
+ */
+@Component
+@Slf4j
+public class CurriculumRegistry {
+
+    // Other nodes' changes arrive with the bus poll delay; a miss may force a reload this often
+    private static final long MISS_RELOAD_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final GradeRepository gradeRepository;
+    private final ChapterRepository chapterRepository;
+    private final LessonRepository lessonRepository;
+    private final CacheDependencyIndex dependencyIndex;
+    private final TransactionTemplate readTransaction;
+
+    private volatile CurriculumSnapshot snapshot = CurriculumSnapshot.EMPTY;
+    private volatile long lastMissReload = System.nanoTime() - MISS_RELOAD_INTERVAL_NANOS;
+
+    public CurriculumRegistry(GradeRepository gradeRepository,
+                              ChapterRepository chapterRepository,
+                              LessonRepository lessonRepository,
+                              CacheDependencyIndex dependencyIndex,
+                              PlatformTransactionManager transactionManager) {
+        this.gradeRepository = gradeRepository;
+        this.chapterRepository = chapterRepository;
+        this.lessonRepository = lessonRepository;
+        this.dependencyIndex = dependencyIndex;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * The snapshot reflecting every committed curriculum change this node has been told about.
+     */
+    public CurriculumSnapshot current() {
+        CurriculumSnapshot current = snapshot;
+        long version = version();
+        return current.version() == version ? current : reload(version, false);
+    }
+
+    /**
+     * Like {@link #current()}, but when {@code complete} rejects the snapshot (e.g. an id was
+     * not found) it is rebuilt from the database, at most once per second, in case the change
+     * was committed on another node and its invalidation is still in flight.
+     */
+    public CurriculumSnapshot current(Predicate<CurriculumSnapshot> complete) {
+        CurriculumSnapshot current = current();
+        if (complete.test(current) || System.nanoTime() - lastMissReload < MISS_RELOAD_INTERVAL_NANOS) {
+            return current;
+        }
+        return reload(version(), true);
+    }
+
+    private synchronized CurriculumSnapshot reload(long version, boolean force) {
+        CurriculumSnapshot current = snapshot;
+        if (force) {
+            if (System.nanoTime() - lastMissReload < MISS_RELOAD_INTERVAL_NANOS) {
+                return current;
+            }
+            lastMissReload = System.nanoTime();
+        } else if (current.version() >= version) {
+            return current;
+        }
+        // The version is read before loading: a change committed meanwhile triggers another reload
+        CurriculumSnapshot loaded = readTransaction.execute(status -> load(version));
+        snapshot = loaded;
+        log.debug("Curriculum snapshot v{} loaded", version);
+        return loaded;
+    }
+
+    private CurriculumSnapshot load(long version) {
+        List<CurriculumSnapshot.Grade> grades = gradeRepository.findCurriculumRows().stream()
+                .map(row -> new CurriculumSnapshot.Grade(row.getId(), row.getGradeNumber(), row.getDescription()))
+                .toList();
+        List<CurriculumSnapshot.Chapter> chapters = chapterRepository.findCurriculumRows().stream()
+                .map(row -> new CurriculumSnapshot.Chapter(row.getId(), row.getGradeId(), row.getName(), row.getOrderNo()))
+                .toList();
+        List<CurriculumSnapshot.Lesson> lessons = lessonRepository.findCurriculumRows().stream()
+                .map(row -> new CurriculumSnapshot.Lesson(row.getId(), row.getChapterId(), row.getLessonName()))
+                .toList();
+        return new CurriculumSnapshot(version, grades, chapters, lessons);
+    }
+
+    private long version() {
+        return dependencyIndex.entityVersion(Grade.class)
+                + dependencyIndex.entityVersion(Chapter.class)
+                + dependencyIndex.entityVersion(Lesson.class);
+    }
+}
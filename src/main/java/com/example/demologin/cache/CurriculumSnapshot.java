@@ -0,0 +1,320 @@
+package com.example.demologin.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable read model of the curriculum hierarchy (Grade → Chapter → Lesson).
+ * <p>
+ * Each level is stored as parallel arrays in id order, with an id → position index that is a
+ * plain {@code int[]} when ids are dense. Children are laid out contiguously per parent
+ * (chapters by {@code orderNo}, lessons by id), so hierarchy checks are array reads and
+ * walking the tree allocates nothing beyond the returned views. A new snapshot is built and
+ * swapped in whole by {@link CurriculumRegistry}; instances are never modified.
+ */
+public final class CurriculumSnapshot {
+
+    public static final CurriculumSnapshot EMPTY = new CurriculumSnapshot(-1, List.of(), List.of(), List.of());
+
+    private final long version;
+
+    private final long[] gradeIds;
+    private final Integer[] gradeNumbers;
+    private final String[] gradeDescriptions;
+
+    private final long[] chapterIds;
+    private final int[] chapterGrade;
+    private final String[] chapterNames;
+    private final Integer[] chapterOrderNos;
+
+    private final long[] lessonIds;
+    private final int[] lessonChapter;
+    private final String[] lessonNames;
+
+    // gradeChapters[gradeChapterStart[g] .. gradeChapterStart[g + 1]) are the chapter positions of grade g
+    private final int[] gradeChapterStart;
+    private final int[] gradeChapters;
+    private final int[] chapterLessonStart;
+    private final int[] chapterLessons;
+
+    private final IdIndex gradeIndex;
+    private final IdIndex chapterIndex;
+    private final IdIndex lessonIndex;
+
+    /**
+     * Rows must be sorted by id. A child whose parent is missing is kept (so lookups by its id
+     * still work) but does not appear under any parent.
+     */
+    public CurriculumSnapshot(long version, List<Grade> grades, List<Chapter> chapters, List<Lesson> lessons) {
+        this.version = version;
+
+        int gradeCount = grades.size();
+        gradeIds = new long[gradeCount];
+        gradeNumbers = new Integer[gradeCount];
+        gradeDescriptions = new String[gradeCount];
+        for (int i = 0; i < gradeCount; i++) {
+            Grade grade = grades.get(i);
+            gradeIds[i] = grade.id();
+            gradeNumbers[i] = grade.gradeNumber();
+            gradeDescriptions[i] = grade.description();
+        }
+        gradeIndex = IdIndex.of(gradeIds);
+
+        int chapterCount = chapters.size();
+        chapterIds = new long[chapterCount];
+        chapterGrade = new int[chapterCount];
+        chapterNames = new String[chapterCount];
+        chapterOrderNos = new Integer[chapterCount];
+        for (int i = 0; i < chapterCount; i++) {
+            Chapter chapter = chapters.get(i);
+            chapterIds[i] = chapter.id();
+            chapterGrade[i] = gradeIndex.positionOf(chapter.gradeId());
+            chapterNames[i] = chapter.name();
+            chapterOrderNos[i] = chapter.orderNo();
+        }
+        chapterIndex = IdIndex.of(chapterIds);
+
+        int lessonCount = lessons.size();
+        lessonIds = new long[lessonCount];
+        lessonChapter = new int[lessonCount];
+        lessonNames = new String[lessonCount];
+        for (int i = 0; i < lessonCount; i++) {
+            Lesson lesson = lessons.get(i);
+            lessonIds[i] = lesson.id();
+            lessonChapter[i] = chapterIndex.positionOf(lesson.chapterId());
+            lessonNames[i] = lesson.lessonName();
+        }
+        lessonIndex = IdIndex.of(lessonIds);
+
+        gradeChapterStart = new int[gradeCount + 1];
+        gradeChapters = group(chapterGrade, gradeChapterStart);
+        // Within a grade, chapters follow orderNo (nulls last), then id
+        for (int g = 0; g < gradeCount; g++) {
+            sortRange(gradeChapters, gradeChapterStart[g], gradeChapterStart[g + 1]);
+        }
+        chapterLessonStart = new int[chapterCount + 1];
+        chapterLessons = group(lessonChapter, chapterLessonStart);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public boolean containsGrade(Long gradeId) {
+        return gradeIndex.positionOf(gradeId) >= 0;
+    }
+
+    public boolean containsChapter(Long chapterId) {
+        return chapterIndex.positionOf(chapterId) >= 0;
+    }
+
+    public boolean containsLesson(Long lessonId) {
+        return lessonIndex.positionOf(lessonId) >= 0;
+    }
+
+    /**
+     * @return the grade of the chapter, or null if the chapter or its grade is unknown
+     */
+    public Long gradeIdOfChapter(Long chapterId) {
+        int chapter = chapterIndex.positionOf(chapterId);
+        return chapter < 0 || chapterGrade[chapter] < 0 ? null : gradeIds[chapterGrade[chapter]];
+    }
+
+    /**
+     * @return the chapter of the lesson, or null if the lesson or its chapter is unknown
+     */
+    public Long chapterIdOfLesson(Long lessonId) {
+        int lesson = lessonIndex.positionOf(lessonId);
+        return lesson < 0 || lessonChapter[lesson] < 0 ? null : chapterIds[lessonChapter[lesson]];
+    }
+
+    public Integer gradeNumber(Long gradeId) {
+        int grade = gradeIndex.positionOf(gradeId);
+        return grade < 0 ? null : gradeNumbers[grade];
+    }
+
+    public String chapterName(Long chapterId) {
+        int chapter = chapterIndex.positionOf(chapterId);
+        return chapter < 0 ? null : chapterNames[chapter];
+    }
+
+    public String lessonName(Long lessonId) {
+        int lesson = lessonIndex.positionOf(lessonId);
+        return lesson < 0 ? null : lessonNames[lesson];
+    }
+
+    /**
+     * All grades in id order.
+     */
+    public List<Grade> grades() {
+        List<Grade> result = new ArrayList<>(gradeIds.length);
+        for (int g = 0; g < gradeIds.length; g++) {
+            result.add(gradeAt(g));
+        }
+        return result;
+    }
+
+    /**
+     * All chapters in id order, including those without a known grade.
+     */
+    public List<Chapter> chapters() {
+        List<Chapter> result = new ArrayList<>(chapterIds.length);
+        for (int c = 0; c < chapterIds.length; c++) {
+            result.add(chapterAt(c));
+        }
+        return result;
+    }
+
+    /**
+     * Chapters of a grade by {@code orderNo}; empty if the grade is unknown.
+     */
+    public List<Chapter> chaptersOf(Long gradeId) {
+        int grade = gradeIndex.positionOf(gradeId);
+        if (grade < 0) {
+            return List.of();
+        }
+        List<Chapter> result = new ArrayList<>(gradeChapterStart[grade + 1] - gradeChapterStart[grade]);
+        for (int i = gradeChapterStart[grade]; i < gradeChapterStart[grade + 1]; i++) {
+            result.add(chapterAt(gradeChapters[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Lessons of a chapter in id order; empty if the chapter is unknown.
+     */
+    public List<Lesson> lessonsOf(Long chapterId) {
+        int chapter = chapterIndex.positionOf(chapterId);
+        if (chapter < 0) {
+            return List.of();
+        }
+        List<Lesson> result = new ArrayList<>(chapterLessonStart[chapter + 1] - chapterLessonStart[chapter]);
+        for (int i = chapterLessonStart[chapter]; i < chapterLessonStart[chapter + 1]; i++) {
+            int lesson = chapterLessons[i];
+            result.add(new Lesson(lessonIds[lesson], chapterIds[chapter], lessonNames[lesson]));
+        }
+        return result;
+    }
+
+    private Grade gradeAt(int g) {
+        return new Grade(gradeIds[g], gradeNumbers[g], gradeDescriptions[g]);
+    }
+
+    private Chapter chapterAt(int c) {
+        Long gradeId = chapterGrade[c] < 0 ? null : gradeIds[chapterGrade[c]];
+        return new Chapter(chapterIds[c], gradeId, chapterNames[c], chapterOrderNos[c]);
+    }
+
+    /**
+     * Counting sort of child positions by parent position. Fills {@code start} (length
+     * parents + 1) and returns the grouped child positions; orphans (parent -1) are left out.
+     */
+    private static int[] group(int[] parentOf, int[] start) {
+        for (int parent : parentOf) {
+            if (parent >= 0) {
+                start[parent + 1]++;
+            }
+        }
+        for (int i = 1; i < start.length; i++) {
+            start[i] += start[i - 1];
+        }
+        int[] next = Arrays.copyOf(start, start.length - 1);
+        int[] children = new int[start[start.length - 1]];
+        for (int child = 0; child < parentOf.length; child++) {
+            if (parentOf[child] >= 0) {
+                children[next[parentOf[child]]++] = child;
+            }
+        }
+        return children;
+    }
+
+    private void sortRange(int[] positions, int from, int to) {
+        // Ranges are small (a grade has tens of chapters): insertion sort, positions already in id order
+        for (int i = from + 1; i < to; i++) {
+            int current = positions[i];
+            int j = i - 1;
+            while (j >= from && compareOrderNo(chapterOrderNos[positions[j]], chapterOrderNos[current]) > 0) {
+                positions[j + 1] = positions[j];
+                j--;
+            }
+            positions[j + 1] = current;
+        }
+    }
+
+    private static int compareOrderNo(Integer a, Integer b) {
+        if (Objects.equals(a, b)) {
+            return 0;
+        }
+        if (a == null) {
+            return 1;
+        }
+        return b == null ? -1 : Integer.compare(a, b);
+    }
+
+    public record Grade(Long id, Integer gradeNumber, String description) {
+    }
+
+    public record Chapter(Long id, Long gradeId, String name, Integer orderNo) {
+    }
+
+    public record Lesson(Long id, Long chapterId, String lessonName) {
+    }
+
+    /**
+     * id → array position. IDENTITY ids are mostly dense, so a direct-address table is used
+     * while it stays within a small multiple of the row count; sparse ids fall back to a map.
+     */
+    static final class IdIndex {
+
+        private final long base;
+        private final int[] table;
+        private final Map<Long, Integer> sparse;
+
+        private IdIndex(long base, int[] table, Map<Long, Integer> sparse) {
+            this.base = base;
+            this.table = table;
+            this.sparse = sparse;
+        }
+
+        static IdIndex of(long[] sortedIds) {
+            if (sortedIds.length == 0) {
+                return new IdIndex(0, new int[0], null);
+            }
+            long base = sortedIds[0];
+            long span = sortedIds[sortedIds.length - 1] - base + 1;
+            if (span > 0 && span <= 4L * sortedIds.length + 64) {
+                int[] table = new int[(int) span];
+                Arrays.fill(table, -1);
+                for (int i = 0; i < sortedIds.length; i++) {
+                    table[(int) (sortedIds[i] - base)] = i;
+                }
+                return new IdIndex(base, table, null);
+            }
+            Map<Long, Integer> sparse = new HashMap<>(sortedIds.length * 2);
+            for (int i = 0; i < sortedIds.length; i++) {
+                sparse.put(sortedIds[i], i);
+            }
+            return new IdIndex(0, null, Collections.unmodifiableMap(sparse));
+        }
+
+        int positionOf(Long id) {
+            if (id == null) {
+                return -1;
+            }
+            if (sparse != null) {
+                return sparse.getOrDefault(id, -1);
+            }
+            long slot = id - base;
+            return slot < 0 || slot >= table.length ? -1 : table[(int) slot];
+        }
+
+        boolean isDense() {
+            return sparse == null;
+        }
+    }
+}
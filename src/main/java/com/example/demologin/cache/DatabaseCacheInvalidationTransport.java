@@ -0,0 +1,126 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.CacheInvalidationLog;
+import com.example.demologin.repository.CacheInvalidationLogRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link CacheInvalidationTransport} over the {@code cache_invalidation_log} table.
+ * Each node tails the table by id every {@code smart-cache.invalidation.poll-interval-ms}.
+ * Auto-increment ids can commit out of order, so ids skipped over while tailing are
+ * re-checked until {@code gap-timeout-ms} before being given up as rolled back.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "smart-cache.invalidation.transport", havingValue = "database", matchIfMissing = true)
+public class DatabaseCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final int BATCH_SIZE = 500;
+    // Larger jumps are not tracked id by id
+    private static final int MAX_TRACKED_GAP = 1_000;
+
+    private final CacheInvalidationLogRepository repository;
+    private final long gapTimeoutMs;
+    private final Duration retention;
+
+    private volatile Consumer<List<CacheInvalidationEvent>> receiver;
+    // Highest id applied; guarded by this
+    private long highestId;
+    // Skipped id -> when it was first missed; guarded by this
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    public DatabaseCacheInvalidationTransport(CacheInvalidationLogRepository repository,
+                                              @Value("${smart-cache.invalidation.gap-timeout-ms:10000}") long gapTimeoutMs,
+                                              @Value("${smart-cache.invalidation.retention:PT1H}") Duration retention) {
+        this.repository = repository;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retention = retention;
+    }
+
+    @PostConstruct
+    synchronized void start() {
+        // Caches start empty, so older invalidations need no replay
+        highestId = repository.findMaxId();
+    }
+
+    @Override
+    public void publish(List<CacheInvalidationEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        List<CacheInvalidationLog> rows = new ArrayList<>(events.size());
+        for (CacheInvalidationEvent event : events) {
+            rows.add(CacheInvalidationLog.builder()
+                    .kind(event.kind())
+                    .target(event.target())
+                    .origin(event.origin())
+                    .createdAt(now)
+                    .build());
+        }
+        repository.saveAll(rows);
+    }
+
+    @Override
+    public void subscribe(Consumer<List<CacheInvalidationEvent>> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Scheduled(fixedDelayString = "${smart-cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        Consumer<List<CacheInvalidationEvent>> target = receiver;
+        if (target == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!gaps.isEmpty()) {
+            List<CacheInvalidationLog> late = repository.findByIdIn(List.copyOf(gaps.keySet()));
+            late.forEach(row -> gaps.remove(row.getId()));
+            deliver(target, late);
+            gaps.values().removeIf(firstMissed -> now - firstMissed > gapTimeoutMs);
+        }
+        List<CacheInvalidationLog> batch;
+        do {
+            batch = repository.findTop500ByIdGreaterThanOrderByIdAsc(highestId);
+            for (CacheInvalidationLog row : batch) {
+                long id = row.getId();
+                if (id - highestId - 1 <= MAX_TRACKED_GAP) {
+                    for (long missing = highestId + 1; missing < id; missing++) {
+                        gaps.putIfAbsent(missing, now);
+                    }
+                }
+                highestId = id;
+            }
+            deliver(target, batch);
+        } while (batch.size() == BATCH_SIZE);
+    }
+
+    @Scheduled(fixedRate = 3600000)
+    public void purge() {
+        int deleted = repository.deleteByCreatedAtBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} cache invalidation log rows", deleted);
+        }
+    }
+
+    private static void deliver(Consumer<List<CacheInvalidationEvent>> target, List<CacheInvalidationLog> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<CacheInvalidationEvent> events = new ArrayList<>(rows.size());
+        for (CacheInvalidationLog row : rows) {
+            events.add(new CacheInvalidationEvent(row.getKind(), row.getTarget(), row.getOrigin()));
+        }
+        target.accept(events);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demologin.cache;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Đề thi đã biên dịch, dùng chung cho mọi lượt làm bài của một exam.
+ * <p>
+ * Holds the questions as shown to students (no correct flags) and the same list already encoded
+ * as a JSON array, so starting an attempt writes those bytes instead of walking entities and
+ * serializing again. The {@link AnswerKey} used to grade submissions travels with it but is never
+ * serialized. Built by {@link ExamPaperRegistry}; instances are never modified.
+ */
+public final class ExamPaper {
+
+    private final long examId;
+    private final long version;
+    private final List<Question> questions;
+    private final SerializedString questionsJson;
+    private final AnswerKey answerKey;
+
+    public ExamPaper(long examId, long version, List<Question> questions, byte[] questionsJson, AnswerKey answerKey) {
+        this.examId = examId;
+        this.version = version;
+        this.questions = List.copyOf(questions);
+        this.answerKey = answerKey;
+        this.questionsJson = new SerializedString(new String(questionsJson, StandardCharsets.UTF_8));
+        // Mã hóa UTF-8 một lần ở đây, các response sau dùng lại mảng byte đã cache
+        this.questionsJson.asUnquotedUTF8();
+    }
+
+    public long examId() {
+        return examId;
+    }
+
+    /**
+     * Summed remote entity version the paper was built at (see {@link ExamPaperRegistry}).
+     */
+    public long version() {
+        return version;
+    }
+
+    public List<Question> questions() {
+        return questions;
+    }
+
+    public int size() {
+        return questions.size();
+    }
+
+    public AnswerKey answerKey() {
+        return answerKey;
+    }
+
+    /**
+     * The questions as a raw JSON value; Jackson copies the pre-encoded bytes into the output.
+     */
+    public RawValue questionsJson() {
+        return new RawValue(questionsJson);
+    }
+
+    /**
+     * Same fields, in the same order, as {@link com.example.demologin.dto.response.QuestionView}.
+     */
+    public record Question(Long id, String text, String questionType, List<Option> options, Double score) {
+        public Question {
+            options = List.copyOf(options);
+        }
+    }
+
+    public record Option(Long id, String content) {
+    }
+}
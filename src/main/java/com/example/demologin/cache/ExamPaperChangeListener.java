@@ -0,0 +1,107 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.Exam;
+import com.example.demologin.entity.ExamQuestion;
+import com.example.demologin.entity.Option;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Evicts the {@link ExamPaper}s a committed Hibernate change touches, by id: an ExamQuestion or
+ * Exam row evicts its exam, a Question or Option evicts every paper containing that question.
+ * QuestionType descriptions are copied into every paper, so a type edit evicts them all.
+ * Inserting a question or a type changes no existing paper.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExamPaperChangeListener implements
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<Class<?>> PAPER_ENTITIES =
+            Set.of(Exam.class, ExamQuestion.class, Question.class, Option.class, QuestionType.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ExamPaperRegistry examPapers;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof ExamQuestion || entity instanceof Option) {
+            onChange(entity);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        onChange(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        onChange(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was committed
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was committed
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was committed
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return PAPER_ENTITIES.contains(persister.getMappedClass());
+    }
+
+    void onChange(Object entity) {
+        if (entity instanceof ExamQuestion examQuestion) {
+            if (examQuestion.getExam() != null) {
+                examPapers.evict(examQuestion.getExam().getId());
+            }
+        } else if (entity instanceof Option option) {
+            if (option.getQuestion() != null) {
+                examPapers.evictQuestion(option.getQuestion().getId());
+            }
+        } else if (entity instanceof Question question) {
+            examPapers.evictQuestion(question.getId());
+        } else if (entity instanceof Exam exam) {
+            examPapers.evict(exam.getId());
+        } else if (entity instanceof QuestionType) {
+            examPapers.evictAll();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.Exam;
+import com.example.demologin.entity.ExamQuestion;
+import com.example.demologin.entity.Option;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
+import com.example.demologin.exception.exceptions.InternalServerErrorException;
+import com.example.demologin.repository.ExamQuestionRepository;
+import com.example.demologin.repository.OptionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Giữ {@link ExamPaper} của các đề đã publish.
+ * <p>
+ * A paper is compiled once after {@code publishExam} commits and shared by every attempt.
+ * Changes committed on this node evict only the papers they touch ({@link ExamPaperChangeListener}
+ * and {@link com.example.demologin.repository.ExamQuestionBatchRepository} report them by id):
+ * the exam's own question list, or any paper containing an edited question or option. Other
+ * nodes only say which entity types changed, so a paper is also tagged with the summed
+ * {@link CacheDependencyIndex#remoteEntityVersion remote versions} of Exam, ExamQuestion,
+ * Question, Option and QuestionType and rebuilt once one of them moves. Concurrent misses for one
+ * exam wait for a single rebuild, which runs two queries in its own read-only transaction. The
+ * paper's {@link AnswerKey} comes from the same rows, so grading and display never disagree.
+ * <p>
+ * A rebuild never takes a second connection while the calling thread holds one: call
+ * {@link #get} outside a transaction. A miss inside one is built on the caller's connection and
+ * not cached, since it may read the caller's snapshot or uncommitted rows.
+ */
+@Component
+@Slf4j
+public class ExamPaperRegistry {
+
+    private final ExamQuestionRepository examQuestionRepository;
+    private final OptionRepository optionRepository;
+    private final CacheDependencyIndex dependencyIndex;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTransaction;
+    private final Cache<Long, ExamPaper> papers;
+    // Exams whose paper is being built, with the number of builders
+    private final Map<Long, Integer> loading = new ConcurrentHashMap<>();
+    // Builds papers of newly published exams off the publisher's thread and connection
+    private final ThreadPoolExecutor compiler;
+
+    public ExamPaperRegistry(ExamQuestionRepository examQuestionRepository,
+                             OptionRepository optionRepository,
+                             CacheDependencyIndex dependencyIndex,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${exam-paper.cache-size:200}") long cacheSize) {
+        this.examQuestionRepository = examQuestionRepository;
+        this.optionRepository = optionRepository;
+        this.dependencyIndex = dependencyIndex;
+        this.objectMapper = objectMapper;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.papers = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+        // Bỏ qua khi hàng đợi đầy: lượt làm bài đầu tiên sẽ build
+        this.compiler = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(64), runnable -> {
+                    Thread thread = new Thread(runnable, "exam-paper-compiler");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+        this.compiler.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * The current paper of {@code examId}, built if missing or stale.
+     */
+    public ExamPaper get(Long examId) {
+        long version = remoteVersion();
+        ExamPaper paper = papers.getIfPresent(examId);
+        if (paper != null && paper.version() >= version) {
+            return paper;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            log.debug("Paper of exam {} built inside the caller's transaction, not cached", examId);
+            return build(examId, version);
+        }
+        // The version is read before loading: a change committed meanwhile triggers another build
+        boolean[] built = new boolean[1];
+        try {
+            return papers.asMap().compute(examId, (id, current) -> {
+                if (current != null && current.version() >= version) {
+                    return current;
+                }
+                built[0] = true;
+                loading.merge(id, 1, Integer::sum);
+                return load(id, version);
+            });
+        } finally {
+            if (built[0]) {
+                // Only once the paper is visible in the map (see evictIf)
+                loading.computeIfPresent(examId, (id, builders) -> builders == 1 ? null : builders - 1);
+            }
+        }
+    }
+
+    /**
+     * Build the paper in the background once the caller's transaction has committed (right away
+     * without one), so the first attempts after publishing find it ready.
+     */
+    public void compileAfterCommit(Long examId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            compiler.execute(() -> compile(examId));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // The committed transaction's connection is still bound here, so not on this thread
+                compiler.execute(() -> compile(examId));
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        compiler.shutdownNow();
+    }
+
+    private void compile(Long examId) {
+        try {
+            get(examId);
+        } catch (RuntimeException ex) {
+            // Lượt làm bài đầu tiên sẽ build lại
+            log.warn("Could not compile paper of exam {}: {}", examId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Drop the paper of {@code examId}. Call after the change has committed; a build of the same
+     * exam still in flight is waited for and dropped too.
+     */
+    public void evict(Long examId) {
+        papers.asMap().compute(examId, (id, paper) -> null);
+    }
+
+    /**
+     * Drop every paper containing {@code questionId}, after an edit of the question or its options
+     * has committed.
+     */
+    public void evictQuestion(Long questionId) {
+        evictIf(paper -> paper.answerKey().contains(questionId));
+    }
+
+    public void evictAll() {
+        evictIf(paper -> true);
+    }
+
+    private void evictIf(Predicate<ExamPaper> stale) {
+        // In-flight builds are listed before the scan: one that publishes after the scan is still
+        // in this list, since it leaves the list only once its paper is in the map
+        Set<Long> candidates = new HashSet<>(loading.keySet());
+        papers.asMap().forEach((examId, paper) -> {
+            if (stale.test(paper)) {
+                candidates.add(examId);
+            }
+        });
+        for (Long examId : candidates) {
+            // compute waits for a build of the same exam, so its result is tested as well
+            papers.asMap().compute(examId, (id, paper) -> paper == null || stale.test(paper) ? null : paper);
+        }
+    }
+
+    private ExamPaper load(Long examId, long version) {
+        ExamPaper paper = readTransaction.execute(status -> build(examId, version));
+        log.debug("Paper of exam {} compiled at v{}: {} questions", examId, version, paper.size());
+        return paper;
+    }
+
+    private ExamPaper build(Long examId, long version) {
+        List<ExamQuestionRepository.QuestionRow> rows = examQuestionRepository.findQuestionRows(List.of(examId));
+        List<Long> questionIds = rows.stream()
+                .map(ExamQuestionRepository.QuestionRow::getQuestionId)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, List<ExamPaper.Option>> optionsByQuestion = new HashMap<>();
+        Map<Long, List<Long>> correctByQuestion = new HashMap<>();
+        if (!questionIds.isEmpty()) {
+            for (OptionRepository.PaperOptionRow row : optionRepository.findPaperOptions(questionIds)) {
+                optionsByQuestion.computeIfAbsent(row.getQuestionId(), id -> new ArrayList<>())
+                        .add(new ExamPaper.Option(row.getId(), row.getOptionText()));
+                if (Boolean.TRUE.equals(row.getIsCorrect())) {
+                    correctByQuestion.computeIfAbsent(row.getQuestionId(), id -> new ArrayList<>()).add(row.getId());
+                }
+            }
+        }
+        List<AnswerKey.Entry> keyEntries = rows.stream()
+                .filter(row -> row.getQuestionId() != null)
+                .map(row -> new AnswerKey.Entry(row.getQuestionId(), row.getScore(),
+                        correctByQuestion.getOrDefault(row.getQuestionId(), List.of()).stream()
+                                .mapToLong(Long::longValue)
+                                .toArray()))
+                .toList();
+
+        List<ExamPaper.Question> questions = rows.stream()
+                .map(row -> new ExamPaper.Question(
+                        row.getQuestionId(),
+                        row.getQuestionText(),
+                        row.getQuestionType(),
+                        optionsByQuestion.getOrDefault(row.getQuestionId(), List.of()),
+                        row.getScore()))
+                .toList();
+        try {
+            return new ExamPaper(examId, version, questions, objectMapper.writeValueAsBytes(questions),
+                    new AnswerKey(keyEntries));
+        } catch (JsonProcessingException ex) {
+            throw new InternalServerErrorException("Could not serialize paper of exam " + examId);
+        }
+    }
+
+    private long remoteVersion() {
+        return dependencyIndex.remoteEntityVersion(Exam.class)
+                + dependencyIndex.remoteEntityVersion(ExamQuestion.class)
+                + dependencyIndex.remoteEntityVersion(Question.class)
+                + dependencyIndex.remoteEntityVersion(Option.class)
+                + dependencyIndex.remoteEntityVersion(QuestionType.class);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demologin.cache;
+
+import org.hibernate.Hibernate;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rough retained-size estimate of a cached value, used as the cache weight.
+ * Walks the object graph once per insert with a node budget; never initializes lazy
+ * Hibernate state and does not reflect into JDK internals.
+ */
+final class ObjectSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int MAX_NODES = 20_000;
+
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private ObjectSizeEstimator() {
+    }
+
+    static long estimate(Object root) {
+        if (root == null) {
+            return 0;
+        }
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        long bytes = 0;
+        int nodes = 0;
+        while (!pending.isEmpty() && nodes++ < MAX_NODES) {
+            Object value = pending.pop();
+            if (!visited.add(value)) {
+                continue;
+            }
+            bytes += shallowSize(value, pending);
+        }
+        // Budget exhausted: assume the rest looks like what was already measured
+        if (!pending.isEmpty()) {
+            bytes += bytes / MAX_NODES * pending.size();
+        }
+        return bytes;
+    }
+
+    private static long shallowSize(Object value, Deque<Object> pending) {
+        if (!Hibernate.isInitialized(value)) {
+            return OBJECT_HEADER;
+        }
+        if (value instanceof CharSequence text) {
+            return OBJECT_HEADER + 24 + text.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum<?> || value instanceof Temporal) {
+            return 24;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            Class<?> component = type.getComponentType();
+            if (component.isPrimitive()) {
+                return OBJECT_HEADER + (long) length * primitiveSize(component);
+            }
+            for (int i = 0; i < length; i++) {
+                push(Array.get(value, i), pending);
+            }
+            return OBJECT_HEADER + (long) length * REFERENCE;
+        }
+        if (value instanceof Collection<?> collection) {
+            collection.forEach(element -> push(element, pending));
+            return OBJECT_HEADER + 16 + (long) collection.size() * (REFERENCE + 16);
+        }
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((k, v) -> {
+                push(k, pending);
+                push(v, pending);
+            });
+            return OBJECT_HEADER + 32 + (long) map.size() * (REFERENCE + 32);
+        }
+        if (type.getName().startsWith("java.") || type.getName().startsWith("javax.")) {
+            return OBJECT_HEADER + 16;
+        }
+        long size = OBJECT_HEADER;
+        for (Field field : fieldsOf(type)) {
+            Class<?> fieldType = field.getType();
+            if (fieldType.isPrimitive()) {
+                size += primitiveSize(fieldType);
+                continue;
+            }
+            size += REFERENCE;
+            try {
+                push(field.get(value), pending);
+            } catch (IllegalAccessException ignored) {
+                // counted as a reference only
+            }
+        }
+        return size;
+    }
+
+    private static void push(Object value, Deque<Object> pending) {
+        if (value != null) {
+            pending.push(value);
+        }
+    }
+
+    private static List<Field> fieldsOf(Class<?> type) {
+        return FIELDS.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                if (c.getName().startsWith("java.")) {
+                    break;
+                }
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException ignored) {
+                        // inaccessible module member, skip
+                    }
+                }
+            }
+            return List.copyOf(fields);
+        });
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+}
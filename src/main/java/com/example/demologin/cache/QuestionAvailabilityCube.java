@@ -0,0 +1,208 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.Question;
+import com.example.demologin.repository.QuestionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Number of questions per (lesson, level, type) cell, kept in memory so matrix quotas can be
+ * checked without querying {@code questions}.
+ * <p>
+ * Loaded with one GROUP BY on first use. Question writes on this node (services and bulk import)
+ * adjust their cells when they commit; writes committed on other nodes move the remote Question
+ * version in {@link CacheDependencyIndex}, and a periodic reconcile reloads the cube only then.
+ * <p>
+ * A writing transaction holds {@code commitOrder} shared from {@code beforeCommit} until its delta
+ * is applied, and a reload reads and swaps under it exclusively. So every delta either committed
+ * before the read (counted by the GROUP BY, applied to the discarded counts) or commits after the
+ * swap (applied to the new counts), never both.
+ */
+@Component
+@Slf4j
+public class QuestionAvailabilityCube {
+
+    private final QuestionRepository questionRepository;
+    private final CacheDependencyIndex dependencyIndex;
+    private final TransactionTemplate readTransaction;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final ReentrantReadWriteLock commitOrder = new ReentrantReadWriteLock();
+
+    private volatile Map<Cell, Integer> counts;
+    private volatile long loadedVersion = -1;
+
+    public QuestionAvailabilityCube(QuestionRepository questionRepository,
+                                    CacheDependencyIndex dependencyIndex,
+                                    PlatformTransactionManager transactionManager) {
+        this.questionRepository = questionRepository;
+        this.dependencyIndex = dependencyIndex;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public int count(Cell cell) {
+        return loaded().getOrDefault(cell, 0);
+    }
+
+    public int count(Long lessonId, Long levelId, Long typeId) {
+        Cell cell = Cell.of(lessonId, levelId, typeId);
+        return cell == null ? 0 : count(cell);
+    }
+
+    // ---- write hooks (call inside the writing transaction, applied after commit) ----
+
+    public void questionAdded(Question question) {
+        afterCommit(Cell.of(question), 1);
+    }
+
+    public void questionRemoved(Cell cell) {
+        afterCommit(cell, -1);
+    }
+
+    public void questionMoved(Cell from, Cell to) {
+        if (from != null && from.equals(to)) {
+            return;
+        }
+        afterCommit(from, -1);
+        afterCommit(to, 1);
+    }
+
+    /**
+     * For writes that bypass Hibernate (bulk import); also called inside the writing transaction.
+     */
+    public void added(Cell cell, int questions) {
+        afterCommit(cell, questions);
+    }
+
+    @Scheduled(fixedDelayString = "${question-cube.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        if (counts != null && loadedVersion != version()) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        reloadLock.lock();
+        try {
+            // The connection is taken before commitOrder, so waiting writers cannot starve this read of one
+            readTransaction.executeWithoutResult(status -> {
+                commitOrder.writeLock().lock();
+                try {
+                    long version = version();
+                    Map<Cell, Integer> fresh = new ConcurrentHashMap<>();
+                    for (QuestionRepository.CellCount row : questionRepository.countByCell()) {
+                        Cell cell = Cell.of(row.getLessonId(), row.getLevelId(), row.getTypeId());
+                        if (cell != null) {
+                            fresh.put(cell, (int) row.getTotal());
+                        }
+                    }
+                    counts = fresh;
+                    loadedVersion = version;
+                    log.debug("Question availability cube loaded: {} cells", fresh.size());
+                } finally {
+                    commitOrder.writeLock().unlock();
+                }
+            });
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Map<Cell, Integer> loaded() {
+        Map<Cell, Integer> current = counts;
+        if (current != null) {
+            return current;
+        }
+        reloadLock.lock();
+        try {
+            if (counts == null) {
+                reload();
+            }
+            return counts;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void afterCommit(Cell cell, int change) {
+        if (cell == null) {
+            return;
+        }
+        Delta delta = new Delta(cell, change);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitOrder.readLock().lock();
+            try {
+                apply(delta);
+            } finally {
+                commitOrder.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean holding;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitOrder.readLock().lock();
+                holding = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(delta);
+                    }
+                } finally {
+                    if (holding) {
+                        commitOrder.readLock().unlock();
+                    }
+                }
+            }
+        });
+    }
+
+    private synchronized void apply(Delta delta) {
+        Map<Cell, Integer> current = counts;
+        if (current != null) {
+            current.merge(delta.cell(), delta.change(), (a, b) -> Math.max(0, a + b));
+        }
+    }
+
+    // Writes on this node are applied as deltas; only other nodes' changes need a reload
+    private long version() {
+        return dependencyIndex.remoteEntityVersion(Question.class);
+    }
+
+    public record Cell(long lessonId, long levelId, long typeId) {
+
+        /**
+         * @return null when any coordinate is missing (such questions never fill a quota)
+         */
+        public static Cell of(Long lessonId, Long levelId, Long typeId) {
+            return lessonId == null || levelId == null || typeId == null ? null : new Cell(lessonId, levelId, typeId);
+        }
+
+        public static Cell of(Question question) {
+            return question.getLesson() == null || question.getLevel() == null || question.getType() == null
+                    ? null
+                    : new Cell(question.getLesson().getId(), question.getLevel().getId(), question.getType().getId());
+        }
+    }
+
+    private record Delta(Cell cell, int change) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demologin.cache;
+
+import java.util.Arrays;
+
+/**
+ * Composite cache key: cache name plus normalized key parts, hash computed once.
+ */
+public final class SmartCacheKey {
+
+    private final String cacheName;
+    private final Object[] parts;
+    private final int hash;
+
+    public SmartCacheKey(String cacheName, Object... parts) {
+        this.cacheName = cacheName;
+        this.parts = parts;
+        this.hash = 31 * cacheName.hashCode() + Arrays.hashCode(parts);
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SmartCacheKey other)) {
+            return false;
+        }
+        return hash == other.hash
+                && cacheName.equals(other.cacheName)
+                && Arrays.equals(parts, other.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return cacheName + Arrays.toString(parts);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demologin.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs background refreshes of {@code @SmartCache} entries on a small bounded pool.
+ * At most one refresh per key is queued or running; when the queue is full the refresh
+ * is dropped and the next caller past the soft TTL tries again. Each refresh runs in a
+ * read-only transaction with the security context of the caller that triggered it.
+ */
+@Component
+@Slf4j
+public class SmartCacheRefresher {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Object> pending = ConcurrentHashMap.newKeySet();
+
+    public SmartCacheRefresher(PlatformTransactionManager transactionManager,
+                               @Value("${smart-cache.refresh.threads:2}") int threads,
+                               @Value("${smart-cache.refresh.queue-capacity:256}") int queueCapacity) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "smart-cache-refresh-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @return {@code false} if a refresh of this key is already pending or the pool is saturated
+     */
+    public boolean submit(Object key, Runnable refresh) {
+        if (!pending.add(key)) {
+            return false;
+        }
+        Runnable task = () -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> refresh.run());
+            } catch (RuntimeException ex) {
+                // The current value stays in place until its hard TTL
+                log.warn("[CACHE] Background refresh of {} failed: {}", key, ex.getMessage());
+            } finally {
+                pending.remove(key);
+            }
+        };
+        try {
+            executor.execute(new DelegatingSecurityContextRunnable(task));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            pending.remove(key);
+            log.debug("[CACHE] Refresh queue full, skipping refresh of {}", key);
+            return false;
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
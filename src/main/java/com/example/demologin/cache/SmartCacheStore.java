@@ -0,0 +1,23 @@
+package com.example.demologin.cache;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Storage engine behind {@code @SmartCache}. Implementations must be bounded and
+ * thread-safe; {@code null} values are never stored.
+ */
+public interface SmartCacheStore {
+
+    Object get(Object key);
+
+    void put(Object key, Object value, Duration ttl);
+
+    void invalidate(Object key);
+
+    void invalidateIf(Predicate<Object> keyFilter);
+
+    void invalidateAll();
+
+    long estimatedSize();
+}
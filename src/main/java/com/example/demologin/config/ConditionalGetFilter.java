@@ -0,0 +1,263 @@
+package com.example.demologin.config;
+
+import com.example.demologin.annotation.ConditionalGet;
+import com.example.demologin.cache.CacheDependencyIndex;
+import com.example.demologin.security.PermissionMatrix;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Conditional GET cho các endpoint gắn {@link ConditionalGet}.
+ * <p>
+ * The ETag is a hash of the request path and query, the versions of the declared entity types,
+ * the caller's current authorities and the permission matrix. A request whose {@code If-None-Match} matches is
+ * answered 304 here, before the controller, service or database run. Otherwise the ETag is added
+ * to 2xx responses only, leaving the {@code ResponseObject} body untouched.
+ * <p>
+ * Runs after the security filter chain, so the caller is already authenticated. Versions are
+ * counted per node since startup (a random epoch keeps old ETags from matching after a restart),
+ * so with several nodes a client only gets 304s from the node that issued its ETag.
+ */
+@Component
+@Slf4j
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private final CacheDependencyIndex dependencyIndex;
+    private final PermissionMatrix permissionMatrix;
+    private final long epoch = new SecureRandom().nextLong();
+    // GET routes grouped by their first two literal segments, most specific first
+    private final Map<String, List<Route>> routesByPrefix;
+
+    @Autowired
+    public ConditionalGetFilter(@Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping,
+                                CacheDependencyIndex dependencyIndex,
+                                PermissionMatrix permissionMatrix) {
+        this.dependencyIndex = dependencyIndex;
+        this.permissionMatrix = permissionMatrix;
+        this.routesByPrefix = compile(handlerMapping.getHandlerMethods());
+        log.info("Conditional GET enabled on {} route groups", routesByPrefix.size());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Route route = resolve(path);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Versions are read before the handler runs: the body is never older than its ETag
+        String etag = etagFor(route, path, request);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            return;
+        }
+
+        ETagResponseWrapper wrapper = new ETagResponseWrapper(response, etag);
+        filterChain.doFilter(request, wrapper);
+        if (!response.isCommitted()) {
+            wrapper.applyHeaders();
+        }
+    }
+
+    Route resolve(String path) {
+        List<Route> routes = routesByPrefix.get(prefixOf(path));
+        if (routes == null) {
+            return null;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (Route route : routes) {
+            if (route.pattern.matches(container)) {
+                // Most specific match decides, even when it is not conditional
+                return route.entities == null ? null : route;
+            }
+        }
+        return null;
+    }
+
+    String etagFor(Route route, String path, HttpServletRequest request) {
+        long hash = mix(epoch, path.hashCode());
+        String query = request.getQueryString();
+        if (query != null) {
+            hash = mix(hash, query.hashCode());
+        }
+        for (Class<?> entity : route.entities) {
+            hash = mix(hash, dependencyIndex.entityVersion(entity));
+        }
+        hash = mix(hash, authoritiesHash());
+        hash = mix(hash, permissionMatrix.fingerprint());
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * The authorities {@code @PreAuthorize} checks, from the principal loaded for this request,
+     * not the roles claim of the token: a role change takes effect without a new token.
+     */
+    private static long authoritiesHash() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return 0;
+        }
+        long hash = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            // Order-independent, like Set#hashCode
+            hash += String.valueOf(authority.getAuthority()).hashCode();
+        }
+        return hash;
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses the weak comparison. "*" is not honoured: whether the resource
+            // exists is only known after the handler ran, and a 404 must not become a 304
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Map<String, List<Route>> compile(Map<RequestMappingInfo, HandlerMethod> handlerMethods) {
+        Map<String, List<Route>> byPrefix = new HashMap<>();
+        // Patterns with a variable or wildcard in the prefix can match under any prefix
+        List<Route> anyPrefix = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMethods.entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+            if (!methods.isEmpty() && !methods.contains(RequestMethod.GET)) {
+                continue;
+            }
+            ConditionalGet annotation = entry.getValue().getMethodAnnotation(ConditionalGet.class);
+            Class<?>[] entities = annotation == null ? null : annotation.entities();
+            if (info.getPathPatternsCondition() == null) {
+                continue;
+            }
+            for (PathPattern pattern : info.getPathPatternsCondition().getPatterns()) {
+                String prefix = prefixOf(pattern.getPatternString());
+                if (prefix.contains("{") || prefix.contains("*")) {
+                    anyPrefix.add(new Route(pattern, entities));
+                } else {
+                    byPrefix.computeIfAbsent(prefix, key -> new ArrayList<>()).add(new Route(pattern, entities));
+                }
+            }
+        }
+        byPrefix.values().forEach(routes -> routes.addAll(anyPrefix));
+        // Keep only groups with a conditional route; the rest skip the filter after one map lookup
+        byPrefix.values().removeIf(routes -> routes.stream().allMatch(route -> route.entities == null));
+        byPrefix.values().forEach(routes -> routes.sort(
+                Comparator.comparing(route -> route.pattern, PathPattern.SPECIFICITY_COMPARATOR)));
+        return Map.copyOf(byPrefix);
+    }
+
+    // "/api/grades/1/chapters" -> "/api/grades"
+    private static String prefixOf(String path) {
+        int first = path.indexOf('/', 1);
+        if (first < 0) {
+            return path;
+        }
+        int second = path.indexOf('/', first + 1);
+        return second < 0 ? path : path.substring(0, second);
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    record Route(PathPattern pattern, Class<?>[] entities) {
+    }
+
+    /**
+     * Adds the validator once the status is known, i.e. when the body starts, so error
+     * responses never carry an ETag.
+     */
+    private static final class ETagResponseWrapper extends HttpServletResponseWrapper {
+
+        private final String etag;
+        private boolean applied;
+
+        ETagResponseWrapper(HttpServletResponse response, String etag) {
+            super(response);
+            this.etag = etag;
+        }
+
+        void applyHeaders() {
+            if (applied) {
+                return;
+            }
+            applied = true;
+            int status = getStatus();
+            if (status >= 200 && status < 300) {
+                setHeader(HttpHeaders.ETAG, etag);
+                setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            applyHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            applyHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            applyHeaders();
+            super.flushBuffer();
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.example.demologin.config;
 
 import com.example.demologin.dto.response.ResponseObject;
-import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.InvalidTokenException;
 import com.example.demologin.exception.exceptions.UnauthorizedException;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.security.VerifiedToken;
 import com.example.demologin.service.TokenService;
 import com.example.demologin.utils.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -20,11 +21,9 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 @Component
 @AllArgsConstructor
@@ -32,7 +31,7 @@ public class Filter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
     private final JwtUtil jwtUtil;
-    private final PublicEndpointHandlerMapping publicEndpointHandlerMapping;
+    private final PublicRouteClassifier publicRouteClassifier;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -59,22 +58,25 @@ public class Filter extends OncePerRequestFilter {
                 throw new UnauthorizedException("Authentication token is missing!");
             }
 
-            String username = jwtUtil.extractUsername(token);
-            if (username == null || username.isBlank()) {
+            // Parse and verify the token once; everything downstream reuses these claims
+            VerifiedToken verifiedToken = jwtUtil.verify(token);
+            String userId = verifiedToken.getSubject();
+            if (userId == null || userId.isBlank()) {
                 throw new InvalidTokenException("Authentication token is invalid!");
             }
 
-            User user = tokenService.getUserByToken(token);
-            if (user == null) {
+            AuthPrincipal principal = tokenService.getPrincipalByToken(verifiedToken);
+            if (principal == null) {
                 throw new UnauthorizedException("User not found for the provided token!");
             }
 
-            if (!jwtUtil.validateTokenWithJtiCheck(token, user)) {
+            if (!jwtUtil.validateTokenWithJtiCheck(verifiedToken, principal)) {
                 throw new InvalidTokenException("Authentication token is invalid or revoked!");
             }
 
+            request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verifiedToken);
             UsernamePasswordAuthenticationToken authToken =
-                    new UsernamePasswordAuthenticationToken(user, token, user.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
 
@@ -88,32 +90,7 @@ public class Filter extends OncePerRequestFilter {
     }
 
     private boolean isPermitted(HttpServletRequest request) {
-        AntPathMatcher pathMatcher = new AntPathMatcher();
-        String uri = request.getRequestURI();
-
-        // Check public endpoints from annotations
-        List<String> annotatedPublicEndpoints = publicEndpointHandlerMapping.getPublicEndpoints();
-        boolean isAnnotatedPublic = annotatedPublicEndpoints.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, uri));
-
-        if (isAnnotatedPublic) {
-            return true;
-        }
-
-        // System public endpoints
-        List<String> systemPublicEndpoints = List.of(
-                "/swagger-ui/**",
-                "/v3/api-docs/**",
-                "/swagger-resources/**",
-                "/webjars/**",
-                "/login/oauth2/code/**",
-                "/oauth2/authorization/**",
-                "/api/payment/vnpay/vnpay-return",
-                "/vnpay-return"
-        );
-
-        return systemPublicEndpoints.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, uri));
+        return publicRouteClassifier.isPublic(request.getRequestURI());
     }
 
     private String getToken(HttpServletRequest request) {
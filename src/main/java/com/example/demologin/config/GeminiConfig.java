@@ -1,6 +1,7 @@
 package com.example.demologin.config;
 
 import com.google.genai.Client;
+import com.google.genai.ResponseStream;
 import com.google.genai.types.Content;
 import com.google.genai.types.GenerateContentConfig;
 import com.google.genai.types.GenerateContentResponse;
@@ -8,6 +9,8 @@ import com.google.genai.types.ThinkingConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.function.Consumer;
+
 @Component
 public class GeminiConfig {
     private final Client client;
@@ -35,4 +38,24 @@ public class GeminiConfig {
         return client.models.generateContent(modelName, content, config);
     }
 
+    /**
+     * Như {@link #generate} nhưng dùng streaming API: mỗi đoạn text được đưa cho {@code onChunk}
+     * ngay khi model trả về.
+     */
+    public void generateStream(
+            String modelName,
+            Content content,
+            GenerateContentConfig config,
+            Consumer<String> onChunk
+    ) {
+        try (ResponseStream<GenerateContentResponse> stream = client.models.generateContentStream(modelName, content, config)) {
+            for (GenerateContentResponse chunk : stream) {
+                String text = chunk.text();
+                if (text != null && !text.isEmpty()) {
+                    onChunk.accept(text);
+                }
+            }
+        }
+    }
+
 }
@@ -9,6 +9,7 @@ import com.example.demologin.dto.request.lesson_plan.LessonPlanEditRequest;
 import com.example.demologin.dto.response.LessonPlanEditResponse;
 import com.example.demologin.entity.LessonPlan;
 import com.example.demologin.entity.LessonPlanEdit;
+import com.example.demologin.monitoring.QueryStatsRecorder;
 import com.example.demologin.repository.LessonPlanEditRepository;
 import com.example.demologin.repository.LessonPlanRepository;
 import com.example.demologin.service.LessonPlanCompactionService;
@@ -31,6 +32,7 @@ public class LessonPlanWebSocketHandler {
     private final LessonPlanCompactionService compactionService;
     private final ObjectStorageService objectStorageService;
     private final ILessonPlanEditUtil lessonPlanEditUtil;
+    private final QueryStatsRecorder queryStats;
 
 
     // Mỗi lessonPlanId có 1 hàng đợi edit riêng
@@ -50,8 +52,10 @@ public class LessonPlanWebSocketHandler {
                                       LessonPlanRepository lessonPlanRepository,
                                       LessonPlanEditRepository lessonPlanEditRepository,
                                       ObjectStorageService objectStorageService,
-                                      ILessonPlanEditUtil lessonPlanEditUtil) {
+                                      ILessonPlanEditUtil lessonPlanEditUtil,
+                                      QueryStatsRecorder queryStats) {
         this.server = server;
+        this.queryStats = queryStats;
         this.editService = editService;
         this.compactionService = compactionService;
         initListeners();
@@ -112,7 +116,7 @@ public class LessonPlanWebSocketHandler {
                     Set<SocketIOClient> latestClients = clientsByLessonPlan.get(lessonPlanId);
                     if (latestClients == null || latestClients.isEmpty()) {
                         System.out.println("Trigger compaction for lessonPlanId=" + lessonPlanId);
-                        compactionService.compactLessonPlan(lessonPlanId);
+                        queryStats.measure("socket", "disconnect", () -> compactionService.compactLessonPlan(lessonPlanId));
                         cleanupLessonPlanResources(lessonPlanId);
                     }
                 }
@@ -158,7 +162,7 @@ public class LessonPlanWebSocketHandler {
                 LessonPlanEditRequest req = queue.take();
 
                 // Lưu edit vào DB
-                LessonPlanEditResponse saved = editService.saveEdit(req);
+                LessonPlanEditResponse saved = queryStats.measure("socket", "editLessonPlan", () -> editService.saveEdit(req));
 
                 // Merge edits vào LessonPlan
 //                updateLessonPlanTemp(lessonPlanId);
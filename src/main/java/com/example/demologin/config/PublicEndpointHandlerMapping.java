@@ -9,6 +9,7 @@ import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -61,6 +62,6 @@ public class PublicEndpointHandlerMapping {
      * @return List các URL patterns được đánh dấu @PublicEndpoint
      */
     public List<String> getPublicEndpoints() {
-        return new ArrayList<>(publicEndpoints);
+        return Collections.unmodifiableList(publicEndpoints);
     }
 }
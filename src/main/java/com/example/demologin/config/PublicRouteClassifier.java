@@ -0,0 +1,222 @@
+package com.example.demologin.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Quyết định một URI có phải public endpoint hay không.
+ * Compiled once at startup from the {@code @PublicEndpoint} scan plus the system patterns:
+ * <ul>
+ *     <li>the literal leading segments of every pattern form a trie walked without allocating</li>
+ *     <li>{@code /**} tails are answered by the trie node itself</li>
+ *     <li>patterns with variables or wildcards hang off their deepest literal node as {@link PathPattern}s</li>
+ * </ul>
+ * Decisions are memoized in a bounded cache keyed by URI.
+ */
+@Component
+@Slf4j
+public class PublicRouteClassifier {
+
+    static final List<String> SYSTEM_PUBLIC_PATTERNS = List.of(
+            "/swagger-ui/**",
+            "/v3/api-docs/**",
+            "/swagger-resources/**",
+            "/webjars/**",
+            "/login/oauth2/code/**",
+            "/oauth2/authorization/**",
+            "/api/payment/vnpay/vnpay-return",
+            "/vnpay-return"
+    );
+
+    private static final AntPathMatcher ANT_MATCHER = new AntPathMatcher();
+
+    private final Node root = new Node("");
+    private final Cache<String, Boolean> decisions;
+
+    @Autowired
+    public PublicRouteClassifier(PublicEndpointHandlerMapping publicEndpointHandlerMapping,
+                                 @Value("${auth.public-routes.cache-size:10000}") long cacheSize) {
+        this(withSystemPatterns(publicEndpointHandlerMapping.getPublicEndpoints()), cacheSize);
+    }
+
+    public PublicRouteClassifier(Collection<String> patterns, long cacheSize) {
+        for (String pattern : patterns) {
+            compile(pattern);
+        }
+        this.decisions = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        log.info("Compiled {} public route patterns", patterns.size());
+    }
+
+    private static List<String> withSystemPatterns(List<String> annotated) {
+        List<String> all = new ArrayList<>(annotated);
+        all.addAll(SYSTEM_PUBLIC_PATTERNS);
+        return all;
+    }
+
+    public boolean isPublic(String uri) {
+        Boolean cached = decisions.getIfPresent(uri);
+        if (cached != null) {
+            return cached;
+        }
+        boolean decision = classify(uri);
+        decisions.put(uri, decision);
+        return decision;
+    }
+
+    /**
+     * Uncached classification: one trie walk, plus the pattern fallbacks met along the way.
+     */
+    public boolean classify(String uri) {
+        List<Fallback> candidates = null;
+        Node node = root;
+        int pos = skipSlashes(uri, 0);
+        while (true) {
+            if (node.subtree) {
+                return true;
+            }
+            if (!node.fallbacks.isEmpty()) {
+                candidates = collect(candidates, node.fallbacks);
+            }
+            if (pos >= uri.length()) {
+                // Like AntPathMatcher, "/a" does not match "/a/"
+                if (node.exact && (uri.length() <= 1 || uri.charAt(uri.length() - 1) != '/')) {
+                    return true;
+                }
+                break;
+            }
+            int end = uri.indexOf('/', pos);
+            if (end < 0) {
+                end = uri.length();
+            }
+            Node child = node.child(uri, pos, end - pos);
+            if (child == null) {
+                break;
+            }
+            node = child;
+            pos = end < uri.length() ? end + 1 : end;
+        }
+        return candidates != null && matchAny(candidates, uri);
+    }
+
+    private static List<Fallback> collect(List<Fallback> candidates, List<Fallback> more) {
+        if (candidates == null) {
+            return more;
+        }
+        List<Fallback> merged = new ArrayList<>(candidates);
+        merged.addAll(more);
+        return merged;
+    }
+
+    private static boolean matchAny(List<Fallback> candidates, String uri) {
+        PathContainer path = PathContainer.parsePath(uri);
+        for (Fallback fallback : candidates) {
+            if (fallback.matches(path, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void compile(String pattern) {
+        Node node = root;
+        int pos = skipSlashes(pattern, 0);
+        while (pos < pattern.length()) {
+            int end = pattern.indexOf('/', pos);
+            if (end < 0) {
+                end = pattern.length();
+            }
+            String segment = pattern.substring(pos, end);
+            if (segment.equals("**") && end == pattern.length()) {
+                node.subtree = true;
+                return;
+            }
+            if (!isLiteral(segment)) {
+                node.fallbacks.add(Fallback.of(pattern));
+                return;
+            }
+            node = node.childOrCreate(segment);
+            pos = end < pattern.length() ? end + 1 : end;
+        }
+        node.exact = true;
+    }
+
+    private static boolean isLiteral(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSlashes(String value, int pos) {
+        while (pos < value.length() && value.charAt(pos) == '/') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static final class Node {
+        final String segment;
+        Node[] children = new Node[0];
+        final List<Fallback> fallbacks = new ArrayList<>(0);
+        boolean exact;
+        boolean subtree;
+
+        Node(String segment) {
+            this.segment = segment;
+        }
+
+        Node child(String uri, int offset, int length) {
+            for (Node child : children) {
+                if (child.segment.length() == length && uri.regionMatches(offset, child.segment, 0, length)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(String segment) {
+            Node existing = child(segment, 0, segment.length());
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node(segment);
+            Node[] grown = Arrays.copyOf(children, children.length + 1);
+            grown[children.length] = created;
+            children = grown;
+            return created;
+        }
+    }
+
+    private record Fallback(PathPattern pathPattern, String antPattern) {
+
+        static Fallback of(String pattern) {
+            try {
+                return new Fallback(PathPatternParser.defaultInstance.parse(pattern), null);
+            } catch (PatternParseException e) {
+                // e.g. "**" in the middle of a pattern: keep Ant semantics for it
+                return new Fallback(null, pattern);
+            }
+        }
+
+        boolean matches(PathContainer path, String uri) {
+            return pathPattern != null ? pathPattern.matches(path) : ANT_MATCHER.match(antPattern, uri);
+        }
+    }
+}
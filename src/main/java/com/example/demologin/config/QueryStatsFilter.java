@@ -0,0 +1,115 @@
+package com.example.demologin.config;
+
+import com.example.demologin.monitoring.QueryStats;
+import com.example.demologin.monitoring.QueryStatsRecorder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Đếm câu SQL của mỗi HTTP request.
+ * <p>
+ * Opens a {@link QueryStats} scope around the whole chain (security filters included), records it
+ * under the matched route pattern and, when {@code query-stats.server-timing} is on, adds a
+ * {@code Server-Timing} header. The header is written when the body starts, so statements run while
+ * the body is being written (lazy loading during serialization) only show up in the metrics.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final QueryStatsRecorder recorder;
+    private final boolean serverTiming;
+
+    public QueryStatsFilter(QueryStatsRecorder recorder,
+                            @Value("${query-stats.server-timing:false}") boolean serverTiming) {
+        this.recorder = recorder;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !recorder.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        ServerTimingResponseWrapper wrapper = serverTiming ? new ServerTimingResponseWrapper(response, stats) : null;
+        try {
+            filterChain.doFilter(request, wrapper != null ? wrapper : response);
+        } finally {
+            QueryStats.stop();
+            if (wrapper != null) {
+                wrapper.applyHeaders();
+            }
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            recorder.record("http", request.getMethod() + " " + (route != null ? route : "UNMAPPED"), stats);
+        }
+    }
+
+    private final class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final QueryStats stats;
+        private boolean applied;
+
+        ServerTimingResponseWrapper(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void applyHeaders() {
+            if (applied || isCommitted()) {
+                return;
+            }
+            applied = true;
+            addHeader(SERVER_TIMING, recorder.serverTiming(stats));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            applyHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            applyHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            applyHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            applyHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            applyHeaders();
+            super.sendError(sc);
+        }
+    }
+}
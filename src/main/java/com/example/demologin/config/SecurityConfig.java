@@ -7,6 +7,7 @@ import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import jakarta.servlet.DispatcherType;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -62,6 +63,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> {
                     // Cho phép preflight requests
                     auth.requestMatchers(CorsUtils::isPreFlightRequest).permitAll();
+                    // Async dispatch của SSE: request gốc đã được xác thực, JWT filter không chạy lại
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
                     // Tự động permit all các endpoints được đánh dấu @PublicEndpoint
                     if (!annotatedPublicEndpoints.isEmpty()) {
                         auth.requestMatchers(annotatedPublicEndpoints.toArray(new String[0])).permitAll();
@@ -1,6 +1,10 @@
 package com.example.demologin.controller;
 
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
 import com.example.demologin.annotation.ApiResponse;
+import com.example.demologin.annotation.ConditionalGet;
 import com.example.demologin.dto.request.chapter.ChapterRequest;
 import com.example.demologin.dto.response.ChapterResponse;
 import com.example.demologin.dto.response.PageResponse;
@@ -72,6 +76,7 @@ public class ChapterController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(entities = {Chapter.class, Grade.class})
     @ApiResponse(message = "Chapter retrieved successfully")
     @Operation(summary = "Get chapter by ID", description = "Lấy chi tiết chương theo ID")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN') or hasRole('STUDENT')")
@@ -85,6 +90,7 @@ public class ChapterController {
     }
 
     @GetMapping
+    @ConditionalGet(entities = {Chapter.class, Grade.class})
     @ApiResponse(message = "Chapters retrieved successfully")
     @Operation(summary = "Get all chapters (auto-detect paging)",
             description = "Nếu không có tham số page → trả toàn bộ danh sách chương; nếu có → trả dữ liệu phân trang")
@@ -121,6 +127,7 @@ public class ChapterController {
     }
 
     @GetMapping("/{chapterId}/lessons")
+    @ConditionalGet(entities = {Lesson.class, Chapter.class})
     @ApiResponse(message = "Lessons retrieved successfully")
     @Operation(summary = "Get lessons by chapter", description = "Lấy danh sách bài học theo chương")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN') or hasRole('STUDENT')")
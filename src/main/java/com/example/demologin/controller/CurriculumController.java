@@ -0,0 +1,41 @@
+package com.example.demologin.controller;
+
+import com.example.demologin.annotation.ApiResponse;
+import com.example.demologin.annotation.ConditionalGet;
+import com.example.demologin.dto.response.ResponseObject;
+import com.example.demologin.dto.response.curriculum.CurriculumTreeResponse;
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
+import com.example.demologin.entity.Question;
+import com.example.demologin.service.CurriculumService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/curriculum")
+@Tag(name = "Curriculum", description = "APIs for browsing the grade/chapter/lesson tree")
+@RequiredArgsConstructor
+public class CurriculumController {
+
+    private final CurriculumService curriculumService;
+
+    // Whole tree with question counts
+    @GetMapping("/tree")
+    @ConditionalGet(entities = {Grade.class, Chapter.class, Lesson.class, Question.class})
+    @ApiResponse(message = "Curriculum tree retrieved successfully")
+    @Operation(summary = "Get curriculum tree",
+            description = "Retrieve all grades with their chapters and lessons, and the number of questions under each")
+    @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN') or hasRole('STUDENT')")
+    public ResponseEntity<ResponseObject> getTree() {
+        CurriculumTreeResponse data = curriculumService.getTree();
+        return ResponseEntity.ok(new ResponseObject(HttpStatus.OK.value(), "Curriculum tree retrieved successfully", data));
+    }
+}
@@ -41,7 +41,7 @@ public class EssayImageController {
     )
     public ResponseEntity<ResponseObject> uploadImage(@RequestParam("file") MultipartFile file) {
         try {
-            Long userId = accountUtils.getCurrentUser().getUserId();
+            Long userId = accountUtils.getCurrentUserId();
             
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest()
@@ -100,7 +100,7 @@ public class EssayImageController {
     )
     public ResponseEntity<ResponseObject> uploadMultipleImages(@RequestParam("files") MultipartFile[] files) {
         try {
-            Long userId = accountUtils.getCurrentUser().getUserId();
+            Long userId = accountUtils.getCurrentUserId();
             
             if (files == null || files.length == 0) {
                 return ResponseEntity.badRequest()
@@ -191,7 +191,7 @@ public class EssayImageController {
     )
     public ResponseEntity<ResponseObject> deleteImage(@PathVariable String objectKey) {
         try {
-            Long userId = accountUtils.getCurrentUser().getUserId();
+            Long userId = accountUtils.getCurrentUserId();
             
             if (!objectKey.startsWith("essay-images/" + userId + "/")) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
@@ -1,10 +1,20 @@
 package com.example.demologin.controller;
 
+import com.example.demologin.entity.Exam;
+import com.example.demologin.entity.ExamQuestion;
+import com.example.demologin.entity.Matrix;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
 import com.example.demologin.annotation.ApiResponse;
+import com.example.demologin.annotation.ConditionalGet;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.exam.AddQuestionToExamRequest;
+import com.example.demologin.dto.request.exam.ExamQuestionBatchRequest;
 import com.example.demologin.dto.request.exam.ExamRequest;
+import com.example.demologin.dto.request.exam.GenerateExamRequest;
+import com.example.demologin.dto.response.ExamCompositionResponse;
+import com.example.demologin.dto.response.ExamGenerationResponse;
 import com.example.demologin.dto.response.ExamQuestionResponse;
 import com.example.demologin.dto.response.ExamResponse;
 import com.example.demologin.dto.response.ResponseObject;
@@ -41,6 +51,7 @@ public class ExamManagementController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(entities = {Exam.class, ExamQuestion.class, Matrix.class, Question.class, QuestionType.class})
     @ApiResponse(message = "Lấy thông tin exam thành công")
     public ResponseEntity<ResponseObject> get(@PathVariable Long id) {
         ExamResponse data = examService.getExamById(id);
@@ -105,6 +116,14 @@ public class ExamManagementController {
                 .body(new ResponseObject(HttpStatus.CREATED.value(), "Question added to exam", data));
     }
 
+    @PatchMapping("/{examId}/questions")
+    @ApiResponse(message = "Cập nhật danh sách câu hỏi của exam thành công")
+    public ResponseEntity<ResponseObject> batchQuestions(@PathVariable Long examId,
+                                                         @Valid @RequestBody ExamQuestionBatchRequest request) {
+        ExamCompositionResponse data = examService.applyQuestionBatch(examId, request);
+        return ResponseEntity.ok(new ResponseObject(HttpStatus.OK.value(), "Exam questions updated", data));
+    }
+
     @DeleteMapping("/{examId}/questions/{questionId}")
     @ApiResponse(message = "Xóa câu hỏi khỏi exam thành công")
     public ResponseEntity<ResponseObject> removeQuestion(@PathVariable Long examId,
@@ -124,6 +143,15 @@ public class ExamManagementController {
         return ResponseEntity.ok(new ResponseObject(HttpStatus.OK.value(), "Exam questions retrieved", data));
     }
 
+    @PostMapping("/{examId}/generate")
+    @ApiResponse(message = "Sinh câu hỏi từ matrix thành công")
+    public ResponseEntity<ResponseObject> generate(@PathVariable Long examId,
+                                                   @Valid @RequestBody GenerateExamRequest request) {
+        ExamGenerationResponse data = examService.generateFromMatrix(examId, request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new ResponseObject(HttpStatus.CREATED.value(), "Exam questions generated", data));
+    }
+
     @PutMapping("/{id}/publish")
     @ApiResponse(message = "Publish exam thành công")
     public ResponseEntity<ResponseObject> publish(@PathVariable Long id) {
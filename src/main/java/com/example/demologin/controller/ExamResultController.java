@@ -35,13 +35,18 @@ public class ExamResultController {
             @RequestParam(defaultValue = "10") final int size,
             @RequestParam(required = false) final String keyword,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate to,
+            // Keyset: ?cursor= (rỗng) cho trang đầu, sau đó truyền nextCursor của trang trước
+            @RequestParam(required = false) final String cursor,
+            @RequestParam(defaultValue = "false") final boolean withTotal
     ) {
         // Quy ước: from = đầu ngày; to = cuối ngày (exclusive = +1 day at 00:00)
         final LocalDateTime fromDt = (from != null) ? from.atStartOfDay() : null;
         final LocalDateTime toDt   = (to != null)   ? to.plusDays(1).atStartOfDay() : null;
 
-        final var data = examService.listAttemptsOfExam(examId, page, size, keyword, fromDt, toDt);
+        final Object data = cursor != null
+                ? examService.listAttemptsOfExam(examId, cursor, size, withTotal, keyword, fromDt, toDt)
+                : examService.listAttemptsOfExam(examId, page, size, keyword, fromDt, toDt);
         return ResponseEntity.ok(new ResponseObject(
                 HttpStatus.OK.value(),
                 "Lấy danh sách bài làm của học sinh thành công",
@@ -1,6 +1,10 @@
 package com.example.demologin.controller;
 
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
 import com.example.demologin.annotation.ApiResponse;
+import com.example.demologin.annotation.ConditionalGet;
 import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.grade.GradeRequest;
 import com.example.demologin.dto.response.ChapterResponse;
@@ -40,6 +44,7 @@ public class GradeController {
 
     // Get by ID
     @GetMapping("/{id}")
+    @ConditionalGet(entities = Grade.class)
     @ApiResponse(message = "Grade retrieved successfully")
     @Operation(summary = "Get grade by ID", description = "Retrieve a grade by its ID")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN') or hasRole('STUDENT')")
@@ -51,6 +56,7 @@ public class GradeController {
 
     // List all
     @GetMapping
+    @ConditionalGet(entities = Grade.class)
     @ApiResponse(message = "Grades retrieved successfully")
     @Operation(summary = "Get all grades", description = "Retrieve all grades")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN') or hasRole('STUDENT')")
@@ -84,6 +90,7 @@ public class GradeController {
 
     // Get chapters by grade
     @GetMapping("/{gradeId}/chapters")
+    @ConditionalGet(entities = {Grade.class, Chapter.class, Lesson.class})
     @ApiResponse(message = "Get list chapters by grade id successfully")
     @Operation(summary = "Get chapters by grade", description = "Retrieve chapters by grade id")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN') or hasRole('STUDENT')")
@@ -1,6 +1,9 @@
 package com.example.demologin.controller;
 
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Lesson;
 import com.example.demologin.annotation.ApiResponse;
+import com.example.demologin.annotation.ConditionalGet;
 import com.example.demologin.dto.request.lesson.LessonRequest;
 import com.example.demologin.dto.response.ResponseObject;
 import com.example.demologin.dto.response.lesson.LessonResponse;
@@ -36,6 +39,7 @@ public class LessonController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(entities = {Lesson.class, Chapter.class})
     @ApiResponse(message = "Lesson retrieved successfully")
     @PreAuthorize("hasRole('STUDENT') or hasRole('TEACHER') or hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> getLessonById(@PathVariable Long id) {
@@ -48,6 +52,7 @@ public class LessonController {
     }
 
     @GetMapping
+    @ConditionalGet(entities = {Lesson.class, Chapter.class})
     @ApiResponse(message = "Lessons retrieved successfully")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN') or hasRole('STUDENT')")
     public ResponseEntity<ResponseObject> getLessons(
@@ -6,6 +6,8 @@ import com.example.demologin.annotation.SmartCache;
 import com.example.demologin.dto.request.lesson_plan.LessonPlanEditRequest;
 import com.example.demologin.dto.response.LessonPlanEditResponse;
 import com.example.demologin.dto.response.ResponseObject;
+import com.example.demologin.entity.LessonPlan;
+import com.example.demologin.entity.LessonPlanEdit;
 import com.example.demologin.service.LessonPlanEditService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -42,7 +44,7 @@ public class LessonPlanEditController {
     @GetMapping("/{lessonPlanId}")
     @ApiResponse(message = "Lesson plan edits retrieved successfully")
     @SecuredEndpoint("LESSON_PLAN_EDIT_VIEW")
-    @SmartCache
+    @SmartCache(entities = {LessonPlanEdit.class, LessonPlan.class})
     @Operation(summary = "Get lesson plan edit history", description = "Get all edits for a specific lesson plan")
     @PreAuthorize("hasRole('TEACHER') or hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> getAll(@PathVariable Long lessonPlanId) {
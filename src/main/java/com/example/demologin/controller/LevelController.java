@@ -1,6 +1,8 @@
 package com.example.demologin.controller;
 
+import com.example.demologin.entity.Level;
 import com.example.demologin.annotation.ApiResponse;
+import com.example.demologin.annotation.ConditionalGet;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.dto.request.level.LevelRequest;
 import com.example.demologin.dto.response.LevelResponse;
@@ -38,6 +40,7 @@ public class LevelController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(entities = Level.class)
     @ApiResponse(message = "Level retrieved successfully")
     @Operation(summary = "Get level by ID", description = "Retrieve a level by its ID")
     public ResponseEntity<ResponseObject> getLevelById(
@@ -51,6 +54,7 @@ public class LevelController {
     }
 
     @GetMapping
+    @ConditionalGet(entities = Level.class)
     @PageResponse
     @ApiResponse(message = "Levels retrieved successfully")
     @Operation(summary = "Get all levels", description = "Retrieve all levels with pagination")
@@ -68,6 +72,7 @@ public class LevelController {
     }
 
     @GetMapping("/search")
+    @ConditionalGet(entities = Level.class)
     @PageResponse
     @ApiResponse(message = "Levels search completed successfully")
     @Operation(summary = "Search levels", description = "Search levels by keyword")
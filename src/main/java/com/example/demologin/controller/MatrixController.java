@@ -3,6 +3,7 @@ package com.example.demologin.controller;
 import com.example.demologin.annotation.ApiResponse;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.dto.request.matrix.MatrixRequest;
+import com.example.demologin.dto.response.matrix.MatrixFeasibilityResponse;
 import com.example.demologin.dto.response.matrix.MatrixResponse;
 import com.example.demologin.dto.response.ResponseObject;
 import com.example.demologin.service.MatrixService;
@@ -54,6 +55,17 @@ public class MatrixController {
         return ResponseEntity.ok(new ResponseObject(HttpStatus.OK.value(), "Matrix retrieved successfully", data));
     }
 
+    @GetMapping("/{id}/feasibility")
+    @ApiResponse(message = "Matrix feasibility retrieved successfully")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER') ")
+    @Operation(summary = "Check matrix feasibility",
+            description = "Compare each quota with the number of questions available for its lesson, level and type")
+    public ResponseEntity<ResponseObject> getFeasibility(
+            @Parameter(description = "Matrix ID") @PathVariable Long id) {
+        MatrixFeasibilityResponse data = matrixService.getFeasibility(id);
+        return ResponseEntity.ok(new ResponseObject(HttpStatus.OK.value(), "Matrix feasibility retrieved successfully", data));
+    }
+
     @PutMapping("/{id}")
     @ApiResponse(message = "Matrix updated successfully")
     @PreAuthorize("hasRole('ADMIN') or hasRole('TEACHER') ")
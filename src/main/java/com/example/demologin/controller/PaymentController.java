@@ -3,7 +3,7 @@ package com.example.demologin.controller;
 import com.example.demologin.annotation.ApiResponse;
 import com.example.demologin.dto.request.payment.PaymentRequest;
 import com.example.demologin.dto.response.PaymentResponse;
-import com.example.demologin.entity.User;
+import com.example.demologin.security.AuthPrincipal;
 import com.example.demologin.service.PaymentService;
 import com.stripe.Stripe;
 import com.stripe.exception.SignatureVerificationException;
@@ -33,8 +33,8 @@ public class PaymentController {
     @PostMapping("/create-session")
     public PaymentResponse createSession(@RequestBody PaymentRequest request,
                                          Authentication authentication) throws Exception {
-        User user = (User) authentication.getPrincipal();
-        return paymentService.createCheckoutSession(user.getUserId(), request);
+        AuthPrincipal principal = (AuthPrincipal) authentication.getPrincipal();
+        return paymentService.createCheckoutSession(principal.getUserId(), request);
     }
 
     @PostMapping("/webhook")
@@ -1,6 +1,8 @@
 package com.example.demologin.controller;
 
+import com.example.demologin.entity.Plan;
 import com.example.demologin.annotation.ApiResponse;
+import com.example.demologin.annotation.ConditionalGet;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.dto.request.plan.PlanRequest;
 import com.example.demologin.dto.response.PlanResponse;
@@ -66,6 +68,7 @@ public class PlanController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(entities = Plan.class)
     @ApiResponse(message = "Plan retrieved successfully")
     @Operation(summary = "Xem chi tiết Plan", description = "Lấy thông tin gói học theo ID")
     public ResponseEntity<ResponseObject> getById(@PathVariable Long id) {
@@ -78,6 +81,7 @@ public class PlanController {
     }
 
     @GetMapping
+    @ConditionalGet(entities = Plan.class)
     @ApiResponse(message = "Plans retrieved successfully")
     @Operation(summary = "Lấy danh sách Plan", description = "Trả về danh sách tất cả các gói học")
     public ResponseEntity<ResponseObject> getAll() {
@@ -90,6 +94,7 @@ public class PlanController {
     }
 
     @GetMapping("/paged")
+    @ConditionalGet(entities = Plan.class)
     @ApiResponse(message = "Plans retrieved successfully")
     @PageResponse
     @Operation(summary = "Lấy danh sách Plan (phân trang)", description = "Trả về danh sách các gói học có phân trang")
@@ -6,16 +6,23 @@ import com.example.demologin.annotation.SecuredEndpoint;
 import com.example.demologin.dto.request.ai.QuestionGenerate;
 import com.example.demologin.dto.request.question.QuestionCreateRequest;
 import com.example.demologin.dto.request.question.QuestionUpdateRequest;
+import com.example.demologin.dto.response.QuestionGenerationJobResponse;
+import com.example.demologin.dto.response.QuestionImportJobResponse;
 import com.example.demologin.dto.response.QuestionResponse;
 import com.example.demologin.dto.response.ResponseObject;
+import com.example.demologin.service.QuestionGenerationService;
+import com.example.demologin.service.QuestionImportService;
 import com.example.demologin.service.QuestionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,15 +31,22 @@ import org.springframework.web.bind.annotation.*;
 public class QuestionController {
 
     private final QuestionService questionService;
+    private final QuestionImportService questionImportService;
+    private final QuestionGenerationService questionGenerationService;
 
     @GetMapping
     @PageResponse
     @ApiResponse(message = "Questions retrieved successfully")
     public ResponseEntity<ResponseObject> list(
             @RequestParam(defaultValue = "0") final int page,
-            @RequestParam(defaultValue = "20") final int size
+            @RequestParam(defaultValue = "20") final int size,
+            // Keyset: ?cursor= (rỗng) cho trang đầu, sau đó truyền nextCursor của trang trước
+            @RequestParam(required = false) final String cursor,
+            @RequestParam(defaultValue = "false") final boolean withTotal
     ) {
-        final Page<QuestionResponse> data = questionService.list(page, size);
+        final Object data = cursor != null
+                ? questionService.list(cursor, size, withTotal)
+                : questionService.list(page, size);
         return ResponseEntity.ok(new ResponseObject(
                 HttpStatus.OK.value(),
                 "Questions retrieved successfully",
@@ -40,6 +54,25 @@ public class QuestionController {
         ));
     }
 
+    @GetMapping("/search")
+    @PageResponse
+    @ApiResponse(message = "Questions search results")
+    public ResponseEntity<ResponseObject> search(
+            @RequestParam("q") final String keyword,
+            @RequestParam(required = false) final Long lessonId,
+            @RequestParam(required = false) final Long levelId,
+            @RequestParam(required = false) final Long typeId,
+            @RequestParam(defaultValue = "0") final int page,
+            @RequestParam(defaultValue = "20") final int size
+    ) {
+        final Page<QuestionResponse> data = questionService.search(keyword, lessonId, levelId, typeId, page, size);
+        return ResponseEntity.ok(new ResponseObject(
+                HttpStatus.OK.value(),
+                "Questions search results",
+                data
+        ));
+    }
+
     @GetMapping("/{id}")
     @ApiResponse(message = "Question retrieved successfully")
     public ResponseEntity<ResponseObject> get(@PathVariable final Long id) {
@@ -98,6 +131,62 @@ public class QuestionController {
         ));
     }
 
+    @PostMapping("/generate/jobs")
+    @ApiResponse(message = "Question generation started")
+    public ResponseEntity<ResponseObject> startGeneration(@Valid @RequestBody final QuestionGenerate request) {
+        final QuestionGenerationJobResponse data = questionGenerationService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ResponseObject(
+                HttpStatus.ACCEPTED.value(),
+                "Question generation started",
+                data
+        ));
+    }
+
+    @GetMapping("/generate/jobs/{jobId}")
+    @ApiResponse(message = "Question generation status retrieved successfully")
+    public ResponseEntity<ResponseObject> generationStatus(@PathVariable final String jobId) {
+        final QuestionGenerationJobResponse data = questionGenerationService.getJob(jobId);
+        return ResponseEntity.ok(new ResponseObject(
+                HttpStatus.OK.value(),
+                "Question generation status retrieved successfully",
+                data
+        ));
+    }
+
+    // Server-Sent Events: không bọc ResponseObject, mỗi câu hỏi là một event "question"
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGeneration(@Valid @RequestBody final QuestionGenerate request) {
+        return questionGenerationService.stream(request);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ApiResponse(message = "Question import started")
+    public ResponseEntity<ResponseObject> importQuestions(
+            @RequestParam("file") final MultipartFile file,
+            @RequestParam(required = false) final String format,
+            @RequestParam(required = false) final String type,
+            @RequestParam(required = false) final Long lessonId,
+            @RequestParam(required = false) final Long levelId
+    ) {
+        final QuestionImportJobResponse data = questionImportService.startImport(file, format, type, lessonId, levelId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new ResponseObject(
+                HttpStatus.ACCEPTED.value(),
+                "Question import started",
+                data
+        ));
+    }
+
+    @GetMapping("/import/{jobId}")
+    @ApiResponse(message = "Question import status retrieved successfully")
+    public ResponseEntity<ResponseObject> importStatus(@PathVariable final String jobId) {
+        final QuestionImportJobResponse data = questionImportService.getJob(jobId);
+        return ResponseEntity.ok(new ResponseObject(
+                HttpStatus.OK.value(),
+                "Question import status retrieved successfully",
+                data
+        ));
+    }
+
     @GetMapping("/by-level/{levelId}")
     @PageResponse
     @ApiResponse(message = "Questions retrieved by level successfully")
@@ -1,6 +1,8 @@
 package com.example.demologin.controller;
 
+import com.example.demologin.entity.QuestionType;
 import com.example.demologin.annotation.ApiResponse;
+import com.example.demologin.annotation.ConditionalGet;
 import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.dto.request.questiontype.QuestionTypeCreateRequest;
 import com.example.demologin.dto.request.questiontype.QuestionTypeUpdateRequest;
@@ -24,6 +26,7 @@ public class QuestionTypeController {
     private final QuestionTypeService questionTypeService;
 
     @GetMapping
+    @ConditionalGet(entities = QuestionType.class)
     @PageResponse
     @ApiResponse(message = "Question types retrieved successfully")
     public ResponseEntity<ResponseObject> list(
@@ -39,6 +42,7 @@ public class QuestionTypeController {
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(entities = QuestionType.class)
     @ApiResponse(message = "Question type retrieved successfully")
     public ResponseEntity<ResponseObject> get(@PathVariable final Long id) {
         final QuestionTypeResponse data = questionTypeService.get(id);
@@ -7,6 +7,8 @@ import com.example.demologin.dto.request.role.CreateRoleRequest;
 import com.example.demologin.dto.request.role.RolePermissionsRequest;
 import com.example.demologin.dto.request.role.UpdateRoleRequest;
 import com.example.demologin.dto.response.ResponseObject;
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
 import com.example.demologin.service.RoleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -28,7 +30,7 @@ public class RoleController {
     private final RoleService roleService;
 
     @GetMapping
-    @SmartCache
+    @SmartCache(entities = {Role.class, Permission.class})
     @ApiResponse(message = "Roles retrieved successfully")
     @Operation(summary = "Get all roles", description = "Retrieve all roles in the system")
     public ResponseEntity<ResponseObject> getAll() {
@@ -82,7 +84,7 @@ public class RoleController {
     }
 
     @GetMapping("/{id}")
-    @SmartCache
+    @SmartCache(entities = {Role.class, Permission.class})
     @SecuredEndpoint("ROLE_VIEW")
     @ApiResponse(message = "Role retrieved successfully")
     @Operation(summary = "Get role by ID", description = "Retrieve a role by its ID")
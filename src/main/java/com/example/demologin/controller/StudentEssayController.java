@@ -73,7 +73,7 @@ public class StudentEssayController {
     )
     public ResponseEntity<ResponseObject> startEssay(@Valid @RequestBody EssaySubmissionStartRequest request) {
         try {
-            Long userId = accountUtils.getCurrentUser().getUserId();
+            Long userId = accountUtils.getCurrentUserId();
             EssaySubmissionResponse submission = submissionService.startEssay(request, userId);
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ResponseObject(201, "Essay started successfully", submission));
@@ -97,7 +97,7 @@ public class StudentEssayController {
     )
     public ResponseEntity<ResponseObject> submitEssay(@Valid @RequestBody EssaySubmissionSubmitRequest request) {
         try {
-            Long userId = accountUtils.getCurrentUser().getUserId();
+            Long userId = accountUtils.getCurrentUserId();
             EssaySubmissionResponse submission = submissionService.submitEssay(request, userId);
             return ResponseEntity.ok(new ResponseObject(200, "Essay submitted successfully. Waiting for teacher grading.", submission));
         } catch (IllegalStateException e) {
@@ -117,7 +117,7 @@ public class StudentEssayController {
     @Operation(summary = "Get my essay submissions", description = "View all your essay submissions with status and scores")
     public ResponseEntity<ResponseObject> getMySubmissions(Pageable pageable) {
         try {
-            Long userId = accountUtils.getCurrentUser().getUserId();
+            Long userId = accountUtils.getCurrentUserId();
             var submissions = submissionService.getMySubmissions(userId, pageable);
             return ResponseEntity.ok(new ResponseObject(200, "Success", submissions));
         } catch (Exception e) {
@@ -133,7 +133,7 @@ public class StudentEssayController {
     @Operation(summary = "Get submission by ID", description = "View details of a specific submission including teacher feedback")
     public ResponseEntity<ResponseObject> getSubmissionById(@PathVariable Long id) {
         try {
-            Long userId = accountUtils.getCurrentUser().getUserId();
+            Long userId = accountUtils.getCurrentUserId();
             EssaySubmissionResponse submission = submissionService.getMySubmission(id, userId);
             return ResponseEntity.ok(new ResponseObject(200, "Success", submission));
         } catch (SecurityException e) {
@@ -6,7 +6,7 @@ import com.example.demologin.annotation.PageResponse;
 import com.example.demologin.dto.request.subcription.SubscriptionRequest;
 import com.example.demologin.dto.response.ResponseObject;
 import com.example.demologin.dto.response.SubscriptionResponse;
-import com.example.demologin.entity.User;
+import com.example.demologin.security.AuthPrincipal;
 import com.example.demologin.service.SubscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -123,7 +123,7 @@ public class SubscriptionController {
     @AuthenticatedEndpoint
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<ResponseObject> checkActiveSubscription(
-            @AuthenticationPrincipal User currentUser) {
+            @AuthenticationPrincipal AuthPrincipal currentUser) {
         try {
             final SubscriptionResponse data = subscriptionService.getActiveSubscription(currentUser.getUserId());
             return ResponseEntity.ok(new ResponseObject(
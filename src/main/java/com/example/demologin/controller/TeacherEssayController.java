@@ -52,13 +52,35 @@ public class TeacherEssayController {
         }
     }
 
+    @GetMapping("/questions/search")
+    @AuthenticatedEndpoint
+    @PageResponse
+    @ApiResponse(message = "Essay questions search results")
+    @Operation(summary = "Search essay questions",
+               description = "Full-text search over active essay prompts, ranked by relevance (teacher only)")
+    public ResponseEntity<ResponseObject> searchQuestions(
+            @RequestParam("q") String keyword,
+            @RequestParam(required = false) Long lessonId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Pageable pageable = Pageable.ofSize(size).withPage(page);
+            var questions = questionService.searchActiveQuestions(keyword, lessonId, pageable);
+            return ResponseEntity.ok(new ResponseObject(200, "Essay questions search results", questions));
+        } catch (Exception e) {
+            log.error("Failed to search essay questions", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ResponseObject(500, e.getMessage(), null));
+        }
+    }
+
     @PostMapping("/questions")
     @AuthenticatedEndpoint
     @ApiResponse(message = "Essay question created successfully")
     @Operation(summary = "Create new essay question")
     public ResponseEntity<ResponseObject> createQuestion(@Valid @RequestBody EssayQuestionRequest request) {
         try {
-            Long teacherId = accountUtils.getCurrentUser().getUserId();
+            Long teacherId = accountUtils.getCurrentUserId();
             EssayQuestionResponse question = questionService.createQuestion(request, teacherId);
             return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ResponseObject(201, "Essay question created successfully", question));
@@ -75,7 +97,7 @@ public class TeacherEssayController {
     @Operation(summary = "Grade essay submission")
     public ResponseEntity<ResponseObject> gradeSubmission(@Valid @RequestBody TeacherGradingRequest request) {
         try {
-            Long teacherId = accountUtils.getCurrentUser().getUserId();
+            Long teacherId = accountUtils.getCurrentUserId();
             EssaySubmissionResponse submission = submissionService.gradeSubmission(request, teacherId);
             return ResponseEntity.ok(new ResponseObject(200, "Essay graded successfully", submission));
         } catch (IllegalArgumentException e) {
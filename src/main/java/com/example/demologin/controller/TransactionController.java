@@ -10,7 +10,6 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -83,11 +82,14 @@ public class TransactionController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> getAllPaged(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
-        Pageable pageable = PageRequest.of(page, size);
-        final com.example.demologin.dto.response.PageResponse<TransactionResponse> data =
-                transactionService.getAllPaged(pageable);
+        // cursor != null: chế độ keyset (cursor rỗng = trang đầu)
+        final Object data = cursor != null
+                ? transactionService.getAllPaged(cursor, size, withTotal)
+                : transactionService.getAllPaged(PageRequest.of(page, size));
         return ResponseEntity.ok(new ResponseObject(
                 HttpStatus.OK.value(),
                 "Transactions retrieved successfully",
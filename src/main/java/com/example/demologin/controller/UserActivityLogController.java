@@ -29,8 +29,14 @@ import java.time.LocalDateTime;
     @Operation(summary = "Get all user activity logs", description = "Retrieve paginated list of all user activity logs")
     public Object getAllActivityLogs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Keyset mode: empty for the first page, then the previous nextCursor")
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        if (cursor != null) {
+            return userActivityLogService.getAllActivityLogs(cursor, size, withTotal);
+        }
         return userActivityLogService.getAllActivityLogs(page, size);
     }
 
@@ -16,7 +16,6 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -42,8 +41,13 @@ public class UserController {
     @PageResponse
     public ResponseEntity<ResponseObject> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        Page<MemberResponse> data = userService.getAllUsers(page, size);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        // cursor != null: chế độ keyset (cursor rỗng = trang đầu)
+        Object data = cursor != null
+                ? userService.getAllUsers(cursor, size, withTotal)
+                : userService.getAllUsers(page, size);
         return ResponseEntity.ok(new ResponseObject(
                 HttpStatus.OK.value(),
                 "Users retrieved successfully",
@@ -100,7 +104,7 @@ public class UserController {
             description = "User updates own profile (no roles/status/locked fields)")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<ResponseObject> updateMyProfile(@Valid @RequestBody final UpdateUserRequest req) {
-        Long currentUserId = accountUtils.getCurrentUser().getUserId();
+        Long currentUserId = accountUtils.getCurrentUserId();
         var data = userService.updateSelf(currentUserId, req);
         return ResponseEntity.ok(new ResponseObject(
                 HttpStatus.OK.value(),
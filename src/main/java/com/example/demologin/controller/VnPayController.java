@@ -1,7 +1,7 @@
 package com.example.demologin.controller;
 
 import com.example.demologin.annotation.ApiResponse;
-import com.example.demologin.entity.User;
+import com.example.demologin.security.AuthPrincipal;
 import com.example.demologin.service.VnPayService;
 import com.example.demologin.dto.response.ResponseObject;
 import io.swagger.v3.oas.annotations.Operation;
@@ -106,7 +106,7 @@ public class VnPayController {
     @PreAuthorize("hasRole('STUDENT') or hasRole('ADMIN')")
     public ResponseEntity<ResponseObject> cancelBySubscription(
             @RequestParam Long subscriptionId,
-            @AuthenticationPrincipal User currentUser) {
+            @AuthenticationPrincipal AuthPrincipal currentUser) {
         try {
             vnPayService.cancelBySubscriptionId(subscriptionId, currentUser.getUserId());
             return ResponseEntity.ok(new ResponseObject(
@@ -1,15 +1,21 @@
 package com.example.demologin.dto.request.ai;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class QuestionGenerate {
     @NotBlank
     private String questionText;
@@ -22,5 +28,7 @@ public class QuestionGenerate {
 
     private Long levelId;
 
+    @Min(1)
+    @Max(20)
     private Integer quantity;
 }
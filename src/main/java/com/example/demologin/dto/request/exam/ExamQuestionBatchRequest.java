@@ -0,0 +1,40 @@
+package com.example.demologin.dto.request.exam;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Một lần sửa danh sách câu hỏi của exam: thêm, xóa và đổi điểm. Mỗi question chỉ được xuất hiện
+ * một lần trong cả ba danh sách.
+ */
+@Getter
+@Setter
+public class ExamQuestionBatchRequest {
+
+    // Điểm để trống thì lấy điểm mặc định của level
+    @Valid
+    private List<AddQuestionToExamRequest> add = new ArrayList<>();
+
+    private List<@NotNull Long> remove = new ArrayList<>();
+
+    @Valid
+    private List<ScoreChange> updateScores = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class ScoreChange {
+
+        @NotNull(message = "Question ID không được để trống")
+        private Long questionId;
+
+        @NotNull(message = "Điểm số không được để trống")
+        @Min(value = 0, message = "Điểm số phải >= 0")
+        private Double score;
+    }
+}
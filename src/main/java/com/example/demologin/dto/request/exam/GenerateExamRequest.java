@@ -0,0 +1,22 @@
+package com.example.demologin.dto.request.exam;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class GenerateExamRequest {
+
+    // Số mã đề; mã đề 1 là chính exam này, các mã còn lại là exam mới (DRAFT)
+    @Min(value = 1, message = "Số mã đề phải >= 1")
+    @Max(value = 10, message = "Số mã đề phải <= 10")
+    private Integer variants = 1;
+
+    // true: xóa câu hỏi hiện có rồi sinh lại toàn bộ; false: chỉ bổ sung phần còn thiếu
+    private Boolean replaceExisting = false;
+
+    // Cùng seed + cùng ngân hàng câu hỏi => cùng đề
+    private Long seed;
+}
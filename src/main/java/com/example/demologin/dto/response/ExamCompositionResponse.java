@@ -0,0 +1,29 @@
+package com.example.demologin.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ExamCompositionResponse {
+    private Long examId;
+    private int added;
+    private int removed;
+    private int updated;
+    private int totalQuestions;
+    private double totalScore;
+    // Mỗi ô (lesson, level, type) của matrix, cộng các ô ngoài matrix mà exam đang có câu hỏi (required = 0)
+    private List<Cell> cells;
+
+    @Data
+    @Builder
+    public static class Cell {
+        private Long lessonId;
+        private Long levelId;
+        private Long typeId;
+        private int required;
+        private int current;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demologin.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ExamGenerationResponse {
+    private long seed;
+    private long elapsedMs;
+    private List<Variant> variants;
+
+    @Data
+    @Builder
+    public static class Variant {
+        private Long examId;
+        private String title;
+        private int addedQuestions;
+        private int totalQuestions;
+    }
+}
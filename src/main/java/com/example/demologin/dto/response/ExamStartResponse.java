@@ -1,9 +1,11 @@
 package com.example.demologin.dto.response;
 
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
 import java.time.Instant;
-import java.util.List;
 
 @Data
 public class ExamStartResponse {
@@ -13,5 +15,7 @@ public class ExamStartResponse {
     private Integer totalQuestions;
     private Instant startedAt;
     private Instant mustSubmitBefore; // nếu có thời lượng thì set; không thì null
-    private List<QuestionView> questions; // có thể trả đề để hiển thị
+    // Đề đã serialize sẵn (mảng QuestionView), dùng chung cho mọi lượt làm bài
+    @ArraySchema(schema = @Schema(implementation = QuestionView.class))
+    private RawValue questions;
 }
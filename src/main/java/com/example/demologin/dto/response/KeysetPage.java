@@ -0,0 +1,50 @@
+package com.example.demologin.dto.response;
+
+import com.example.demologin.utils.PageCursor;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset listing. Rendered as {@link PageResponse} by
+ * {@link com.example.demologin.aspect.PageResponseAspect}, with {@code nextCursor} set while
+ * more rows follow; {@code total} is only filled when the client asked for it.
+ */
+@Getter
+public class KeysetPage<T> extends SliceImpl<T> {
+
+    // Largest page a client can ask for; bigger requests get this many rows
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final String nextCursor;
+    private final Long total;
+
+    public KeysetPage(List<T> content, int size, String nextCursor, Long total) {
+        super(content, PageRequest.of(0, limit(size)), nextCursor != null);
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    /**
+     * The number of rows a listing returns for a requested {@code size}: at least 1, at most
+     * {@link #MAX_PAGE_SIZE}. Fetch {@code limit + 1} rows and pass them to {@link #of}.
+     */
+    public static int limit(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * @param rows up to {@code size + 1} rows in listing order; the extra row only tells that
+     *             another page exists and is dropped
+     */
+    public static <E, T> KeysetPage<T> of(List<E> rows, int size, Function<E, PageCursor> cursorOf,
+                                          Function<E, T> mapper, Long total) {
+        boolean more = rows.size() > size;
+        List<E> page = more ? rows.subList(0, size) : rows;
+        String next = more ? cursorOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new KeysetPage<>(page.stream().map(mapper).toList(), size, next, total);
+    }
+}
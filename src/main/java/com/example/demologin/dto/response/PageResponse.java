@@ -1,5 +1,6 @@
 package com.example.demologin.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 import org.springframework.data.domain.Page;
@@ -30,6 +31,11 @@ public class PageResponse<T> {
     @JsonProperty("last")
     private boolean last;
 
+    // Chỉ có ở chế độ cursor: truyền lại qua tham số ?cursor= để lấy trang tiếp theo
+    @JsonProperty("nextCursor")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     /**
      * Constructor to create PageResponse from Spring's Page object
      */
@@ -41,5 +47,19 @@ public class PageResponse<T> {
         this.totalPages = page.getTotalPages();
         this.last = page.isLast();
     }
+
+    /**
+     * Constructor for a keyset page. pageNumber is always 0; totalElements and totalPages are -1
+     * unless the client asked for the total.
+     */
+    public PageResponse(KeysetPage<T> page) {
+        this.content = page.getContent();
+        this.pageNumber = 0;
+        this.pageSize = page.getSize();
+        this.totalElements = page.getTotal() != null ? page.getTotal() : -1;
+        this.totalPages = page.getTotal() != null ? (int) Math.ceil((double) page.getTotal() / page.getSize()) : -1;
+        this.last = page.isLast();
+        this.nextCursor = page.getNextCursor();
+    }
 }
 
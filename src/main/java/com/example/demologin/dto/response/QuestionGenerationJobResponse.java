@@ -0,0 +1,29 @@
+package com.example.demologin.dto.response;
+
+import com.example.demologin.dto.request.question.QuestionCreateRequest;
+import com.example.demologin.enums.GenerationJobStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class QuestionGenerationJobResponse {
+    private String jobId;
+    private GenerationJobStatus status;
+
+    private boolean cached;       // lấy từ cache, không gọi AI
+    private int attempts;         // số lần gọi AI (kể cả retry)
+
+    private List<QuestionCreateRequest> questions;  // câu hỏi nháp, gửi lại POST /api/questions để lưu
+    private List<String> rejected;                  // câu không đúng format / số đáp án
+    private String text;                            // nguyên văn kết quả AI
+    private String message;                         // lý do khi status = FAILED
+
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,39 @@
+package com.example.demologin.dto.response;
+
+import com.example.demologin.enums.ImportJobStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class QuestionImportJobResponse {
+    private String jobId;
+    private ImportJobStatus status;
+    private String fileName;
+    private String format;
+
+    private int processedRows;
+    private int importedRows;
+    private int failedRows;
+
+    private List<RowError> errors;  // tối đa 500 lỗi đầu tiên
+    private boolean errorsTruncated;
+    private String message;         // lý do khi status = FAILED
+
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private int row;
+        private String message;
+    }
+}
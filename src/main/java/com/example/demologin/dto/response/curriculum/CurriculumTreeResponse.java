@@ -0,0 +1,52 @@
+package com.example.demologin.dto.response.curriculum;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CurriculumTreeResponse {
+    private long totalQuestions;
+    private List<GradeNode> grades;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class GradeNode {
+        private Long id;
+        private Integer gradeNumber;
+        private String description;
+        private long questionCount;
+        private List<ChapterNode> chapters;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ChapterNode {
+        private Long id;
+        private String name;
+        private Integer orderNo;
+        private long questionCount;
+        private List<LessonNode> lessons;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class LessonNode {
+        private Long id;
+        private String lessonName;
+        private long questionCount;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demologin.dto.response.matrix;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class MatrixFeasibilityResponse {
+    private Long matrixId;
+    private String title;
+    private boolean feasible;
+    private int totalRequired;
+    // Số câu có thể lấy được (mỗi ô lesson × level × type tính tối đa bằng quota của ô đó)
+    private int totalCoverable;
+    private double coverage;
+    private List<DetailFeasibility> details;
+
+    @Data
+    @Builder
+    public static class DetailFeasibility {
+        private Long detailId;
+        private Long lessonId;
+        private String lessonName;
+        private Long levelId;
+        private String levelDescription;
+        private Long questionTypeId;
+        private String questionType;
+        private int required;
+        private int available;
+        // Thiếu bao nhiêu câu cho ô này (các detail trùng ô dùng chung số câu có sẵn)
+        private int shortfall;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demologin.entity;
+
+import com.example.demologin.cache.CacheInvalidationEvent;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only feed of {@code @SmartCache} invalidations. Every node tails it by id and
+ * applies the invalidations raised on other nodes; rows are purged after a retention period.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "cache_invalidation_log", indexes = {
+        @Index(name = "idx_cache_invalidation_log_created_at", columnList = "createdAt")
+})
+public class CacheInvalidationLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private CacheInvalidationEvent.Kind kind;
+
+    // Cache name, or fully qualified owner / entity class name
+    @Column(nullable = false)
+    private String target;
+
+    // Node that raised it; that node has already applied it
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
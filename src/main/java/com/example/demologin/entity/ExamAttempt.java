@@ -12,7 +12,9 @@ import java.util.*;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "exam_attempts")
+@Table(name = "exam_attempts", indexes = {
+        @Index(name = "idx_exam_attempts_exam_finished_id", columnList = "exam_id, finishedAt, id")
+})
 public class ExamAttempt {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,42 @@
+package com.example.demologin.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only change feed of revoked JTIs and token version bumps. Every node tails it by id
+ * to apply logouts that happened on other nodes. A row carries either {@code jti},
+ * {@code userId} + {@code tokenVersion}, {@code userId} alone (principal changed) or
+ * neither (every principal changed).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocations_expires_at", columnList = "expiresAt")
+})
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64)
+    private String jti;
+
+    private Long userId;
+
+    private Integer tokenVersion;
+
+    // Access tokens affected by this row are all expired after this instant
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -6,7 +6,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_activity_logs")
+@Table(name = "user_activity_logs", indexes = {
+        @Index(name = "idx_user_activity_logs_timestamp_id", columnList = "timestamp, id")
+})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class UserActivityLog {
 
@@ -0,0 +1,8 @@
+package com.example.demologin.enums;
+
+public enum GenerationJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,201 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.dto.request.question.OptionRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * CSV (RFC 4180: quoted fields may contain separators, quotes and line breaks) with a header row.
+ * <pre>
+ * question_text,type,lesson_id,level,options,correct
+ * "2 + 2 = ?",MCQ_SINGLE,12,Easy,3|4|5,B
+ * </pre>
+ * {@code options} are separated by {@code |}; {@code correct} lists option letters or 1-based
+ * positions, separated by {@code |} or {@code ,}. {@code level} is a level id or difficulty name.
+ * A header with {@code ;} and no {@code ,} switches the separator (spreadsheet exports in
+ * vi-VN locales).
+ */
+class CsvQuestionRowReader implements QuestionRowReader {
+
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private char separator = ',';
+    private int recordNumber;
+    private int questionText = -1;
+    private int type = -1;
+    private int lessonId = -1;
+    private int level = -1;
+    private int options = -1;
+    private int correct = -1;
+
+    CsvQuestionRowReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        readHeader();
+    }
+
+    @Override
+    public QuestionImportRow next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        int row = recordNumber;
+        Long lesson;
+        try {
+            String raw = field(fields, lessonId);
+            lesson = raw == null ? null : Long.valueOf(raw);
+        } catch (NumberFormatException ex) {
+            return QuestionImportRow.malformed(row, "lesson_id is not a number: " + field(fields, lessonId));
+        }
+        List<OptionRequest> parsedOptions;
+        try {
+            parsedOptions = parseOptions(field(fields, options), field(fields, correct));
+        } catch (IllegalArgumentException ex) {
+            return QuestionImportRow.malformed(row, ex.getMessage());
+        }
+        return new QuestionImportRow(row, field(fields, questionText), field(fields, type), lesson,
+                field(fields, level), parsedOptions, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        reader.mark(MAX_FIELD_LENGTH);
+        String firstLine = reader.readLine();
+        reader.reset();
+        if (firstLine == null) {
+            return;
+        }
+        if (firstLine.indexOf(',') < 0 && firstLine.indexOf(';') >= 0) {
+            separator = ';';
+        }
+        List<String> header = readRecord();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            switch (name) {
+                case "questiontext", "question" -> questionText = i;
+                case "type", "questiontype" -> type = i;
+                case "lessonid", "lesson" -> lessonId = i;
+                case "level", "levelid", "difficulty" -> level = i;
+                case "options" -> options = i;
+                case "correct", "answer", "answers" -> correct = i;
+                default -> { /* extra columns are ignored */ }
+            }
+        }
+        if (questionText < 0) {
+            throw new IOException("CSV header must contain a question_text column");
+        }
+    }
+
+    /**
+     * @return the fields of the next record, or null at the end of the input
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        recordNumber++;
+        if (recordNumber == 1 && c == '\uFEFF') {
+            c = reader.read();
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (following >= 0) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            if (field.length() > MAX_FIELD_LENGTH) {
+                throw new IOException("Field longer than " + MAX_FIELD_LENGTH + " characters in record " + recordNumber);
+            }
+            c = reader.read();
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field in record " + recordNumber);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<OptionRequest> parseOptions(String options, String correct) {
+        if (options == null) {
+            return List.of();
+        }
+        String[] texts = options.split("\\|", -1);
+        Set<Integer> correctPositions = new HashSet<>();
+        if (correct != null) {
+            for (String marker : correct.split("[|,]")) {
+                String token = marker.trim();
+                if (token.isEmpty()) {
+                    continue;
+                }
+                int position = token.length() == 1 && Character.isLetter(token.charAt(0))
+                        ? Character.toUpperCase(token.charAt(0)) - 'A'
+                        : parsePosition(token);
+                if (position < 0 || position >= texts.length) {
+                    throw new IllegalArgumentException("Correct option " + token + " does not match any of the "
+                            + texts.length + " options");
+                }
+                correctPositions.add(position);
+            }
+        }
+        List<OptionRequest> result = new ArrayList<>(texts.length);
+        for (int i = 0; i < texts.length; i++) {
+            result.add(new OptionRequest(texts[i].trim(), correctPositions.contains(i)));
+        }
+        return result;
+    }
+
+    private static int parsePosition(String token) {
+        try {
+            return Integer.parseInt(token) - 1;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Correct option must be a letter or a 1-based position: " + token);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.dto.request.question.OptionRequest;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Word documents in the same layout the AI generator produces, one paragraph per line:
+ * <pre>
+ * 1. 2 + 2 = ? (type: MCQ_SINGLE, difficulty: Easy, lesson: 12)
+ * A. 3
+ * B. 4 (đúng)
+ * </pre>
+ * The trailing {@code (key: value, ...)} group is optional. A correct option is marked with
+ * {@code (đúng)}/{@code (correct)} or a leading {@code *}. Other paragraphs continue the
+ * question or option above them.
+ * <p>
+ * {@code word/document.xml} is read with StAX straight from the zip stream, so memory stays
+ * flat whatever the document size (POI's {@code XWPFDocument} builds the whole DOM).
+ */
+class DocxQuestionRowReader implements QuestionRowReader {
+
+    private static final String WORD_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final Pattern QUESTION = Pattern.compile("^(?:câu\\s*)?(\\d+)\\s*[.):]\\s*(.*)$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    private static final Pattern OPTION = Pattern.compile("^\\*?\\s*([A-Ha-h])\\s*[.)]\\s*(.*)$");
+    private static final Pattern CORRECT = Pattern.compile("\\s*\\((?:đúng|correct)\\)\\s*",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    private static final Pattern META = Pattern.compile("\\s*\\(((?:\\s*[a-zA-Z_]+\\s*:\\s*[^,()]+,?)+)\\)\\s*$");
+
+    private final ZipInputStream zip;
+    private final XMLStreamReader xml;
+    private int ordinal;
+    private Draft current;
+
+    DocxQuestionRowReader(InputStream in) throws IOException {
+        this.zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null && !"word/document.xml".equals(entry.getName())) {
+            // skip styles, media, ...
+        }
+        if (entry == null) {
+            throw new IOException("Not a Word document: word/document.xml is missing");
+        }
+        try {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            this.xml = factory.createXMLStreamReader(zip);
+        } catch (XMLStreamException ex) {
+            throw new IOException("Unreadable Word document", ex);
+        }
+    }
+
+    @Override
+    public QuestionImportRow next() throws IOException {
+        String paragraph;
+        while ((paragraph = nextParagraph()) != null) {
+            String line = paragraph.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            Matcher question = QUESTION.matcher(line);
+            if (question.matches()) {
+                Draft finished = current;
+                current = new Draft(++ordinal, question.group(2));
+                if (finished != null) {
+                    return finished.toRow();
+                }
+                continue;
+            }
+            if (current == null) {
+                // Title or instructions before the first question
+                continue;
+            }
+            Matcher option = OPTION.matcher(line);
+            if (option.matches() && option.group(1).toUpperCase(Locale.ROOT).charAt(0) - 'A' == current.options.size()) {
+                current.addOption(option.group(2), line.startsWith("*"));
+            } else {
+                current.append(line);
+            }
+        }
+        Draft last = current;
+        current = null;
+        return last == null ? null : last.toRow();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException ex) {
+            // the zip stream is closed below regardless
+        }
+        zip.close();
+    }
+
+    /**
+     * Text of the next {@code w:p}; tabs and breaks become spaces.
+     */
+    private String nextParagraph() throws IOException {
+        try {
+            StringBuilder text = null;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && WORD_NS.equals(xml.getNamespaceURI())) {
+                    switch (xml.getLocalName()) {
+                        case "p" -> text = new StringBuilder();
+                        case "t" -> {
+                            if (text != null) {
+                                text.append(xml.getElementText());
+                            }
+                        }
+                        case "tab", "br" -> {
+                            if (text != null) {
+                                text.append(' ');
+                            }
+                        }
+                        default -> { /* formatting */ }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && text != null
+                        && WORD_NS.equals(xml.getNamespaceURI()) && "p".equals(xml.getLocalName())) {
+                    return text.toString();
+                }
+            }
+            return null;
+        } catch (XMLStreamException ex) {
+            throw new IOException("Unreadable Word document: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static final class Draft {
+
+        private final int rowNumber;
+        private final StringBuilder text;
+        private final List<StringBuilder> options = new ArrayList<>();
+        private final List<Boolean> correct = new ArrayList<>();
+
+        Draft(int rowNumber, String text) {
+            this.rowNumber = rowNumber;
+            this.text = new StringBuilder(text);
+        }
+
+        void addOption(String optionText, boolean starred) {
+            options.add(new StringBuilder(optionText));
+            correct.add(starred);
+        }
+
+        void append(String line) {
+            StringBuilder target = options.isEmpty() ? text : options.get(options.size() - 1);
+            target.append(' ').append(line);
+        }
+
+        QuestionImportRow toRow() {
+            String questionText = text.toString().strip();
+            String type = null;
+            String level = null;
+            Long lessonId = null;
+            Matcher meta = META.matcher(questionText);
+            if (meta.find()) {
+                questionText = questionText.substring(0, meta.start()).strip();
+                for (String pair : meta.group(1).split(",")) {
+                    int colon = pair.indexOf(':');
+                    if (colon < 0) {
+                        continue;
+                    }
+                    String key = pair.substring(0, colon).strip().toLowerCase(Locale.ROOT);
+                    String value = pair.substring(colon + 1).strip();
+                    switch (key) {
+                        case "type" -> type = value;
+                        case "difficulty", "level" -> level = value;
+                        case "lesson", "lessonid" -> {
+                            try {
+                                lessonId = Long.valueOf(value);
+                            } catch (NumberFormatException ex) {
+                                return QuestionImportRow.malformed(rowNumber, "lesson is not a number: " + value);
+                            }
+                        }
+                        default -> { /* unknown keys are ignored */ }
+                    }
+                }
+            }
+            List<OptionRequest> parsed = new ArrayList<>(options.size());
+            for (int i = 0; i < options.size(); i++) {
+                String optionText = options.get(i).toString();
+                Matcher marker = CORRECT.matcher(optionText);
+                boolean isCorrect = correct.get(i) || marker.find();
+                parsed.add(new OptionRequest(CORRECT.matcher(optionText).replaceAll(" ").strip(), isCorrect));
+            }
+            return new QuestionImportRow(rowNumber, questionText.isEmpty() ? null : questionText,
+                    type, lessonId, level, parsed, null);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.dto.request.question.OptionRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One JSON object per line, with the fields of {@code QuestionCreateRequest}:
+ * <pre>
+ * {"questionText":"2 + 2 = ?","type":"MCQ_SINGLE","lessonId":12,"levelId":1,
+ *  "options":[{"optionText":"3"},{"optionText":"4","isCorrect":true}]}
+ * </pre>
+ * {@code "level"} (difficulty name) may be given instead of {@code levelId}.
+ */
+class JsonLinesQuestionRowReader implements QuestionRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private int lineNumber;
+
+    JsonLinesQuestionRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public QuestionImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException ex) {
+            return QuestionImportRow.malformed(lineNumber, "Invalid JSON: " + ex.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return QuestionImportRow.malformed(lineNumber, "Expected a JSON object");
+        }
+        JsonNode lesson = node.get("lessonId");
+        if (lesson != null && !lesson.isNull() && !lesson.canConvertToLong()) {
+            return QuestionImportRow.malformed(lineNumber, "lessonId is not a number: " + lesson.asText());
+        }
+
+        List<OptionRequest> options = new ArrayList<>();
+        JsonNode optionNodes = node.path("options");
+        for (JsonNode option : optionNodes) {
+            options.add(new OptionRequest(text(option, "optionText"), option.path("isCorrect").asBoolean(false)));
+        }
+        String level = text(node, "levelId");
+        return new QuestionImportRow(lineNumber,
+                text(node, "questionText"),
+                text(node, "type"),
+                lesson == null || lesson.isNull() ? null : lesson.asLong(),
+                level != null ? level : text(node, "level"),
+                options,
+                null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.cache.QuestionAvailabilityCube;
+import com.example.demologin.dto.request.question.OptionRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts validated questions and their options with two JDBC batches per chunk.
+ * <p>
+ * Hibernate cannot batch IDENTITY inserts (it needs each id before the next row), so a chunk
+ * of N questions costs 2 statements here instead of N + options. The question ids come back
+ * from the same batch as generated keys, in row order. These writes bypass Hibernate's entity
+ * events: the {@link QuestionAvailabilityCube} is told inside the transaction, and the caller must
+ * invalidate Question caches and update the search index after each chunk.
+ */
+@Component
+public class QuestionBatchWriter {
+
+    private static final String INSERT_QUESTION =
+            "INSERT INTO questions (question_text, type, lesson_id, question_level, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OPTION =
+            "INSERT INTO options (question_id, option_text, is_correct) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final QuestionAvailabilityCube availabilityCube;
+
+    public QuestionBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               QuestionAvailabilityCube availabilityCube) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.availabilityCube = availabilityCube;
+    }
+
+    /**
+     * Writes the chunk in one transaction: either every question of the chunk is stored or none.
+     *
+     * @return the generated question ids, in the order of {@code questions}
+     */
+    public List<Long> write(List<ValidatedQuestion> questions) {
+        if (questions.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_QUESTION, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ValidatedQuestion question = questions.get(i);
+                            ps.setString(1, question.questionText());
+                            ps.setLong(2, question.typeId());
+                            ps.setLong(3, question.lessonId());
+                            ps.setLong(4, question.levelId());
+                            ps.setTimestamp(5, now);
+                            ps.setTimestamp(6, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return questions.size();
+                        }
+                    },
+                    keys);
+
+            List<Map<String, Object>> keyList = keys.getKeyList();
+            if (keyList.size() != questions.size()) {
+                throw new IllegalStateException("Expected " + questions.size() + " generated ids, got " + keyList.size());
+            }
+            List<Long> questionIds = new ArrayList<>(questions.size());
+            List<Object[]> options = new ArrayList<>();
+            for (int i = 0; i < questions.size(); i++) {
+                // Key column name differs per driver (id, ID, GENERATED_KEY)
+                long questionId = ((Number) keyList.get(i).values().iterator().next()).longValue();
+                questionIds.add(questionId);
+                for (OptionRequest option : questions.get(i).options()) {
+                    options.add(new Object[]{questionId, option.getOptionText(), Boolean.TRUE.equals(option.getIsCorrect())});
+                }
+            }
+            if (!options.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_OPTION, options, new int[]{Types.BIGINT, Types.VARCHAR, Types.BOOLEAN});
+            }
+            // Registered here so the cells move with this commit, not after it
+            Map<QuestionAvailabilityCube.Cell, Integer> added = new HashMap<>();
+            for (ValidatedQuestion question : questions) {
+                added.merge(new QuestionAvailabilityCube.Cell(question.lessonId(), question.levelId(), question.typeId()), 1, Integer::sum);
+            }
+            added.forEach(availabilityCube::added);
+            return questionIds;
+        });
+    }
+
+    /**
+     * A row whose references were resolved and whose options passed the type rules.
+     */
+    public record ValidatedQuestion(int rowNumber,
+                                    String questionText,
+                                    long typeId,
+                                    long lessonId,
+                                    long levelId,
+                                    List<OptionRequest> options) {
+    }
+}
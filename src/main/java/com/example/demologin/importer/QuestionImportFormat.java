@@ -0,0 +1,69 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+public enum QuestionImportFormat {
+    CSV(".csv"),
+    JSONL(".jsonl", ".ndjson"),
+    DOCX(".docx");
+
+    private final String[] extensions;
+
+    QuestionImportFormat(String... extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     * The explicit {@code format} if given, otherwise the one matching the file extension.
+     */
+    public static QuestionImportFormat resolve(String format, String fileName) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("Unsupported import format: " + format);
+            }
+        }
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        for (QuestionImportFormat candidate : values()) {
+            for (String extension : candidate.extensions) {
+                if (name.endsWith(extension)) {
+                    return candidate;
+                }
+            }
+        }
+        throw new BadRequestException("Cannot detect import format of " + fileName + " (expected .csv, .jsonl or .docx)");
+    }
+
+    public String extension() {
+        return extensions[0];
+    }
+
+    public QuestionRowReader open(Path file, ObjectMapper objectMapper) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return switch (this) {
+                case CSV -> new CsvQuestionRowReader(utf8(in));
+                case JSONL -> new JsonLinesQuestionRowReader(utf8(in), objectMapper);
+                case DOCX -> new DocxQuestionRowReader(in);
+            };
+        } catch (IOException | RuntimeException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    private static BufferedReader utf8(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
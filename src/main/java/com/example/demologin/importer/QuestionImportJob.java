@@ -0,0 +1,79 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.enums.ImportJobStatus;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of one bulk import. Written by the import thread, read by status requests.
+ */
+@Getter
+public class QuestionImportJob {
+
+    // Enough to fix a file; a completely wrong file should not hold 20k messages in memory
+    static final int MAX_REPORTED_ERRORS = 500;
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long ownerId;
+    private final String fileName;
+    private final QuestionImportFormat format;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicInteger processedRows = new AtomicInteger();
+    private final AtomicInteger importedRows = new AtomicInteger();
+    private final AtomicInteger failedRows = new AtomicInteger();
+    @Getter(AccessLevel.NONE)
+    private final List<RowError> errors = new ArrayList<>();
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile String message;
+    private volatile LocalDateTime finishedAt;
+
+    public QuestionImportJob(Long ownerId, String fileName, QuestionImportFormat format) {
+        this.ownerId = ownerId;
+        this.fileName = fileName;
+        this.format = format;
+    }
+
+    void start() {
+        status = ImportJobStatus.RUNNING;
+    }
+
+    void imported(int rows) {
+        importedRows.addAndGet(rows);
+        processedRows.addAndGet(rows);
+    }
+
+    void rejected(int rowNumber, String reason) {
+        failedRows.incrementAndGet();
+        processedRows.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(rowNumber, reason));
+            }
+        }
+    }
+
+    void finish(ImportJobStatus finalStatus, String finalMessage) {
+        message = finalMessage;
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+
+    public List<RowError> errorsSnapshot() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public record RowError(int row, String message) {
+    }
+}
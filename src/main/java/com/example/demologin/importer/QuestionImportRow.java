@@ -0,0 +1,26 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.dto.request.question.OptionRequest;
+
+import java.util.List;
+
+/**
+ * One question as read from an import file, before references are resolved.
+ * Empty fields fall back to the defaults given with the upload; {@code error} is set when
+ * the row could not be parsed at all.
+ *
+ * @param rowNumber 1-based record number in the file (CSV/JSONL line, DOCX question ordinal)
+ * @param level     level id or difficulty name
+ */
+public record QuestionImportRow(int rowNumber,
+                                String questionText,
+                                String type,
+                                Long lessonId,
+                                String level,
+                                List<OptionRequest> options,
+                                String error) {
+
+    static QuestionImportRow malformed(int rowNumber, String error) {
+        return new QuestionImportRow(rowNumber, null, null, null, null, List.of(), error);
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.cache.CacheInvalidationBus;
+import com.example.demologin.cache.CurriculumRegistry;
+import com.example.demologin.cache.CurriculumSnapshot;
+import com.example.demologin.dto.request.question.OptionRequest;
+import com.example.demologin.entity.Level;
+import com.example.demologin.entity.Option;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
+import com.example.demologin.enums.ImportJobStatus;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.repository.LevelRepository;
+import com.example.demologin.repository.QuestionTypeRepository;
+import com.example.demologin.search.SearchIndexManager;
+import com.example.demologin.utils.QuestionOptionRules;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams an import file through validation and {@link QuestionBatchWriter} one chunk at a time.
+ * <p>
+ * Levels, question types and lessons are resolved once per file into in-memory lookups; rows of a
+ * chunk are then validated in parallel without touching the database. Each chunk is written in
+ * its own transaction, so a failed import keeps the chunks committed before the failure.
+ */
+@Component
+@Slf4j
+public class QuestionImporter {
+
+    // questions.question_text is a VARCHAR(255) column
+    static final int MAX_QUESTION_TEXT_LENGTH = 255;
+
+    private final LevelRepository levelRepository;
+    private final QuestionTypeRepository questionTypeRepository;
+    private final CurriculumRegistry curriculumRegistry;
+    private final QuestionBatchWriter batchWriter;
+    private final CacheInvalidationBus invalidationBus;
+    private final SearchIndexManager searchIndex;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public QuestionImporter(LevelRepository levelRepository,
+                            QuestionTypeRepository questionTypeRepository,
+                            CurriculumRegistry curriculumRegistry,
+                            QuestionBatchWriter batchWriter,
+                            CacheInvalidationBus invalidationBus,
+                            SearchIndexManager searchIndex,
+                            ObjectMapper objectMapper,
+                            @Value("${question-import.chunk-size:500}") int chunkSize) {
+        this.levelRepository = levelRepository;
+        this.questionTypeRepository = questionTypeRepository;
+        this.curriculumRegistry = curriculumRegistry;
+        this.batchWriter = batchWriter;
+        this.invalidationBus = invalidationBus;
+        this.searchIndex = searchIndex;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Load the lookups for one file and check the upload's defaults against them.
+     *
+     * @throws BadRequestException if a default refers to something that does not exist
+     */
+    public References resolveReferences(Defaults defaults) {
+        Set<Long> levelIds = new HashSet<>();
+        Map<String, Long> levelsByName = new HashMap<>();
+        for (Level level : levelRepository.findAll()) {
+            levelIds.add(level.getId());
+            if (level.getDifficulty() != null) {
+                levelsByName.putIfAbsent(level.getDifficulty().trim().toLowerCase(Locale.ROOT), level.getId());
+            }
+        }
+        Map<String, Long> typesByCode = new HashMap<>();
+        for (QuestionType type : questionTypeRepository.findAll()) {
+            if (type.getDescription() != null) {
+                typesByCode.putIfAbsent(type.getDescription().trim().toUpperCase(Locale.ROOT), type.getId());
+            }
+        }
+        References references = new References(defaults, levelIds, levelsByName, typesByCode, curriculumRegistry.current());
+
+        if (defaults.type() != null && !typesByCode.containsKey(defaults.type().trim().toUpperCase(Locale.ROOT))) {
+            throw new BadRequestException("QuestionType not found: " + defaults.type());
+        }
+        if (defaults.lessonId() != null && !references.curriculum().containsLesson(defaults.lessonId())) {
+            throw new BadRequestException("Lesson not found: " + defaults.lessonId());
+        }
+        if (defaults.levelId() != null && !levelIds.contains(defaults.levelId())) {
+            throw new BadRequestException("Invalid levelId: " + defaults.levelId());
+        }
+        return references;
+    }
+
+    public void run(QuestionImportJob job, Path file, References references) {
+        job.start();
+        long started = System.nanoTime();
+        try (QuestionRowReader reader = job.getFormat().open(file, objectMapper)) {
+            List<QuestionImportRow> chunk = new ArrayList<>(chunkSize);
+            QuestionImportRow row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, chunk, references);
+                    chunk.clear();
+                }
+            }
+            importChunk(job, chunk, references);
+            job.finish(ImportJobStatus.COMPLETED, null);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Question import {} stopped after {} rows: {}", job.getId(), job.getProcessedRows().get(), ex.getMessage());
+            job.finish(ImportJobStatus.FAILED, ex.getMessage());
+        }
+        log.info("Question import {} ({}): {} imported, {} rejected in {} ms", job.getId(), job.getFileName(),
+                job.getImportedRows().get(), job.getFailedRows().get(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void importChunk(QuestionImportJob job, List<QuestionImportRow> chunk, References references) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Checked> checked = chunk.parallelStream()
+                .map(row -> check(row, references))
+                .toList();
+        List<QuestionBatchWriter.ValidatedQuestion> valid = new ArrayList<>(checked.size());
+        for (Checked result : checked) {
+            if (result.question() != null) {
+                valid.add(result.question());
+            } else {
+                job.rejected(result.rowNumber(), result.error());
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        List<QuestionBatchWriter.ValidatedQuestion> written = valid;
+        List<Long> writtenIds;
+        try {
+            writtenIds = batchWriter.write(valid);
+            job.imported(valid.size());
+        } catch (DataIntegrityViolationException ex) {
+            // One bad row fails the whole batch: retry row by row to report which one
+            written = new ArrayList<>(valid.size());
+            writtenIds = new ArrayList<>(valid.size());
+            for (QuestionBatchWriter.ValidatedQuestion question : valid) {
+                try {
+                    writtenIds.addAll(batchWriter.write(List.of(question)));
+                    job.imported(1);
+                    written.add(question);
+                } catch (RuntimeException rowEx) {
+                    job.rejected(question.rowNumber(), databaseError(rowEx));
+                }
+            }
+        }
+        invalidationBus.invalidateEntity(Question.class);
+        invalidationBus.invalidateEntity(Option.class);
+        // The chunk has committed, so these apply right away
+        for (int i = 0; i < written.size(); i++) {
+            QuestionBatchWriter.ValidatedQuestion question = written.get(i);
+            searchIndex.questionSaved(writtenIds.get(i), question.questionText(),
+                    question.options().stream().map(OptionRequest::getOptionText).toList(),
+                    question.lessonId(), question.levelId(), question.typeId());
+        }
+    }
+
+    static Checked check(QuestionImportRow row, References references) {
+        if (row.error() != null) {
+            return Checked.rejected(row.rowNumber(), row.error());
+        }
+        if (row.questionText() == null || row.questionText().isBlank()) {
+            return Checked.rejected(row.rowNumber(), "questionText is required");
+        }
+        if (row.questionText().length() > MAX_QUESTION_TEXT_LENGTH) {
+            return Checked.rejected(row.rowNumber(), "questionText is longer than " + MAX_QUESTION_TEXT_LENGTH + " characters");
+        }
+
+        Defaults defaults = references.defaults();
+        String rawType = row.type() != null ? row.type() : defaults.type();
+        if (rawType == null) {
+            return Checked.rejected(row.rowNumber(), "type is required");
+        }
+        String typeCode = rawType.trim().toUpperCase(Locale.ROOT);
+        Long typeId = references.typesByCode().get(typeCode);
+        if (typeId == null) {
+            return Checked.rejected(row.rowNumber(), "QuestionType not found: " + rawType);
+        }
+
+        Long lessonId = row.lessonId() != null ? row.lessonId() : defaults.lessonId();
+        if (lessonId == null) {
+            return Checked.rejected(row.rowNumber(), "lessonId is required");
+        }
+        if (!references.curriculum().containsLesson(lessonId)) {
+            return Checked.rejected(row.rowNumber(), "Lesson not found: " + lessonId);
+        }
+
+        Long levelId = defaults.levelId();
+        if (row.level() != null) {
+            levelId = references.levelOf(row.level());
+            if (levelId == null) {
+                return Checked.rejected(row.rowNumber(), "Invalid level: " + row.level());
+            }
+        }
+        if (levelId == null) {
+            return Checked.rejected(row.rowNumber(), "levelId is required");
+        }
+
+        List<OptionRequest> options = row.options();
+        long correctCount = 0;
+        for (OptionRequest option : options) {
+            if (option.getOptionText() == null || option.getOptionText().isBlank()) {
+                return Checked.rejected(row.rowNumber(), "Option text is required");
+            }
+            if (Boolean.TRUE.equals(option.getIsCorrect())) {
+                correctCount++;
+            }
+        }
+        try {
+            QuestionOptionRules.validate(typeCode, options.size(), correctCount);
+        } catch (IllegalArgumentException ex) {
+            return Checked.rejected(row.rowNumber(), ex.getMessage());
+        }
+
+        return new Checked(row.rowNumber(), new QuestionBatchWriter.ValidatedQuestion(
+                row.rowNumber(), row.questionText().trim(), typeId, lessonId, levelId, options), null);
+    }
+
+    private static String databaseError(RuntimeException ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        return "Database error: " + cause.getMessage();
+    }
+
+    /**
+     * Values applied to rows that leave a field empty; any of them may be null.
+     */
+    public record Defaults(String type, Long lessonId, Long levelId) {
+    }
+
+    /**
+     * Lookups resolved once per file.
+     */
+    public record References(Defaults defaults,
+                             Set<Long> levelIds,
+                             Map<String, Long> levelsByName,
+                             Map<String, Long> typesByCode,
+                             CurriculumSnapshot curriculum) {
+
+        Long levelOf(String level) {
+            String value = level.trim();
+            try {
+                Long id = Long.valueOf(value);
+                return levelIds.contains(id) ? id : null;
+            } catch (NumberFormatException ex) {
+                return levelsByName.get(value.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+
+    record Checked(int rowNumber, QuestionBatchWriter.ValidatedQuestion question, String error) {
+
+        static Checked rejected(int rowNumber, String error) {
+            return new Checked(rowNumber, null, error);
+        }
+    }
+}
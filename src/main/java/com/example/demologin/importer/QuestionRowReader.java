@@ -0,0 +1,16 @@
+package com.example.demologin.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull-based reader over an import file. Implementations keep at most one record in memory.
+ */
+public interface QuestionRowReader extends Closeable {
+
+    /**
+     * @return the next row, or null at the end of the file
+     * @throws IOException if the file itself is unreadable (not for a single bad row)
+     */
+    QuestionImportRow next() throws IOException;
+}
@@ -1,5 +1,6 @@
     package com.example.demologin.initializer.components;
 
+import com.example.demologin.cache.QuestionAvailabilityCube;
 import com.example.demologin.entity.*;
 import com.example.demologin.repository.*;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +20,7 @@ import java.util.List;
 public class MatrixDataInitializer implements CommandLineRunner {
 
     private final MatrixRepository matrixRepository;
-    private final QuestionRepository questionRepository;
+    private final QuestionAvailabilityCube availabilityCube;
     private final LessonRepository lessonRepository;
     private final QuestionTypeRepository questionTypeRepository;
     private final LevelRepository levelRepository;
@@ -121,11 +122,7 @@ public class MatrixDataInitializer implements CommandLineRunner {
     private Matrix createMatrix(String title, Lesson lesson,
                                 QuestionType questionType, Level level, int totalQuestions, User user) {
         // Kiểm tra số câu hỏi có sẵn
-        List<Question> questions = questionRepository.findByLevelAndLessonAndType(
-                level, lesson, questionType
-        );
-
-        if (questions.isEmpty()) {
+        if (availabilityCube.count(lesson.getId(), level.getId(), questionType.getId()) == 0) {
             log.warn("⚠️ No questions found for level: {}, lesson: {}, type: {}",
                     level.getDifficulty(), lesson.getLessonName(), questionType.getDescription());
             return null;
@@ -175,11 +172,7 @@ public class MatrixDataInitializer implements CommandLineRunner {
                 Lesson lesson = lessons.get(i);
                 QuestionType qType = questionTypes.get(i);
 
-                List<Question> levelQuestions = questionRepository.findByLevelAndLessonAndType(
-                        level, lesson, qType
-                );
-
-                if (!levelQuestions.isEmpty()) {
+                if (availabilityCube.count(lesson.getId(), level.getId(), qType.getId()) > 0) {
                     int questionsCount = 10; // 10 câu mỗi level
                     totalQuestions += questionsCount;
                     totalScore += calculateTotalScore(level, questionsCount);
@@ -1,20 +1,18 @@
 package com.example.demologin.mapper.examattempt;
 
+import com.example.demologin.cache.ExamPaper;
 import com.example.demologin.dto.response.*;
 import com.example.demologin.entity.Exam;
 import com.example.demologin.entity.ExamAttempt;
 import org.springframework.stereotype.Component;
 
 import java.time.ZoneId;
-import java.util.List;
 
 @Component
 public class ExamAttemptMapper implements IExamAttemptMapper{
 
     @Override
-    public ExamStartResponse toStartResponse(ExamAttempt attempt,
-                                             int totalQuestions,
-                                             List<QuestionView> questions) {
+    public ExamStartResponse toStartResponse(ExamAttempt attempt, ExamPaper paper) {
         if (attempt == null) return null;
 
         Exam exam = attempt.getExam();
@@ -22,14 +20,14 @@ public class ExamAttemptMapper implements IExamAttemptMapper{
         resp.setAttemptId(attempt.getId());
         resp.setExamId(exam != null ? exam.getId() : null);
         resp.setTitle(exam != null ? exam.getTitle() : null);
-        resp.setTotalQuestions(totalQuestions);
+        resp.setTotalQuestions(paper.size());
         resp.setStartedAt(attempt.getStartedAt() == null
                 ? null
                 : attempt.getStartedAt().atZone(ZoneId.systemDefault()).toInstant());
         resp.setMustSubmitBefore(attempt.getExpiresAt() == null
                 ? null
                 : attempt.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
-        resp.setQuestions(questions);
+        resp.setQuestions(paper.questionsJson());
         return resp;
     }
 
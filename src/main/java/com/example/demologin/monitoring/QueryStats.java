@@ -0,0 +1,115 @@
+package com.example.demologin.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statements and JDBC time of one unit of work (an HTTP request, a socket event, a test block),
+ * bound to the current thread between {@link #start()} and {@link #stop()}.
+ * <p>
+ * Hibernate reports into the innermost open scope through {@link QueryStatsInspector} and
+ * {@link QueryTimingListener}; nested scopes also count towards the scopes around them. Statements
+ * are grouped by shape (literals and IN lists collapsed), so one shape repeated many times in a
+ * scope is the signature of an N+1 select.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final QueryStats parent;
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int statements;
+    private long jdbcNanos;
+
+    private QueryStats(QueryStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Open a scope on the current thread; always pair with {@link #stop()} in a finally block.
+     */
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Close the innermost scope of the current thread.
+     */
+    public static void stop() {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        if (stats.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats.parent);
+        }
+    }
+
+    /**
+     * @return the innermost open scope, or null when nothing is measuring this thread
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("in (?)");
+    }
+
+    void record(String sql) {
+        String shape = shapeOf(sql);
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    void addJdbcTime(long nanos) {
+        for (QueryStats stats = this; stats != null; stats = stats.parent) {
+            stats.jdbcNanos += nanos;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public double getJdbcMillis() {
+        return jdbcNanos / 1_000_000.0;
+    }
+
+    public int getDistinctShapes() {
+        return shapes.size();
+    }
+
+    /**
+     * Shapes executed at least {@code threshold} times, most repeated first.
+     */
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+}
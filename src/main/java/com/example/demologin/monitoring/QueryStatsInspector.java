@@ -0,0 +1,20 @@
+package com.example.demologin.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares into the thread's open {@link QueryStats} scope.
+ * Registered through {@code hibernate.session_factory.statement_inspector}; the SQL is returned
+ * unchanged.
+ */
+public class QueryStatsInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.record(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demologin.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publishes finished {@link QueryStats} scopes as Micrometer meters ({@code sql.statements},
+ * {@code sql.jdbc.time}, {@code sql.repeated}) tagged with the source ({@code http}, {@code socket})
+ * and the route or event name, and logs a warning when a statement shape repeats
+ * {@code query-stats.repeat-threshold} times or more in one scope.
+ */
+@Component
+@Slf4j
+public class QueryStatsRecorder {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int repeatThreshold;
+
+    public QueryStatsRecorder(MeterRegistry meterRegistry,
+                              @Value("${query-stats.enabled:true}") boolean enabled,
+                              @Value("${query-stats.repeat-threshold:5}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.repeatThreshold = Math.max(2, repeatThreshold);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Run {@code work} in its own scope and record it, for work outside HTTP requests.
+     */
+    public <T> T measure(String source, String name, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        QueryStats stats = QueryStats.start();
+        try {
+            return work.get();
+        } finally {
+            QueryStats.stop();
+            record(source, name, stats);
+        }
+    }
+
+    public void measure(String source, String name, Runnable work) {
+        measure(source, name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public void record(String source, String name, QueryStats stats) {
+        Tags tags = Tags.of("source", source, "name", name);
+        DistributionSummary.builder("sql.statements")
+                .description("SQL statements per request or event")
+                .baseUnit("statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("sql.jdbc.time")
+                .description("JDBC execution time per request or event")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = stats.repeatedShapes(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("sql.repeated")
+                    .description("Requests or events that ran one statement shape repeatedly (likely N+1)")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+            Map.Entry<String, Integer> worst = repeated.entrySet().iterator().next();
+            log.warn("Possible N+1 in {} {}: {} statements, {}x \"{}\"",
+                    source, name, stats.getStatements(), worst.getValue(), worst.getKey());
+        }
+    }
+
+    /**
+     * {@code Server-Timing} value, e.g. {@code db;dur=3.4;desc="7 statements", db-repeat;desc="5x"}.
+     */
+    public String serverTiming(QueryStats stats) {
+        String value = String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d statements\"",
+                stats.getJdbcMillis(), stats.getStatements());
+        Map<String, Integer> repeated = stats.repeatedShapes(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            value += ", db-repeat;desc=\"" + repeated.values().iterator().next() + "x\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demologin.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time spent executing JDBC statements and batches to the thread's open
+ * {@link QueryStats} scope. Hibernate creates one per session (registered through
+ * {@code hibernate.session.events.auto}), so the start timestamp is never shared.
+ */
+public class QueryTimingListener implements SessionEventListener {
+
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        finish();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        finish();
+    }
+
+    private void finish() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null && startedAt != 0) {
+            stats.addJdbcTime(System.nanoTime() - startedAt);
+        }
+        startedAt = 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.CacheInvalidationLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CacheInvalidationLogRepository extends JpaRepository<CacheInvalidationLog, Long> {
+
+    // Tail of the feed after the highest applied id
+    List<CacheInvalidationLog> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    // Rows skipped because they committed after a higher id
+    List<CacheInvalidationLog> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(l.id), 0) FROM CacheInvalidationLog l")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CacheInvalidationLog l WHERE l.createdAt < :before")
+    int deleteByCreatedAtBefore(@Param("before") LocalDateTime before);
+}
@@ -2,9 +2,23 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.Chapter;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface ChapterRepository extends JpaRepository<Chapter, Long> {
     List<Chapter> findByGrade_IdOrderByOrderNoAsc(Long gradeId);
+
+    @Query("SELECT c.id AS id, g.id AS gradeId, c.name AS name, c.orderNo AS orderNo FROM Chapter c LEFT JOIN c.grade g ORDER BY c.id")
+    List<CurriculumRow> findCurriculumRows();
+
+    interface CurriculumRow {
+        Long getId();
+
+        Long getGradeId();
+
+        String getName();
+
+        Integer getOrderNo();
+    }
 }
@@ -5,6 +5,8 @@ import com.example.demologin.enums.QuestionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +18,22 @@ public interface EssayQuestionRepository extends JpaRepository<EssayQuestion, Lo
     List<EssayQuestion> findByStatusOrderByCreatedAtDesc(QuestionStatus status);
     
     Page<EssayQuestion> findByCreatedByUserIdOrderByCreatedAtDesc(Long teacherId, Pageable pageable);
+
+    @Query("""
+        SELECT q.id AS id, q.prompt AS prompt, q.lesson.id AS lessonId, q.status AS status
+        FROM EssayQuestion q
+        WHERE q.id > :afterId
+        ORDER BY q.id
+    """)
+    List<SearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    interface SearchRow {
+        Long getId();
+
+        String getPrompt();
+
+        Long getLessonId();
+
+        QuestionStatus getStatus();
+    }
 }
@@ -4,6 +4,7 @@ import com.example.demologin.entity.EssaySubmission;
 import com.example.demologin.enums.SubmissionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,19 +13,24 @@ import java.util.Optional;
 
 @Repository
 public interface EssaySubmissionRepository extends JpaRepository<EssaySubmission, Long> {
+    // Các trang danh sách fetch-join user / essayQuestion / gradedBy để mapper không lazy-load theo từng dòng
     // Find student's submission for a specific question
     Optional<EssaySubmission> findByUserUserIdAndEssayQuestionId(Long userId, Long questionId);
     
     // Find all submissions by student
+    @EntityGraph(attributePaths = {"user", "essayQuestion", "gradedBy"})
     Page<EssaySubmission> findByUserUserIdOrderByStartedAtDesc(Long userId, Pageable pageable);
     
     // Find all submissions for a question (for teacher)
+    @EntityGraph(attributePaths = {"user", "essayQuestion", "gradedBy"})
     Page<EssaySubmission> findByEssayQuestionIdOrderBySubmittedAtDesc(Long questionId, Pageable pageable);
     
     // Find submissions by status
+    @EntityGraph(attributePaths = {"user", "essayQuestion", "gradedBy"})
     Page<EssaySubmission> findByStatusOrderBySubmittedAtDesc(SubmissionStatus status, Pageable pageable);
     
     // Find pending submissions (for teacher)
+    @EntityGraph(attributePaths = {"user", "essayQuestion", "gradedBy"})
     Page<EssaySubmission> findByStatusOrderBySubmittedAtAsc(SubmissionStatus status, Pageable pageable);
     
     // Count submissions by status for a question
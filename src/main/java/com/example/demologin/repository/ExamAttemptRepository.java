@@ -41,6 +41,74 @@ public interface ExamAttemptRepository extends JpaRepository<ExamAttempt, Long>
 
     Page<ExamAttempt> findByUser_UserId(Long userId, Pageable pageable);
 
+    /*
+     * Keyset cho searchForTeacher: các bài đã nộp theo (finishedAt, id) giảm dần, dùng index
+     * (exam_id, finishedAt, id); sau đó các bài chưa nộp (finishedAt NULL) theo id giảm dần.
+     */
+    @Query("""
+  SELECT a FROM ExamAttempt a
+  JOIN a.user u
+  WHERE a.exam.id = :examId
+    AND a.finishedAt IS NOT NULL
+    AND (
+      :kw IS NULL OR
+      LOWER(u.fullName) LIKE LOWER(CONCAT('%', :kw, '%')) OR
+      LOWER(u.username) LIKE LOWER(CONCAT('%', :kw, '%')) OR
+      LOWER(u.email) LIKE LOWER(CONCAT('%', :kw, '%'))
+    )
+    AND (:from IS NULL OR a.finishedAt >= :from)
+    AND (:to IS NULL OR a.finishedAt < :to)
+    AND (:afterTime IS NULL OR a.finishedAt < :afterTime OR (a.finishedAt = :afterTime AND a.id < :afterId))
+  ORDER BY a.finishedAt DESC, a.id DESC
+""")
+    List<ExamAttempt> findFinishedPageForTeacher(
+            @Param("examId") Long examId,
+            @Param("kw") String keyword,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            Pageable limit);
+
+    @Query("""
+  SELECT a FROM ExamAttempt a
+  JOIN a.user u
+  WHERE a.exam.id = :examId
+    AND a.finishedAt IS NULL
+    AND (
+      :kw IS NULL OR
+      LOWER(u.fullName) LIKE LOWER(CONCAT('%', :kw, '%')) OR
+      LOWER(u.username) LIKE LOWER(CONCAT('%', :kw, '%')) OR
+      LOWER(u.email) LIKE LOWER(CONCAT('%', :kw, '%'))
+    )
+    AND (:afterId IS NULL OR a.id < :afterId)
+  ORDER BY a.id DESC
+""")
+    List<ExamAttempt> findUnfinishedPageForTeacher(
+            @Param("examId") Long examId,
+            @Param("kw") String keyword,
+            @Param("afterId") Long afterId,
+            Pageable limit);
+
+    @Query("""
+  SELECT COUNT(a) FROM ExamAttempt a
+  JOIN a.user u
+  WHERE a.exam.id = :examId
+    AND (
+      :kw IS NULL OR
+      LOWER(u.fullName) LIKE LOWER(CONCAT('%', :kw, '%')) OR
+      LOWER(u.username) LIKE LOWER(CONCAT('%', :kw, '%')) OR
+      LOWER(u.email) LIKE LOWER(CONCAT('%', :kw, '%'))
+    )
+    AND (:from IS NULL OR a.finishedAt IS NULL OR a.finishedAt >= :from)
+    AND (:to IS NULL OR a.finishedAt IS NULL OR a.finishedAt < :to)
+""")
+    long countForTeacher(
+            @Param("examId") Long examId,
+            @Param("kw") String keyword,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
     /**
      * Tìm các attempt đã hết hạn nhưng chưa nộp (để tự động nộp)
      */
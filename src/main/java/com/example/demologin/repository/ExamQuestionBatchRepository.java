@@ -0,0 +1,99 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.cache.CacheInvalidationBus;
+import com.example.demologin.cache.ExamPaperRegistry;
+import com.example.demologin.entity.ExamQuestion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes exam questions with one JDBC batch per statement kind. Hibernate cannot batch IDENTITY
+ * inserts, so adding N questions through {@link ExamQuestionRepository} costs N statements.
+ * <p>
+ * Runs in the caller's transaction. These writes bypass Hibernate's entity events, so ExamQuestion
+ * caches and the papers of the touched exams are invalidated here once the transaction commits.
+ */
+@Repository
+public class ExamQuestionBatchRepository {
+
+    private static final String INSERT =
+            "INSERT INTO exam_questions (exam_id, question_id, score) VALUES (?, ?, ?)";
+    private static final String UPDATE_SCORE =
+            "UPDATE exam_questions SET score = ? WHERE exam_id = ? AND question_id = ?";
+    private static final String DELETE =
+            "DELETE FROM exam_questions WHERE exam_id = ? AND question_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final ExamPaperRegistry examPapers;
+
+    public ExamQuestionBatchRepository(JdbcTemplate jdbcTemplate, CacheInvalidationBus invalidationBus,
+                                       ExamPaperRegistry examPapers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        this.examPapers = examPapers;
+    }
+
+    public void insertAll(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT,
+                rows.stream().map(row -> new Object[]{row.examId(), row.questionId(), row.score()}).toList(),
+                new int[]{Types.BIGINT, Types.BIGINT, Types.DOUBLE});
+        invalidateAfterCommit(examIdsOf(rows));
+    }
+
+    public void updateScores(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SCORE,
+                rows.stream().map(row -> new Object[]{row.score(), row.examId(), row.questionId()}).toList(),
+                new int[]{Types.DOUBLE, Types.BIGINT, Types.BIGINT});
+        invalidateAfterCommit(examIdsOf(rows));
+    }
+
+    public void deleteAll(long examId, Collection<Long> questionIds) {
+        if (questionIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE,
+                questionIds.stream().map(questionId -> new Object[]{examId, questionId}).toList(),
+                new int[]{Types.BIGINT, Types.BIGINT});
+        invalidateAfterCommit(Set.of(examId));
+    }
+
+    private void invalidateAfterCommit(Set<Long> examIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(examIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(examIds);
+            }
+        });
+    }
+
+    private void invalidate(Set<Long> examIds) {
+        invalidationBus.invalidateEntity(ExamQuestion.class);
+        examIds.forEach(examPapers::evict);
+    }
+
+    private static Set<Long> examIdsOf(List<Row> rows) {
+        return rows.stream().map(Row::examId).collect(Collectors.toSet());
+    }
+
+    public record Row(long examId, long questionId, Double score) {
+    }
+}
@@ -2,12 +2,13 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.ExamQuestion;
 import com.example.demologin.entity.Exam;
-import com.example.demologin.entity.Level;
 import com.example.demologin.entity.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,7 +40,82 @@ public interface ExamQuestionRepository extends JpaRepository<ExamQuestion, Long
     boolean existsByExam_IdAndQuestion_Id(Long examId, Long questionId);
     void deleteByExam_IdAndQuestion_Id(Long examId, Long questionId);
     List<ExamQuestion> findByExam_Id(Long examId);
+    Optional<ExamQuestion> findByExam_IdAndQuestion_Id(Long examId, Long questionId);
 
 //    boolean existsByExamAndQuestion(Exam exam, Question question);
-    long countByExamAndQuestion_Level(Exam exam, Level level);
-}
\ No newline at end of file
+
+    @Query("""
+        SELECT q.lesson.id AS lessonId, q.level.id AS levelId, q.type.id AS typeId, COUNT(eq) AS total
+        FROM ExamQuestion eq JOIN eq.question q
+        WHERE eq.exam.id = :examId
+        GROUP BY q.lesson.id, q.level.id, q.type.id
+    """)
+    List<QuestionRepository.CellCount> countByCellInExam(@Param("examId") Long examId);
+
+    @Query("""
+        SELECT q.id AS questionId, q.lesson.id AS lessonId, q.level.id AS levelId, q.type.id AS typeId,
+               eq.score AS score
+        FROM ExamQuestion eq JOIN eq.question q
+        WHERE eq.exam.id = :examId
+    """)
+    List<CompositionRow> findCompositionRows(@Param("examId") Long examId);
+
+    // Câu hỏi của nhiều exam trong một truy vấn (tránh findByExam + lazy load question/type theo từng dòng)
+    @Query("""
+        SELECT eq.id AS id, eq.exam.id AS examId, q.id AS questionId, q.questionText AS questionText,
+               t.description AS questionType, eq.score AS score
+        FROM ExamQuestion eq
+        LEFT JOIN eq.question q
+        LEFT JOIN q.type t
+        WHERE eq.exam.id IN :examIds
+        ORDER BY eq.id
+    """)
+    List<QuestionRow> findQuestionRows(@Param("examIds") Collection<Long> examIds);
+
+    // Câu không có điểm tính 1 điểm, giống lúc chấm bài
+    @Query("""
+        SELECT eq.exam.id AS examId, COUNT(eq) AS questions, SUM(COALESCE(eq.score, 1.0)) AS maxScore
+        FROM ExamQuestion eq
+        WHERE eq.exam.id IN :examIds
+        GROUP BY eq.exam.id
+    """)
+    List<ExamTotals> findTotalsByExamIds(@Param("examIds") Collection<Long> examIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ExamQuestion eq WHERE eq.exam.id = :examId")
+    int deleteAllByExamId(@Param("examId") Long examId);
+
+    interface CompositionRow {
+        Long getQuestionId();
+
+        Long getLessonId();
+
+        Long getLevelId();
+
+        Long getTypeId();
+
+        Double getScore();
+    }
+
+    interface QuestionRow {
+        Long getId();
+
+        Long getExamId();
+
+        Long getQuestionId();
+
+        String getQuestionText();
+
+        String getQuestionType();
+
+        Double getScore();
+    }
+
+    interface ExamTotals {
+        Long getExamId();
+
+        long getQuestions();
+
+        Double getMaxScore();
+    }
+}
@@ -2,13 +2,18 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.Exam;
 import com.example.demologin.entity.Level;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ExamRepository extends JpaRepository<Exam, Long> {
 
@@ -43,5 +48,88 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
 
     Page<Exam> findByStatusIgnoreCase(String status, Pageable pageable); // dùng cho "PUBLISHED"
 
+    // Khóa dòng exam để các thao tác sửa danh sách câu hỏi của cùng một exam chạy tuần tự
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Exam e WHERE e.id = :id")
+    Optional<Exam> findByIdForUpdate(@Param("id") Long id);
 
+    /*
+     * Projection cho các trang danh sách exam: không nạp entity nên không kéo theo
+     * matrix -> user -> roles (ManyToOne mặc định EAGER) cho từng dòng.
+     */
+    String EXAM_ROW = """
+        SELECT e.id AS id, e.title AS title, e.description AS description, e.status AS status,
+               e.durationMinutes AS durationMinutes, e.createdAt AS createdAt, e.updatedAt AS updatedAt,
+               m.id AS matrixId
+        FROM Exam e LEFT JOIN e.matrix m
+    """;
+
+    @Query(value = EXAM_ROW, countQuery = "SELECT COUNT(e) FROM Exam e")
+    Page<ExamRow> findRows(Pageable pageable);
+
+    @Query(EXAM_ROW + " ORDER BY e.id")
+    List<ExamRow> findAllRows();
+
+    @Query(value = EXAM_ROW + " WHERE e.status = :status",
+           countQuery = "SELECT COUNT(e) FROM Exam e WHERE e.status = :status")
+    Page<ExamRow> findRowsByStatus(@Param("status") String status, Pageable pageable);
+
+    @Query(EXAM_ROW + " WHERE e.id IN :ids")
+    List<ExamRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(EXAM_ROW + " WHERE e.id = :id")
+    Optional<ExamRow> findRowById(@Param("id") Long id);
+
+    // Thẻ bài thi cho học sinh: số câu đếm bằng subquery thay vì nạp cả collection examQuestions
+    @Query(value = """
+        SELECT e.id AS id, e.title AS title, e.description AS description, e.status AS status,
+               e.durationMinutes AS durationMinutes,
+               (SELECT COUNT(eq) FROM ExamQuestion eq WHERE eq.exam = e) AS questionCount
+        FROM Exam e
+        WHERE UPPER(e.status) = UPPER(:status)
+    """, countQuery = "SELECT COUNT(e) FROM Exam e WHERE UPPER(e.status) = UPPER(:status)")
+    Page<CardRow> findCardsByStatusIgnoreCase(@Param("status") String status, Pageable pageable);
+
+    @Query("SELECT e.id AS id, e.title AS title, e.description AS description FROM Exam e WHERE e.id > :afterId ORDER BY e.id")
+    List<SearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    interface SearchRow {
+        Long getId();
+
+        String getTitle();
+
+        String getDescription();
+    }
+
+    interface ExamRow {
+        Long getId();
+
+        String getTitle();
+
+        String getDescription();
+
+        String getStatus();
+
+        Integer getDurationMinutes();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        Long getMatrixId();
+    }
+
+    interface CardRow {
+        Long getId();
+
+        String getTitle();
+
+        String getDescription();
+
+        String getStatus();
+
+        Integer getDurationMinutes();
+
+        long getQuestionCount();
+    }
 }
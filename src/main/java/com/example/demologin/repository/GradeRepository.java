@@ -2,8 +2,21 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.Grade;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface GradeRepository extends JpaRepository<Grade, Long> {
     List<Grade> findByDescriptionContainingIgnoreCase(String keyword);
+
+    // Curriculum snapshot rows: scalar columns only, no associations
+    @Query("SELECT g.id AS id, g.gradeNumber AS gradeNumber, g.description AS description FROM Grade g ORDER BY g.id")
+    List<CurriculumRow> findCurriculumRows();
+
+    interface CurriculumRow {
+        Long getId();
+
+        Integer getGradeNumber();
+
+        String getDescription();
+    }
 }
@@ -3,6 +3,7 @@ package com.example.demologin.repository;
 import com.example.demologin.entity.Lesson;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +11,15 @@ import java.util.Optional;
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
     Optional<Lesson> findById(Long id);
     List<Lesson> findByChapter_IdOrderByIdAsc(Long chapterId);
+
+    @Query("SELECT l.id AS id, c.id AS chapterId, l.lessonName AS lessonName FROM Lesson l LEFT JOIN l.chapter c ORDER BY l.id")
+    List<CurriculumRow> findCurriculumRows();
+
+    interface CurriculumRow {
+        Long getId();
+
+        Long getChapterId();
+
+        String getLessonName();
+    }
 }
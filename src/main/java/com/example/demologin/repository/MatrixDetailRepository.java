@@ -2,6 +2,47 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.MatrixDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface MatrixDetailRepository extends JpaRepository<MatrixDetail,Integer> {
+
+    // Chi tiết của nhiều matrix trong một truy vấn, kèm mô tả level / type / tên lesson
+    @Query("""
+        SELECT d.id AS id, d.matrix.id AS matrixId, d.totalQuestions AS totalQuestions,
+               lv.difficulty AS levelDescription, t.description AS questionType,
+               ls.id AS lessonId, ls.lessonName AS lessonName,
+               d.createdAt AS createdAt, d.updatedAt AS updatedAt
+        FROM MatrixDetail d
+        LEFT JOIN d.level lv
+        LEFT JOIN d.questionType t
+        LEFT JOIN d.lesson ls
+        WHERE d.matrix.id IN :matrixIds
+        ORDER BY d.id
+    """)
+    List<DetailRow> findRowsByMatrixIds(@Param("matrixIds") Collection<Long> matrixIds);
+
+    interface DetailRow {
+        Long getId();
+
+        Long getMatrixId();
+
+        Integer getTotalQuestions();
+
+        String getLevelDescription();
+
+        String getQuestionType();
+
+        Long getLessonId();
+
+        String getLessonName();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
 }
@@ -1,10 +1,46 @@
 package com.example.demologin.repository;
 
 import com.example.demologin.entity.Matrix;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface MatrixRepository extends JpaRepository<Matrix, Long> {
     Optional<Matrix> findById(Integer integer);
+
+    // Projection cho danh sách matrix: tên người tạo lấy bằng join, không nạp User (và roles EAGER) theo từng dòng
+    String MATRIX_ROW = """
+        SELECT m.id AS id, m.title AS title, m.totalQuestion AS totalQuestion, m.totalScore AS totalScore,
+               m.status AS status, m.createdAt AS createdAt, m.updatedAt AS updatedAt, u.username AS userName
+        FROM Matrix m LEFT JOIN m.user u
+    """;
+
+    @Query(value = MATRIX_ROW, countQuery = "SELECT COUNT(m) FROM Matrix m")
+    Page<MatrixRow> findRows(Pageable pageable);
+
+    @Query(MATRIX_ROW + " WHERE m.id = :id")
+    Optional<MatrixRow> findRowById(@Param("id") Long id);
+
+    interface MatrixRow {
+        Long getId();
+
+        String getTitle();
+
+        Integer getTotalQuestion();
+
+        Double getTotalScore();
+
+        String getStatus();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        String getUserName();
+    }
 }
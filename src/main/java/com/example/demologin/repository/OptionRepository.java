@@ -2,11 +2,41 @@ package com.example.demologin.repository;
 
 import com.example.demologin.entity.Option;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface OptionRepository extends JpaRepository<Option, Long> {
     void deleteByQuestion_Id(Long questionId);
     List<Option> findByQuestion_IdAndIsCorrectTrue(Long questionId);
 
-}
+    @Query("SELECT o.question.id AS questionId, o.optionText AS optionText FROM Option o WHERE o.question.id IN :questionIds")
+    List<OptionTextRow> findOptionTexts(@Param("questionIds") Collection<Long> questionIds);
+
+    // Phương án (kèm cờ đúng cho AnswerKey) của các câu trong đề, theo thứ tự id như lúc hiển thị
+    @Query("""
+        SELECT o.id AS id, o.question.id AS questionId, o.optionText AS optionText, o.isCorrect AS isCorrect
+        FROM Option o
+        WHERE o.question.id IN :questionIds
+        ORDER BY o.id
+    """)
+    List<PaperOptionRow> findPaperOptions(@Param("questionIds") Collection<Long> questionIds);
+
+    interface OptionTextRow {
+        Long getQuestionId();
+
+        String getOptionText();
+    }
 
+    interface PaperOptionRow {
+        Long getId();
+
+        Long getQuestionId();
+
+        String getOptionText();
+
+        Boolean getIsCorrect();
+    }
+}
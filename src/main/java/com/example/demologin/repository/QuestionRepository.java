@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface QuestionRepository extends JpaRepository<Question, Long> {
@@ -22,6 +23,10 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
 
     Page<Question> findByType(QuestionType type, Pageable pageable);
 
+    // Keyset theo id giảm dần, cùng thứ tự với list(page, size)
+    @Query("SELECT q FROM Question q WHERE (:afterId IS NULL OR q.id < :afterId) ORDER BY q.id DESC")
+    List<Question> findPageAfter(@Param("afterId") Long afterId, Pageable limit);
+
     @Query("""
         SELECT DISTINCT q FROM Question q
         JOIN MatrixDetail md ON q.level = md.level 
@@ -42,5 +47,97 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     @Modifying
     @Query("delete from ExamQuestion eq where eq.question.id = :questionId")
     void unlinkAllExamsOfQuestion(@Param("questionId") Long questionId);
-}
 
+    @Query("SELECT q.lesson.id AS lessonId, COUNT(q) AS total FROM Question q WHERE q.lesson IS NOT NULL GROUP BY q.lesson.id")
+    List<LessonCount> countByLesson();
+
+    // Keyset batches for the search index; LEFT JOINs keep questions without lesson/level/type
+    @Query("""
+        SELECT q.id AS id, q.questionText AS questionText,
+               l.id AS lessonId, lv.id AS levelId, t.id AS typeId
+        FROM Question q
+        LEFT JOIN q.lesson l
+        LEFT JOIN q.level lv
+        LEFT JOIN q.type t
+        WHERE q.id > :afterId
+        ORDER BY q.id
+    """)
+    List<SearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+        SELECT q.lesson.id AS lessonId, q.level.id AS levelId, q.type.id AS typeId, COUNT(q) AS total
+        FROM Question q
+        GROUP BY q.lesson.id, q.level.id, q.type.id
+    """)
+    List<CellCount> countByCell();
+
+    /**
+     * Up to {@code limit} random question ids of one (lesson, level, type) cell that are not in
+     * {@code examId} yet. The order is a seeded permutation of the ids, (id * multiplier + offset)
+     * mod 2^31-1, so the database returns only the sample and the same seed gives the same sample.
+     */
+    @Query("""
+        SELECT q.id FROM Question q
+        WHERE q.lesson.id = :lessonId AND q.level.id = :levelId AND q.type.id = :typeId
+          AND q.id NOT IN (
+              SELECT eq.question.id FROM ExamQuestion eq
+              WHERE eq.exam.id = :examId AND eq.question.id IS NOT NULL)
+        ORDER BY MOD(q.id * :multiplier + :offset, 2147483647)
+    """)
+    List<Long> sampleIdsNotInExam(@Param("lessonId") Long lessonId,
+                                  @Param("levelId") Long levelId,
+                                  @Param("typeId") Long typeId,
+                                  @Param("examId") Long examId,
+                                  @Param("multiplier") long multiplier,
+                                  @Param("offset") long offset,
+                                  Pageable limit);
+
+    @Query("""
+        SELECT q.id AS id, q.lesson.id AS lessonId, lv.id AS levelId, q.type.id AS typeId,
+               lv.score AS levelScore
+        FROM Question q
+        LEFT JOIN q.level lv
+        WHERE q.id IN :ids
+    """)
+    List<CellRow> findCellRows(@Param("ids") Collection<Long> ids);
+
+    interface LessonCount {
+        Long getLessonId();
+
+        long getTotal();
+    }
+
+    interface CellCount {
+        Long getLessonId();
+
+        Long getLevelId();
+
+        Long getTypeId();
+
+        long getTotal();
+    }
+
+    interface CellRow {
+        Long getId();
+
+        Long getLessonId();
+
+        Long getLevelId();
+
+        Long getTypeId();
+
+        Double getLevelScore();
+    }
+
+    interface SearchRow {
+        Long getId();
+
+        String getQuestionText();
+
+        Long getLessonId();
+
+        Long getLevelId();
+
+        Long getTypeId();
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -31,4 +32,19 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     int deleteByJti(@Param("jti") String jti);
 
     boolean existsByJti(String jti);
+
+    @Query("SELECT rt.expiryDate FROM RefreshToken rt WHERE rt.jti = :jti")
+    Optional<LocalDateTime> findExpiryDateByJti(@Param("jti") String jti);
+
+    @Query("SELECT rt.jti FROM RefreshToken rt WHERE rt.user = :user")
+    List<String> findJtisByUser(@Param("user") User user);
+
+    // Lightweight rows for warming the in-memory live JTI set
+    @Query("SELECT rt.jti AS jti, rt.expiryDate AS expiryDate FROM RefreshToken rt WHERE rt.expiryDate > :now")
+    List<JtiExpiry> findActiveJtis(@Param("now") LocalDateTime now);
+
+    interface JtiExpiry {
+        String getJti();
+        LocalDateTime getExpiryDate();
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.demologin.repository;
+
+import com.example.demologin.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    // Tail of the change feed after the last applied id
+    List<TokenRevocation> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    // Re-check of ids skipped while tailing (committed out of order)
+    List<TokenRevocation> findByIdIn(Collection<Long> ids);
+
+    List<TokenRevocation> findByIdLessThanEqualAndExpiresAtAfter(Long id, LocalDateTime now);
+
+    @Query("SELECT COALESCE(MAX(tr.id), 0) FROM TokenRevocation tr")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocation tr WHERE tr.expiresAt < :now")
+    int deleteByExpiresAtBefore(@Param("now") LocalDateTime now);
+}
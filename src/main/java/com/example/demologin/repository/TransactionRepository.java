@@ -3,6 +3,7 @@ package com.example.demologin.repository;
 import com.example.demologin.entity.Transaction;
 import com.example.demologin.entity.User;
 import com.example.demologin.enums.TransactionStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -30,4 +31,8 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     );
 
     Optional<Transaction> findTopBySubscriptionIdOrderByCreatedAtDesc(Long subscriptionId);
+
+    // Keyset theo id giảm dần (mới nhất trước)
+    @Query("SELECT t FROM Transaction t WHERE (:afterId IS NULL OR t.id < :afterId) ORDER BY t.id DESC")
+    List<Transaction> findPageAfter(@Param("afterId") Long afterId, Pageable limit);
 }
@@ -64,5 +64,13 @@ public interface UserActivityLogRepository extends JpaRepository<UserActivityLog
         Long userId, ActivityType activityType, Pageable pageable);
 
     void deleteByUserId(Long userId);
+
+    // Keyset: các log sau (timestamp, id) theo thứ tự mới nhất trước; dùng index (timestamp, id)
+    @Query("SELECT u FROM UserActivityLog u WHERE " +
+           "(:timestamp IS NULL OR u.timestamp < :timestamp OR (u.timestamp = :timestamp AND u.id < :id)) " +
+           "ORDER BY u.timestamp DESC, u.id DESC")
+    List<UserActivityLog> findPageAfter(@Param("timestamp") LocalDateTime timestamp,
+                                        @Param("id") Long id,
+                                        Pageable limit);
 }
 
@@ -5,7 +5,11 @@ import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 
@@ -20,4 +24,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findByRoles_Name(String roleName, Pageable pageable);
 
     boolean existsByRoles_Id(Long id);
+
+    // Keyset theo userId tăng dần
+    @Query("SELECT u FROM User u WHERE (:afterId IS NULL OR u.userId > :afterId) ORDER BY u.userId")
+    List<User> findPageAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.userId = :userId")
+    Optional<Integer> findTokenVersionByUserId(@Param("userId") Long userId);
+
+    // Atomic in the database: concurrent bumps cannot overwrite each other
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.userId = :userId")
+    int incrementTokenVersion(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.tokenVersion = 0 WHERE u.userId = :userId")
+    int resetTokenVersion(@Param("userId") Long userId);
 }
@@ -0,0 +1,392 @@
+package com.example.demologin.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with BM25 ranking and exact-match attribute filters.
+ * <p>
+ * Documents get an internal number in insertion order, so every posting list is append-only:
+ * postings are stored as varint-encoded (doc-number delta, term frequency) pairs in a growable
+ * {@code byte[]}, typically 2–3 bytes per posting. Updating a document tombstones its old number
+ * and appends it again; once tombstones outnumber a quarter of the live documents the lists are
+ * re-encoded without them. Reads share a read lock; writes are short and take the write lock.
+ * <p>
+ * Queries match all of their terms (falling back to any term when nothing matches all), and the
+ * last term also matches as a prefix unless the query ends with a space, for search-as-you-type.
+ */
+public final class InvertedIndex {
+
+    /** Filter value that matches every document. */
+    public static final long ANY = Long.MIN_VALUE;
+    /** Stored for a missing attribute; never equal to a real id. */
+    public static final long NONE = -1L;
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+    static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private final int attributeCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private long[] ids = new long[64];
+    private int[] lengths = new int[64];
+    private long[][] attributes;
+    private final BitSet deleted = new BitSet();
+    private int docCount;
+    private int liveCount;
+    private long liveLength;
+
+    public InvertedIndex(int attributeCount) {
+        this.attributeCount = attributeCount;
+        this.attributes = new long[attributeCount][64];
+    }
+
+    /**
+     * Index {@code id} with the given text, replacing a previous version of it.
+     *
+     * @param attributes one value per attribute (use {@link #NONE} for missing)
+     */
+    public void put(long id, String text, long... attributes) {
+        if (attributes.length != attributeCount) {
+            throw new IllegalArgumentException("Expected " + attributeCount + " attributes, got " + attributes.length);
+        }
+        List<String> terms = TextAnalyzer.analyze(text);
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = docById.get(id);
+            if (previous != null) {
+                tombstone(previous);
+            }
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            ids[doc] = id;
+            lengths[doc] = terms.size();
+            for (int a = 0; a < attributeCount; a++) {
+                this.attributes[a][doc] = attributes[a];
+            }
+            docById.put(id, doc);
+            liveCount++;
+            liveLength += terms.size();
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new PostingList()).add(doc, frequency));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docById.remove(id);
+            if (doc == null) {
+                return false;
+            }
+            tombstone(doc);
+            compactIfNeeded();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param filters one value per attribute, {@link #ANY} to not filter on it
+     */
+    public SearchResult search(String query, long[] filters, int offset, int limit) {
+        List<String> queryTerms = TextAnalyzer.analyze(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new SearchResult(0, List.of());
+        }
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            List<List<PostingList>> groups = new ArrayList<>();
+            List<String> distinct = queryTerms.stream().distinct().toList();
+            for (int i = 0; i < distinct.size(); i++) {
+                String term = distinct.get(i);
+                boolean prefix = prefixLast && i == distinct.size() - 1 && term.length() >= MIN_PREFIX_LENGTH;
+                groups.add(prefix ? expand(term) : exact(term));
+            }
+            return score(groups, filters, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-encode all posting lists without tombstones and without spare capacity
+     * (after a bulk load).
+     */
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Encoded posting bytes, for sizing.
+     */
+    public long postingBytes() {
+        lock.readLock().lock();
+        try {
+            return postings.values().stream().mapToLong(list -> list.size).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<PostingList> exact(String term) {
+        PostingList list = postings.get(term);
+        return list == null ? List.of() : List.of(list);
+    }
+
+    private List<PostingList> expand(String prefix) {
+        List<PostingList> lists = new ArrayList<>();
+        for (PostingList list : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            lists.add(list);
+            if (lists.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return lists;
+    }
+
+    private SearchResult score(List<List<PostingList>> groups, long[] filters, int offset, int limit) {
+        float[] scores = new float[docCount];
+        byte[] matchedGroups = new byte[docCount];
+        int[] lastGroup = new int[docCount];
+        Arrays.fill(lastGroup, -1);
+        float averageLength = liveCount == 0 ? 1f : Math.max(1f, (float) liveLength / liveCount);
+
+        int groupCount = Math.min(groups.size(), Byte.MAX_VALUE);
+        for (int g = 0; g < groupCount; g++) {
+            for (PostingList list : groups.get(g)) {
+                float idf = (float) Math.log(1 + (liveCount - list.count + 0.5) / (list.count + 0.5));
+                PostingList.Cursor cursor = list.cursor();
+                while (cursor.next()) {
+                    int doc = cursor.doc;
+                    if (deleted.get(doc) || !matches(doc, filters)) {
+                        continue;
+                    }
+                    float tf = cursor.frequency;
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                    if (lastGroup[doc] != g) {
+                        lastGroup[doc] = g;
+                        matchedGroups[doc]++;
+                    }
+                }
+            }
+        }
+
+        SearchResult all = collect(scores, matchedGroups, groupCount, offset, limit);
+        if (all.total() == 0 && groupCount > 1) {
+            return collect(scores, matchedGroups, 1, offset, limit);
+        }
+        return all;
+    }
+
+    private SearchResult collect(float[] scores, byte[] matchedGroups, int required, int offset, int limit) {
+        int wanted = offset + limit;
+        Comparator<Hit> rank = Comparator.comparingDouble(Hit::score).thenComparing(Hit::id, Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(wanted, 1024) + 1, rank);
+        long total = 0;
+        for (int doc = 0; doc < scores.length; doc++) {
+            if (matchedGroups[doc] < required) {
+                continue;
+            }
+            total++;
+            Hit hit = new Hit(ids[doc], scores[doc]);
+            if (top.size() < wanted) {
+                top.add(hit);
+            } else if (rank.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(rank.reversed());
+        return new SearchResult(total, offset >= hits.size() ? List.of() : hits.subList(offset, hits.size()));
+    }
+
+    private boolean matches(int doc, long[] filters) {
+        if (filters == null) {
+            return true;
+        }
+        for (int a = 0; a < filters.length && a < attributeCount; a++) {
+            if (filters[a] != ANY && attributes[a][doc] != filters[a]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void tombstone(int doc) {
+        deleted.set(doc);
+        liveCount--;
+        liveLength -= lengths[doc];
+    }
+
+    private void compactIfNeeded() {
+        int tombstones = docCount - liveCount;
+        if (tombstones > 64 && tombstones > liveCount / 4) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] renumbered = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                renumbered[doc] = -1;
+            } else {
+                renumbered[doc] = next;
+                ids[next] = ids[doc];
+                lengths[next] = lengths[doc];
+                for (int a = 0; a < attributeCount; a++) {
+                    attributes[a][next] = attributes[a][doc];
+                }
+                docById.put(ids[next], next);
+                next++;
+            }
+        }
+        var iterator = postings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            PostingList rebuilt = new PostingList();
+            PostingList.Cursor cursor = entry.getValue().cursor();
+            while (cursor.next()) {
+                if (renumbered[cursor.doc] >= 0) {
+                    rebuilt.add(renumbered[cursor.doc], cursor.frequency);
+                }
+            }
+            if (rebuilt.count == 0) {
+                iterator.remove();
+            } else {
+                rebuilt.trim();
+                entry.setValue(rebuilt);
+            }
+        }
+        deleted.clear();
+        docCount = next;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        for (int a = 0; a < attributeCount; a++) {
+            attributes[a] = Arrays.copyOf(attributes[a], capacity);
+        }
+    }
+
+    public record Hit(long id, float score) {
+    }
+
+    public record SearchResult(long total, List<Hit> hits) {
+    }
+
+    /**
+     * Varint-encoded (delta doc number, frequency) pairs, doc numbers strictly increasing.
+     */
+    static final class PostingList {
+
+        private byte[] data = new byte[4];
+        private int size;
+        private int count;
+        private int lastDoc = -1;
+
+        void add(int doc, int frequency) {
+            ensure(10);
+            writeVarInt(doc - lastDoc);
+            writeVarInt(frequency);
+            lastDoc = doc;
+            count++;
+        }
+
+        void trim() {
+            data = Arrays.copyOf(data, size);
+        }
+
+        Cursor cursor() {
+            return new Cursor();
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + extra, data.length + (data.length >> 1)));
+            }
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        final class Cursor {
+            private int position;
+            int doc = -1;
+            int frequency;
+
+            boolean next() {
+                if (position >= size) {
+                    return false;
+                }
+                doc += readVarInt();
+                frequency = readVarInt();
+                return true;
+            }
+
+            private int readVarInt() {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                return value;
+            }
+        }
+    }
+}
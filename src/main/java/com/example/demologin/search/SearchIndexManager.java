@@ -0,0 +1,408 @@
+package com.example.demologin.search;
+
+import com.example.demologin.cache.CacheDependencyIndex;
+import com.example.demologin.entity.EssayQuestion;
+import com.example.demologin.entity.Exam;
+import com.example.demologin.entity.Option;
+import com.example.demologin.entity.Question;
+import com.example.demologin.enums.QuestionStatus;
+import com.example.demologin.repository.EssayQuestionRepository;
+import com.example.demologin.repository.ExamRepository;
+import com.example.demologin.repository.OptionRepository;
+import com.example.demologin.repository.QuestionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Owns the full-text indexes of questions (text and options), exams (title and description) and
+ * essay prompts.
+ * <p>
+ * Each index is built from keyset-paged projections once the application is ready (or on the
+ * first search if that comes earlier). Services report their writes here and the change is
+ * applied after commit, so a teacher finds a question right after saving it (bulk import reports
+ * each committed chunk the same way). Only writes committed on other nodes are not seen here; they
+ * move the remote entity versions of {@link CacheDependencyIndex}, and a periodic check rebuilds an
+ * index whose remote versions moved. Any index older than {@code search.index.max-age} is rebuilt
+ * too, which also covers a change whose invalidation never arrived. Updates that commit while a
+ * rebuild runs are replayed on the new index before it is swapped in.
+ */
+@Component
+@Slf4j
+public class SearchIndexManager {
+
+    public static final int QUESTION_LESSON = 0;
+    public static final int QUESTION_LEVEL = 1;
+    public static final int QUESTION_TYPE = 2;
+    public static final int ESSAY_LESSON = 0;
+    public static final int ESSAY_STATUS = 1;
+
+    private static final int BATCH_SIZE = 1000;
+
+    public enum Kind {
+        QUESTION(3), EXAM(0), ESSAY(2);
+
+        private final int attributes;
+
+        Kind(int attributes) {
+            this.attributes = attributes;
+        }
+    }
+
+    private final QuestionRepository questionRepository;
+    private final OptionRepository optionRepository;
+    private final ExamRepository examRepository;
+    private final EssayQuestionRepository essayQuestionRepository;
+    private final CacheDependencyIndex dependencyIndex;
+    private final TransactionTemplate readTransaction;
+    private final long maxAgeNanos;
+    private final ThreadPoolExecutor builder;
+    private final Map<Kind, Slot> slots = new EnumMap<>(Kind.class);
+
+    public SearchIndexManager(QuestionRepository questionRepository,
+                              OptionRepository optionRepository,
+                              ExamRepository examRepository,
+                              EssayQuestionRepository essayQuestionRepository,
+                              CacheDependencyIndex dependencyIndex,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${search.index.max-age:PT30M}") Duration maxAge) {
+        this.questionRepository = questionRepository;
+        this.optionRepository = optionRepository;
+        this.examRepository = examRepository;
+        this.essayQuestionRepository = essayQuestionRepository;
+        this.dependencyIndex = dependencyIndex;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.maxAgeNanos = maxAge.toNanos();
+        for (Kind kind : Kind.values()) {
+            slots.put(kind, new Slot());
+        }
+        this.builder = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Kind.values().length), runnable -> {
+                    Thread thread = new Thread(runnable, "search-index-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.builder.allowCoreThreadTimeOut(true);
+    }
+
+    // ---- queries ----
+
+    public InvertedIndex.SearchResult searchQuestions(String query, Long lessonId, Long levelId, Long typeId,
+                                                      int offset, int limit) {
+        long[] filters = {filter(lessonId), filter(levelId), filter(typeId)};
+        return ready(Kind.QUESTION).search(query, filters, offset, limit);
+    }
+
+    public InvertedIndex.SearchResult searchExams(String query, int offset, int limit) {
+        return ready(Kind.EXAM).search(query, null, offset, limit);
+    }
+
+    /**
+     * Active essay questions only, like the teacher listing.
+     */
+    public InvertedIndex.SearchResult searchEssays(String query, Long lessonId, int offset, int limit) {
+        long[] filters = {filter(lessonId), QuestionStatus.ACTIVE.ordinal()};
+        return ready(Kind.ESSAY).search(query, filters, offset, limit);
+    }
+
+    // ---- write hooks (call inside the writing transaction, applied after commit) ----
+
+    public void questionSaved(Question question) {
+        questionSaved(question.getId(), question.getQuestionText(),
+                question.getOptions() == null ? List.of() : question.getOptions().stream().map(Option::getOptionText).toList(),
+                question.getLesson() == null ? InvertedIndex.NONE : question.getLesson().getId(),
+                question.getLevel() == null ? InvertedIndex.NONE : question.getLevel().getId(),
+                question.getType() == null ? InvertedIndex.NONE : question.getType().getId());
+    }
+
+    /**
+     * Same as {@link #questionSaved(Question)} for questions written without Hibernate (bulk import).
+     */
+    public void questionSaved(long id, String questionText, List<String> optionTexts,
+                              long lessonId, long levelId, long typeId) {
+        String text = questionText(questionText, optionTexts);
+        afterCommit(Kind.QUESTION, index -> index.put(id, text, lessonId, levelId, typeId));
+    }
+
+    public void questionDeleted(Long id) {
+        afterCommit(Kind.QUESTION, index -> index.remove(id));
+    }
+
+    public void examSaved(Exam exam) {
+        long id = exam.getId();
+        String text = joined(exam.getTitle(), exam.getDescription());
+        afterCommit(Kind.EXAM, index -> index.put(id, text));
+    }
+
+    public void examDeleted(Long id) {
+        afterCommit(Kind.EXAM, index -> index.remove(id));
+    }
+
+    public void essaySaved(EssayQuestion question) {
+        long id = question.getId();
+        String text = question.getPrompt();
+        long lessonId = question.getLesson() == null ? InvertedIndex.NONE : question.getLesson().getId();
+        long status = question.getStatus() == null ? InvertedIndex.NONE : question.getStatus().ordinal();
+        afterCommit(Kind.ESSAY, index -> index.put(id, text, lessonId, status));
+    }
+
+    public void essayDeleted(Long id) {
+        afterCommit(Kind.ESSAY, index -> index.remove(id));
+    }
+
+    // ---- building ----
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (Kind kind : Kind.values()) {
+            scheduleRebuild(kind);
+        }
+    }
+
+    /**
+     * Rebuild indexes whose entities changed on another node (or that are simply old).
+     * Runs on the builder thread, not the shared scheduler.
+     */
+    @Scheduled(fixedDelayString = "${search.index.refresh-interval-ms:300000}",
+            initialDelayString = "${search.index.refresh-interval-ms:300000}")
+    public void refreshStale() {
+        for (Kind kind : Kind.values()) {
+            Slot slot = slots.get(kind);
+            if (slot.index != null && (slot.builtVersion != remoteVersion(kind)
+                    || System.nanoTime() - slot.builtAt > maxAgeNanos)) {
+                scheduleRebuild(kind);
+            }
+        }
+    }
+
+    /**
+     * Build {@code kind} from the database and swap it in; blocks while another build of it runs.
+     */
+    public void rebuild(Kind kind) {
+        Slot slot = slots.get(kind);
+        slot.buildLock.lock();
+        try {
+            long started = System.nanoTime();
+            // Read before loading: a remote change arriving meanwhile makes the next check rebuild again
+            long version = remoteVersion(kind);
+            synchronized (slot) {
+                slot.replay = new ArrayList<>();
+            }
+            InvertedIndex fresh;
+            try {
+                fresh = load(kind);
+                fresh.optimize();
+            } catch (RuntimeException ex) {
+                synchronized (slot) {
+                    slot.replay = null;
+                }
+                throw ex;
+            }
+            synchronized (slot) {
+                slot.replay.forEach(update -> update.accept(fresh));
+                slot.replay = null;
+                slot.index = fresh;
+            }
+            slot.builtVersion = version;
+            slot.builtAt = System.nanoTime();
+            log.info("[SEARCH] {} index built: {} documents, {} KB of postings in {} ms", kind, fresh.size(),
+                    fresh.postingBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            slot.buildLock.unlock();
+        }
+    }
+
+    private void scheduleRebuild(Kind kind) {
+        Slot slot = slots.get(kind);
+        if (!slot.queued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            builder.execute(() -> {
+                slot.queued.set(false);
+                try {
+                    rebuild(kind);
+                } catch (RuntimeException ex) {
+                    log.warn("[SEARCH] Building the {} index failed: {}", kind, ex.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            slot.queued.set(false);
+        }
+    }
+
+    private InvertedIndex ready(Kind kind) {
+        Slot slot = slots.get(kind);
+        InvertedIndex index = slot.index;
+        if (index != null) {
+            return index;
+        }
+        // First search before the warm-up finished: build (or wait for the running build) here
+        slot.buildLock.lock();
+        try {
+            if (slot.index == null) {
+                rebuild(kind);
+            }
+            return slot.index;
+        } finally {
+            slot.buildLock.unlock();
+        }
+    }
+
+    private InvertedIndex load(Kind kind) {
+        InvertedIndex index = new InvertedIndex(kind.attributes);
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            Long last = readTransaction.execute(status -> switch (kind) {
+                case QUESTION -> loadQuestions(index, from);
+                case EXAM -> loadExams(index, from);
+                case ESSAY -> loadEssays(index, from);
+            });
+            if (last == null) {
+                return index;
+            }
+            afterId = last;
+        }
+    }
+
+    private Long loadQuestions(InvertedIndex index, long afterId) {
+        List<QuestionRepository.SearchRow> rows =
+                questionRepository.findSearchRowsAfter(afterId, PageRequest.ofSize(BATCH_SIZE));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Map<Long, List<String>> options = new HashMap<>();
+        for (OptionRepository.OptionTextRow option
+                : optionRepository.findOptionTexts(rows.stream().map(QuestionRepository.SearchRow::getId).toList())) {
+            options.computeIfAbsent(option.getQuestionId(), id -> new ArrayList<>()).add(option.getOptionText());
+        }
+        for (QuestionRepository.SearchRow row : rows) {
+            index.put(row.getId(), questionText(row.getQuestionText(), options.getOrDefault(row.getId(), List.of())),
+                    orNone(row.getLessonId()), orNone(row.getLevelId()), orNone(row.getTypeId()));
+        }
+        return rows.get(rows.size() - 1).getId();
+    }
+
+    private Long loadExams(InvertedIndex index, long afterId) {
+        List<ExamRepository.SearchRow> rows = examRepository.findSearchRowsAfter(afterId, PageRequest.ofSize(BATCH_SIZE));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        for (ExamRepository.SearchRow row : rows) {
+            index.put(row.getId(), joined(row.getTitle(), row.getDescription()));
+        }
+        return rows.get(rows.size() - 1).getId();
+    }
+
+    private Long loadEssays(InvertedIndex index, long afterId) {
+        List<EssayQuestionRepository.SearchRow> rows =
+                essayQuestionRepository.findSearchRowsAfter(afterId, PageRequest.ofSize(BATCH_SIZE));
+        if (rows.isEmpty()) {
+            return null;
+        }
+        for (EssayQuestionRepository.SearchRow row : rows) {
+            index.put(row.getId(), row.getPrompt(), orNone(row.getLessonId()),
+                    row.getStatus() == null ? InvertedIndex.NONE : row.getStatus().ordinal());
+        }
+        return rows.get(rows.size() - 1).getId();
+    }
+
+    private void afterCommit(Kind kind, Consumer<InvertedIndex> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(kind, update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(kind, update);
+            }
+        });
+    }
+
+    private void apply(Kind kind, Consumer<InvertedIndex> update) {
+        Slot slot = slots.get(kind);
+        synchronized (slot) {
+            if (slot.index != null) {
+                update.accept(slot.index);
+            }
+            if (slot.replay != null) {
+                slot.replay.add(update);
+            }
+        }
+    }
+
+    // Local writes reach the index through the hooks above, so only other nodes' changes count
+    private long remoteVersion(Kind kind) {
+        return switch (kind) {
+            case QUESTION -> dependencyIndex.remoteEntityVersion(Question.class)
+                    + dependencyIndex.remoteEntityVersion(Option.class);
+            case EXAM -> dependencyIndex.remoteEntityVersion(Exam.class);
+            case ESSAY -> dependencyIndex.remoteEntityVersion(EssayQuestion.class);
+        };
+    }
+
+    static String questionText(String questionText, List<String> options) {
+        StringBuilder text = new StringBuilder(questionText == null ? "" : questionText);
+        for (String option : options) {
+            if (option != null) {
+                text.append('\n').append(option);
+            }
+        }
+        return text.toString();
+    }
+
+    private static String joined(String title, String description) {
+        return (title == null ? "" : title) + "\n" + (description == null ? "" : description);
+    }
+
+    private static long filter(Long id) {
+        return id == null ? InvertedIndex.ANY : id;
+    }
+
+    private static long orNone(Long id) {
+        return id == null ? InvertedIndex.NONE : id;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        builder.shutdownNow();
+    }
+
+    private static final class Slot {
+        private final ReentrantLock buildLock = new ReentrantLock();
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private volatile InvertedIndex index;
+        private volatile long builtVersion = -1;
+        private volatile long builtAt;
+        // Guarded by the slot; non-null while a rebuild is loading
+        private List<Consumer<InvertedIndex>> replay;
+    }
+}
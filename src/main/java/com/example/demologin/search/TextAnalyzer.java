@@ -0,0 +1,135 @@
+package com.example.demologin.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns question/exam text into index terms.
+ * <ul>
+ *     <li>NFKD folding: Vietnamese diacritics and {@code đ} are dropped ("Phương trình" → "phuong",
+ *     "trinh"); full-width forms become plain letters and digits.</li>
+ *     <li>Letter/digit runs are terms; decimals keep their separator ("3,14" → "3.14").</li>
+ *     <li>Exponents are also indexed whole, and superscripts count as exponents
+ *     ("x^2" and "x²" → "x", "2", "x^2").</li>
+ *     <li>Math symbols and Greek letters map to names ("√" → "sqrt", "π" → "pi"), so they match
+ *     LaTeX input such as {@code \sqrt} or {@code \pi}.</li>
+ * </ul>
+ * Queries go through the same analysis, so a query typed without accents matches accented text.
+ */
+public final class TextAnalyzer {
+
+    static final int MAX_TERM_LENGTH = 64;
+
+    private static final Map<Character, String> SYMBOLS = Map.ofEntries(
+            Map.entry('√', "sqrt"), Map.entry('∛', "cbrt"), Map.entry('π', "pi"), Map.entry('∫', "int"),
+            Map.entry('∑', "sum"), Map.entry('∏', "prod"), Map.entry('∞', "inf"), Map.entry('≤', "leq"),
+            Map.entry('≥', "geq"), Map.entry('≠', "neq"), Map.entry('±', "pm"), Map.entry('∈', "in"),
+            Map.entry('∆', "delta"), Map.entry('Δ', "delta"), Map.entry('δ', "delta"), Map.entry('α', "alpha"),
+            Map.entry('β', "beta"), Map.entry('γ', "gamma"), Map.entry('ε', "epsilon"), Map.entry('θ', "theta"),
+            Map.entry('λ', "lambda"), Map.entry('μ', "mu"), Map.entry('σ', "sigma"), Map.entry('φ', "phi"),
+            Map.entry('ω', "omega"), Map.entry('°', "degree"), Map.entry('∠', "angle"), Map.entry('⊥', "perp"),
+            Map.entry('∥', "parallel"), Map.entry('∪', "cup"), Map.entry('∩', "cap"), Map.entry('⊂', "subset"),
+            Map.entry('∅', "emptyset"), Map.entry('→', "to"));
+    private static final String SUPERSCRIPT_DIGITS = "⁰¹²³⁴⁵⁶⁷⁸⁹";
+
+    private TextAnalyzer() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = fold(text);
+        StringBuilder term = new StringBuilder();
+        int length = folded.length();
+        String base = null;
+        for (int i = 0; i < length; i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c) && SYMBOLS.get(c) == null) {
+                term.append(c);
+                continue;
+            }
+            // "3.14" / "3,14": a separator between two digits stays inside the number
+            if ((c == '.' || c == ',') && !term.isEmpty() && Character.isDigit(term.charAt(term.length() - 1))
+                    && i + 1 < length && Character.isDigit(folded.charAt(i + 1))) {
+                term.append('.');
+                continue;
+            }
+            String previous = flush(term, terms);
+            if (base != null && previous != null) {
+                add(terms, base + "^" + previous);
+                base = null;
+            }
+            if (c == '^' && previous != null) {
+                base = previous;
+                continue;
+            }
+            base = null;
+            String symbol = SYMBOLS.get(c);
+            if (symbol != null) {
+                add(terms, symbol);
+            }
+        }
+        String last = flush(term, terms);
+        if (base != null && last != null) {
+            add(terms, base + "^" + last);
+        }
+        return terms;
+    }
+
+    /**
+     * Lower case, no diacritics, compatibility forms decomposed.
+     */
+    public static String fold(String text) {
+        StringBuilder exponents = null;
+        for (int i = 0; i < text.length(); i++) {
+            int digit = SUPERSCRIPT_DIGITS.indexOf(text.charAt(i));
+            if (digit >= 0) {
+                if (exponents == null) {
+                    exponents = new StringBuilder(text.length() + 4).append(text, 0, i);
+                }
+                // "x²³" → "x^23"
+                if (i == 0 || SUPERSCRIPT_DIGITS.indexOf(text.charAt(i - 1)) < 0) {
+                    exponents.append('^');
+                }
+                exponents.append((char) ('0' + digit));
+            } else if (exponents != null) {
+                exponents.append(text.charAt(i));
+            }
+        }
+        String decomposed = Normalizer.normalize(exponents == null ? text : exponents, Normalizer.Form.NFKD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                folded.append('d');
+            } else {
+                folded.append(Character.toLowerCase(c));
+            }
+        }
+        return folded.toString();
+    }
+
+    private static String flush(StringBuilder term, List<String> terms) {
+        if (term.isEmpty()) {
+            return null;
+        }
+        String value = term.toString();
+        term.setLength(0);
+        add(terms, value);
+        return value;
+    }
+
+    private static void add(List<String> terms, String term) {
+        if (term.length() <= MAX_TERM_LENGTH) {
+            terms.add(term);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demologin.security;
+
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
+import com.example.demologin.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lightweight, immutable snapshot of an authenticated user.
+ * This is what the JWT filter puts into the SecurityContext instead of the {@link User} entity,
+ * so a request can be authorised without loading the user graph from the database.
+ * Use {@code AccountUtils#getCurrentUser()} when the full entity is really needed.
+ */
+@Getter
+public final class AuthPrincipal implements Principal {
+
+    private final long userId;
+    private final String username;
+    private final int tokenVersion;
+    private final long[] roleIds;
+    private final Set<String> roleNames;
+    private final List<GrantedAuthority> authorities;
+
+    private AuthPrincipal(long userId, String username, int tokenVersion, long[] roleIds,
+                          Set<String> roleNames, List<GrantedAuthority> authorities) {
+        this.userId = userId;
+        this.username = username;
+        this.tokenVersion = tokenVersion;
+        this.roleIds = roleIds;
+        this.roleNames = roleNames;
+        this.authorities = authorities;
+    }
+
+    public static AuthPrincipal from(User user) {
+        Set<Role> roles = user.getRoles() != null ? user.getRoles() : Collections.emptySet();
+        long[] roleIds = new long[roles.size()];
+        Set<String> roleNames = new LinkedHashSet<>();
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        int i = 0;
+        for (Role role : roles) {
+            roleIds[i++] = role.getId() != null ? role.getId() : 0L;
+            roleNames.add(role.getName());
+            // Same authorities as User#getAuthorities so @PreAuthorize keeps working
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
+            if (role.getPermissions() != null) {
+                for (Permission perm : role.getPermissions()) {
+                    authorities.add(new SimpleGrantedAuthority(perm.getCode()));
+                }
+            }
+        }
+        return new AuthPrincipal(
+                user.getUserId(),
+                user.getUsername(),
+                user.getTokenVersion(),
+                roleIds,
+                Collections.unmodifiableSet(roleNames),
+                Collections.unmodifiableList(authorities)
+        );
+    }
+
+    public long[] getRoleIds() {
+        return roleIds.clone();
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthPrincipal(userId=" + userId + ", username=" + username + ")";
+    }
+}
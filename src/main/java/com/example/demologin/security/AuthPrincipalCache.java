@@ -0,0 +1,64 @@
+package com.example.demologin.security;
+
+import com.example.demologin.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, expiring in-process cache of {@link AuthPrincipal} snapshots keyed by user id.
+ * Writers that change anything the snapshot holds (roles, role permissions)
+ * must evict the affected entries and publish the change through
+ * {@link JtiRevocationStore#publishPrincipalChange}; the TTL is only a backstop.
+ */
+@Component
+public class AuthPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, AuthPrincipal> principals;
+
+    public AuthPrincipalCache(UserRepository userRepository,
+                              @Value("${auth.principal-cache.max-size:50000}") long maxSize,
+                              @Value("${auth.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Get the snapshot for a user, loading it from the database on a miss.
+     * @return the snapshot or {@code null} if the user does not exist
+     */
+    public AuthPrincipal get(Long userId) {
+        return principals.get(userId, id -> userRepository.findById(id)
+                .map(AuthPrincipal::from)
+                .orElse(null));
+    }
+
+    /**
+     * Get the snapshot for a token. The token version itself is checked against
+     * {@link TokenVersionTable}, not against the snapshot.
+     */
+    public AuthPrincipal get(VerifiedToken verifiedToken) {
+        Long userId = verifiedToken.getUserId();
+        return userId == null ? null : get(userId);
+    }
+
+    public void evict(Long userId) {
+        if (userId != null) {
+            principals.invalidate(userId);
+        }
+    }
+
+    /**
+     * Drop every snapshot, e.g. after the permissions of a role changed.
+     */
+    public void evictAll() {
+        principals.invalidateAll();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demologin.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Set of JTIs that expire on a hashed timing wheel.
+ * Lookups read the expiry stored with the JTI, so they are exact even between ticks;
+ * the wheel only makes removal O(expired) instead of scanning the whole set.
+ */
+final class ExpiringJtiSet {
+
+    private final ConcurrentHashMap<String, Long> expiries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String>[] wheel;
+    private final long tickMillis;
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    ExpiringJtiSet(long tickMillis, int slots, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.wheel = new ConcurrentLinkedQueue[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    void add(String jti, long expiresAtMillis) {
+        expiries.merge(jti, expiresAtMillis, Math::max);
+        // Entries past the wheel horizon wait in their slot and are re-checked every lap
+        long tick = Math.floorDiv(expiresAtMillis + tickMillis - 1, tickMillis);
+        wheel[(int) Math.floorMod(tick, (long) wheel.length)].add(jti);
+    }
+
+    boolean contains(String jti, long nowMillis) {
+        Long expiresAt = expiries.get(jti);
+        return expiresAt != null && expiresAt > nowMillis;
+    }
+
+    void remove(String jti) {
+        expiries.remove(jti);
+    }
+
+    int size() {
+        return expiries.size();
+    }
+
+    Iterable<String> keys() {
+        return expiries.keySet();
+    }
+
+    /**
+     * Advance the wheel to {@code nowMillis} and drop every JTI whose expiry has passed.
+     * @return number of removed JTIs
+     */
+    synchronized int advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        long ticks = Math.min(nowTick - lastTick, wheel.length);
+        int removed = 0;
+        for (long t = nowTick - ticks + 1; t <= nowTick; t++) {
+            ConcurrentLinkedQueue<String> slot = wheel[(int) Math.floorMod(t, (long) wheel.length)];
+            List<String> survivors = new ArrayList<>();
+            String jti;
+            while ((jti = slot.poll()) != null) {
+                Long expiresAt = expiries.get(jti);
+                if (expiresAt == null) {
+                    continue;
+                }
+                if (expiresAt <= nowMillis) {
+                    if (expiries.remove(jti, expiresAt)) {
+                        removed++;
+                    }
+                } else {
+                    survivors.add(jti);
+                }
+            }
+            slot.addAll(survivors);
+        }
+        lastTick = nowTick;
+        return removed;
+    }
+}
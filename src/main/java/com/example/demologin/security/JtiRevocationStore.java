@@ -0,0 +1,272 @@
+package com.example.demologin.security;
+
+import com.example.demologin.entity.TokenRevocation;
+import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.repository.TokenRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory view of which JTIs may still authenticate.
+ * <ul>
+ *     <li>live set: JTIs of existing refresh tokens, warmed from the DB at startup</li>
+ *     <li>deny-list: revoked JTIs, fronted by a Bloom filter so the common case is one bit probe</li>
+ * </ul>
+ * Both sets expire on a timing wheel keyed by token expiry. Revocations are appended to
+ * {@code token_revocations}; every node polls that feed, so a logout takes effect cluster-wide
+ * within {@code auth.revocation.poll-interval-ms}. Token version bumps ride the same feed
+ * and are applied to the {@link TokenVersionTable}; those and principal changes (roles, lock
+ * state) also evict the {@link AuthPrincipalCache} entry, so no node serves stale authorities
+ * for longer than one poll. Feed ids can commit out of order, so ids
+ * skipped over while tailing are re-checked until {@code auth.revocation.gap-timeout-ms}
+ * before being given up as rolled back.
+ */
+@Component
+@Slf4j
+public class JtiRevocationStore {
+
+    private static final long TICK_MILLIS = 1_000L;
+    private static final int WHEEL_SLOTS = 3_600;
+    private static final int BATCH_SIZE = 500;
+    // Larger jumps are not tracked id by id
+    private static final int MAX_TRACKED_GAP = 1_000;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final TokenVersionTable tokenVersionTable;
+    private final AuthPrincipalCache authPrincipalCache;
+    private final long accessTokenTtlMs;
+    private final int bloomExpectedRevocations;
+    private final long gapTimeoutMs;
+
+    private final ExpiringJtiSet liveJtis;
+    private final ExpiringJtiSet deniedJtis;
+    private volatile JtiBloomFilter deniedFilter;
+    private final Object denyLock = new Object();
+    // Highest feed id applied; guarded by feedLock
+    private long highestId;
+    // Skipped feed id -> when it was first missed; guarded by feedLock
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private final Object feedLock = new Object();
+
+    public JtiRevocationStore(RefreshTokenRepository refreshTokenRepository,
+                              TokenRevocationRepository tokenRevocationRepository,
+                              TokenVersionTable tokenVersionTable,
+                              AuthPrincipalCache authPrincipalCache,
+                              @Value("${jwt.expiration.ms}") long accessTokenTtlMs,
+                              @Value("${auth.revocation.bloom-expected:100000}") int bloomExpectedRevocations,
+                              @Value("${auth.revocation.gap-timeout-ms:10000}") long gapTimeoutMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.tokenVersionTable = tokenVersionTable;
+        this.authPrincipalCache = authPrincipalCache;
+        this.accessTokenTtlMs = accessTokenTtlMs;
+        this.bloomExpectedRevocations = bloomExpectedRevocations;
+        this.gapTimeoutMs = gapTimeoutMs;
+        long now = System.currentTimeMillis();
+        this.liveJtis = new ExpiringJtiSet(TICK_MILLIS, WHEEL_SLOTS, now);
+        this.deniedJtis = new ExpiringJtiSet(TICK_MILLIS, WHEEL_SLOTS, now);
+        this.deniedFilter = new JtiBloomFilter(bloomExpectedRevocations, 0.01);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime now = LocalDateTime.now();
+        // Read the feed position first so nothing appended during warm-up is skipped
+        long maxEventId = tokenRevocationRepository.findMaxId();
+        // Version bumps need no replay: the table loads current versions from the DB on demand
+        for (TokenRevocation revocation : tokenRevocationRepository.findByIdLessThanEqualAndExpiresAtAfter(maxEventId, now)) {
+            if (revocation.getJti() != null) {
+                applyRevocation(revocation.getJti(), toMillis(revocation.getExpiresAt()));
+            }
+        }
+        synchronized (feedLock) {
+            highestId = Math.max(highestId, maxEventId);
+        }
+
+        List<RefreshTokenRepository.JtiExpiry> active = refreshTokenRepository.findActiveJtis(now);
+        for (RefreshTokenRepository.JtiExpiry row : active) {
+            if (!deniedJtis.contains(row.getJti(), System.currentTimeMillis())) {
+                liveJtis.add(row.getJti(), toMillis(row.getExpiryDate()));
+            }
+        }
+        log.info("JTI revocation store warmed: {} live, {} revoked, feed at id {}",
+                liveJtis.size(), deniedJtis.size(), maxEventId);
+    }
+
+    /**
+     * O(1) check used on every authenticated request.
+     */
+    public boolean isActive(String jti) {
+        long now = System.currentTimeMillis();
+        if (deniedFilter.mightContain(jti) && deniedJtis.contains(jti, now)) {
+            return false;
+        }
+        if (liveJtis.contains(jti, now)) {
+            return true;
+        }
+        // Miss: session created on another node (or after warm-up); resolve once from DB
+        Optional<LocalDateTime> expiry = refreshTokenRepository.findExpiryDateByJti(jti);
+        if (expiry.isPresent()) {
+            liveJtis.add(jti, toMillis(expiry.get()));
+            return true;
+        }
+        // A signed token whose refresh token is gone has been logged out; remember it locally
+        applyRevocation(jti, now + accessTokenTtlMs);
+        return false;
+    }
+
+    public void registerLive(String jti, LocalDateTime expiryDate) {
+        liveJtis.add(jti, toMillis(expiryDate));
+    }
+
+    /**
+     * Publish a JTI revocation for the other nodes and apply it on this node. Joins the caller's
+     * transaction when there is one; the local deny-list is only written once it commits, so a
+     * rolled-back logout revokes nothing.
+     */
+    public void revoke(String jti) {
+        long deniedUntil = System.currentTimeMillis() + accessTokenTtlMs;
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .jti(jti)
+                .expiresAt(toLocalDateTime(deniedUntil))
+                .createdAt(LocalDateTime.now())
+                .build());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyRevocation(jti, deniedUntil);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyRevocation(jti, deniedUntil);
+            }
+        });
+    }
+
+    /**
+     * Publish a token version change for the other nodes. The local table is written
+     * through by the caller; joins the caller's transaction when there is one.
+     */
+    public void publishTokenVersion(long userId, int tokenVersion) {
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .userId(userId)
+                .tokenVersion(tokenVersion)
+                .expiresAt(toLocalDateTime(System.currentTimeMillis() + accessTokenTtlMs))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Tell the other nodes to drop their cached principal of a user, or of every user when
+     * {@code userId} is null (role permissions changed). The caller evicts locally; joins the
+     * caller's transaction when there is one.
+     */
+    public void publishPrincipalChange(Long userId) {
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .userId(userId)
+                .expiresAt(toLocalDateTime(System.currentTimeMillis() + accessTokenTtlMs))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.poll-interval-ms:2000}")
+    public void pollChanges() {
+        synchronized (feedLock) {
+            long now = System.currentTimeMillis();
+            if (!gaps.isEmpty()) {
+                List<TokenRevocation> late = tokenRevocationRepository.findByIdIn(List.copyOf(gaps.keySet()));
+                for (TokenRevocation revocation : late) {
+                    gaps.remove(revocation.getId());
+                    applyEvent(revocation);
+                }
+                gaps.values().removeIf(firstMissed -> now - firstMissed > gapTimeoutMs);
+            }
+            List<TokenRevocation> batch;
+            do {
+                batch = tokenRevocationRepository.findTop500ByIdGreaterThanOrderByIdAsc(highestId);
+                for (TokenRevocation revocation : batch) {
+                    long id = revocation.getId();
+                    if (id - highestId - 1 <= MAX_TRACKED_GAP) {
+                        for (long missing = highestId + 1; missing < id; missing++) {
+                            gaps.putIfAbsent(missing, now);
+                        }
+                    }
+                    highestId = id;
+                    applyEvent(revocation);
+                }
+            } while (batch.size() == BATCH_SIZE);
+        }
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void expire() {
+        long now = System.currentTimeMillis();
+        liveJtis.advance(now);
+        if (deniedJtis.advance(now) > 0) {
+            rebuildFilter();
+        }
+    }
+
+    @Scheduled(fixedRate = 3600000)
+    public void purgeExpiredRevocations() {
+        int deleted = tokenRevocationRepository.deleteByExpiresAtBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired token revocations", deleted);
+        }
+    }
+
+    private void applyEvent(TokenRevocation revocation) {
+        if (revocation.getJti() != null) {
+            applyRevocation(revocation.getJti(), toMillis(revocation.getExpiresAt()));
+        } else if (revocation.getUserId() == null) {
+            authPrincipalCache.evictAll();
+        } else {
+            if (revocation.getTokenVersion() != null) {
+                tokenVersionTable.set(revocation.getUserId(), revocation.getTokenVersion());
+            }
+            authPrincipalCache.evict(revocation.getUserId());
+        }
+    }
+
+    private void applyRevocation(String jti, long deniedUntilMillis) {
+        synchronized (denyLock) {
+            deniedJtis.add(jti, deniedUntilMillis);
+            deniedFilter.add(jti);
+        }
+        liveJtis.remove(jti);
+    }
+
+    private void rebuildFilter() {
+        synchronized (denyLock) {
+            JtiBloomFilter filter = new JtiBloomFilter(
+                    Math.max(bloomExpectedRevocations, deniedJtis.size() * 2), 0.01);
+            for (String jti : deniedJtis.keys()) {
+                filter.add(jti);
+            }
+            deniedFilter = filter;
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
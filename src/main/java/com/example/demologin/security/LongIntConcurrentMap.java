@@ -0,0 +1,151 @@
+package com.example.demologin.security;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent open-addressing map from {@code long} keys to non-negative {@code int} values,
+ * with no boxing. Reads are lock-free (optimistic) in the common case; writes lock one segment.
+ */
+final class LongIntConcurrentMap {
+
+    static final int MISSING = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    LongIntConcurrentMap() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    int get(long key) {
+        return segmentFor(key).get(key);
+    }
+
+    void put(long key, int value) {
+        segmentFor(key).put(key, value);
+    }
+
+    /** Store {@code value} unless a greater value is already present. */
+    void putMax(long key, int value) {
+        segmentFor(key).putMax(key, value);
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long key) {
+        return segments[(int) (mix(key) >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final int[] values;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            java.util.Arrays.fill(keys, EMPTY);
+        }
+
+        int indexOf(long key) {
+            int mask = keys.length - 1;
+            int i = (int) mix(key) & mask;
+            while (true) {
+                long k = keys[i];
+                if (k == key || k == EMPTY) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        // Replaced as a whole on resize, so an optimistic reader always sees matching arrays
+        private volatile Table table = new Table(64);
+        private int size;
+
+        int get(long key) {
+            long stamp = lock.tryOptimisticRead();
+            int value = read(table, key);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    value = read(table, key);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return value;
+        }
+
+        private static int read(Table t, long key) {
+            int i = t.indexOf(key);
+            return t.keys[i] == key ? t.values[i] : MISSING;
+        }
+
+        void put(long key, int value) {
+            long stamp = lock.writeLock();
+            try {
+                write(key, value, false);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void putMax(long key, int value) {
+            long stamp = lock.writeLock();
+            try {
+                write(key, value, true);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void write(long key, int value, boolean keepGreater) {
+            Table t = table;
+            int i = t.indexOf(key);
+            if (t.keys[i] == key) {
+                if (!keepGreater || value > t.values[i]) {
+                    t.values[i] = value;
+                }
+                return;
+            }
+            if ((size + 1) * 2 > t.keys.length) {
+                t = resize(t);
+                i = t.indexOf(key);
+            }
+            t.values[i] = value;
+            t.keys[i] = key;
+            size++;
+        }
+
+        private Table resize(Table old) {
+            Table bigger = new Table(old.keys.length * 2);
+            for (int j = 0; j < old.keys.length; j++) {
+                if (old.keys[j] != EMPTY) {
+                    int i = bigger.indexOf(old.keys[j]);
+                    bigger.keys[i] = old.keys[j];
+                    bigger.values[i] = old.values[j];
+                }
+            }
+            table = bigger;
+            return bigger;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demologin.security;
+
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
+import com.example.demologin.repository.PermissionRepository;
+import com.example.demologin.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Role → permission matrix used by {@code SecuredEndpointAspect}.
+ * Permission codes are interned to dense bit indexes that never change for the life of the
+ * process, so callers may resolve a code once and keep the index. Each role maps to a
+ * {@code long[]} bitset; the whole role map is swapped atomically on rebuild (copy-on-write).
+ * Writers that change roles or their permissions call {@link #rebuildAfterCommit()};
+ * the scheduled refresh bounds staleness for changes made on other nodes.
+ */
+@Component
+@Slf4j
+public class PermissionMatrix {
+
+    private static final long[] NO_PERMISSIONS = new long[0];
+
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+
+    private final Map<String, Integer> bitsByCode = new ConcurrentHashMap<>();
+    private final AtomicInteger nextBit = new AtomicInteger();
+    private volatile Map<String, long[]> permissionsByRole;
+    // Changes only when some role's permissions change, not on every scheduled rebuild
+    private volatile long fingerprint;
+
+    public PermissionMatrix(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+        this.roleRepository = roleRepository;
+        this.permissionRepository = permissionRepository;
+    }
+
+    /**
+     * Bit index of a permission code. Unknown codes get an index no role holds yet.
+     */
+    public int bitOf(String permissionCode) {
+        return bitsByCode.computeIfAbsent(permissionCode, code -> nextBit.getAndIncrement());
+    }
+
+    /**
+     * @return true if any of the roles holds the permission at {@code bit}
+     */
+    public boolean hasPermission(Collection<String> roleNames, int bit) {
+        Map<String, long[]> matrix = permissionsByRole;
+        if (matrix == null) {
+            matrix = rebuild();
+        }
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        for (String roleName : roleNames) {
+            long[] bits = matrix.getOrDefault(roleName, NO_PERMISSIONS);
+            if (word < bits.length && (bits[word] & mask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${auth.permission-matrix.refresh-ms:60000}",
+            initialDelayString = "${auth.permission-matrix.refresh-ms:60000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    private synchronized Map<String, long[]> rebuild() {
+        // Intern every known code first so bitsets are sized once
+        for (Permission permission : permissionRepository.findAll()) {
+            bitOf(permission.getCode());
+        }
+        List<Role> roles = roleRepository.findAll();
+        Map<String, long[]> matrix = new HashMap<>(roles.size() * 2);
+        for (Role role : roles) {
+            long[] bits = new long[(nextBit.get() + 63) >>> 6];
+            for (Permission permission : role.getPermissions()) {
+                int bit = bitOf(permission.getCode());
+                if ((bit >>> 6) >= bits.length) {
+                    bits = Arrays.copyOf(bits, (bit >>> 6) + 1);
+                }
+                bits[bit >>> 6] |= 1L << bit;
+            }
+            matrix.put(role.getName(), bits);
+        }
+        permissionsByRole = Map.copyOf(matrix);
+        fingerprint = fingerprintOf(matrix);
+        log.debug("Permission matrix rebuilt: {} roles, {} permission codes", roles.size(), bitsByCode.size());
+        return permissionsByRole;
+    }
+
+    /**
+     * Hash of the current role/permission assignment, e.g. for validators of authorized responses.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    private static long fingerprintOf(Map<String, long[]> matrix) {
+        long hash = 0;
+        for (Map.Entry<String, long[]> entry : matrix.entrySet()) {
+            // Order independent: Map.copyOf iteration order is unspecified
+            hash += entry.getKey().hashCode() * 0x9E3779B97F4A7C15L + trimmedHash(entry.getValue());
+        }
+        return hash;
+    }
+
+    private static long trimmedHash(long[] bits) {
+        int length = bits.length;
+        while (length > 0 && bits[length - 1] == 0) {
+            length--;
+        }
+        long hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = hash * 31 + bits[i];
+        }
+        return hash;
+    }
+
+    /**
+     * Rebuild once the surrounding transaction commits, or immediately outside a transaction.
+     */
+    public void rebuildAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demologin.security;
+
+import com.example.demologin.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory userId → token version table consulted on every authenticated request.
+ * Entries are loaded on first use and written through by {@code TokenVersionService};
+ * bumps made on other nodes arrive through the {@link JtiRevocationStore} change feed.
+ * A token carrying a version newer than the table forces one reload from the database.
+ */
+@Component
+public class TokenVersionTable {
+
+    private final UserRepository userRepository;
+    private final LongIntConcurrentMap versions = new LongIntConcurrentMap();
+
+    public TokenVersionTable(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @return the current token version, or {@code -1} if the user does not exist
+     */
+    public int current(long userId) {
+        int version = versions.get(userId);
+        return version != LongIntConcurrentMap.MISSING ? version : load(userId);
+    }
+
+    public boolean isCurrent(long userId, int tokenVersion) {
+        int version = versions.get(userId);
+        if (version == LongIntConcurrentMap.MISSING || tokenVersion > version) {
+            version = load(userId);
+        }
+        return version == tokenVersion;
+    }
+
+    public void set(long userId, int version) {
+        versions.put(userId, version);
+    }
+
+    /**
+     * Apply a write once the surrounding transaction commits, so a rolled back bump
+     * never rejects tokens that are still valid. Applies immediately outside a transaction.
+     */
+    public void setAfterCommit(long userId, int version) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            set(userId, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                set(userId, version);
+            }
+        });
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    private int load(long userId) {
+        Integer version = userRepository.findTokenVersionByUserId(userId).orElse(null);
+        if (version == null) {
+            return LongIntConcurrentMap.MISSING;
+        }
+        // Never move backwards past a write-through that raced with this read
+        versions.putMax(userId, version);
+        return versions.get(userId);
+    }
+}
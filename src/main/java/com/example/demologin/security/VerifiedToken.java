@@ -0,0 +1,76 @@
+package com.example.demologin.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Claims of an access token whose signature and expiry have already been verified.
+ * Built once by the JWT filter and stored as a request attribute so that later
+ * stages (aspects, services) never need to parse the same token again.
+ */
+@Getter
+public final class VerifiedToken {
+
+    public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+    private final String token;
+    private final String subject;
+    private final Integer tokenVersion;
+    private final String jti;
+    /** Role names from the token, or {@code null} when the claim is malformed. */
+    private final Set<String> roles;
+    private final long expiresAtMillis;
+
+    private VerifiedToken(String token, String subject, Integer tokenVersion, String jti,
+                          Set<String> roles, long expiresAtMillis) {
+        this.token = token;
+        this.subject = subject;
+        this.tokenVersion = tokenVersion;
+        this.jti = jti;
+        this.roles = roles;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public static VerifiedToken from(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(
+                token,
+                claims.getSubject(),
+                claims.get("tokenVersion", Integer.class),
+                claims.get("jti", String.class),
+                readRoles(claims.get("roles")),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE
+        );
+    }
+
+    /**
+     * Subject of the token parsed as user id, or {@code null} when it is not numeric.
+     */
+    public Long getUserId() {
+        if (subject == null || subject.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(subject);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Set<String> readRoles(Object rolesObj) {
+        if (rolesObj instanceof Collection<?> collection) {
+            Set<String> roles = new LinkedHashSet<>();
+            for (Object role : collection) {
+                roles.add(String.valueOf(role));
+            }
+            return Collections.unmodifiableSet(roles);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demologin.service;
+
+import com.example.demologin.dto.response.curriculum.CurriculumTreeResponse;
+
+public interface CurriculumService {
+    CurriculumTreeResponse getTree();
+}
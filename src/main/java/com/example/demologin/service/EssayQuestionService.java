@@ -15,6 +15,8 @@ public interface EssayQuestionService {
     PageResponse<EssayQuestionResponse> getAllActiveQuestions(Pageable pageable);
     
     PageResponse<EssayQuestionResponse> getQuestionsByTeacher(Long teacherId, Pageable pageable);
+
+    PageResponse<EssayQuestionResponse> searchActiveQuestions(String keyword, Long lessonId, Pageable pageable);
     
     void deleteQuestion(Long id, Long teacherId);
     
@@ -2,9 +2,14 @@ package com.example.demologin.service;
 
 import com.example.demologin.dto.request.exam.ExamRequest;
 import com.example.demologin.dto.request.exam.AddQuestionToExamRequest;
+import com.example.demologin.dto.request.exam.ExamQuestionBatchRequest;
+import com.example.demologin.dto.request.exam.GenerateExamRequest;
+import com.example.demologin.dto.response.ExamGenerationResponse;
 import com.example.demologin.dto.response.ExamAttemptRow;
+import com.example.demologin.dto.response.ExamCompositionResponse;
 import com.example.demologin.dto.response.ExamResponse;
 import com.example.demologin.dto.response.ExamQuestionResponse;
+import com.example.demologin.dto.response.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -28,7 +33,9 @@ public interface ExamService {
     // Quản lý câu hỏi trong exam
     ExamQuestionResponse addQuestionToExam(Long examId, AddQuestionToExamRequest request);
     boolean removeQuestionFromExam(Long examId, Long questionId);
+    ExamCompositionResponse applyQuestionBatch(Long examId, ExamQuestionBatchRequest request);
     List<ExamQuestionResponse> getQuestionsInExam(Long examId);
+    ExamGenerationResponse generateFromMatrix(Long examId, GenerateExamRequest request);
     
     // Quản lý trạng thái
     boolean publishExam(Long id);
@@ -40,5 +47,9 @@ public interface ExamService {
     Page<ExamAttemptRow> listAttemptsOfExam(Long examId, int page, int size,
                                             String keyword, LocalDateTime from, LocalDateTime to);
 
+    // Keyset: bài đã nộp theo finishedAt giảm dần, sau đó bài chưa nộp; cursor rỗng là trang đầu
+    KeysetPage<ExamAttemptRow> listAttemptsOfExam(Long examId, String cursor, int size, boolean withTotal,
+                                                  String keyword, LocalDateTime from, LocalDateTime to);
+
     Page<ExamAttemptRow> listAttemptsOfStudent(Long studentId, int page, int size);
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.demologin.service;
 
 
 import com.example.demologin.dto.request.matrix.MatrixRequest;
+import com.example.demologin.dto.response.matrix.MatrixFeasibilityResponse;
 import com.example.demologin.dto.response.matrix.MatrixResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,4 +13,5 @@ public interface MatrixService {
     MatrixResponse getMatrixById(Long id);
     MatrixResponse updateMatrix(Long id, MatrixRequest request);
     boolean deleteMatrix(Long id);
+    MatrixFeasibilityResponse getFeasibility(Long id);
 }
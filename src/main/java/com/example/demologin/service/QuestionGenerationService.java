@@ -0,0 +1,11 @@
+package com.example.demologin.service;
+
+import com.example.demologin.dto.request.ai.QuestionGenerate;
+import com.example.demologin.dto.response.QuestionGenerationJobResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface QuestionGenerationService {
+    QuestionGenerationJobResponse submit(QuestionGenerate request);
+    QuestionGenerationJobResponse getJob(String jobId);
+    SseEmitter stream(QuestionGenerate request);
+}
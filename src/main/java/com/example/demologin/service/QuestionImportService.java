@@ -0,0 +1,9 @@
+package com.example.demologin.service;
+
+import com.example.demologin.dto.response.QuestionImportJobResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface QuestionImportService {
+    QuestionImportJobResponse startImport(MultipartFile file, String format, String type, Long lessonId, Long levelId);
+    QuestionImportJobResponse getJob(String jobId);
+}
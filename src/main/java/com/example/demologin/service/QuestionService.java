@@ -3,12 +3,16 @@ package com.example.demologin.service;
 import com.example.demologin.dto.request.ai.QuestionGenerate;
 import com.example.demologin.dto.request.question.QuestionCreateRequest;
 import com.example.demologin.dto.request.question.QuestionUpdateRequest;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.dto.response.QuestionResponse;
 import org.springframework.data.domain.Page;
 
 
 public interface QuestionService {
     Page<QuestionResponse> list(int page, int size);
+
+    // Keyset theo id giảm dần; cursor rỗng là trang đầu
+    KeysetPage<QuestionResponse> list(String cursor, int size, boolean withTotal);
     QuestionResponse get(Long id);
     QuestionResponse create(QuestionCreateRequest req);
     QuestionResponse update(Long id, QuestionUpdateRequest req);
@@ -17,4 +21,5 @@ public interface QuestionService {
     Page<QuestionResponse> listByLevel(Long levelId, int page, int size);
     Page<QuestionResponse> listByType(Long typeId, int page, int size);
     Page<QuestionResponse> listByMatrix(Long matrixId, int page, int size);
+    Page<QuestionResponse> search(String keyword, Long lessonId, Long levelId, Long typeId, int page, int size);
 }
@@ -1,6 +1,8 @@
 package com.example.demologin.service;
 
 import com.example.demologin.entity.User;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.security.VerifiedToken;
 
 /**
  * Service for token-related business operations
@@ -14,7 +16,7 @@ public interface TokenService {
     String generateTokenForUser(User user);
     
     /**
-     * Get user account by token with full validation
+     * Get the cached auth snapshot for an already verified token
      */
-    User getUserByToken(String token);
+    AuthPrincipal getPrincipalByToken(VerifiedToken verifiedToken);
 }
@@ -1,6 +1,7 @@
 package com.example.demologin.service;
 
 import com.example.demologin.dto.request.transaction.TransactionRequest;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.dto.response.PageResponse;
 import com.example.demologin.dto.response.TransactionResponse;
 import org.springframework.data.domain.Pageable;
@@ -14,4 +15,7 @@ public interface TransactionService {
     TransactionResponse getById(Long id);
     List<TransactionResponse> getAll();
     PageResponse<TransactionResponse> getAllPaged(Pageable pageable);
+
+    // Keyset theo id giảm dần; cursor rỗng là trang đầu
+    KeysetPage<TransactionResponse> getAllPaged(String cursor, int size, boolean withTotal);
 }
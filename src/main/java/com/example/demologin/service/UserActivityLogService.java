@@ -2,6 +2,7 @@ package com.example.demologin.service;
 
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogFilterRequest;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.dto.response.UserActivityLogResponse;
 import com.example.demologin.entity.User;
 import com.example.demologin.enums.ActivityType;
@@ -14,6 +15,9 @@ public interface UserActivityLogService {
     void logUserActivity(User user, ActivityType activityType, String details);
 
     Page<UserActivityLogResponse> getAllActivityLogs(int page, int size);
+
+    // Keyset: cursor rỗng là trang đầu; chỉ đếm tổng khi withTotal = true
+    KeysetPage<UserActivityLogResponse> getAllActivityLogs(String cursor, int size, boolean withTotal);
     UserActivityLogResponse getActivityLogById(Long id);
     Page<UserActivityLogResponse> getActivityLogsByUserId(Long userId, int page, int size);
     Page<UserActivityLogResponse> getActivityLogsByType(String activityType, int page, int size);
@@ -3,11 +3,15 @@ package com.example.demologin.service;
 import com.example.demologin.dto.request.user.AdminUpdateUserRequest;
 import com.example.demologin.dto.request.user.CreateUserRequest;
 import com.example.demologin.dto.request.user.UpdateUserRequest;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.dto.response.MemberResponse;
 import org.springframework.data.domain.Page;
 
 public interface UserService {
     Page<MemberResponse> getAllUsers(int page, int size);
+
+    // Keyset theo userId tăng dần; cursor rỗng là trang đầu
+    KeysetPage<MemberResponse> getAllUsers(String cursor, int size, boolean withTotal);
     MemberResponse getById(Long id);
     MemberResponse create(CreateUserRequest req);
     Object updateSelf(Long currentUserId, UpdateUserRequest req);
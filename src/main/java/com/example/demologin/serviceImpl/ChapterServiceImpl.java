@@ -1,5 +1,8 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.cache.CurriculumRegistry;
+import com.example.demologin.cache.CurriculumSnapshot;
 import com.example.demologin.dto.request.chapter.ChapterRequest;
 import com.example.demologin.dto.response.ChapterResponse;
 import com.example.demologin.dto.response.PageResponse;
@@ -29,6 +32,7 @@ public class ChapterServiceImpl implements ChapterService {
 
     private final ChapterRepository chapterRepository;
     private final GradeRepository gradeRepository;
+    private final CurriculumRegistry curriculumRegistry;
 
     @Override
     public ChapterResponse create(ChapterRequest request) {
@@ -76,6 +80,7 @@ public class ChapterServiceImpl implements ChapterService {
     }
 
     @Override
+    @SmartCache(entities = {Chapter.class, Grade.class})
     public ChapterResponse getById(Long id) {
         Chapter chapter = chapterRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Chapter not found"));
@@ -91,9 +96,15 @@ public class ChapterServiceImpl implements ChapterService {
 
     @Override
     public List<ChapterResponse> getAll() {
-        return chapterRepository.findAll()
+        CurriculumSnapshot curriculum = curriculumRegistry.current();
+        return curriculum.chapters()
                 .stream()
-                .map(this::mapToResponse)
+                .map(chapter -> ChapterResponse.builder()
+                        .id(chapter.id())
+                        .gradeNumber(curriculum.gradeNumber(chapter.gradeId()))
+                        .name(chapter.name())
+                        .orderNo(chapter.orderNo())
+                        .build())
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,77 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.cache.CurriculumRegistry;
+import com.example.demologin.cache.CurriculumSnapshot;
+import com.example.demologin.dto.response.curriculum.CurriculumTreeResponse;
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
+import com.example.demologin.entity.Question;
+import com.example.demologin.repository.QuestionRepository;
+import com.example.demologin.service.CurriculumService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CurriculumServiceImpl implements CurriculumService {
+
+    private final CurriculumRegistry curriculumRegistry;
+    private final QuestionRepository questionRepository;
+
+    @Override
+    @SmartCache(entities = {Grade.class, Chapter.class, Lesson.class, Question.class})
+    public CurriculumTreeResponse getTree() {
+        CurriculumSnapshot curriculum = curriculumRegistry.current();
+        // Một truy vấn GROUP BY cho toàn bộ số câu hỏi theo bài học
+        Map<Long, Long> questionsByLesson = new HashMap<>();
+        questionRepository.countByLesson()
+                .forEach(row -> questionsByLesson.put(row.getLessonId(), row.getTotal()));
+
+        long totalQuestions = 0;
+        List<CurriculumTreeResponse.GradeNode> grades = new ArrayList<>();
+        for (CurriculumSnapshot.Grade grade : curriculum.grades()) {
+            long gradeQuestions = 0;
+            List<CurriculumTreeResponse.ChapterNode> chapters = new ArrayList<>();
+            for (CurriculumSnapshot.Chapter chapter : curriculum.chaptersOf(grade.id())) {
+                long chapterQuestions = 0;
+                List<CurriculumTreeResponse.LessonNode> lessons = new ArrayList<>();
+                for (CurriculumSnapshot.Lesson lesson : curriculum.lessonsOf(chapter.id())) {
+                    long lessonQuestions = questionsByLesson.getOrDefault(lesson.id(), 0L);
+                    chapterQuestions += lessonQuestions;
+                    lessons.add(CurriculumTreeResponse.LessonNode.builder()
+                            .id(lesson.id())
+                            .lessonName(lesson.lessonName())
+                            .questionCount(lessonQuestions)
+                            .build());
+                }
+                gradeQuestions += chapterQuestions;
+                chapters.add(CurriculumTreeResponse.ChapterNode.builder()
+                        .id(chapter.id())
+                        .name(chapter.name())
+                        .orderNo(chapter.orderNo())
+                        .questionCount(chapterQuestions)
+                        .lessons(lessons)
+                        .build());
+            }
+            totalQuestions += gradeQuestions;
+            grades.add(CurriculumTreeResponse.GradeNode.builder()
+                    .id(grade.id())
+                    .gradeNumber(grade.gradeNumber())
+                    .description(grade.description())
+                    .questionCount(gradeQuestions)
+                    .chapters(chapters)
+                    .build());
+        }
+        return CurriculumTreeResponse.builder()
+                .totalQuestions(totalQuestions)
+                .grades(grades)
+                .build();
+    }
+}
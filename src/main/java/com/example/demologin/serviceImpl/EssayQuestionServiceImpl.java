@@ -1,20 +1,31 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.cache.CurriculumRegistry;
+import com.example.demologin.cache.CurriculumSnapshot;
 import com.example.demologin.dto.request.EssayQuestionRequest;
 import com.example.demologin.dto.response.EssayQuestionResponse;
 import com.example.demologin.dto.response.PageResponse;
 import com.example.demologin.entity.*;
 import com.example.demologin.enums.QuestionStatus;
 import com.example.demologin.repository.*;
+import com.example.demologin.search.InvertedIndex;
+import com.example.demologin.search.SearchIndexManager;
 import com.example.demologin.service.EssayQuestionService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -24,6 +35,8 @@ public class EssayQuestionServiceImpl implements EssayQuestionService {
     private final GradeRepository gradeRepo;
     private final ChapterRepository chapterRepo;
     private final LessonRepository lessonRepo;
+    private final CurriculumRegistry curriculumRegistry;
+    private final SearchIndexManager searchIndex;
 
     @Override
     @Transactional
@@ -31,24 +44,11 @@ public class EssayQuestionServiceImpl implements EssayQuestionService {
         User teacher = userRepo.findById(teacherId)
             .orElseThrow(() -> new EntityNotFoundException("Teacher not found"));
 
-        // Validate Grade, Chapter, Lesson
-        Grade grade = gradeRepo.findById(request.getGradeId())
-            .orElseThrow(() -> new EntityNotFoundException("Grade not found with ID: " + request.getGradeId()));
-
-        Chapter chapter = chapterRepo.findById(request.getChapterId())
-            .orElseThrow(() -> new EntityNotFoundException("Chapter not found with ID: " + request.getChapterId()));
-
-        Lesson lesson = lessonRepo.findById(request.getLessonId())
-            .orElseThrow(() -> new EntityNotFoundException("Lesson not found with ID: " + request.getLessonId()));
-
-        // Validate hierarchy: Chapter belongs to Grade, Lesson belongs to Chapter
-        if (!chapter.getGrade().getId().equals(grade.getId())) {
-            throw new IllegalArgumentException("Chapter does not belong to the specified Grade");
-        }
-
-        if (!lesson.getChapter().getId().equals(chapter.getId())) {
-            throw new IllegalArgumentException("Lesson does not belong to the specified Chapter");
-        }
+        // Validate Grade, Chapter, Lesson against the curriculum snapshot (no DB reads)
+        validateHierarchy(request);
+        Grade grade = gradeRepo.getReferenceById(request.getGradeId());
+        Chapter chapter = chapterRepo.getReferenceById(request.getChapterId());
+        Lesson lesson = lessonRepo.getReferenceById(request.getLessonId());
 
         EssayQuestion question = EssayQuestion.builder()
             .grade(grade)
@@ -63,6 +63,7 @@ public class EssayQuestionServiceImpl implements EssayQuestionService {
             .build();
 
         question = questionRepo.save(question);
+        searchIndex.essaySaved(question);
         log.info("Teacher {} created essay question {} for Grade {}, Chapter {}, Lesson {}", 
             teacherId, question.getId(), grade.getId(), chapter.getId(), lesson.getId());
 
@@ -79,24 +80,11 @@ public class EssayQuestionServiceImpl implements EssayQuestionService {
             throw new IllegalArgumentException("You can only update your own questions");
         }
 
-        // Validate Grade, Chapter, Lesson
-        Grade grade = gradeRepo.findById(request.getGradeId())
-            .orElseThrow(() -> new EntityNotFoundException("Grade not found with ID: " + request.getGradeId()));
-
-        Chapter chapter = chapterRepo.findById(request.getChapterId())
-            .orElseThrow(() -> new EntityNotFoundException("Chapter not found with ID: " + request.getChapterId()));
-
-        Lesson lesson = lessonRepo.findById(request.getLessonId())
-            .orElseThrow(() -> new EntityNotFoundException("Lesson not found with ID: " + request.getLessonId()));
-
-        // Validate hierarchy: Chapter belongs to Grade, Lesson belongs to Chapter
-        if (!chapter.getGrade().getId().equals(grade.getId())) {
-            throw new IllegalArgumentException("Chapter does not belong to the specified Grade");
-        }
-
-        if (!lesson.getChapter().getId().equals(chapter.getId())) {
-            throw new IllegalArgumentException("Lesson does not belong to the specified Chapter");
-        }
+        // Validate Grade, Chapter, Lesson against the curriculum snapshot (no DB reads)
+        validateHierarchy(request);
+        Grade grade = gradeRepo.getReferenceById(request.getGradeId());
+        Chapter chapter = chapterRepo.getReferenceById(request.getChapterId());
+        Lesson lesson = lessonRepo.getReferenceById(request.getLessonId());
 
         question.setGrade(grade);
         question.setChapter(chapter);
@@ -107,6 +95,7 @@ public class EssayQuestionServiceImpl implements EssayQuestionService {
         question.setMaxScore(request.getMaxScore());
 
         question = questionRepo.save(question);
+        searchIndex.essaySaved(question);
         log.info("Teacher {} updated essay question {} to Grade {}, Chapter {}, Lesson {}", 
             teacherId, questionId, grade.getId(), chapter.getId(), lesson.getId());
 
@@ -134,6 +123,22 @@ public class EssayQuestionServiceImpl implements EssayQuestionService {
         return new PageResponse<>(responsePage);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<EssayQuestionResponse> searchActiveQuestions(String keyword, Long lessonId, Pageable pageable) {
+        InvertedIndex.SearchResult result = searchIndex.searchEssays(
+            keyword, lessonId, (int) pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = result.hits().stream().map(InvertedIndex.Hit::id).toList();
+        Map<Long, EssayQuestion> byId = questionRepo.findAllById(ids).stream()
+            .collect(Collectors.toMap(EssayQuestion::getId, Function.identity()));
+        List<EssayQuestionResponse> content = ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .map(this::mapToResponse)
+            .toList();
+        return new PageResponse<>(new PageImpl<>(content, pageable, result.total()));
+    }
+
     @Override
     @Transactional
     public void deleteQuestion(Long id, Long teacherId) {
@@ -145,6 +150,7 @@ public class EssayQuestionServiceImpl implements EssayQuestionService {
         }
 
         questionRepo.delete(question);
+        searchIndex.essayDeleted(id);
         log.info("Teacher {} deleted essay question {}", teacherId, id);
     }
 
@@ -160,18 +166,53 @@ public class EssayQuestionServiceImpl implements EssayQuestionService {
 
         question.setStatus(QuestionStatus.ARCHIVED);
         questionRepo.save(question);
+        searchIndex.essaySaved(question);
         log.info("Teacher {} archived essay question {}", teacherId, id);
     }
 
+    private void validateHierarchy(EssayQuestionRequest request) {
+        Long gradeId = request.getGradeId();
+        Long chapterId = request.getChapterId();
+        Long lessonId = request.getLessonId();
+        CurriculumSnapshot curriculum = curriculumRegistry.current(snapshot ->
+            snapshot.containsGrade(gradeId) && snapshot.containsChapter(chapterId) && snapshot.containsLesson(lessonId));
+
+        if (!curriculum.containsGrade(gradeId)) {
+            throw new EntityNotFoundException("Grade not found with ID: " + gradeId);
+        }
+        if (!curriculum.containsChapter(chapterId)) {
+            throw new EntityNotFoundException("Chapter not found with ID: " + chapterId);
+        }
+        if (!curriculum.containsLesson(lessonId)) {
+            throw new EntityNotFoundException("Lesson not found with ID: " + lessonId);
+        }
+
+        // Validate hierarchy: Chapter belongs to Grade, Lesson belongs to Chapter
+        if (!gradeId.equals(curriculum.gradeIdOfChapter(chapterId))) {
+            throw new IllegalArgumentException("Chapter does not belong to the specified Grade");
+        }
+        if (!chapterId.equals(curriculum.chapterIdOfLesson(lessonId))) {
+            throw new IllegalArgumentException("Lesson does not belong to the specified Chapter");
+        }
+    }
+
     private EssayQuestionResponse mapToResponse(EssayQuestion question) {
+        // Names come from the snapshot so the grade/chapter/lesson rows are not loaded per question
+        CurriculumSnapshot curriculum = curriculumRegistry.current();
+        Long gradeId = question.getGrade().getId();
+        Long chapterId = question.getChapter().getId();
+        Long lessonId = question.getLesson().getId();
         return EssayQuestionResponse.builder()
             .id(question.getId())
-            .gradeId(question.getGrade().getId())
-            .gradeNumber(question.getGrade().getGradeNumber())
-            .chapterId(question.getChapter().getId())
-            .chapterName(question.getChapter().getName())
-            .lessonId(question.getLesson().getId())
-            .lessonName(question.getLesson().getLessonName())
+            .gradeId(gradeId)
+            .gradeNumber(curriculum.containsGrade(gradeId)
+                ? curriculum.gradeNumber(gradeId) : question.getGrade().getGradeNumber())
+            .chapterId(chapterId)
+            .chapterName(curriculum.containsChapter(chapterId)
+                ? curriculum.chapterName(chapterId) : question.getChapter().getName())
+            .lessonId(lessonId)
+            .lessonName(curriculum.containsLesson(lessonId)
+                ? curriculum.lessonName(lessonId) : question.getLesson().getLessonName())
             .prompt(question.getPrompt())
             .rubric(question.getRubric())
             .timeLimitMinutes(question.getTimeLimitMinutes())
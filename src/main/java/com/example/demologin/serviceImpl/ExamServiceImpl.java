@@ -1,18 +1,31 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.cache.ExamPaperRegistry;
+import com.example.demologin.cache.QuestionAvailabilityCube.Cell;
 import com.example.demologin.dto.request.exam.ExamRequest;
 import com.example.demologin.dto.request.exam.AddQuestionToExamRequest;
+import com.example.demologin.dto.request.exam.ExamQuestionBatchRequest;
+import com.example.demologin.dto.request.exam.GenerateExamRequest;
+import com.example.demologin.dto.response.ExamGenerationResponse;
 import com.example.demologin.dto.response.ExamAttemptRow;
+import com.example.demologin.dto.response.ExamCompositionResponse;
 import com.example.demologin.dto.response.ExamResponse;
 import com.example.demologin.dto.response.ExamQuestionResponse;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.entity.*;
 import com.example.demologin.exception.exceptions.BadRequestException;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.exception.exceptions.ConflictException;
 import com.example.demologin.repository.*;
+import com.example.demologin.search.InvertedIndex;
+import com.example.demologin.search.SearchIndexManager;
 import com.example.demologin.service.ExamService;
+import com.example.demologin.utils.ExamVariantAllocator;
+import com.example.demologin.utils.PageCursor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -20,8 +33,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -33,13 +58,14 @@ public class ExamServiceImpl implements ExamService {
     private final ExamAttemptRepository examAttemptRepository;
     private final UserRepository userRepository;
     private final MatrixRepository matrixRepository;
+    private final SearchIndexManager searchIndex;
+    private final ExamQuestionBatchRepository examQuestionBatchRepository;
+    private final ExamPaperRegistry examPapers;
 
-    private ExamResponse mapToResponse(Exam exam) {
-        List<ExamQuestionResponse> questions = examQuestionRepository.findByExam(exam)
-                .stream()
-                .map(this::mapExamQuestionToResponse)
-                .collect(Collectors.toList());
+    // Số nguyên tố 2^31-1 dùng cho hoán vị id khi lấy mẫu (xem QuestionRepository.sampleIdsNotInExam)
+    private static final long SAMPLING_PRIME = 2147483647L;
 
+    private ExamResponse mapToResponse(Exam exam) {
         return ExamResponse.builder()
                 .id(exam.getId())
                 .title(exam.getTitle())
@@ -49,10 +75,49 @@ public class ExamServiceImpl implements ExamService {
                 .createdAt(exam.getCreatedAt())
                 .updatedAt(exam.getUpdatedAt())
                 .matrixId(exam.getMatrix() != null ? exam.getMatrix().getId() : null)
-                .questions(questions)
+                .questions(questionsOf(List.of(exam.getId())).getOrDefault(exam.getId(), List.of()))
                 .build();
     }
 
+    // Danh sách exam: một truy vấn projection cho các exam + một truy vấn cho toàn bộ câu hỏi của chúng
+    private List<ExamResponse> mapRowsToResponses(List<ExamRepository.ExamRow> rows) {
+        Map<Long, List<ExamQuestionResponse>> questions =
+                questionsOf(rows.stream().map(ExamRepository.ExamRow::getId).toList());
+        return rows.stream()
+                .map(row -> ExamResponse.builder()
+                        .id(row.getId())
+                        .title(row.getTitle())
+                        .description(row.getDescription())
+                        .status(row.getStatus())
+                        .durationMinutes(row.getDurationMinutes())
+                        .createdAt(row.getCreatedAt())
+                        .updatedAt(row.getUpdatedAt())
+                        .matrixId(row.getMatrixId())
+                        .questions(questions.getOrDefault(row.getId(), List.of()))
+                        .build())
+                .toList();
+    }
+
+    private Page<ExamResponse> mapRowsToResponses(Page<ExamRepository.ExamRow> rows) {
+        return new PageImpl<>(mapRowsToResponses(rows.getContent()), rows.getPageable(), rows.getTotalElements());
+    }
+
+    private Map<Long, List<ExamQuestionResponse>> questionsOf(List<Long> examIds) {
+        if (examIds.isEmpty()) {
+            return Map.of();
+        }
+        return examQuestionRepository.findQuestionRows(examIds).stream()
+                .collect(Collectors.groupingBy(ExamQuestionRepository.QuestionRow::getExamId, LinkedHashMap::new,
+                        Collectors.mapping(row -> ExamQuestionResponse.builder()
+                                .id(row.getId())
+                                .examId(row.getExamId())
+                                .questionId(row.getQuestionId())
+                                .questionText(row.getQuestionText())
+                                .questionType(row.getQuestionType())
+                                .score(row.getScore() != null ? row.getScore() : 0)
+                                .build(), Collectors.toList())));
+    }
+
     private ExamQuestionResponse mapExamQuestionToResponse(ExamQuestion examQuestion) {
         Question q = examQuestion.getQuestion();
 
@@ -93,6 +158,7 @@ public class ExamServiceImpl implements ExamService {
                     .build();
 
             Exam saved = examRepository.save(exam);
+            searchIndex.examSaved(saved);
             return mapToResponse(saved);
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -101,28 +167,27 @@ public class ExamServiceImpl implements ExamService {
     }
 
     @Override
+    @SmartCache(entities = {Exam.class, ExamQuestion.class, Matrix.class, Question.class, QuestionType.class})
     public ExamResponse getExamById(Long id) {
-        Exam exam = examRepository.findById(id)
+        ExamRepository.ExamRow exam = examRepository.findRowById(id)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy exam với id " + id));
-        return mapToResponse(exam);
+        return mapRowsToResponses(List.of(exam)).get(0);
     }
 
     @Override
+    @SmartCache(softTtlSeconds = 120, refreshAhead = true, entities = {Exam.class, ExamQuestion.class, Matrix.class, Question.class, QuestionType.class})
     public List<ExamResponse> getAllExams() {
-        return examRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapRowsToResponses(examRepository.findAllRows());
     }
 
     @Override
+    @SmartCache(softTtlSeconds = 120, refreshAhead = true, entities = {Exam.class, ExamQuestion.class, Matrix.class, Question.class, QuestionType.class})
     public Page<ExamResponse> getAllExams(int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        return examRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        return mapRowsToResponses(examRepository.findRows(pageable));
     }
 
     @Override
@@ -144,6 +209,7 @@ public class ExamServiceImpl implements ExamService {
         exam.setUpdatedAt(LocalDateTime.now());
 
         Exam updated = examRepository.save(exam);
+        searchIndex.examSaved(updated);
         return mapToResponse(updated);
     }
 
@@ -156,6 +222,7 @@ public class ExamServiceImpl implements ExamService {
         // Xóa tất cả câu hỏi trong exam trước
         examQuestionRepository.deleteByExam(exam);
         examRepository.delete(exam);
+        searchIndex.examDeleted(id);
         return true;
     }
 
@@ -165,82 +232,330 @@ public class ExamServiceImpl implements ExamService {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        return examRepository.findByStatus(status, pageable)
-                .map(this::mapToResponse);
+        return mapRowsToResponses(examRepository.findRowsByStatus(status, pageable));
     }
 
     @Override
     public Page<ExamResponse> searchExams(String keyword, Pageable pageable) {
-        return examRepository.findByTitleContainingOrDescriptionContaining(keyword, pageable)
-                .map(this::mapToResponse);
+        if (keyword == null || keyword.isBlank()) {
+            return mapRowsToResponses(examRepository.findRows(pageable));
+        }
+        InvertedIndex.SearchResult result = searchIndex.searchExams(
+                keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = result.hits().stream().map(InvertedIndex.Hit::id).toList();
+        // Giữ thứ tự theo điểm BM25
+        Map<Long, ExamRepository.ExamRow> byId = examRepository.findRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ExamRepository.ExamRow::getId, Function.identity()));
+        List<ExamResponse> content = mapRowsToResponses(ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList());
+        return new PageImpl<>(content, pageable, result.total());
     }
 
+    /**
+     * A single add is a batch of one: same exam lock and same per-(lesson, level, type) quota check
+     * as {@link #applyQuestionBatch}.
+     */
     @Override
     @Transactional
     public ExamQuestionResponse addQuestionToExam(Long examId, AddQuestionToExamRequest request) {
-        Exam exam = examRepository.findById(examId)
+        ExamQuestionBatchRequest batch = new ExamQuestionBatchRequest();
+        batch.setAdd(List.of(request));
+        applyQuestionBatch(examId, batch);
+
+        ExamQuestion saved = examQuestionRepository.findByExam_IdAndQuestion_Id(examId, request.getQuestionId())
+                .orElseThrow(() -> new NotFoundException("Không tìm thấy question " + request.getQuestionId()
+                        + " trong exam " + examId));
+        return mapExamQuestionToResponse(saved);
+    }
+
+    /**
+     * Fill the exam from its matrix. Each (lesson, level, type) cell is sampled with one query that
+     * returns only the ids it needs, in a seeded random order, excluding questions already in the
+     * exam; the sample is split between the requested variants and all rows are written with one
+     * batch insert. Either every quota is filled or nothing is written. The exam row is locked like
+     * in {@link #applyQuestionBatch}, so a concurrent edit cannot change the composition between
+     * the count and the insert.
+     */
+    @Override
+    @Transactional
+    public ExamGenerationResponse generateFromMatrix(Long examId, GenerateExamRequest request) {
+        long started = System.nanoTime();
+        Exam exam = examRepository.findByIdForUpdate(examId)
                 .orElseThrow(() -> new NotFoundException("Không tìm thấy exam với id " + examId));
+        if ("PUBLISHED".equalsIgnoreCase(exam.getStatus())) {
+            throw new ConflictException("Không thể sinh câu hỏi cho exam đã publish");
+        }
+        Matrix matrix = exam.getMatrix();
+        if (matrix == null) {
+            throw new ConflictException("Exam chưa được gắn Matrix");
+        }
+        int variants = request.getVariants() == null ? 1 : request.getVariants();
+        boolean replace = Boolean.TRUE.equals(request.getReplaceExisting());
+        long seed = request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong();
 
-        Question question = questionRepository.findById(request.getQuestionId())
-                .orElseThrow(() -> new NotFoundException("Không tìm thấy question với id " + request.getQuestionId()));
+        Map<Cell, Integer> quotas = quotasOf(matrix);
+        if (quotas.isEmpty()) {
+            throw new BadRequestException("Matrix chưa có chi tiết nào");
+        }
+        Map<Cell, Double> scores = new HashMap<>();
+        for (MatrixDetail detail : matrix.getDetails()) {
+            scores.putIfAbsent(cellOf(detail), detail.getLevel().getScore());
+        }
 
-        // Kiểm tra trùng câu hỏi
-        if (examQuestionRepository.existsByExamAndQuestion(exam, question)) {
-            throw new ConflictException("Question đã tồn tại trong exam này");
+        Map<Cell, Integer> existing = new HashMap<>();
+        if (replace) {
+            examQuestionRepository.deleteAllByExamId(examId);
+        } else {
+            for (QuestionRepository.CellCount row : examQuestionRepository.countByCellInExam(examId)) {
+                Cell cell = Cell.of(row.getLessonId(), row.getLevelId(), row.getTypeId());
+                if (cell != null) {
+                    existing.put(cell, (int) row.getTotal());
+                }
+            }
         }
 
-        // Lấy Level của question
-        Level level = question.getLevel();
-        if (level == null) {
-            throw new ConflictException("Question không có level hợp lệ");
+        SplittableRandom random = new SplittableRandom(seed);
+        long multiplier = random.nextLong(1, SAMPLING_PRIME);
+        long offset = random.nextLong(0, SAMPLING_PRIME);
+
+        Map<Cell, List<List<Long>>> allocations = new LinkedHashMap<>();
+        List<String> shortages = new ArrayList<>();
+        for (Map.Entry<Cell, Integer> entry : quotas.entrySet()) {
+            Cell cell = entry.getKey();
+            int quota = entry.getValue();
+            int firstNeed = Math.max(0, quota - existing.getOrDefault(cell, 0));
+            int limit = firstNeed + (variants - 1) * quota;
+            if (limit == 0) {
+                continue;
+            }
+            List<Long> sample = questionRepository.sampleIdsNotInExam(cell.lessonId(), cell.levelId(), cell.typeId(),
+                    examId, multiplier, offset, PageRequest.of(0, limit));
+            List<List<Long>> allocation = ExamVariantAllocator.allocate(sample, firstNeed, quota, variants);
+            if (allocation == null) {
+                shortages.add(String.format("lesson %d / level %d / type %d: cần %d, còn %d",
+                        cell.lessonId(), cell.levelId(), cell.typeId(),
+                        Math.max(firstNeed, variants > 1 ? quota : 0), sample.size()));
+            } else {
+                allocations.put(cell, allocation);
+            }
+        }
+        if (!shortages.isEmpty()) {
+            throw new BadRequestException("Không đủ câu hỏi trong ngân hàng: " + String.join("; ", shortages));
         }
 
-        QuestionType questionType = question.getType();
-        if (questionType == null) {
-            throw new ConflictException("Question không có type hợp lệ");
+        LocalDateTime now = LocalDateTime.now();
+        List<Exam> targets = new ArrayList<>(variants);
+        targets.add(exam);
+        for (int v = 2; v <= variants; v++) {
+            String title = exam.getTitle() + " - Mã đề " + v;
+            if (examRepository.existsByTitle(title)) {
+                throw new ConflictException("Đã tồn tại exam với tiêu đề '" + title + "'");
+            }
+            Exam variant = examRepository.save(Exam.builder()
+                    .title(title)
+                    .description(exam.getDescription())
+                    .durationMinutes(exam.getDurationMinutes())
+                    .status("DRAFT")
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .matrix(matrix)
+                    .examQuestions(new ArrayList<>())
+                    .build());
+            searchIndex.examSaved(variant);
+            targets.add(variant);
         }
 
-        // Lấy Matrix từ Exam
-        Matrix matrix = exam.getMatrix();
-        if (matrix == null) {
+        int kept = replace ? 0 : existing.values().stream().mapToInt(Integer::intValue).sum();
+        int[] added = new int[variants];
+        List<ExamQuestionBatchRepository.Row> rows = new ArrayList<>();
+        allocations.forEach((cell, allocation) -> {
+            for (int v = 0; v < variants; v++) {
+                for (Long questionId : allocation.get(v)) {
+                    rows.add(new ExamQuestionBatchRepository.Row(targets.get(v).getId(), questionId, scores.get(cell)));
+                }
+                added[v] += allocation.get(v).size();
+            }
+        });
+        examQuestionBatchRepository.insertAll(rows);
+        exam.setUpdatedAt(now);
+
+        List<ExamGenerationResponse.Variant> generated = new ArrayList<>(variants);
+        for (int v = 0; v < variants; v++) {
+            generated.add(ExamGenerationResponse.Variant.builder()
+                    .examId(targets.get(v).getId())
+                    .title(targets.get(v).getTitle())
+                    .addedQuestions(added[v])
+                    .totalQuestions(v == 0 ? kept + added[v] : added[v])
+                    .build());
+        }
+        return ExamGenerationResponse.builder()
+                .seed(seed)
+                .elapsedMs((System.nanoTime() - started) / 1_000_000)
+                .variants(generated)
+                .build();
+    }
+
+    /**
+     * Apply adds, removes and score changes in one go. The exam row is locked for the transaction,
+     * so concurrent edits of the same exam run one after another and cannot both fill the last
+     * slot of a quota; the current composition is read once and every quota is checked in memory
+     * per (lesson, level, type) before anything is written.
+     */
+    @Override
+    @Transactional
+    public ExamCompositionResponse applyQuestionBatch(Long examId, ExamQuestionBatchRequest request) {
+        Exam exam = examRepository.findByIdForUpdate(examId)
+                .orElseThrow(() -> new NotFoundException("Không tìm thấy exam với id " + examId));
+        if ("PUBLISHED".equalsIgnoreCase(exam.getStatus())) {
+            throw new ConflictException("Không thể sửa câu hỏi của exam đã publish");
+        }
+        if (exam.getMatrix() == null) {
             throw new ConflictException("Exam chưa được gắn Matrix");
         }
+        List<AddQuestionToExamRequest> adds = request.getAdd() == null ? List.of() : request.getAdd();
+        List<Long> removes = request.getRemove() == null ? List.of() : request.getRemove();
+        List<ExamQuestionBatchRequest.ScoreChange> updates =
+                request.getUpdateScores() == null ? List.of() : request.getUpdateScores();
+
+        Set<Long> mentioned = new HashSet<>();
+        for (Long questionId : concat(adds.stream().map(AddQuestionToExamRequest::getQuestionId),
+                removes.stream(), updates.stream().map(ExamQuestionBatchRequest.ScoreChange::getQuestionId))) {
+            if (!mentioned.add(questionId)) {
+                throw new BadRequestException("Question " + questionId + " xuất hiện nhiều lần trong yêu cầu");
+            }
+        }
+
+        // Thành phần hiện tại của exam: questionId -> (ô, điểm)
+        Map<Long, Slot> composition = new LinkedHashMap<>();
+        for (ExamQuestionRepository.CompositionRow row : examQuestionRepository.findCompositionRows(examId)) {
+            composition.put(row.getQuestionId(),
+                    new Slot(Cell.of(row.getLessonId(), row.getLevelId(), row.getTypeId()), row.getScore()));
+        }
+
+        for (Long questionId : removes) {
+            if (composition.remove(questionId) == null) {
+                throw new NotFoundException("Question " + questionId + " không có trong exam này");
+            }
+        }
+        for (ExamQuestionBatchRequest.ScoreChange change : updates) {
+            Slot slot = composition.get(change.getQuestionId());
+            if (slot == null) {
+                throw new NotFoundException("Question " + change.getQuestionId() + " không có trong exam này");
+            }
+            composition.put(change.getQuestionId(), new Slot(slot.cell(), change.getScore()));
+        }
+
+        Map<Cell, Integer> quotas = quotasOf(exam.getMatrix());
+        Set<Cell> touched = new HashSet<>();
+        if (!adds.isEmpty()) {
+            Map<Long, QuestionRepository.CellRow> found = questionRepository
+                    .findCellRows(adds.stream().map(AddQuestionToExamRequest::getQuestionId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(QuestionRepository.CellRow::getId, Function.identity()));
+            List<Long> missing = adds.stream().map(AddQuestionToExamRequest::getQuestionId)
+                    .filter(id -> !found.containsKey(id)).toList();
+            if (!missing.isEmpty()) {
+                throw new NotFoundException("Không tìm thấy question với id " + missing);
+            }
+            for (AddQuestionToExamRequest add : adds) {
+                QuestionRepository.CellRow row = found.get(add.getQuestionId());
+                if (composition.containsKey(row.getId())) {
+                    throw new ConflictException("Question " + row.getId() + " đã tồn tại trong exam này");
+                }
+                Cell cell = Cell.of(row.getLessonId(), row.getLevelId(), row.getTypeId());
+                if (cell == null) {
+                    throw new ConflictException("Question " + row.getId() + " thiếu lesson, level hoặc type");
+                }
+                if (!quotas.containsKey(cell)) {
+                    throw new ConflictException("Matrix không có ô cho lesson " + cell.lessonId()
+                            + ", level " + cell.levelId() + ", type " + cell.typeId()
+                            + " (question " + row.getId() + ")");
+                }
+                composition.put(row.getId(), new Slot(cell, add.getScore() != null ? add.getScore() : row.getLevelScore()));
+                touched.add(cell);
+            }
+        }
+
+        Map<Cell, Integer> counts = new LinkedHashMap<>();
+        composition.values().forEach(slot -> {
+            if (slot.cell() != null) {
+                counts.merge(slot.cell(), 1, Integer::sum);
+            }
+        });
+        // Chỉ các ô vừa được thêm câu mới phải nằm trong giới hạn; xóa bớt ở ô đang vượt vẫn được phép
+        List<String> exceeded = new ArrayList<>();
+        for (Cell cell : touched) {
+            int count = counts.getOrDefault(cell, 0);
+            if (count > quotas.get(cell)) {
+                exceeded.add(String.format("lesson %d / level %d / type %d: %d/%d",
+                        cell.lessonId(), cell.levelId(), cell.typeId(), count, quotas.get(cell)));
+            }
+        }
+        if (!exceeded.isEmpty()) {
+            throw new ConflictException("Vượt giới hạn số câu hỏi của matrix: " + String.join("; ", exceeded));
+        }
+
+        examQuestionBatchRepository.deleteAll(examId, removes);
+        examQuestionBatchRepository.updateScores(updates.stream()
+                .map(change -> new ExamQuestionBatchRepository.Row(examId, change.getQuestionId(), change.getScore()))
+                .toList());
+        examQuestionBatchRepository.insertAll(adds.stream()
+                .map(add -> new ExamQuestionBatchRepository.Row(examId, add.getQuestionId(),
+                        composition.get(add.getQuestionId()).score()))
+                .toList());
+        exam.setUpdatedAt(LocalDateTime.now());
 
-        // Tìm MatrixDetail tương ứng với Level đó
-        MatrixDetail matrixDetail = matrix.getDetails().stream()
-                .filter(md ->
-                        md.getLevel().getId().equals(level.getId()) &&
-                                md.getQuestionType().getId().equals(questionType.getId())
-                )
-                .findFirst()
-                .orElseThrow(() -> new ConflictException(
-                        "Không tìm thấy MatrixDetail cho Level "
-                                + level.getDifficulty()
-                                + " và QuestionType "
-                                + questionType.getDescription()
-                ));
-
-        // Đếm số lượng câu hỏi trong exam theo level
-        long countByLevel = examQuestionRepository.countByExamAndQuestion_Level(exam, level);
-
-        if (countByLevel >= matrixDetail.getTotalQuestions()) {
-            throw new ConflictException(String.format(
-                    "Số câu hỏi Level '%s' đã đạt giới hạn (%d/%d)",
-                    level.getDifficulty(), countByLevel, matrixDetail.getTotalQuestions()
-            ));
-        }
-
-        // Tạo ExamQuestion mới
-        ExamQuestion examQuestion = ExamQuestion.builder()
-                .exam(exam)
-                .question(question)
-                .score(request.getScore())
+        List<ExamCompositionResponse.Cell> cells = new ArrayList<>();
+        Set<Cell> cellOrder = new LinkedHashSet<>(quotas.keySet());
+        cellOrder.addAll(counts.keySet());
+        for (Cell cell : cellOrder) {
+            cells.add(ExamCompositionResponse.Cell.builder()
+                    .lessonId(cell.lessonId())
+                    .levelId(cell.levelId())
+                    .typeId(cell.typeId())
+                    .required(quotas.getOrDefault(cell, 0))
+                    .current(counts.getOrDefault(cell, 0))
+                    .build());
+        }
+        return ExamCompositionResponse.builder()
+                .examId(examId)
+                .added(adds.size())
+                .removed(removes.size())
+                .updated(updates.size())
+                .totalQuestions(composition.size())
+                .totalScore(composition.values().stream()
+                        .mapToDouble(slot -> slot.score() != null ? slot.score() : 0).sum())
+                .cells(cells)
                 .build();
+    }
 
-        exam.addExamQuestion(examQuestion); // đảm bảo liên kết 2 chiều
+    // Quota của matrix theo ô (lesson, level, type); các dòng trùng ô được cộng dồn
+    private static Map<Cell, Integer> quotasOf(Matrix matrix) {
+        Map<Cell, Integer> quotas = new LinkedHashMap<>();
+        for (MatrixDetail detail : matrix.getDetails() == null ? List.<MatrixDetail>of() : matrix.getDetails()) {
+            Cell cell = cellOf(detail);
+            if (cell == null || detail.getTotalQuestions() == null || detail.getTotalQuestions() <= 0) {
+                throw new BadRequestException("Matrix detail " + detail.getId() + " không hợp lệ");
+            }
+            quotas.merge(cell, detail.getTotalQuestions(), Integer::sum);
+        }
+        return quotas;
+    }
 
-        ExamQuestion saved = examQuestionRepository.save(examQuestion);
-        return mapExamQuestionToResponse(saved);
+    private static Cell cellOf(MatrixDetail detail) {
+        return Cell.of(
+                detail.getLesson() != null ? detail.getLesson().getId() : null,
+                detail.getLevel() != null ? detail.getLevel().getId() : null,
+                detail.getQuestionType() != null ? detail.getQuestionType().getId() : null);
+    }
+
+    private static List<Long> concat(Stream<Long> first, Stream<Long> second, Stream<Long> third) {
+        return Stream.of(first, second, third).flatMap(Function.identity()).toList();
+    }
+
+    private record Slot(Cell cell, Double score) {
     }
 
     @Override
@@ -261,13 +576,10 @@ public class ExamServiceImpl implements ExamService {
 
     @Override
     public List<ExamQuestionResponse> getQuestionsInExam(Long examId) {
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new NotFoundException("Không tìm thấy exam với id " + examId));
-
-        return examQuestionRepository.findByExam(exam)
-                .stream()
-                .map(this::mapExamQuestionToResponse)
-                .collect(Collectors.toList());
+        if (!examRepository.existsById(examId)) {
+            throw new NotFoundException("Không tìm thấy exam với id " + examId);
+        }
+        return questionsOf(List.of(examId)).getOrDefault(examId, List.of());
     }
 
     @Override
@@ -296,6 +608,8 @@ public class ExamServiceImpl implements ExamService {
 
         // Dù @Transactional tự flush, vẫn nên save để đảm bảo commit rõ ràng
         examRepository.save(exam);
+        // Biên dịch sẵn đề cho các lượt làm bài sau khi commit
+        examPapers.compileAfterCommit(id);
 
         return true;
     }
@@ -320,8 +634,7 @@ public class ExamServiceImpl implements ExamService {
 
     @Override
     public Page<ExamResponse> getPublishedExams(Pageable pageable) {
-        return examRepository.findPublishedExams(pageable)
-                .map(this::mapToResponse);
+        return mapRowsToResponses(examRepository.findRowsByStatus("PUBLISHED", pageable));
     }
 
     private ExamAttemptRow toRow(ExamAttempt a) {
@@ -354,6 +667,32 @@ public class ExamServiceImpl implements ExamService {
         return p.map(this::toRow);
     }
 
+    @Override
+    public KeysetPage<ExamAttemptRow> listAttemptsOfExam(Long examId, String cursor, int size, boolean withTotal,
+                                                         String keyword, LocalDateTime from, LocalDateTime to) {
+        if (!examRepository.existsById(examId)) {
+            throw new NotFoundException("Không tìm thấy exam với id " + examId);
+        }
+        String kw = (keyword == null || keyword.isBlank()) ? null : keyword;
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = KeysetPage.limit(size);
+
+        // Cursor có key: vẫn đang ở phần bài đã nộp; không có key: đã sang phần bài chưa nộp
+        boolean inFinished = after == null || after.key() != null;
+        List<ExamAttempt> rows = new ArrayList<>(limit + 1);
+        if (inFinished) {
+            rows.addAll(examAttemptRepository.findFinishedPageForTeacher(examId, kw, from, to,
+                    after != null ? after.timeKey() : null, after != null ? after.id() : null,
+                    PageRequest.of(0, limit + 1)));
+        }
+        if (rows.size() <= limit) {
+            rows.addAll(examAttemptRepository.findUnfinishedPageForTeacher(examId, kw,
+                    inFinished ? null : after.id(), PageRequest.of(0, limit + 1 - rows.size())));
+        }
+        return KeysetPage.of(rows, limit, a -> PageCursor.of(a.getFinishedAt(), a.getId()), this::toRow,
+                withTotal ? examAttemptRepository.countForTeacher(examId, kw, from, to) : null);
+    }
+
     @Override
     public Page<ExamAttemptRow> listAttemptsOfStudent(Long studentId, int page, int size) {
         if (!userRepository.existsById(studentId)) {
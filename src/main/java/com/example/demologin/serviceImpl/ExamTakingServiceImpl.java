@@ -1,6 +1,8 @@
     package com.example.demologin.serviceImpl;
 
-    import com.example.demologin.dto.request.exam.AnswerPayload;
+    import com.example.demologin.cache.AnswerKey;
+    import com.example.demologin.cache.ExamPaper;
+    import com.example.demologin.cache.ExamPaperRegistry;
     import com.example.demologin.dto.request.exam.ExamSubmitRequest;
 
     import com.example.demologin.dto.response.*;
@@ -21,7 +23,6 @@
 
     import java.time.LocalDateTime;
     import java.util.*;
-    import java.util.function.Function;
     import java.util.stream.Collectors;
 
     @Service
@@ -29,18 +30,18 @@
     public class ExamTakingServiceImpl implements ExamTakingService {
         private final ExamAttemptRepository examAttemptRepository;
         private final ExamQuestionRepository examQuestionRepository;
-        private final OptionRepository optionRepository;
         private final AccountUtils accountUtils;
         private final ExamRepository examRepository;
         private final ExamAttemptMapper examAttemptMapper;
+        private final ExamPaperRegistry examPapers;
 
 
         @Override
         public Page<ExamCard> listAvailable(int page, int size) {
             Pageable pageable = PageRequest.of(page, size);
 
-            // lấy danh sách bài thi có status = "PUBLISHED"
-            Page<Exam> exams = examRepository.findByStatusIgnoreCase("PUBLISHED", pageable);
+            // lấy danh sách bài thi có status = "PUBLISHED", số câu đếm ngay trong truy vấn
+            Page<ExamRepository.CardRow> exams = examRepository.findCardsByStatusIgnoreCase("PUBLISHED", pageable);
 
             return exams.map(e -> {
                 ExamCard card = new ExamCard();
@@ -49,14 +50,13 @@
                 card.setDescription(e.getDescription());
                 card.setStatus(e.getStatus());
                 card.setDurationMinutes(e.getDurationMinutes());
-                card.setQuestionCount(
-                        e.getExamQuestions() != null ? e.getExamQuestions().size() : 0
-                );
+                card.setQuestionCount((int) e.getQuestionCount());
                 return card;
             });
         }
 
-        @Transactional
+        // Không @Transactional: đề (nếu phải build lại) được đọc khi request chưa giữ connection nào,
+        // còn save() tự chạy trong transaction riêng
         @Override
         public ExamStartResponse startAttempt(Long examId) {
             Exam exam = examRepository.findById(examId)
@@ -66,6 +66,9 @@
                 throw new ForbiddenException("Exam is not published");
             }
 
+            // Đề đã biên dịch lúc publish (không lộ đáp án), dùng chung cho mọi lượt làm bài
+            ExamPaper paper = examPapers.get(examId);
+
             User currentUser = accountUtils.getCurrentUser();
 
             LocalDateTime now = LocalDateTime.now();
@@ -82,40 +85,10 @@
             attempt.setStartedAt(now);
             attempt.setExpiresAt(expiresAt);
             attempt = examAttemptRepository.save(attempt);
-
-            // Lấy câu hỏi của đề + map về QuestionView (không lộ đáp án)
-            List<ExamQuestion> eqs = examQuestionRepository.findByExam(exam);
-
-            List<QuestionView> questionViews = eqs.stream().map(eq -> {
-                Question q = eq.getQuestion();
-
-                List<OptionView> optionViews = (q.getOptions() == null ? List.<Option>of() : q.getOptions())
-                        .stream()
-                        .map(o -> {
-                            OptionView ov = new OptionView();
-                            ov.setId(o.getId());
-                            ov.setContent(o.getOptionText()); //
-                            return ov;
-                        })
-                        .toList();
-
-                QuestionView qv = new QuestionView();
-                qv.setId(q.getId());
-                qv.setText(q.getQuestionText());
-                qv.setQuestionType(q.getType() != null ? q.getType().getDescription() : null); // 🔁 nếu DTO bạn dùng 'questionType' thì đổi tên setter
-                qv.setOptions(optionViews);
-                qv.setScore(eq.getScore()); // gửi điểm từng câu để FE hiển thị nếu cần
-                return qv;
-            }).toList();
-
-            return examAttemptMapper.toStartResponse(
-                    attempt,
-                    questionViews.size(),
-                    questionViews
-            );
+            return examAttemptMapper.toStartResponse(attempt, paper);
         }
 
-        @Transactional
+        // Không @Transactional, cùng lý do với startAttempt: chấm xong mới ghi kết quả bằng save()
         @Override
         public ExamSubmitResponse submitAttempt(Long attemptId, ExamSubmitRequest req) {
             ExamAttempt attempt = examAttemptRepository.findById(attemptId)
@@ -139,59 +112,19 @@
 
             Exam exam = attempt.getExam();
 
-            // Câu hỏi + điểm từng câu
-            List<ExamQuestion> eqs = examQuestionRepository.findByExam(exam);
-            Map<Long, ExamQuestion> examQuestionsByQid = eqs.stream()
-                    .collect(Collectors.toMap(eq -> eq.getQuestion().getId(), Function.identity()));
-
-            int totalQuestions = eqs.size();
-            int totalCorrect   = 0;
-            double totalScore  = 0.0;
-            double maxScore    = eqs.stream()
-                    .map(ExamQuestion::getScore)
-                    .map(s -> s == null ? 1.0 : s.doubleValue())
-                    .reduce(0.0, Double::sum);
-
-            if (req.getAnswers() != null) {
-                for (AnswerPayload ans : req.getAnswers()) {
-                    Long qid = ans.getQuestionId();
-                    ExamQuestion eq = examQuestionsByQid.get(qid);
-                    if (eq == null) continue; // câu không thuộc đề
-
-                    // Đáp án đúng
-                    List<Long> correctIds = optionRepository.findByQuestion_IdAndIsCorrectTrue(qid)
-                            .stream().map(Option::getId).toList();
-
-                    // Lựa chọn của user
-                    List<Long> chosen = (ans.getSelectedOptionIds() == null)
-                            ? Collections.emptyList()
-                            : ans.getSelectedOptionIds();
-
-                    // So sánh theo tập hợp (Set)
-                    // Logic: Phải chọn đúng TẤT CẢ đáp án đúng và KHÔNG chọn đáp án sai nào
-                    // - MCQ_SINGLE: chọn đúng 1 đáp án đúng duy nhất
-                    // - MCQ_MULTI: chọn đúng TẤT CẢ các đáp án đúng, không thiếu, không thừa
-                    // - TRUE_FALSE: chọn đúng 1 trong 2 (True/False)
-                    // Nếu thiếu hoặc thừa đáp án → 0 điểm
-                    boolean isCorrect = new HashSet<>(chosen).equals(new HashSet<>(correctIds));
-                    if (isCorrect) {
-                        totalCorrect++;
-                        double qScore = eq.getScore() == null ? 1.0 : eq.getScore().doubleValue();
-                        totalScore += qScore;
-                    }
-                }
-            }
+            // Chấm bằng đáp án biên dịch sẵn cùng đề, không truy vấn DB theo từng câu
+            AnswerKey.Result result = examPapers.get(exam.getId()).answerKey().grade(req.getAnswers());
 
             attempt.setFinishedAt(LocalDateTime.now());
-            attempt.setScore(totalScore);
+            attempt.setScore(result.totalScore());
             examAttemptRepository.save(attempt);
 
             // ✅ Trả về qua mapper
             return examAttemptMapper.toSubmitResponse(
                     attempt,
-                    maxScore,
-                    totalQuestions,
-                    totalCorrect
+                    result.maxScore(),
+                    result.totalQuestions(),
+                    result.totalCorrect()
             );
         }
 
@@ -203,16 +136,24 @@
 
             Page<ExamAttempt> attempts = examAttemptRepository.findByUser_UserId(currentUser.getUserId(), pageable);
 
-            List<AttemptSummary> summaries = attempts.getContent().stream().map(attempt -> {
-                Exam exam = attempt.getExam();
-                List<ExamQuestion> eqs = examQuestionRepository.findByExam(exam);
-
-                double maxScore = eqs.stream()
-                        .map(ExamQuestion::getScore)
-                        .map(s -> s == null ? 1.0 : s.doubleValue())
-                        .reduce(0.0, Double::sum);
+            // tổng điểm / số câu của mọi đề trong trang lấy bằng một truy vấn
+            List<Long> examIds = attempts.getContent().stream()
+                    .map(ExamAttempt::getExam)
+                    .filter(Objects::nonNull)
+                    .map(Exam::getId)
+                    .distinct()
+                    .toList();
+            Map<Long, ExamQuestionRepository.ExamTotals> totals = examIds.isEmpty()
+                    ? Map.of()
+                    : examQuestionRepository.findTotalsByExamIds(examIds).stream()
+                            .collect(Collectors.toMap(ExamQuestionRepository.ExamTotals::getExamId, t -> t));
 
-                return examAttemptMapper.toMyAttemptResponse(attempt, maxScore, eqs.size());
+            List<AttemptSummary> summaries = attempts.getContent().stream().map(attempt -> {
+                ExamQuestionRepository.ExamTotals total = attempt.getExam() == null
+                        ? null : totals.get(attempt.getExam().getId());
+                double maxScore = total == null || total.getMaxScore() == null ? 0.0 : total.getMaxScore();
+                int questions = total == null ? 0 : (int) total.getQuestions();
+                return examAttemptMapper.toMyAttemptResponse(attempt, maxScore, questions);
             }).toList();
 
             return new PageImpl<>(summaries, pageable, attempts.getTotalElements());
@@ -1,9 +1,13 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.cache.CurriculumRegistry;
 import com.example.demologin.dto.request.grade.GradeRequest;
 import com.example.demologin.dto.response.ChapterResponse;
 import com.example.demologin.dto.response.GradeResponse;
+import com.example.demologin.entity.Chapter;
 import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
 import com.example.demologin.mapper.chapter.IChapterMapper;
 import com.example.demologin.repository.ChapterRepository;
 import com.example.demologin.repository.GradeRepository;
@@ -20,6 +24,7 @@ public class GradeServiceImpl implements GradeService {
     private final GradeRepository gradeRepository;
     private final ChapterRepository chapterRepository;
     private final IChapterMapper chapterMapper;
+    private final CurriculumRegistry curriculumRegistry;
 
 
     private GradeResponse mapToResponse(Grade grade) {
@@ -41,6 +46,7 @@ public class GradeServiceImpl implements GradeService {
     }
 
     @Override
+    @SmartCache(entities = {Grade.class})
     public GradeResponse getGradeById(Long id) {
         Grade grade = gradeRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Grade not found with id " + id));
@@ -49,9 +55,14 @@ public class GradeServiceImpl implements GradeService {
 
     @Override
     public List<GradeResponse> getAllGrades() {
-        return gradeRepository.findAll()
+        // Served from the in-memory curriculum snapshot, already current after every commit
+        return curriculumRegistry.current().grades()
                 .stream()
-                .map(this::mapToResponse)
+                .map(grade -> GradeResponse.builder()
+                        .id(grade.id())
+                        .gradeNumber(grade.gradeNumber())
+                        .description(grade.description())
+                        .build())
                 .collect(Collectors.toList());
     }
 
@@ -76,6 +87,7 @@ public class GradeServiceImpl implements GradeService {
     }
 
     @Override
+    @SmartCache(softTtlSeconds = 120, refreshAhead = true, entities = {Grade.class, Chapter.class, Lesson.class})
     public List<ChapterResponse> getChaptersByGradeId(Long gradeId) {
         try{
 // Kiểm tra Grade tồn tại
@@ -1,5 +1,6 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.annotation.SmartCache;
 import com.example.demologin.dto.request.lesson.LessonRequest;
 import com.example.demologin.dto.response.lesson.LessonResponse;
 import com.example.demologin.entity.Chapter;
@@ -35,6 +36,7 @@ public class LessonServiceImpl implements LessonService {
 
     @Override
     @Transactional(readOnly = true)
+    @SmartCache(entities = {Lesson.class, Chapter.class})
     public LessonResponse getLessonById(Long id) {
         Lesson lesson = lessonRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Lesson not found"));
@@ -43,6 +45,7 @@ public class LessonServiceImpl implements LessonService {
 
     @Override
     @Transactional(readOnly = true)
+    @SmartCache(entities = {Lesson.class, Chapter.class})
     public List<LessonResponse> getAllLessons() {
         return lessonRepository.findAll()
                 .stream()
@@ -107,6 +110,7 @@ public class LessonServiceImpl implements LessonService {
     }
 
     @Override
+    @SmartCache(entities = {Lesson.class, Chapter.class})
     public List<LessonResponse> getLessonsByChapterId(Long chapterId) {
         try{
             // Kiểm tra chapter tồn tại
@@ -1,5 +1,6 @@
 package com.example.demologin.serviceImpl;
 
+import com.example.demologin.annotation.SmartCache;
 import com.example.demologin.dto.request.level.LevelRequest;
 import com.example.demologin.dto.response.LevelResponse;
 import com.example.demologin.entity.Level;
@@ -50,6 +51,7 @@ public class LevelServiceImpl implements LevelService {
     }
 
     @Override
+    @SmartCache(entities = {Level.class})
     public LevelResponse getLevelById(Long id) {
         Level level = levelRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy level với id " + id));
@@ -57,6 +59,7 @@ public class LevelServiceImpl implements LevelService {
     }
 
     @Override
+    @SmartCache(softTtlSeconds = 120, refreshAhead = true, entities = {Level.class})
     public List<LevelResponse> getAllLevels() {
         return levelRepository.findAll()
                 .stream()
@@ -65,6 +68,7 @@ public class LevelServiceImpl implements LevelService {
     }
 
     @Override
+    @SmartCache(softTtlSeconds = 120, refreshAhead = true, entities = {Level.class})
     public Page<LevelResponse> getAllLevels(int page, int size, String sortBy, String sortDir) {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
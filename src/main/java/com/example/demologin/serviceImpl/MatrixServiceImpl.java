@@ -1,21 +1,31 @@
 package com.example.demologin.serviceImpl;
 
 
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.cache.CurriculumRegistry;
+import com.example.demologin.cache.QuestionAvailabilityCube;
 import com.example.demologin.dto.request.matrix.MatrixDetailRequest;
 import com.example.demologin.dto.request.matrix.MatrixRequest;
 import com.example.demologin.dto.response.matrix.MatrixDetailResponse;
+import com.example.demologin.dto.response.matrix.MatrixFeasibilityResponse;
 import com.example.demologin.dto.response.matrix.MatrixResponse;
 import com.example.demologin.entity.*;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.repository.*;
 import com.example.demologin.service.MatrixService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,10 +37,13 @@ public class MatrixServiceImpl implements MatrixService {
     private final LevelRepository levelRepository;
     private final LessonRepository lessonRepository;
     private final QuestionTypeRepository questionTypeRepository;
+    private final CurriculumRegistry curriculumRegistry;
+    private final QuestionAvailabilityCube availabilityCube;
 
     @Override
     @Transactional
     public MatrixResponse createMatrix(MatrixRequest request) {
+        checkFeasible(request.getDetails());
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -57,16 +70,18 @@ public class MatrixServiceImpl implements MatrixService {
     }
 
     @Override
+    @SmartCache(softTtlSeconds = 120, refreshAhead = true, entities = {Matrix.class, MatrixDetail.class, User.class, Level.class, Lesson.class, QuestionType.class})
     public Page<MatrixResponse> getAllMatrices(Pageable pageable) {
-        return matrixRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        Page<MatrixRepository.MatrixRow> rows = matrixRepository.findRows(pageable);
+        return new PageImpl<>(mapRowsToResponses(rows.getContent()), rows.getPageable(), rows.getTotalElements());
     }
 
     @Override
+    @SmartCache(entities = {Matrix.class, MatrixDetail.class, User.class, Level.class, Lesson.class, QuestionType.class})
     public MatrixResponse getMatrixById(Long id) {
-        Matrix matrix = matrixRepository.findById(id)
+        MatrixRepository.MatrixRow matrix = matrixRepository.findRowById(id)
                 .orElseThrow(() -> new RuntimeException("Matrix not found"));
-        return mapToResponse(matrix);
+        return mapRowsToResponses(List.of(matrix)).get(0);
     }
 
     @Override
@@ -75,6 +90,7 @@ public class MatrixServiceImpl implements MatrixService {
         Matrix matrix = matrixRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Matrix not found"));
 
+        checkFeasible(request.getDetails());
         matrix.setTotalQuestion(request.getTotalQuestion());
         matrix.setTotalScore(request.getTotalScore());
         matrix.setUpdatedAt(LocalDateTime.now());
@@ -101,11 +117,111 @@ public class MatrixServiceImpl implements MatrixService {
         return true;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public MatrixFeasibilityResponse getFeasibility(Long id) {
+        Matrix matrix = matrixRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Matrix not found: " + id));
+        List<MatrixDetail> details = matrix.getDetails() == null ? List.of() : matrix.getDetails();
+
+        // Các detail trùng ô (lesson × level × type) dùng chung số câu có sẵn
+        Map<QuestionAvailabilityCube.Cell, Integer> requiredByCell = new LinkedHashMap<>();
+        for (MatrixDetail detail : details) {
+            QuestionAvailabilityCube.Cell cell = cellOf(detail);
+            if (cell != null) {
+                requiredByCell.merge(cell, quotaOf(detail), Integer::sum);
+            }
+        }
+
+        List<MatrixFeasibilityResponse.DetailFeasibility> rows = new ArrayList<>(details.size());
+        int totalRequired = 0;
+        for (MatrixDetail detail : details) {
+            QuestionAvailabilityCube.Cell cell = cellOf(detail);
+            int required = quotaOf(detail);
+            int available = cell == null ? 0 : availabilityCube.count(cell);
+            int cellRequired = cell == null ? required : requiredByCell.get(cell);
+            totalRequired += required;
+            rows.add(MatrixFeasibilityResponse.DetailFeasibility.builder()
+                    .detailId(detail.getId())
+                    .lessonId(detail.getLesson() != null ? detail.getLesson().getId() : null)
+                    .lessonName(detail.getLesson() != null ? lessonNameOf(detail.getLesson()) : null)
+                    .levelId(detail.getLevel() != null ? detail.getLevel().getId() : null)
+                    .levelDescription(detail.getLevel() != null ? detail.getLevel().getDifficulty() : null)
+                    .questionTypeId(detail.getQuestionType() != null ? detail.getQuestionType().getId() : null)
+                    .questionType(detail.getQuestionType() != null ? detail.getQuestionType().getDescription() : null)
+                    .required(required)
+                    .available(available)
+                    .shortfall(Math.max(0, cellRequired - available))
+                    .build());
+        }
+        int totalCoverable = 0;
+        for (Map.Entry<QuestionAvailabilityCube.Cell, Integer> entry : requiredByCell.entrySet()) {
+            totalCoverable += Math.min(entry.getValue(), availabilityCube.count(entry.getKey()));
+        }
+
+        return MatrixFeasibilityResponse.builder()
+                .matrixId(matrix.getId())
+                .title(matrix.getTitle())
+                .feasible(rows.stream().allMatch(row -> row.getShortfall() == 0))
+                .totalRequired(totalRequired)
+                .totalCoverable(totalCoverable)
+                .coverage(totalRequired == 0 ? 1.0 : (double) totalCoverable / totalRequired)
+                .details(rows)
+                .build();
+    }
+
+    /**
+     * Reject quotas that the question bank cannot fill, from the in-memory availability cube
+     * (one map lookup per distinct cell, no query on questions).
+     */
+    private void checkFeasible(List<MatrixDetailRequest> details) {
+        if (details == null) {
+            return;
+        }
+        Map<QuestionAvailabilityCube.Cell, Integer> requiredByCell = new LinkedHashMap<>();
+        for (MatrixDetailRequest detail : details) {
+            if (detail.getTotalQuestions() == null || detail.getTotalQuestions() <= 0) {
+                throw new BadRequestException("totalQuestions must be greater than 0");
+            }
+            QuestionAvailabilityCube.Cell cell = QuestionAvailabilityCube.Cell.of(
+                    detail.getLessonId(), detail.getLevelId(), detail.getQuestionTypeId());
+            if (cell == null) {
+                throw new BadRequestException("lessonId, levelId and questionTypeId are required");
+            }
+            requiredByCell.merge(cell, detail.getTotalQuestions(), Integer::sum);
+        }
+        List<String> shortages = new ArrayList<>();
+        requiredByCell.forEach((cell, required) -> {
+            int available = availabilityCube.count(cell);
+            if (available < required) {
+                shortages.add("lesson %d, level %d, type %d: cần %d câu, chỉ có %d"
+                        .formatted(cell.lessonId(), cell.levelId(), cell.typeId(), required, available));
+            }
+        });
+        if (!shortages.isEmpty()) {
+            throw new BadRequestException("Không đủ câu hỏi cho ma trận: " + String.join("; ", shortages));
+        }
+    }
+
+    private static QuestionAvailabilityCube.Cell cellOf(MatrixDetail detail) {
+        return QuestionAvailabilityCube.Cell.of(
+                detail.getLesson() != null ? detail.getLesson().getId() : null,
+                detail.getLevel() != null ? detail.getLevel().getId() : null,
+                detail.getQuestionType() != null ? detail.getQuestionType().getId() : null);
+    }
+
+    private static int quotaOf(MatrixDetail detail) {
+        return detail.getTotalQuestions() == null ? 0 : detail.getTotalQuestions();
+    }
+
     private MatrixDetail createMatrixDetail(MatrixDetailRequest detail, Matrix matrix) {
         Level level = levelRepository.findById(detail.getLevelId())
                 .orElseThrow(() -> new IllegalArgumentException("Level not found"));
-        Lesson lesson = lessonRepository.findById(detail.getLessonId())
-                .orElseThrow(() -> new IllegalArgumentException("Lesson not found"));
+        Long lessonId = detail.getLessonId();
+        if (!curriculumRegistry.current(curriculum -> curriculum.containsLesson(lessonId)).containsLesson(lessonId)) {
+            throw new IllegalArgumentException("Lesson not found");
+        }
+        Lesson lesson = lessonRepository.getReferenceById(lessonId);
         QuestionType questionType= questionTypeRepository.findById(detail.getQuestionTypeId())
                 .orElseThrow(() -> new IllegalArgumentException("Question type not found"));
 
@@ -141,15 +257,54 @@ public class MatrixServiceImpl implements MatrixService {
                 .build();
     }
 
+    // Đọc: một truy vấn cho các matrix + một truy vấn cho toàn bộ chi tiết của chúng
+    private List<MatrixResponse> mapRowsToResponses(List<MatrixRepository.MatrixRow> rows) {
+        Map<Long, List<MatrixDetailResponse>> details = rows.isEmpty() ? Map.of()
+                : matrixDetailRepository.findRowsByMatrixIds(rows.stream().map(MatrixRepository.MatrixRow::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(MatrixDetailRepository.DetailRow::getMatrixId,
+                        Collectors.mapping(detail -> MatrixDetailResponse.builder()
+                                .id(detail.getId())
+                                .levelDescription(detail.getLevelDescription())
+                                .lessonName(lessonNameOf(detail.getLessonId(), detail.getLessonName()))
+                                .totalQuestions(detail.getTotalQuestions())
+                                .questionType(detail.getQuestionType())
+                                .createdAt(detail.getCreatedAt())
+                                .updatedAt(detail.getUpdatedAt())
+                                .build(), Collectors.toList())));
+        return rows.stream()
+                .map(row -> MatrixResponse.builder()
+                        .id(row.getId())
+                        .title(row.getTitle())
+                        .totalQuestion(row.getTotalQuestion())
+                        .totalScore(row.getTotalScore())
+                        .createdAt(row.getCreatedAt())
+                        .updatedAt(row.getUpdatedAt())
+                        .status(row.getStatus())
+                        .userName(row.getUserName() != null ? row.getUserName() : "System")
+                        .details(details.getOrDefault(row.getId(), List.of()))
+                        .build())
+                .toList();
+    }
+
     private MatrixDetailResponse mapToDetailResponse(MatrixDetail detail) {
         return MatrixDetailResponse.builder()
                 .id(detail.getId())
                 .levelDescription(detail.getLevel().getDifficulty())
-                .lessonName(detail.getLesson().getLessonName())
+                .lessonName(lessonNameOf(detail.getLesson()))
                 .totalQuestions(detail.getTotalQuestions())
                 .questionType(detail.getQuestionType().getDescription())
                 .createdAt(detail.getCreatedAt())
                 .updatedAt(detail.getUpdatedAt())
                 .build();
     }
+
+    private String lessonNameOf(Lesson lesson) {
+        return lessonNameOf(lesson.getId(), lesson.getLessonName());
+    }
+
+    private String lessonNameOf(Long lessonId, String fallback) {
+        String name = lessonId != null ? curriculumRegistry.current().lessonName(lessonId) : null;
+        return name != null ? name : fallback;
+    }
 }
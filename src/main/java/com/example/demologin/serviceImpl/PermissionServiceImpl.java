@@ -6,6 +6,7 @@ import com.example.demologin.repository.PermissionRepository;
 import com.example.demologin.dto.request.PermissionRequest;
 import com.example.demologin.dto.response.PermissionResponse;
 import com.example.demologin.mapper.permission.PermissionMapper;
+import com.example.demologin.security.PermissionMatrix;
 import com.example.demologin.service.PermissionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -17,6 +18,7 @@ public class PermissionServiceImpl implements PermissionService {
     
     private final PermissionRepository permissionRepository;
     private final PermissionMapper permissionMapper;
+    private final PermissionMatrix permissionMatrix;
 
     @Override
     public List<PermissionResponse> getAll() {
@@ -32,6 +34,7 @@ public class PermissionServiceImpl implements PermissionService {
         Permission p = permissionRepository.findById(id).orElseThrow(() -> new NotFoundException("Permission with id " + id + " not found"));
         permissionMapper.updateEntityFromDto(req, p);
         Permission updatedPermission = permissionRepository.save(p);
+        permissionMatrix.rebuildAfterCommit();
         return permissionMapper.toResponse(updatedPermission);
     }
 } 
@@ -0,0 +1,201 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.ai.GeneratedQuestionParser;
+import com.example.demologin.ai.GenerationPrompt;
+import com.example.demologin.ai.QuestionGenerationJob;
+import com.example.demologin.ai.QuestionGenerator;
+import com.example.demologin.dto.request.ai.QuestionGenerate;
+import com.example.demologin.dto.response.QuestionGenerationJobResponse;
+import com.example.demologin.exception.exceptions.BusinessException;
+import com.example.demologin.exception.exceptions.NotFoundException;
+import com.example.demologin.service.QuestionGenerationService;
+import com.example.demologin.utils.AccountUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs AI generation off the request thread. The prompt is built on submit (so a bad level or
+ * type fails the request, not the job), the model call and parsing run on a small bounded pool,
+ * and finished jobs are kept in memory for {@code question-generation.retention}. Streams share
+ * the same pool and send each draft as soon as the parser has it.
+ */
+@Service
+@Slf4j
+public class QuestionGenerationServiceImpl implements QuestionGenerationService {
+
+    private final QuestionGenerator generator;
+    private final AccountUtils accountUtils;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, QuestionGenerationJob> jobs;
+    private final Duration streamTimeout;
+
+    public QuestionGenerationServiceImpl(QuestionGenerator generator,
+                                         AccountUtils accountUtils,
+                                         @Value("${question-generation.threads:4}") int threads,
+                                         @Value("${question-generation.queue-capacity:32}") int queueCapacity,
+                                         @Value("${question-generation.retention:PT1H}") Duration retention,
+                                         @Value("${question-generation.stream-timeout:PT3M}") Duration streamTimeout) {
+        this.generator = generator;
+        this.streamTimeout = streamTimeout;
+        this.accountUtils = accountUtils;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "question-generation-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    @Override
+    public QuestionGenerationJobResponse submit(QuestionGenerate request) {
+        String type = request.getType() == null ? null : request.getType().trim().toUpperCase(Locale.ROOT);
+        GenerationPrompt prompt = generator.prompt(request);
+
+        QuestionGenerationJob job = new QuestionGenerationJob(accountUtils.getCurrentUserId());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, prompt, type, request.getLessonId(), request.getLevelId()));
+        } catch (RejectedExecutionException ex) {
+            jobs.invalidate(job.getId());
+            throw new BusinessException("Too many generation jobs in progress, please try again later");
+        }
+        return toResponse(job);
+    }
+
+    @Override
+    public QuestionGenerationJobResponse getJob(String jobId) {
+        QuestionGenerationJob job = jobs.getIfPresent(jobId);
+        if (job == null || !Objects.equals(job.getOwnerId(), accountUtils.getCurrentUserId())) {
+            throw new NotFoundException("Generation job not found: " + jobId);
+        }
+        return toResponse(job);
+    }
+
+    /**
+     * Events: {@code question} (one draft, id = its position), {@code rejected} (reason),
+     * then {@code done} with the totals, or {@code error} with the message.
+     */
+    @Override
+    public SseEmitter stream(QuestionGenerate request) {
+        String type = request.getType() == null ? null : request.getType().trim().toUpperCase(Locale.ROOT);
+        GenerationPrompt prompt = generator.prompt(request);
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        try {
+            executor.execute(() -> stream(emitter, prompt, type, request.getLessonId(), request.getLevelId()));
+        } catch (RejectedExecutionException ex) {
+            throw new BusinessException("Too many generation jobs in progress, please try again later");
+        }
+        return emitter;
+    }
+
+    private void stream(SseEmitter emitter, GenerationPrompt prompt, String type, Long lessonId, Long levelId) {
+        AtomicInteger questions = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        GeneratedQuestionParser parser = new GeneratedQuestionParser(type, lessonId, levelId,
+                question -> send(emitter, SseEmitter.event()
+                        .id(String.valueOf(questions.incrementAndGet()))
+                        .name("question")
+                        .data(question, MediaType.APPLICATION_JSON)),
+                reason -> {
+                    rejected.incrementAndGet();
+                    send(emitter, SseEmitter.event().name("rejected").data(reason));
+                });
+        try {
+            QuestionGenerator.Generation generation = generator.stream(prompt, parser::feed);
+            parser.close();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("questions", questions.get());
+            summary.put("rejected", rejected.get());
+            summary.put("cached", generation.cached());
+            summary.put("attempts", generation.attempts());
+            send(emitter, SseEmitter.event().name("done").data(summary, MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (ClientGoneException ex) {
+            // Client đã đóng kết nối, bỏ phần còn lại
+            log.debug("Generation stream closed by client");
+        } catch (RuntimeException ex) {
+            log.warn("Generation stream failed: {}", ex.getMessage());
+            try {
+                emitter.send(SseEmitter.event().name("error").data(String.valueOf(ex.getMessage())));
+                emitter.complete();
+            } catch (IOException | IllegalStateException sendFailure) {
+                emitter.completeWithError(ex);
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            throw new ClientGoneException(ex);
+        }
+    }
+
+    private void run(QuestionGenerationJob job, GenerationPrompt prompt, String type, Long lessonId, Long levelId) {
+        job.start();
+        try {
+            QuestionGenerator.Generation generation = generator.generate(prompt);
+            job.complete(generation, GeneratedQuestionParser.parse(generation.text(), type, lessonId, levelId));
+        } catch (RuntimeException ex) {
+            log.warn("Generation job {} failed: {}", job.getId(), ex.getMessage());
+            job.fail(ex.getMessage());
+        } finally {
+            // Restart the retention window from the end of the job
+            jobs.put(job.getId(), job);
+        }
+    }
+
+    private static QuestionGenerationJobResponse toResponse(QuestionGenerationJob job) {
+        return QuestionGenerationJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .cached(job.isCached())
+                .attempts(job.getAttempts())
+                .questions(job.getQuestions())
+                .rejected(job.getRejected())
+                .text(job.getText())
+                .message(job.getMessage())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    /**
+     * Stops a stream whose client went away (send failed or emitter already completed).
+     */
+    private static final class ClientGoneException extends RuntimeException {
+        ClientGoneException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.response.QuestionImportJobResponse;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.exception.exceptions.BusinessException;
+import com.example.demologin.exception.exceptions.InternalServerErrorException;
+import com.example.demologin.exception.exceptions.NotFoundException;
+import com.example.demologin.importer.QuestionImportFormat;
+import com.example.demologin.importer.QuestionImportJob;
+import com.example.demologin.importer.QuestionImporter;
+import com.example.demologin.service.QuestionImportService;
+import com.example.demologin.utils.AccountUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts import uploads and runs them on a small bounded pool. The upload is spooled to a
+ * temp file (multipart parts are deleted when the request ends) and read back as a stream;
+ * job progress is kept in memory for {@code question-import.retention} after it finishes.
+ */
+@Service
+@Slf4j
+public class QuestionImportServiceImpl implements QuestionImportService {
+
+    private final QuestionImporter importer;
+    private final AccountUtils accountUtils;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, QuestionImportJob> jobs;
+
+    public QuestionImportServiceImpl(QuestionImporter importer,
+                                     AccountUtils accountUtils,
+                                     @Value("${question-import.threads:2}") int threads,
+                                     @Value("${question-import.queue-capacity:8}") int queueCapacity,
+                                     @Value("${question-import.retention:PT1H}") Duration retention) {
+        this.importer = importer;
+        this.accountUtils = accountUtils;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "question-import-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    @Override
+    public QuestionImportJobResponse startImport(MultipartFile file, String format, String type, Long lessonId, Long levelId) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("File is empty");
+        }
+        QuestionImportFormat importFormat = QuestionImportFormat.resolve(format, file.getOriginalFilename());
+        QuestionImporter.References references = importer.resolveReferences(
+                new QuestionImporter.Defaults(type, lessonId, levelId));
+
+        Path spooled;
+        try {
+            spooled = Files.createTempFile("question-import-", importFormat.extension());
+            file.transferTo(spooled);
+        } catch (IOException ex) {
+            throw new InternalServerErrorException("Could not store the uploaded file: " + ex.getMessage());
+        }
+
+        QuestionImportJob job = new QuestionImportJob(accountUtils.getCurrentUserId(), file.getOriginalFilename(), importFormat);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> {
+                try {
+                    importer.run(job, spooled, references);
+                } finally {
+                    deleteQuietly(spooled);
+                    // Restart the retention window from the end of the import
+                    jobs.put(job.getId(), job);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            jobs.invalidate(job.getId());
+            deleteQuietly(spooled);
+            throw new BusinessException("Too many imports in progress, please try again later");
+        }
+        return toResponse(job);
+    }
+
+    @Override
+    public QuestionImportJobResponse getJob(String jobId) {
+        QuestionImportJob job = jobs.getIfPresent(jobId);
+        if (job == null || !Objects.equals(job.getOwnerId(), accountUtils.getCurrentUserId())) {
+            throw new NotFoundException("Import job not found: " + jobId);
+        }
+        return toResponse(job);
+    }
+
+    private static QuestionImportJobResponse toResponse(QuestionImportJob job) {
+        List<QuestionImportJob.RowError> errors = job.errorsSnapshot();
+        int failed = job.getFailedRows().get();
+        return QuestionImportJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .fileName(job.getFileName())
+                .format(job.getFormat().name())
+                .processedRows(job.getProcessedRows().get())
+                .importedRows(job.getImportedRows().get())
+                .failedRows(failed)
+                .errors(errors.stream()
+                        .map(error -> new QuestionImportJobResponse.RowError(error.row(), error.message()))
+                        .toList())
+                .errorsTruncated(failed > errors.size())
+                .message(job.getMessage())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete import file {}: {}", file, ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
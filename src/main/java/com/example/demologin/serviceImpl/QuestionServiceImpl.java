@@ -1,31 +1,39 @@
 package com.example.demologin.serviceImpl;
 
-import com.example.demologin.config.GeminiConfig;
+import com.example.demologin.ai.QuestionGenerator;
+import com.example.demologin.cache.QuestionAvailabilityCube;
 import com.example.demologin.dto.request.ai.QuestionGenerate;
 import com.example.demologin.dto.request.question.OptionRequest;
 import com.example.demologin.dto.request.question.QuestionCreateRequest;
 import com.example.demologin.dto.request.question.QuestionUpdateRequest;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.dto.response.QuestionResponse;
 import com.example.demologin.entity.*;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.mapper.question.QuestionMapper;
 import com.example.demologin.repository.*;
+import com.example.demologin.search.InvertedIndex;
+import com.example.demologin.search.SearchIndexManager;
 import com.example.demologin.service.QuestionService;
-import com.google.genai.types.Content;
-import com.google.genai.types.GenerateContentConfig;
-import com.google.genai.types.GenerateContentResponse;
-import com.google.genai.types.Part;
+import com.example.demologin.utils.PageCursor;
+import com.example.demologin.utils.QuestionOptionRules;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.rmi.ServerException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -37,7 +45,9 @@ public class QuestionServiceImpl implements QuestionService {
     private final QuestionMapper mapper;
     private final LevelRepository levelRepo;
     private final LessonRepository lessonRepo;
-    private final GeminiConfig geminiConfig;
+    private final QuestionGenerator questionGenerator;
+    private final SearchIndexManager searchIndex;
+    private final QuestionAvailabilityCube availabilityCube;
 
     @Override
     @Transactional(readOnly = true)
@@ -46,6 +56,16 @@ public class QuestionServiceImpl implements QuestionService {
         return questionRepo.findAll(pageable).map(mapper::toResponse);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<QuestionResponse> list(String cursor, int size, boolean withTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = KeysetPage.limit(size);
+        List<Question> rows = questionRepo.findPageAfter(after != null ? after.id() : null, PageRequest.of(0, limit + 1));
+        return KeysetPage.of(rows, limit, q -> PageCursor.of(q.getId()), mapper::toResponse,
+                withTotal ? questionRepo.count() : null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public QuestionResponse get(Long id) {
@@ -90,6 +110,8 @@ public class QuestionServiceImpl implements QuestionService {
 
         // Chỉ cần save question; cascade=ALL sẽ lưu Option
         Question saved = questionRepo.save(q);
+        searchIndex.questionSaved(saved);
+        availabilityCube.questionAdded(saved);
         return mapper.toResponse(saved);
     }
 
@@ -98,6 +120,7 @@ public class QuestionServiceImpl implements QuestionService {
     public QuestionResponse update(Long questionId, QuestionUpdateRequest req) {
         Question q = questionRepo.findById(questionId)
                 .orElseThrow(() -> new IllegalArgumentException("Question not found: " + questionId));
+        QuestionAvailabilityCube.Cell previousCell = QuestionAvailabilityCube.Cell.of(q);
 
         if (req.getQuestionText() != null && !req.getQuestionText().isBlank()) {
             q.setQuestionText(req.getQuestionText().trim());
@@ -147,35 +170,14 @@ public class QuestionServiceImpl implements QuestionService {
 
         // Không cần optionRepo.deleteAll/saveAll nếu cascade=ALL+orphanRemoval=true
         Question saved = questionRepo.save(q);
+        searchIndex.questionSaved(saved);
+        availabilityCube.questionMoved(previousCell, QuestionAvailabilityCube.Cell.of(saved));
         return mapper.toResponse(saved);
     }
 
     private void validateOptions(String typeCode, List<Option> options) {
-        if (typeCode == null) return;
-
         long correctCount = options.stream().filter(Option::getIsCorrect).count();
-
-        switch (typeCode) {
-            case "MCQ_SINGLE" -> {
-                if (correctCount != 1)
-                    throw new IllegalArgumentException("MCQ_SINGLE requires exactly 1 correct option.");
-                if (options.size() < 2)
-                    throw new IllegalArgumentException("MCQ_SINGLE should have at least 2 options.");
-            }
-            case "MCQ_MULTI" -> {
-                if (correctCount < 1)
-                    throw new IllegalArgumentException("MCQ_MULTI requires at least 1 correct option.");
-                if (options.size() < 2)
-                    throw new IllegalArgumentException("MCQ_MULTI should have at least 2 options.");
-            }
-            case "TRUE_FALSE" -> {
-                if (options.size() != 2)
-                    throw new IllegalArgumentException("TRUE_FALSE requires exactly 2 options (True/False).");
-                if (correctCount != 1)
-                    throw new IllegalArgumentException("TRUE_FALSE requires exactly 1 correct option.");
-            }
-            default -> { /* ignore others */ }
-        }
+        QuestionOptionRules.validate(typeCode, options.size(), correctCount);
     }
 
 
@@ -187,101 +189,34 @@ public class QuestionServiceImpl implements QuestionService {
 
         Question q = questionRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Question not found: " + id));
+        QuestionAvailabilityCube.Cell cell = QuestionAvailabilityCube.Cell.of(q);
         questionRepo.delete(q);
+        searchIndex.questionDeleted(id);
+        availabilityCube.questionRemoved(cell);
     }
 
     @Override
-    public String generateQuestion(QuestionGenerate req) {
-        String sysIns = buildSystemInstruction(req);
-
-        GenerateContentConfig config = GenerateContentConfig.builder()
-                .temperature(0.2f)
-                .systemInstruction(Content.fromParts(Part.fromText(sysIns)))
-                .build();
-
-        String userPrompt = buildUserPrompt(req);
-
-        Content content = Content.fromParts(
-                Part.fromText(userPrompt)
-        );
-
-        // Retry tối đa 3 lần khi gặp lỗi 503
-        for (int i = 0; i < 3; i++) {
-            GenerateContentResponse res = geminiConfig.generate(
-                    "gemini-2.5-flash",
-                    content,
-                    config
-            );
-            return res.text();
-
-        }
-
-        throw new RuntimeException("Hệ thống AI đang quá tải. Vui lòng thử lại sau.");
-    }
-
-    private String buildSystemInstruction(QuestionGenerate req) {
-        int questionCount = req.getQuantity() != null ? req.getQuantity() : 1;
-
-        String difficulty = "";
-        if (req.getLevelId() != null) {
-            difficulty = levelRepo.findById(req.getLevelId())
-                    .map(Level::getDifficulty)
-                    .orElse("");
-        }
-
-        return """
-        Bạn là hệ thống tạo câu hỏi trắc nghiệm chính xác cao môn Toán học lớp 10–12.
-        Sinh %d câu hỏi dựa trên dữ liệu đầu vào.
-
-        type: %s
-        difficulty: %s
-
-        Quy tắc:
-        - Mỗi câu hỏi có 2–4 phương án.
-        - Mỗi câu có thể có nhiều phương án đúng.
-        - Ở phương án đúng, thêm chữ (đúng) trong ngoặc.
-        - Cuối mỗi câu hỏi phải ghi thêm:
-          (type: {type}, difficulty: {difficulty})
-
-        Format trả về:
-        1. {question} (type: {type}, difficulty: {difficulty})
-        A. {option 1}
-        B. {option 2 (đúng nếu đúng)}
-        C. {option 3}
-        D. {option 4}
-        """
-                .formatted(
-                        questionCount,
-                        req.getType(),
-                        difficulty
-                );
+    @Transactional(readOnly = true)
+    public Page<QuestionResponse> search(String keyword, Long lessonId, Long levelId, Long typeId, int page, int size) {
+        var pageable = PageRequest.of(page, size);
+        InvertedIndex.SearchResult result = searchIndex.searchQuestions(
+                keyword, lessonId, levelId, typeId, (int) pageable.getOffset(), size);
+        List<Long> ids = result.hits().stream().map(InvertedIndex.Hit::id).toList();
+        // Giữ thứ tự theo điểm BM25; bỏ qua id đã bị xóa nhưng index chưa cập nhật
+        Map<Long, Question> byId = questionRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+        List<QuestionResponse> content = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(mapper::toResponse)
+                .toList();
+        return new PageImpl<>(content, pageable, result.total());
     }
 
-    private String buildUserPrompt(QuestionGenerate req) {
-        int questionCount = req.getQuantity() != null ? req.getQuantity() : 1;
-
-        String difficulty = "";
-        if (req.getLevelId() != null) {
-            difficulty = levelRepo.findById(req.getLevelId())
-                    .map(Level::getDifficulty)
-                    .orElse("");
-        }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Sinh ").append(questionCount)
-                .append(" câu hỏi theo loại ").append(req.getType()).append(".\n");
-
-        if (!difficulty.isBlank()) {
-            sb.append("Mức độ: ").append(difficulty).append(".\n");
-        }
-
-        sb.append("""
-        Mỗi câu hỏi có 2–4 phương án và chỉ có 1 phương án đúng.
-        Cuối mỗi câu hỏi phải ghi thêm (type: {type}, difficulty: {difficulty}).
-        Xuất ra đúng format đánh số câu hỏi và các lựa chọn A/B/C/D.
-        """);
-
-        return sb.toString();
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String generateQuestion(QuestionGenerate req) {
+        return questionGenerator.generate(questionGenerator.prompt(req)).text();
     }
 
     @Override
@@ -5,6 +5,7 @@ import com.example.demologin.entity.RefreshToken;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.TokenRefreshException;
 import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.security.JtiRevocationStore;
 import com.example.demologin.service.RefreshTokenService;
 import com.example.demologin.service.TokenService;
 import lombok.AllArgsConstructor;
@@ -33,6 +34,8 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private final TokenService tokenService;
 
+    private final JtiRevocationStore jtiRevocationStore;
+
     @Override
     public Optional<RefreshToken> findByToken(String token) {
         return refreshTokenRepository.findByToken(token);
@@ -50,7 +53,9 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         refreshToken.setToken(UUID.randomUUID().toString());
         refreshToken.setJti(UUID.randomUUID().toString());
 
-        return refreshTokenRepository.save(refreshToken);
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        jtiRevocationStore.registerLive(saved.getJti(), saved.getExpiryDate());
+        return saved;
     }
 
 
@@ -1,6 +1,7 @@
 package com.example.demologin.serviceImpl;
 
 import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.entity.Permission;
 import com.example.demologin.entity.Role;
 import com.example.demologin.repository.RoleRepository;
 
@@ -20,7 +21,7 @@ public class RolePermissionServiceImpl implements RolePermissionService {
     private final RoleRepository roleRepository;
 
     @Override
-    @SmartCache
+    @SmartCache(entities = {Role.class, Permission.class})
     public Set<String> getPermissionsForRoles(Set<String> roleNames) {
         if (roleNames == null || roleNames.isEmpty()) {
             return Collections.emptySet();
@@ -10,6 +10,9 @@ import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.mapper.role.RoleMapper;
 import com.example.demologin.repository.RoleRepository;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipalCache;
+import com.example.demologin.security.JtiRevocationStore;
+import com.example.demologin.security.PermissionMatrix;
 import com.example.demologin.service.RoleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -22,6 +25,9 @@ public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final RoleMapper roleMapper;
     private final UserRepository userRepository;
+    private final AuthPrincipalCache authPrincipalCache;
+    private final JtiRevocationStore jtiRevocationStore;
+    private final PermissionMatrix permissionMatrix;
 
     @Override
     public List<RoleResponse> getAll() {
@@ -41,6 +47,7 @@ public class RoleServiceImpl implements RoleService {
         Role role = new Role();
         roleMapper.fromCreateDto(req, role);
         Role savedRole = roleRepository.save(role);
+        permissionMatrix.rebuildAfterCommit();
         return roleMapper.toResponse(savedRole);
     }
 
@@ -50,6 +57,9 @@ public class RoleServiceImpl implements RoleService {
                 .orElseThrow(() -> new NotFoundException("Role with id " + id + " not found"));
         roleMapper.fromUpdateDto(req, r);
         Role updatedRole = roleRepository.save(r);
+        authPrincipalCache.evictAll();
+        jtiRevocationStore.publishPrincipalChange(null);
+        permissionMatrix.rebuildAfterCommit();
         return roleMapper.toResponse(updatedRole);
     }
 
@@ -63,6 +73,7 @@ public class RoleServiceImpl implements RoleService {
         }
 
         roleRepository.delete(r);
+        permissionMatrix.rebuildAfterCommit();
     }
 
     @Override
@@ -70,6 +81,10 @@ public class RoleServiceImpl implements RoleService {
         Role r = roleRepository.findById(id).orElseThrow(() -> new NotFoundException("Role with id " + id + " not found"));
         roleMapper.fromPermissionDto(req, r);
         Role updatedRole = roleRepository.save(r);
+        // Cached principals carry the role's permission authorities
+        authPrincipalCache.evictAll();
+        jtiRevocationStore.publishPrincipalChange(null);
+        permissionMatrix.rebuildAfterCommit();
         return roleMapper.toResponse(updatedRole);
     }
 
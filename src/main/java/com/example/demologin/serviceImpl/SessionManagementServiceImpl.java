@@ -14,7 +14,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Date;
 
 @Service
 @RequiredArgsConstructor
@@ -33,13 +32,12 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     public void logoutCurrentDevice() {
         String currentToken = accountUtils.getCurrentToken();
         String jti = jwtUtil.extractJti(currentToken);
-        Date expiryDate = jwtUtil.extractExpiration(currentToken);
 
         // Xóa refresh token khỏi DB
         refreshTokenRepository.deleteByJti(jti);
 
-        // Revoke access token trong memory
-        jwtUtil.revokeToken(jti, expiryDate);
+        // Revoke access token trên mọi node (deny-list + change feed)
+        jwtUtil.revokeToken(jti);
 
         log.info("User {} logged out from current device", accountUtils.getCurrentUser().getUsername());
     }
@@ -50,6 +48,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     public void logoutFromAllDevices() {
         User currentUser = accountUtils.getCurrentUser();
         log.info("User {} logging out from all devices", currentUser.getUsername());
+        refreshTokenRepository.findJtisByUser(currentUser).forEach(jwtUtil::revokeToken);
         refreshTokenRepository.deleteByUser(currentUser);
         // Invalidate all tokens by incrementing token version
         tokenVersionService.incrementTokenVersionByUserId(currentUser.getUserId());
@@ -4,6 +4,9 @@ import com.example.demologin.dto.response.ResponseObject;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.NotFoundException;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipalCache;
+import com.example.demologin.security.JtiRevocationStore;
+import com.example.demologin.security.TokenVersionTable;
 import com.example.demologin.service.TokenVersionService;
 import com.example.demologin.utils.AccountUtils;
 import lombok.RequiredArgsConstructor;
@@ -24,22 +27,27 @@ public class TokenVersionServiceImpl implements TokenVersionService {
 
     private final UserRepository userRepository;
     private final AccountUtils accountUtils;
+    private final AuthPrincipalCache authPrincipalCache;
+    private final TokenVersionTable tokenVersionTable;
+    private final JtiRevocationStore jtiRevocationStore;
 
     @Override
     public User incrementTokenVersion(User user) {
         log.info("Incrementing token version for user: {}", user.getUsername());
-        user.incrementTokenVersion();
-        User savedUser = userRepository.save(user);
-        log.info("Token version incremented to {} for user: {}", savedUser.getTokenVersion(), user.getUsername());
-        return savedUser;
+        // The update clears the persistence context, so the passed entity is detached from here on
+        user.setTokenVersion(bumpTokenVersion(user.getUserId()));
+        log.info("Token version incremented to {} for user: {}", user.getTokenVersion(), user.getUsername());
+        return user;
     }
 
     @Override
     public User incrementTokenVersionByUserId(Long userId) {
         log.info("Incrementing token version for user ID: {}", userId);
+        int newVersion = bumpTokenVersion(userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
-        return incrementTokenVersion(user);
+        log.info("Token version incremented to {} for user: {}", newVersion, user.getUsername());
+        return user;
     }
 
     @Override
@@ -53,9 +61,11 @@ public class TokenVersionServiceImpl implements TokenVersionService {
     @Override
     @Transactional(readOnly = true)
     public int getCurrentTokenVersion(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
-        return user.getTokenVersion();
+        int version = tokenVersionTable.current(userId);
+        if (version < 0) {
+            throw new NotFoundException("User not found with ID: " + userId);
+        }
+        return version;
     }
 
     @Override
@@ -103,24 +113,47 @@ public class TokenVersionServiceImpl implements TokenVersionService {
     @Override
     public User resetTokenVersion(Long userId) {
         log.info("Resetting token version for user ID: {}", userId);
+        if (userRepository.resetTokenVersion(userId) == 0) {
+            throw new NotFoundException("User not found with ID: " + userId);
+        }
+        writeThrough(userId, 0);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
-
-        user.setTokenVersion(0);
-        User savedUser = userRepository.save(user);
         log.info("Token version reset to 0 for user: {}", user.getUsername());
-        return savedUser;
+        return user;
+    }
+
+    /**
+     * Increment in a single UPDATE, then write the new version through to this node's
+     * table (after commit) and to the change feed for the other nodes.
+     */
+    private int bumpTokenVersion(Long userId) {
+        if (userRepository.incrementTokenVersion(userId) == 0) {
+            throw new NotFoundException("User not found with ID: " + userId);
+        }
+        // The row stays locked by our UPDATE until commit, so this reads our own increment
+        int newVersion = userRepository.findTokenVersionByUserId(userId)
+                .orElseThrow(() -> new NotFoundException("User not found with ID: " + userId));
+        writeThrough(userId, newVersion);
+        return newVersion;
+    }
+
+    private void writeThrough(Long userId, int tokenVersion) {
+        tokenVersionTable.setAfterCommit(userId, tokenVersion);
+        jtiRevocationStore.publishTokenVersion(userId, tokenVersion);
+        authPrincipalCache.evict(userId);
     }
 
     // Business logic methods for controllers
     @Override
     public ResponseEntity<ResponseObject> incrementCurrentUserTokenVersion() {
         User currentUser = accountUtils.getCurrentUser();
+        int oldTokenVersion = currentUser.getTokenVersion();
         User updatedUser = incrementTokenVersion(currentUser);
 
         Map<String, Object> data = Map.of(
                 "username", updatedUser.getUsername(),
-                "oldTokenVersion", currentUser.getTokenVersion(),
+                "oldTokenVersion", oldTokenVersion,
                 "newTokenVersion", updatedUser.getTokenVersion(),
                 "updatedAt", LocalDateTime.now(),
                 "message", "All existing tokens have been invalidated"
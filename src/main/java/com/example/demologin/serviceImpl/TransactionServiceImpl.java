@@ -1,6 +1,7 @@
 package com.example.demologin.serviceImpl;
 
 import com.example.demologin.dto.request.transaction.TransactionRequest;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.dto.response.PageResponse;
 import com.example.demologin.dto.response.TransactionResponse;
 import com.example.demologin.entity.Subscription;
@@ -11,8 +12,10 @@ import com.example.demologin.repository.SubscriptionRepository;
 import com.example.demologin.repository.TransactionRepository;
 import com.example.demologin.repository.UserRepository;
 import com.example.demologin.service.TransactionService;
+import com.example.demologin.utils.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -99,6 +102,16 @@ public class TransactionServiceImpl implements TransactionService {
         return new PageResponse<>(mapped);
     }
 
+    @Override
+    public KeysetPage<TransactionResponse> getAllPaged(String cursor, int size, boolean withTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = KeysetPage.limit(size);
+        List<Transaction> rows = transactionRepository.findPageAfter(after != null ? after.id() : null,
+                PageRequest.of(0, limit + 1));
+        return KeysetPage.of(rows, limit, t -> PageCursor.of(t.getId()), this::mapToResponse,
+                withTotal ? transactionRepository.count() : null);
+    }
+
     private TransactionResponse mapToResponse(Transaction transaction) {
         return TransactionResponse.builder()
                 .id(transaction.getId())
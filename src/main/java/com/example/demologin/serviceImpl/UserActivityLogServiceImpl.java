@@ -1,6 +1,7 @@
 package com.example.demologin.serviceImpl;
 
 import com.example.demologin.dto.request.userActivityLog.UserActivityLogExportRequest;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.dto.response.UserActivityLogResponse;
 import com.example.demologin.entity.UserActivityLog;
 import com.example.demologin.entity.User;
@@ -10,6 +11,7 @@ import com.example.demologin.mapper.UserActivityLogMapper;
 import com.example.demologin.repository.UserActivityLogRepository;
 import com.example.demologin.service.UserActivityLogService;
 import com.example.demologin.utils.AccountUtils;
+import com.example.demologin.utils.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -20,6 +22,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -61,6 +64,17 @@ public class UserActivityLogServiceImpl implements UserActivityLogService {
         return mappedLogs;
     }
 
+    @Override
+    public KeysetPage<UserActivityLogResponse> getAllActivityLogs(String cursor, int size, boolean withTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = KeysetPage.limit(size);
+        List<UserActivityLog> rows = userActivityLogRepository.findPageAfter(
+                after != null ? after.timeKey() : null, after != null ? after.id() : null,
+                PageRequest.of(0, limit + 1));
+        return KeysetPage.of(rows, limit, log -> PageCursor.of(log.getTimestamp(), log.getId()),
+                userActivityLogMapper::toResponse, withTotal ? userActivityLogRepository.count() : null);
+    }
+
     @Override
     public UserActivityLogResponse getActivityLogById(Long id) {
         UserActivityLog log = userActivityLogRepository.findById(id)
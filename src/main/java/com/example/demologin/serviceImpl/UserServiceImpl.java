@@ -3,6 +3,7 @@ package com.example.demologin.serviceImpl;
 import com.example.demologin.dto.request.user.AdminUpdateUserRequest;
 import com.example.demologin.dto.request.user.CreateUserRequest;
 import com.example.demologin.dto.request.user.UpdateUserRequest;
+import com.example.demologin.dto.response.KeysetPage;
 import com.example.demologin.dto.response.MemberResponse;
 import com.example.demologin.entity.Role;
 import com.example.demologin.entity.User;
@@ -10,7 +11,11 @@ import com.example.demologin.enums.UserStatus;
 import com.example.demologin.repository.RoleRepository;
 import com.example.demologin.repository.UserRepository;
 import com.example.demologin.mapper.UserMapper;
+import com.example.demologin.security.AuthPrincipalCache;
+import com.example.demologin.security.JtiRevocationStore;
+import com.example.demologin.service.TokenVersionService;
 import com.example.demologin.service.UserService;
+import com.example.demologin.utils.PageCursor;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -31,6 +36,9 @@ public class UserServiceImpl implements UserService {
     private final UserMapper userMapper;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthPrincipalCache authPrincipalCache;
+    private final JtiRevocationStore jtiRevocationStore;
+    private final TokenVersionService tokenVersionService;
 
 
     @Override
@@ -40,6 +48,15 @@ public class UserServiceImpl implements UserService {
         return users.map(userMapper::toUserResponse);
     }
 
+    @Override
+    public KeysetPage<MemberResponse> getAllUsers(String cursor, int size, boolean withTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        int limit = KeysetPage.limit(size);
+        List<User> rows = userRepository.findPageAfter(after != null ? after.id() : null, PageRequest.of(0, limit + 1));
+        return KeysetPage.of(rows, limit, u -> PageCursor.of(u.getUserId()), userMapper::toUserResponse,
+                withTotal ? userRepository.count() : null);
+    }
+
     @Override
     public MemberResponse getById(Long id) {
         User u = userRepository.findById(id)
@@ -100,12 +117,20 @@ public class UserServiceImpl implements UserService {
         if (req.getEmail() != null)    u.setEmail(req.getEmail());
         if (req.getGender() != null)   u.setGender(req.getGender());
 
-        if (req.getNewPassword() != null && !req.getNewPassword().isBlank()) {
+        boolean passwordChanged = req.getNewPassword() != null && !req.getNewPassword().isBlank();
+        if (passwordChanged) {
             u.setPassword(passwordEncoder.encode(req.getNewPassword()));
-            u.incrementTokenVersion();
         }
 
-        return userMapper.toUserResponse(userRepository.save(u));
+        User saved = userRepository.save(u);
+        authPrincipalCache.evict(saved.getUserId());
+        jtiRevocationStore.publishPrincipalChange(saved.getUserId());
+        MemberResponse response = userMapper.toUserResponse(saved);
+        if (passwordChanged) {
+            // Atomic bump + write-through; detaches saved, so map the response first
+            tokenVersionService.invalidateAllTokens(saved.getUserId());
+        }
+        return response;
     }
 
     @Override
@@ -130,9 +155,9 @@ public class UserServiceImpl implements UserService {
         if (req.getEmail() != null)    u.setEmail(req.getEmail());
         if (req.getGender() != null)   u.setGender(req.getGender());
 
-        if (req.getNewPassword() != null && !req.getNewPassword().isBlank()) {
+        boolean passwordChanged = req.getNewPassword() != null && !req.getNewPassword().isBlank();
+        if (passwordChanged) {
             u.setPassword(passwordEncoder.encode(req.getNewPassword()));
-            u.incrementTokenVersion();
         }
 
         // --- ADMIN-ONLY FIELDS ---
@@ -151,7 +176,15 @@ public class UserServiceImpl implements UserService {
             u.setRoles(new HashSet<>(found));
         }
 
-        return userMapper.toUserResponse(userRepository.save(u));
+        User saved = userRepository.save(u);
+        authPrincipalCache.evict(saved.getUserId());
+        jtiRevocationStore.publishPrincipalChange(saved.getUserId());
+        MemberResponse response = userMapper.toUserResponse(saved);
+        if (passwordChanged) {
+            // Atomic bump + write-through; detaches saved, so map the response first
+            tokenVersionService.invalidateAllTokens(saved.getUserId());
+        }
+        return response;
     }
 
     @Override
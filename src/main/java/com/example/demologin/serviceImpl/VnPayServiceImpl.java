@@ -7,11 +7,10 @@ import com.example.demologin.enums.TransactionStatus;
 import com.example.demologin.repository.SubscriptionRepository;
 import com.example.demologin.repository.TransactionRepository;
 import com.example.demologin.repository.PlanRepository;
-import com.example.demologin.entity.User;
 import com.example.demologin.service.VnPayService;
+import com.example.demologin.utils.AccountUtils;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Mac;
@@ -30,6 +29,7 @@ public class VnPayServiceImpl implements VnPayService {
     private final SubscriptionRepository subscriptionRepository;
     private final TransactionRepository transactionRepository;
     private final PlanRepository planRepository;
+    private final AccountUtils accountUtils;
 
     @Value("${payment.vnpay.tmn-code}")
     private String vnpTmnCode;
@@ -48,10 +48,11 @@ public class VnPayServiceImpl implements VnPayService {
 
     private static final String VNPAY_SUCCESS_CODE = "00";
 
-    public VnPayServiceImpl(SubscriptionRepository subscriptionRepository, TransactionRepository transactionRepository, PlanRepository planRepository) {
+    public VnPayServiceImpl(SubscriptionRepository subscriptionRepository, TransactionRepository transactionRepository, PlanRepository planRepository, AccountUtils accountUtils) {
         this.subscriptionRepository = subscriptionRepository;
         this.transactionRepository = transactionRepository;
         this.planRepository = planRepository;
+        this.accountUtils = accountUtils;
     }
 
     @Override
@@ -59,8 +60,8 @@ public class VnPayServiceImpl implements VnPayService {
         var plan = planRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Plan not found"));
 
-        // Lấy user đang đăng nhập (principal của bạn là User)
-        var user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        // Lấy user đang đăng nhập
+        var user = accountUtils.getCurrentUser();
 
         // 1) Tạo Subscription PENDING
         var sub = Subscription.builder()
@@ -4,6 +4,7 @@ import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.InvalidPrincipalTypeException;
 import com.example.demologin.exception.exceptions.UserNotAuthenticatedException;
 import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipal;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -19,19 +20,19 @@ public class AccountUtils {
 
     private final UserRepository userRepository;
 
-    public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new UserNotAuthenticatedException("No authenticated user found");
-        }
+    private static final String CURRENT_USER_ATTRIBUTE = AccountUtils.class.getName() + ".currentUser";
 
-        Object principal = authentication.getPrincipal();
+    public User getCurrentUser() {
+        Object principal = getAuthenticatedPrincipal();
 
         if (principal instanceof User user) {
             return user;
         }
 
+        if (principal instanceof AuthPrincipal authPrincipal) {
+            return loadUser(authPrincipal);
+        }
+
         if (principal instanceof String username) {
             return userRepository.findByUsername(username)
                     .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -40,6 +41,71 @@ public class AccountUtils {
         throw new InvalidPrincipalTypeException("Principal is of unsupported type: " + principal.getClass().getName());
     }
 
+    /**
+     * Cheap access to the authenticated snapshot; never touches the database.
+     */
+    public AuthPrincipal getCurrentPrincipal() {
+        Object principal = getAuthenticatedPrincipal();
+
+        if (principal instanceof AuthPrincipal authPrincipal) {
+            return authPrincipal;
+        }
+
+        if (principal instanceof User user) {
+            return AuthPrincipal.from(user);
+        }
+
+        if (principal instanceof String username) {
+            return AuthPrincipal.from(userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username)));
+        }
+
+        throw new InvalidPrincipalTypeException("Principal is of unsupported type: " + principal.getClass().getName());
+    }
+
+    public Long getCurrentUserId() {
+        Object principal = getAuthenticatedPrincipal();
+
+        if (principal instanceof AuthPrincipal authPrincipal) {
+            return authPrincipal.getUserId();
+        }
+
+        if (principal instanceof User user) {
+            return user.getUserId();
+        }
+
+        return getCurrentUser().getUserId();
+    }
+
+    private Object getAuthenticatedPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new UserNotAuthenticatedException("No authenticated user found");
+        }
+
+        return authentication.getPrincipal();
+    }
+
+    // The entity is loaded at most once per request, and only by code that really needs it
+    private User loadUser(AuthPrincipal authPrincipal) {
+        ServletRequestAttributes attrs = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attrs != null) {
+            Object cached = attrs.getRequest().getAttribute(CURRENT_USER_ATTRIBUTE);
+            if (cached instanceof User user) {
+                return user;
+            }
+        }
+
+        User user = userRepository.findById(authPrincipal.getUserId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + authPrincipal.getUserId()));
+
+        if (attrs != null) {
+            attrs.getRequest().setAttribute(CURRENT_USER_ATTRIBUTE, user);
+        }
+        return user;
+    }
+
     public String getCurrentToken() {
         ServletRequestAttributes attrs = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         if (attrs == null) {
@@ -0,0 +1,44 @@
+package com.example.demologin.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chia một mẫu câu hỏi (đã xáo trộn) của một ô ma trận cho các mã đề.
+ * Mã đề đầu cần {@code firstNeed} câu, các mã đề còn lại mỗi mã {@code otherNeed} câu.
+ */
+public final class ExamVariantAllocator {
+
+    private ExamVariantAllocator() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Disjoint slices when the sample is large enough for every variant; otherwise each later
+     * variant takes a rotated window of the sample, so variants overlap but differ.
+     *
+     * @return one id list per variant, or null when a single variant cannot be filled
+     */
+    public static List<List<Long>> allocate(List<Long> sample, int firstNeed, int otherNeed, int variants) {
+        int size = sample.size();
+        if (size < firstNeed || (variants > 1 && size < otherNeed)) {
+            return null;
+        }
+        List<List<Long>> result = new ArrayList<>(variants);
+        result.add(List.copyOf(sample.subList(0, firstNeed)));
+        boolean disjoint = size >= firstNeed + (long) (variants - 1) * otherNeed;
+        for (int v = 1; v < variants; v++) {
+            int start = firstNeed + (v - 1) * otherNeed;
+            if (disjoint) {
+                result.add(List.copyOf(sample.subList(start, start + otherNeed)));
+                continue;
+            }
+            List<Long> window = new ArrayList<>(otherNeed);
+            for (int i = 0; i < otherNeed; i++) {
+                window.add(sample.get((start + i) % size));
+            }
+            result.add(window);
+        }
+        return result;
+    }
+}
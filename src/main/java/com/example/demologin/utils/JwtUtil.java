@@ -4,25 +4,37 @@ import com.example.demologin.entity.RefreshToken;
 import com.example.demologin.entity.User;
 import com.example.demologin.exception.exceptions.TokenValidationException;
 import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.security.JtiRevocationStore;
+import com.example.demologin.security.TokenVersionTable;
+import com.example.demologin.security.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -40,14 +52,65 @@ public class JwtUtil {
     @Value("${jwt.expiration.ms}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
     private final RefreshTokenRepository refreshTokenRepository;
-    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final JtiRevocationStore jtiRevocationStore;
+    private final TokenVersionTable tokenVersionTable;
+
+    // Built once: the key and the parser are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Verified claims memo keyed by SHA-256 of the token; entries die at the token's exp
+    private Cache<TokenDigest, Claims> claimsMemo;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        claimsMemo = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<TokenDigest, Claims>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return 0L;
+                        }
+                        long remainingMs = expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     /**
      * Get signing key for JWT
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     /**
@@ -253,15 +316,67 @@ public class JwtUtil {
      * Extract all claims from JWT token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        TokenDigest digest = TokenDigest.of(token);
+        Claims claims = claimsMemo.getIfPresent(digest);
+        if (claims != null) {
+            return claims;
+        }
+        // Parse failures (expired, bad signature, malformed) are thrown and never memoized
+        claims = jwtParser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            claimsMemo.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * SHA-256 of a token, so the memo neither keeps bearer tokens in heap nor trusts a weak hash.
+     */
+    private record TokenDigest(long h0, long h1, long h2, long h3) {
+        static TokenDigest of(String token) {
+            MessageDigest md = SHA_256.get();
+            ByteBuffer hash = ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        }
     }
 
-    public void revokeToken(String jti, Date expiryDate) {
-        revokedTokens.put(jti, expiryDate.getTime());
+    /**
+     * Verify signature and expiry once and capture the claims needed for the rest of the request
+     */
+    public VerifiedToken verify(String token) {
+        return VerifiedToken.from(token, extractAllClaims(token));
+    }
+
+    /**
+     * Revoke every access token carrying this JTI, on all nodes
+     */
+    public void revokeToken(String jti) {
+        jtiRevocationStore.revoke(jti);
+    }
+
+    /**
+     * Same checks as {@link #validateTokenWithJtiCheck(String, User)} against already verified
+     * claims and a cached principal, without parsing the token again.
+     */
+    public boolean validateTokenWithJtiCheck(VerifiedToken verifiedToken, AuthPrincipal principal) {
+        String userIdFromToken = verifiedToken.getSubject();
+        Integer tokenVersion = verifiedToken.getTokenVersion();
+        String jti = verifiedToken.getJti();
+
+        if (jti == null || jti.isBlank()) {
+            log.warn("Token missing JTI for userId: {}", userIdFromToken);
+            return false;
+        }
+
+        if (!jtiRevocationStore.isActive(jti)) {
+            log.warn("Token JTI {} is revoked or unknown for userId: {}", jti, userIdFromToken);
+            return false;
+        }
+
+        return userIdFromToken.equals(String.valueOf(principal.getUserId()))
+                && tokenVersion != null
+                && tokenVersionTable.isCurrent(principal.getUserId(), tokenVersion)
+                && verifiedToken.getExpiresAtMillis() > System.currentTimeMillis();
     }
 
     public boolean validateTokenWithJtiCheck(String token, User user) {
@@ -277,10 +392,9 @@ public class JwtUtil {
                 return false;
             }
 
-            // Check JTI có tồn tại trong DB không
-            boolean jtiExists = refreshTokenRepository.existsByJti(jti);
-            if (!jtiExists) {
-                log.warn("Token JTI {} not found in DB for userId: {}", jti, userIdFromToken);
+            // Check JTI còn hiệu lực (in-memory, đồng bộ giữa các node)
+            if (!jtiRevocationStore.isActive(jti)) {
+                log.warn("Token JTI {} is revoked or unknown for userId: {}", jti, userIdFromToken);
                 return false;
             }
 
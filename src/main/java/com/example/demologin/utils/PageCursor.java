@@ -0,0 +1,65 @@
+package com.example.demologin.utils;
+
+import com.example.demologin.exception.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token of a keyset (seek) listing: the sort key and id of the last row returned.
+ * The next page starts strictly after that row, so deep pages cost the same as the first one.
+ * <p>
+ * The token is opaque to clients (base64url of {@code id} or {@code id:key}). A null key is used
+ * by listings sorted on the id alone, and by listings whose sort column is nullable once they
+ * have moved past the non-null keys.
+ */
+public record PageCursor(String key, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static PageCursor of(LocalDateTime key, long id) {
+        return new PageCursor(key == null ? null : key.toString(), id);
+    }
+
+    public static PageCursor of(long id) {
+        return new PageCursor(null, id);
+    }
+
+    /**
+     * @return null for a blank token (first page)
+     * @throws BadRequestException when the token was not produced by {@link #encode()}
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(DECODER.decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return separator < 0
+                    ? new PageCursor(null, Long.parseLong(raw))
+                    : new PageCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = key == null ? Long.toString(id) : id + ":" + key;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime timeKey() {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException ex) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demologin.utils;
+
+/**
+ * Số lượng phương án / phương án đúng theo từng loại câu hỏi.
+ * Dùng chung cho tạo/sửa câu hỏi và import hàng loạt.
+ */
+public final class QuestionOptionRules {
+
+    private QuestionOptionRules() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * @throws IllegalArgumentException if the options do not fit the question type
+     */
+    public static void validate(String typeCode, int optionCount, long correctCount) {
+        if (typeCode == null) return;
+
+        switch (typeCode) {
+            case "MCQ_SINGLE" -> {
+                if (correctCount != 1)
+                    throw new IllegalArgumentException("MCQ_SINGLE requires exactly 1 correct option.");
+                if (optionCount < 2)
+                    throw new IllegalArgumentException("MCQ_SINGLE should have at least 2 options.");
+            }
+            case "MCQ_MULTI" -> {
+                if (correctCount < 1)
+                    throw new IllegalArgumentException("MCQ_MULTI requires at least 1 correct option.");
+                if (optionCount < 2)
+                    throw new IllegalArgumentException("MCQ_MULTI should have at least 2 options.");
+            }
+            case "TRUE_FALSE" -> {
+                if (optionCount != 2)
+                    throw new IllegalArgumentException("TRUE_FALSE requires exactly 2 options (True/False).");
+                if (correctCount != 1)
+                    throw new IllegalArgumentException("TRUE_FALSE requires exactly 1 correct option.");
+            }
+            default -> { /* ignore others */ }
+        }
+    }
+}
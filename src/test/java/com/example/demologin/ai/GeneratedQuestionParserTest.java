@@ -0,0 +1,94 @@
+package com.example.demologin.ai;
+
+import com.example.demologin.dto.request.question.QuestionCreateRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneratedQuestionParserTest {
+
+    @Test
+    void parsesNumberedQuestionsAndMarksCorrectOptions() {
+        String text = """
+                Dưới đây là các câu hỏi:
+
+                1. Đạo hàm của x^2 là gì? (type: MCQ_SINGLE, difficulty: EASY)
+                A. x
+                B. 2x (đúng)
+                C. x^2
+                D. 2
+
+                **Câu 2:** Giá trị của sin(0)?
+                A) 1
+                B) 0 (Đúng)
+                """;
+
+        GeneratedQuestionParser.Result result = GeneratedQuestionParser.parse(text, "MCQ_SINGLE", 7L, 3L);
+
+        assertEquals(2, result.questions().size());
+        assertTrue(result.rejected().isEmpty());
+        QuestionCreateRequest first = result.questions().get(0);
+        assertEquals("Đạo hàm của x^2 là gì?", first.getQuestionText());
+        assertEquals("MCQ_SINGLE", first.getType());
+        assertEquals(7L, first.getLessonId());
+        assertEquals(3L, first.getLevelId());
+        assertEquals(4, first.getOptions().size());
+        assertEquals("2x", first.getOptions().get(1).getOptionText());
+        assertTrue(first.getOptions().get(1).getIsCorrect());
+        assertFalse(first.getOptions().get(0).getIsCorrect());
+        assertEquals("Giá trị của sin(0)?", result.questions().get(1).getQuestionText());
+        assertTrue(result.questions().get(1).getOptions().get(1).getIsCorrect());
+    }
+
+    @Test
+    void keepsMultiLineStemsAndRejectsQuestionsBreakingTheTypeRules() {
+        String text = """
+                1. Cho hàm số y = x + 1.
+                Hỏi đồ thị đi qua điểm nào?
+                A. (0; 1) (đúng)
+                B. (1; 0) (đúng)
+                2. Câu không có phương án
+                """;
+
+        GeneratedQuestionParser.Result result = GeneratedQuestionParser.parse(text, "MCQ_SINGLE", 1L, null);
+
+        assertTrue(result.questions().isEmpty());
+        assertEquals(2, result.rejected().size());
+        assertTrue(result.rejected().get(0).startsWith("Question 1: MCQ_SINGLE requires exactly 1 correct option"));
+
+        GeneratedQuestionParser.Result multi = GeneratedQuestionParser.parse(text, "MCQ_MULTI", 1L, null);
+        assertEquals("Cho hàm số y = x + 1.\nHỏi đồ thị đi qua điểm nào?", multi.questions().get(0).getQuestionText());
+        assertEquals("(0; 1)", multi.questions().get(0).getOptions().get(0).getOptionText());
+    }
+
+    @Test
+    void emptyTextHasNoQuestions() {
+        GeneratedQuestionParser.Result result = GeneratedQuestionParser.parse("  ", "MCQ_SINGLE", 1L, null);
+
+        assertTrue(result.questions().isEmpty());
+        assertTrue(result.rejected().isEmpty());
+    }
+
+    @Test
+    void emitsEachQuestionAsSoonAsTheNextOneStarts() {
+        List<QuestionCreateRequest> emitted = new ArrayList<>();
+        GeneratedQuestionParser parser = new GeneratedQuestionParser("MCQ_SINGLE", 7L, null, emitted::add, reason -> { });
+
+        parser.feed("1. Đạo hàm của x^2? (type: MCQ_SINGLE, difficulty: EASY)\nA. x\nB. 2");
+        parser.feed("x (đúng)\n");
+        assertTrue(emitted.isEmpty());
+
+        parser.feed("2. Giá trị sin(0)?\nA. 0 (đúng)\nB. 1");
+        assertEquals(1, emitted.size());
+        assertEquals("2x", emitted.get(0).getOptions().get(1).getOptionText());
+
+        parser.close();
+        assertEquals(2, emitted.size());
+        assertEquals("1", emitted.get(1).getOptions().get(1).getOptionText());
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demologin.ai;
+
+import com.example.demologin.controller.QuestionController;
+import com.example.demologin.dto.request.ai.QuestionGenerate;
+import com.example.demologin.dto.response.QuestionGenerationJobResponse;
+import com.example.demologin.enums.GenerationJobStatus;
+import com.example.demologin.exception.exceptions.BusinessException;
+import com.example.demologin.exception.exceptions.NotFoundException;
+import com.example.demologin.repository.LevelRepository;
+import com.example.demologin.service.QuestionImportService;
+import com.example.demologin.service.QuestionService;
+import com.example.demologin.serviceImpl.QuestionGenerationServiceImpl;
+import com.example.demologin.utils.AccountUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class QuestionGenerationServiceImplTest {
+
+    private final StubGeminiConfig gemini = new StubGeminiConfig();
+    private final AccountUtils accountUtils = mock(AccountUtils.class);
+    private final QuestionGenerator generator = new QuestionGenerator(gemini, mock(LevelRepository.class), 1,
+            Duration.ofSeconds(5), 3, Duration.ofMillis(1), Duration.ofMillis(5), 100, Duration.ofMinutes(5));
+
+    private static QuestionGenerate request(String type) {
+        return QuestionGenerate.builder().questionText("Hàm số").type(type).lessonId(4L).quantity(1).build();
+    }
+
+    private static QuestionGenerationJobResponse await(QuestionGenerationServiceImpl service, String jobId)
+            throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            QuestionGenerationJobResponse job = service.getJob(jobId);
+            if (job.getFinishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job did not finish: " + jobId);
+    }
+
+    @Test
+    void jobReturnsParsedDraftsAfterRetrying() throws Exception {
+        when(accountUtils.getCurrentUserId()).thenReturn(10L);
+        gemini.thenFail(503).thenAnswer("1. 1 + 1 = ?\nA. 1\nB. 2 (đúng)\nC. 3");
+        QuestionGenerationServiceImpl service = new QuestionGenerationServiceImpl(generator, accountUtils, 1, 4, Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        QuestionGenerationJobResponse submitted = service.submit(request(" mcq_single "));
+        QuestionGenerationJobResponse done = await(service, submitted.getJobId());
+
+        assertEquals(GenerationJobStatus.COMPLETED, done.getStatus());
+        assertEquals(2, done.getAttempts());
+        assertEquals(1, done.getQuestions().size());
+        assertEquals("MCQ_SINGLE", done.getQuestions().get(0).getType());
+        assertEquals(4L, done.getQuestions().get(0).getLessonId());
+        assertTrue(done.getQuestions().get(0).getOptions().get(1).getIsCorrect());
+    }
+
+    @Test
+    void failedCallsEndTheJobWithAMessage() throws Exception {
+        when(accountUtils.getCurrentUserId()).thenReturn(10L);
+        gemini.thenFail(503).thenFail(503).thenFail(503);
+        QuestionGenerationServiceImpl service = new QuestionGenerationServiceImpl(generator, accountUtils, 1, 4, Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        QuestionGenerationJobResponse done = await(service, service.submit(request("MCQ_SINGLE")).getJobId());
+
+        assertEquals(GenerationJobStatus.FAILED, done.getStatus());
+        assertEquals(QuestionGenerator.OVERLOADED, done.getMessage());
+    }
+
+    @Test
+    void jobsAreOnlyVisibleToTheirOwner() throws Exception {
+        when(accountUtils.getCurrentUserId()).thenReturn(10L);
+        QuestionGenerationServiceImpl service = new QuestionGenerationServiceImpl(generator, accountUtils, 1, 4, Duration.ofMinutes(5), Duration.ofMinutes(1));
+        String jobId = service.submit(request("MCQ_SINGLE")).getJobId();
+        await(service, jobId);
+
+        when(accountUtils.getCurrentUserId()).thenReturn(11L);
+        assertThrows(NotFoundException.class, () -> service.getJob(jobId));
+    }
+
+    @Test
+    void rejectsSubmissionsWhenTheQueueIsFull() {
+        when(accountUtils.getCurrentUserId()).thenReturn(10L);
+        gemini.withLatency(300);
+        QuestionGenerationServiceImpl service = new QuestionGenerationServiceImpl(generator, accountUtils, 1, 1, Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        service.submit(request("MCQ_SINGLE"));
+        service.submit(request("MCQ_SINGLE"));
+
+        assertThrows(BusinessException.class, () -> service.submit(request("MCQ_SINGLE")));
+    }
+
+    @Test
+    void streamSendsQuestionsThenTotals() throws Exception {
+        gemini.thenAnswer("1. 1 + 1 = ?\nA. 1\nB. 2 (đúng)\n2. Câu sai\nA. 1\n3. 2 + 2 = ?\nA. 4 (đúng)\nB. 5");
+        QuestionGenerationServiceImpl service = new QuestionGenerationServiceImpl(generator, accountUtils, 1, 4, Duration.ofMinutes(5), Duration.ofMinutes(1));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new QuestionController(
+                mock(QuestionService.class), mock(QuestionImportService.class), service)).build();
+
+        MvcResult started = mockMvc.perform(post("/api/questions/generate/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"questionText\":\"Phép cộng\",\"type\":\"mcq_single\",\"lessonId\":4,\"quantity\":3}"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(5000);
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(2, body.split("event:question", -1).length - 1, body);
+        assertTrue(body.contains("event:rejected\ndata:Question 2:"), body);
+        assertTrue(body.contains("\"type\":\"MCQ_SINGLE\""), body);
+        assertTrue(body.contains("event:done\ndata:{\"questions\":2,\"rejected\":1,\"cached\":false,\"attempts\":1}"), body);
+    }
+
+    @Test
+    void streamReportsFailuresAsAnErrorEvent() throws Exception {
+        gemini.thenFail(400);
+        QuestionGenerationServiceImpl service = new QuestionGenerationServiceImpl(generator, accountUtils, 1, 4, Duration.ofMinutes(5), Duration.ofMinutes(1));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new QuestionController(
+                mock(QuestionService.class), mock(QuestionImportService.class), service)).build();
+
+        MvcResult started = mockMvc.perform(post("/api/questions/generate/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"questionText\":\"x\",\"type\":\"MCQ_SINGLE\",\"lessonId\":4,\"quantity\":1}"))
+                .andReturn();
+        started.getAsyncResult(5000);
+        String body = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.startsWith("event:error\ndata:AI request failed"), body);
+        assertFalse(body.contains("event:done"), body);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.demologin.ai;
+
+import com.example.demologin.dto.request.ai.QuestionGenerate;
+import com.example.demologin.entity.Level;
+import com.example.demologin.exception.exceptions.BusinessException;
+import com.example.demologin.exception.exceptions.InternalServerErrorException;
+import com.example.demologin.repository.LevelRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuestionGeneratorTest {
+
+    private final StubGeminiConfig gemini = new StubGeminiConfig();
+    private final LevelRepository levelRepository = mock(LevelRepository.class);
+
+    private QuestionGenerator generator(int maxConcurrent, int maxAttempts) {
+        return new QuestionGenerator(gemini, levelRepository, maxConcurrent, Duration.ofSeconds(5), maxAttempts,
+                Duration.ofMillis(1), Duration.ofMillis(5), 100, Duration.ofMinutes(5));
+    }
+
+    private static QuestionGenerate request(int quantity) {
+        return QuestionGenerate.builder()
+                .questionText("Hàm số").type("MCQ_SINGLE").lessonId(1L).levelId(2L).quantity(quantity)
+                .build();
+    }
+
+    @Test
+    void promptLooksUpTheLevelOnce() {
+        Level level = new Level();
+        level.setDifficulty("HARD");
+        when(levelRepository.findById(2L)).thenReturn(Optional.of(level));
+
+        GenerationPrompt prompt = generator(1, 1).prompt(request(3));
+
+        verify(levelRepository, times(1)).findById(2L);
+        assertTrue(prompt.systemInstruction().contains("difficulty: HARD"));
+        assertTrue(prompt.userPrompt().contains("Mức độ: HARD."));
+        assertTrue(prompt.userPrompt().startsWith("Sinh 3 câu hỏi theo loại MCQ_SINGLE."));
+    }
+
+    @Test
+    void retriesOverloadedAnswersThenSucceeds() {
+        gemini.thenFail(503).thenFail(429).thenAnswer("ok");
+
+        QuestionGenerator.Generation generation = generator(1, 4).generate(new GenerationPrompt("m", 0.2f, "s", "u"));
+
+        assertEquals("ok", generation.text());
+        assertEquals(3, generation.attempts());
+        assertFalse(generation.cached());
+        assertEquals(3, gemini.calls());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        gemini.thenFail(503).thenFail(503).thenFail(503);
+
+        assertThrows(BusinessException.class,
+                () -> generator(1, 3).generate(new GenerationPrompt("m", 0.2f, "s", "u")));
+        assertEquals(3, gemini.calls());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        gemini.thenFail(400).thenAnswer("never");
+
+        assertThrows(InternalServerErrorException.class,
+                () -> generator(1, 4).generate(new GenerationPrompt("m", 0.2f, "s", "u")));
+        assertEquals(1, gemini.calls());
+    }
+
+    @Test
+    void cachesByNormalizedPrompt() {
+        gemini.thenAnswer("first").thenAnswer("second");
+        QuestionGenerator generator = generator(1, 1);
+
+        generator.generate(new GenerationPrompt("m", 0.2f, "System  line", "User\n prompt"));
+        QuestionGenerator.Generation again = generator.generate(new GenerationPrompt("m", 0.2f, " system line ", "user prompt"));
+
+        assertEquals("first", again.text());
+        assertTrue(again.cached());
+        assertEquals(0, again.attempts());
+        assertEquals(1, gemini.calls());
+        assertNotEquals(new GenerationPrompt("m", 0.2f, "s", "u").cacheKey(),
+                new GenerationPrompt("m", 0.2f, "s", "u2").cacheKey());
+    }
+
+    @Test
+    void capsConcurrentModelCalls() throws Exception {
+        gemini.withLatency(30);
+        QuestionGenerator generator = generator(2, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<QuestionGenerator.Generation>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                GenerationPrompt prompt = new GenerationPrompt("m", 0.2f, "s", "u" + i);
+                futures.add(pool.submit(() -> generator.generate(prompt)));
+            }
+            for (Future<QuestionGenerator.Generation> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(6, gemini.calls());
+        assertTrue(gemini.maxConcurrentCalls() <= 2, "ran " + gemini.maxConcurrentCalls() + " at once");
+    }
+
+    @Test
+    void backoffStaysUnderTheCap() {
+        QuestionGenerator generator = generator(1, 4);
+        for (int attempt = 1; attempt < 40; attempt++) {
+            long delay = generator.backoff(attempt);
+            assertTrue(delay >= 0 && delay <= 5, "attempt " + attempt + " waited " + delay);
+        }
+    }
+
+    @Test
+    void streamPassesChunksOnAndRetriesBeforeTheFirstOne() {
+        gemini.thenFail(503).thenAnswer("1. Câu hỏi\nA. 1\nB. 2 (đúng)");
+        QuestionGenerator generator = generator(1, 3);
+        GenerationPrompt prompt = new GenerationPrompt("m", 0.2f, "s", "u");
+        StringBuilder received = new StringBuilder();
+        List<String> chunks = new ArrayList<>();
+
+        QuestionGenerator.Generation generation = generator.stream(prompt, chunk -> {
+            chunks.add(chunk);
+            received.append(chunk);
+        });
+
+        assertEquals(2, generation.attempts());
+        assertFalse(generation.cached());
+        assertTrue(chunks.size() > 1);
+        assertEquals("1. Câu hỏi\nA. 1\nB. 2 (đúng)", received.toString());
+
+        List<String> replay = new ArrayList<>();
+        QuestionGenerator.Generation again = generator.stream(prompt, replay::add);
+        assertTrue(again.cached());
+        assertEquals(List.of(received.toString()), replay);
+        assertEquals(2, gemini.calls());
+    }
+
+    @Test
+    void streamDoesNotRetryOnceTextWasSent() {
+        gemini.thenCutOff("1. Câu hỏi\nA.", 503).thenAnswer("never");
+        QuestionGenerator generator = generator(1, 3);
+
+        assertThrows(BusinessException.class,
+                () -> generator.stream(new GenerationPrompt("m", 0.2f, "s", "u"), chunk -> { }));
+        assertEquals(1, gemini.calls());
+    }
+}
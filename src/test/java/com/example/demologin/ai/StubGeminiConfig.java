@@ -0,0 +1,129 @@
+package com.example.demologin.ai;
+
+import com.example.demologin.config.GeminiConfig;
+import com.google.genai.errors.ApiException;
+import com.google.genai.types.Content;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.GenerateContentResponse;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Local stand-in for Gemini: answers from a script of texts and HTTP error codes, and records how
+ * many calls were made and how many overlapped. The streaming call hands texts out in small chunks;
+ * a scripted error code fails it before the first chunk, {@link #thenCutOff} after some text.
+ */
+class StubGeminiConfig extends GeminiConfig {
+
+    private static final int CHUNK = 7;
+
+    private final Deque<Object> script = new ArrayDeque<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private volatile String fallback = "1. Câu hỏi (type: MCQ_SINGLE, difficulty: EASY)\nA. 1\nB. 2 (đúng)";
+    private volatile long latencyMillis;
+
+    StubGeminiConfig() {
+        super("test-key");
+    }
+
+    synchronized StubGeminiConfig thenAnswer(String text) {
+        script.add(text);
+        return this;
+    }
+
+    synchronized StubGeminiConfig thenFail(int status) {
+        script.add(status);
+        return this;
+    }
+
+    synchronized StubGeminiConfig thenCutOff(String partial, int status) {
+        script.add(new CutOff(partial, status));
+        return this;
+    }
+
+    StubGeminiConfig withLatency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    int maxConcurrentCalls() {
+        return maxRunning.get();
+    }
+
+    @Override
+    public GenerateContentResponse generate(String modelName, Content content, GenerateContentConfig config) {
+        calls.incrementAndGet();
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Object next = next();
+            if (next instanceof Integer status) {
+                throw failure(status);
+            }
+            return response((String) next);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void generateStream(String modelName, Content content, GenerateContentConfig config,
+                               Consumer<String> onChunk) {
+        calls.incrementAndGet();
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Object next = next();
+            if (next instanceof Integer status) {
+                throw failure(status);
+            }
+            if (next instanceof CutOff cutOff) {
+                chunks(cutOff.partial(), onChunk);
+                throw failure(cutOff.status());
+            }
+            chunks((String) next, onChunk);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private Object next() {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+        synchronized (this) {
+            return script.isEmpty() ? fallback : script.poll();
+        }
+    }
+
+    private static void chunks(String text, Consumer<String> onChunk) {
+        for (int i = 0; i < text.length(); i += CHUNK) {
+            onChunk.accept(text.substring(i, Math.min(text.length(), i + CHUNK)));
+        }
+    }
+
+    private static ApiException failure(int status) {
+        return new ApiException(status, "UNAVAILABLE", "stubbed " + status);
+    }
+
+    private static GenerateContentResponse response(String text) {
+        String escaped = text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return GenerateContentResponse.fromJson(
+                "{\"candidates\":[{\"content\":{\"role\":\"model\",\"parts\":[{\"text\":\"" + escaped + "\"}]}}]}");
+    }
+
+    private record CutOff(String partial, int status) {
+    }
+}
@@ -64,4 +64,29 @@ class PageResponseAspectTest {
     Object result = aspect.beforeBodyWrite(body, methodParameter, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class, request, response);
     assertEquals(body, result);
     }
+
+    @Test
+    void testBeforeBodyWrite_withKeysetPageInsideResponseObject() {
+        com.example.demologin.dto.response.KeysetPage<String> page =
+                new com.example.demologin.dto.response.KeysetPage<>(java.util.List.of("a", "b"), 2, "next", null);
+        com.example.demologin.dto.response.ResponseObject body =
+                new com.example.demologin.dto.response.ResponseObject(200, "ok", page);
+        Object result = aspect.beforeBodyWrite(body, methodParameter, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class, request, response);
+        assertSame(body, result);
+        com.example.demologin.dto.response.PageResponse<?> data =
+                (com.example.demologin.dto.response.PageResponse<?>) body.getData();
+        assertEquals(java.util.List.of("a", "b"), data.getContent());
+        assertEquals("next", data.getNextCursor());
+        assertEquals(-1, data.getTotalElements());
+        assertFalse(data.isLast());
+    }
+
+    @Test
+    void testBeforeBodyWrite_keepsPageInsideResponseObject() {
+        Page<String> page = new org.springframework.data.domain.PageImpl<>(java.util.List.of("a"));
+        com.example.demologin.dto.response.ResponseObject body =
+                new com.example.demologin.dto.response.ResponseObject(200, "ok", page);
+        aspect.beforeBodyWrite(body, methodParameter, MediaType.APPLICATION_JSON, MappingJackson2HttpMessageConverter.class, request, response);
+        assertSame(page, body.getData());
+    }
 }
@@ -242,7 +242,7 @@ class SecuredEndpointAspectTest {
 	@org.mockito.Mock
 	private com.example.demologin.utils.JwtUtil jwtUtil;
 	@org.mockito.Mock
-	private com.example.demologin.service.RolePermissionService rolePermissionService;
+	private com.example.demologin.security.PermissionMatrix permissionMatrix;
 
 	@Test
 	void testAspectNotNull() {
@@ -306,7 +306,8 @@ class SecuredEndpointAspectTest {
 		when(request.getHeader("Authorization")).thenReturn("Bearer token");
 		when(jwtUtil.extractRoles(anyString())).thenReturn(java.util.Set.of("ROLE_USER"));
 		when(jwtUtil.extractUsernameWithValidation(anyString())).thenReturn("user");
-		when(rolePermissionService.getPermissionsForRoles(anySet())).thenReturn(java.util.Set.of("OTHER"));
+		when(permissionMatrix.bitOf("PERM")).thenReturn(3);
+		when(permissionMatrix.hasPermission(java.util.Set.of("ROLE_USER"), 3)).thenReturn(false);
 		assertThrows(com.example.demologin.exception.exceptions.AccessDenyException.class,
 			() -> aspect.checkSecuredEndpoint(joinPoint, annotation));
 	}
@@ -327,9 +328,61 @@ class SecuredEndpointAspectTest {
 		when(request.getHeader("Authorization")).thenReturn("Bearer token");
 		when(jwtUtil.extractRoles(anyString())).thenReturn(java.util.Set.of("ROLE_USER"));
 		when(jwtUtil.extractUsernameWithValidation(anyString())).thenReturn("user");
-		when(rolePermissionService.getPermissionsForRoles(anySet())).thenReturn(java.util.Set.of("PERM"));
+		when(permissionMatrix.bitOf("PERM")).thenReturn(3);
+		when(permissionMatrix.hasPermission(java.util.Set.of("ROLE_USER"), 3)).thenReturn(true);
 		when(joinPoint.proceed()).thenReturn("ok");
 		Object result = aspect.checkSecuredEndpoint(joinPoint, annotation);
 		assertEquals("ok", result);
 	}
+	@Test
+	void testCheckSecuredEndpoint_reusesVerifiedTokenFromFilter() throws Throwable {
+		var joinPoint = mock(org.aspectj.lang.ProceedingJoinPoint.class);
+		var annotation = mock(com.example.demologin.annotation.SecuredEndpoint.class);
+		var methodSignature = mock(org.aspectj.lang.reflect.MethodSignature.class);
+	lenient().when(joinPoint.getSignature()).thenReturn(methodSignature);
+	lenient().when(methodSignature.getMethod()).thenReturn(Object.class.getMethod("toString"));
+	lenient().when(annotation.value()).thenReturn("PERM");
+		org.springframework.security.core.Authentication auth = mock(org.springframework.security.core.Authentication.class);
+		when(auth.isAuthenticated()).thenReturn(true);
+		org.springframework.security.core.context.SecurityContext context = mock(org.springframework.security.core.context.SecurityContext.class);
+		when(context.getAuthentication()).thenReturn(auth);
+		org.springframework.security.core.context.SecurityContextHolder.setContext(context);
+		io.jsonwebtoken.Claims claims = io.jsonwebtoken.Jwts.claims()
+				.subject("1")
+				.add("roles", java.util.List.of("ROLE_USER"))
+				.build();
+		var verified = com.example.demologin.security.VerifiedToken.from("token", claims);
+		when(request.getAttribute(com.example.demologin.security.VerifiedToken.REQUEST_ATTRIBUTE)).thenReturn(verified);
+		when(permissionMatrix.bitOf("PERM")).thenReturn(3);
+		when(permissionMatrix.hasPermission(java.util.Set.of("ROLE_USER"), 3)).thenReturn(true);
+		when(joinPoint.proceed()).thenReturn("ok");
+		assertEquals("ok", aspect.checkSecuredEndpoint(joinPoint, annotation));
+		verifyNoInteractions(jwtUtil);
+		verify(request, never()).getHeader("Authorization");
+	}
+
+	@Test
+	void testCheckSecuredEndpoint_resolvesPermissionBitOncePerMethod() throws Throwable {
+		var joinPoint = mock(org.aspectj.lang.ProceedingJoinPoint.class);
+		var annotation = mock(com.example.demologin.annotation.SecuredEndpoint.class);
+		var methodSignature = mock(org.aspectj.lang.reflect.MethodSignature.class);
+	lenient().when(joinPoint.getSignature()).thenReturn(methodSignature);
+	lenient().when(methodSignature.getMethod()).thenReturn(Object.class.getMethod("toString"));
+	lenient().when(annotation.value()).thenReturn("PERM");
+		org.springframework.security.core.Authentication auth = mock(org.springframework.security.core.Authentication.class);
+		when(auth.isAuthenticated()).thenReturn(true);
+		org.springframework.security.core.context.SecurityContext context = mock(org.springframework.security.core.context.SecurityContext.class);
+		when(context.getAuthentication()).thenReturn(auth);
+		org.springframework.security.core.context.SecurityContextHolder.setContext(context);
+		when(request.getHeader("Authorization")).thenReturn("Bearer token");
+		when(jwtUtil.extractRoles(anyString())).thenReturn(java.util.Set.of("ROLE_USER"));
+		when(jwtUtil.extractUsernameWithValidation(anyString())).thenReturn("user");
+		when(permissionMatrix.bitOf("PERM")).thenReturn(3);
+		when(permissionMatrix.hasPermission(java.util.Set.of("ROLE_USER"), 3)).thenReturn(true);
+		when(joinPoint.proceed()).thenReturn("ok");
+		aspect.checkSecuredEndpoint(joinPoint, annotation);
+		aspect.checkSecuredEndpoint(joinPoint, annotation);
+		verify(permissionMatrix, times(1)).bitOf("PERM");
+		verify(permissionMatrix, times(2)).hasPermission(java.util.Set.of("ROLE_USER"), 3);
+	}
 }
@@ -1,14 +1,33 @@
 package com.example.demologin.aspect;
 
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.cache.CacheDependencyIndex;
 import com.example.demologin.cache.CacheDetector;
-import com.example.demologin.utils.JwtUtil;
+import com.example.demologin.cache.CacheInvalidationBus;
+import com.example.demologin.cache.CacheInvalidationTransport;
+import com.example.demologin.cache.CaffeineSmartCacheStore;
+import com.example.demologin.cache.SmartCacheRefresher;
+import com.example.demologin.entity.Exam;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -17,22 +36,31 @@ class SmartCacheAspectTest {
     // Dummy public method for methodSignature.getMethod() mock
     public void dummyMethod() {}
 
+    @SmartCache(key = "#page", entities = Exam.class)
+    public void pagedExams(int page, int size) {}
+
+    @SmartCache(ttlSeconds = 60, softTtlSeconds = 1, entities = Exam.class)
+    public void catalog() {}
+
     @Mock
     CacheDetector detector;
     @Mock
-    JwtUtil jwtUtil;
-    @Mock
     ProceedingJoinPoint joinPoint;
     @Mock
     MethodSignature methodSignature;
 
-    @InjectMocks
     SmartCacheAspect aspect;
+    CacheDependencyIndex dependencyIndex;
+    SmartCacheRefresher refresher;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        aspect = new SmartCacheAspect(detector, jwtUtil);
+        dependencyIndex = new CacheDependencyIndex();
+        refresher = new SmartCacheRefresher(mock(PlatformTransactionManager.class), 1, 4);
+        aspect = new SmartCacheAspect(detector,
+                new CaffeineSmartCacheStore(new SimpleMeterRegistry(), 1_000_000), dependencyIndex,
+                new CacheInvalidationBus(dependencyIndex, mock(CacheInvalidationTransport.class)), refresher);
     }
 
     @Test
@@ -61,4 +89,211 @@ class SmartCacheAspectTest {
         assertEquals("writeResult", result);
     }
 
+    @Test
+    void testHandleCache_keyExpressionSelectsKeyParts() throws Throwable {
+        stubPagedExams(new Object[]{0, 10});
+        when(joinPoint.proceed()).thenReturn("page-0", "page-0-again", "page-1");
+
+        assertEquals("page-0", aspect.handleCache(joinPoint));
+        // Same page with another size: same key, because the key is only #page
+        when(joinPoint.getArgs()).thenReturn(new Object[]{0, 20});
+        assertEquals("page-0", aspect.handleCache(joinPoint));
+        when(joinPoint.getArgs()).thenReturn(new Object[]{1, 10});
+        assertEquals("page-0-again", aspect.handleCache(joinPoint));
+        verify(joinPoint, times(2)).proceed();
+    }
+
+    @Test
+    void testHandleCache_entityChangeEvictsDependentEntries() throws Throwable {
+        stubPagedExams(new Object[]{0, 10});
+        when(joinPoint.proceed()).thenReturn("before", "after");
+
+        assertEquals("before", aspect.handleCache(joinPoint));
+        assertEquals("before", aspect.handleCache(joinPoint));
+
+        dependencyIndex.invalidateEntity(Exam.class);
+
+        assertEquals("after", aspect.handleCache(joinPoint));
+        verify(joinPoint, times(2)).proceed();
+    }
+
+    @Test
+    void testHandleCache_concurrentMissesInvokeOnce() throws Throwable {
+        int callers = 16;
+        stubPagedExams(new Object[]{0, 10});
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            invocations.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return "exams";
+        });
+
+        List<Future<Object>> results = runConcurrently(callers, release);
+
+        for (Future<Object> result : results) {
+            assertEquals("exams", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void testHandleCache_waitersReceiveLeaderException() throws Throwable {
+        int callers = 8;
+        stubPagedExams(new Object[]{0, 10});
+        CountDownLatch release = new CountDownLatch(1);
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("database down");
+        });
+
+        List<Future<Object>> results = runConcurrently(callers, release);
+
+        for (Future<Object> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, ex.getCause());
+            assertEquals("database down", ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void testHandleCache_waiterLoadsDirectlyAfterTimeout() throws Throwable {
+        ReflectionTestUtils.setField(aspect, "singleFlightTimeout", Duration.ofMillis(50));
+        stubPagedExams(new Object[]{0, 10});
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger invocations = new AtomicInteger();
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            if (invocations.getAndIncrement() == 0) {
+                leaderStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "slow";
+            }
+            return "direct";
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Object> leader = executor.submit(() -> handle());
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+            assertEquals("direct", aspect.handleCache(joinPoint));
+            release.countDown();
+            assertEquals("slow", leader.get(5, TimeUnit.SECONDS));
+            assertEquals(2, invocations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testHandleCache_staleValueServedWhileRefreshing() throws Throwable {
+        stubCatalog();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger invocations = new AtomicInteger();
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            if (invocations.getAndIncrement() == 0) {
+                return "v1";
+            }
+            release.await(5, TimeUnit.SECONDS);
+            return "v2";
+        });
+
+        assertEquals("v1", aspect.handleCache(joinPoint));
+        Thread.sleep(1_100);
+
+        // Past the soft TTL: the caller gets the old value at once, even while the refresh is blocked
+        assertEquals("v1", aspect.handleCache(joinPoint));
+        assertEquals("v1", aspect.handleCache(joinPoint));
+        release.countDown();
+        awaitNoPendingRefresh();
+
+        assertEquals("v2", aspect.handleCache(joinPoint));
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    void testHandleCache_invalidatedEntryIsNotServedStale() throws Throwable {
+        stubCatalog();
+        when(joinPoint.proceed()).thenReturn("v1", "v2");
+
+        assertEquals("v1", aspect.handleCache(joinPoint));
+        Thread.sleep(1_100);
+        dependencyIndex.invalidateEntity(Exam.class);
+
+        assertEquals("v2", aspect.handleCache(joinPoint));
+        assertEquals(0, refresher.pendingCount());
+    }
+
+    @Test
+    void testHandleCache_failedRefreshKeepsCurrentValue() throws Throwable {
+        stubCatalog();
+        when(joinPoint.proceed()).thenReturn("v1").thenThrow(new IllegalStateException("database down"));
+
+        assertEquals("v1", aspect.handleCache(joinPoint));
+        Thread.sleep(1_100);
+        assertEquals("v1", aspect.handleCache(joinPoint));
+        awaitNoPendingRefresh();
+
+        assertEquals("v1", aspect.handleCache(joinPoint));
+    }
+
+    private void stubCatalog() throws NoSuchMethodException {
+        when(detector.isWriteOperation(any())).thenReturn(false);
+        when(joinPoint.getSignature()).thenReturn(methodSignature);
+        when(methodSignature.getDeclaringType()).thenReturn(SmartCacheAspectTest.class);
+        when(methodSignature.getMethod()).thenReturn(SmartCacheAspectTest.class.getDeclaredMethod("catalog"));
+        when(joinPoint.getArgs()).thenReturn(new Object[0]);
+    }
+
+    private void awaitNoPendingRefresh() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (refresher.pendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, refresher.pendingCount());
+    }
+
+    private List<Future<Object>> runConcurrently(int callers, CountDownLatch release) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch ready = new CountDownLatch(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    return handle();
+                }));
+            }
+            assertTrue(ready.await(5, TimeUnit.SECONDS));
+            start.countDown();
+            // Give every caller time to reach the in-flight load before it completes
+            Thread.sleep(100);
+            release.countDown();
+        } finally {
+            executor.shutdown();
+        }
+        return results;
+    }
+
+    private Object handle() throws Exception {
+        try {
+            return aspect.handleCache(joinPoint);
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void stubPagedExams(Object[] args) throws NoSuchMethodException {
+        when(detector.isWriteOperation(any())).thenReturn(false);
+        when(joinPoint.getSignature()).thenReturn(methodSignature);
+        when(methodSignature.getDeclaringType()).thenReturn(SmartCacheAspectTest.class);
+        when(methodSignature.getMethod()).thenReturn(
+                SmartCacheAspectTest.class.getDeclaredMethod("pagedExams", int.class, int.class));
+        when(joinPoint.getArgs()).thenReturn(args);
+    }
 }
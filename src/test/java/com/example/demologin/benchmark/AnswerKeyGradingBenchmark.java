@@ -0,0 +1,122 @@
+package com.example.demologin.benchmark;
+
+import com.example.demologin.cache.AnswerKey;
+import com.example.demologin.dto.request.exam.AnswerPayload;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Grading one submission of an exam with 4 options per question, about a third of them multi
+ * answer: the previous submitAttempt loop ("legacy", with the per-question correct-option query
+ * replaced by a map lookup, so the real gap is larger) against the compiled {@link AnswerKey}.
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.demologin.benchmark.AnswerKeyGradingBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerKeyGradingBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int questions;
+
+    private List<Row> rows;
+    private Map<Long, List<Long>> correctOptions;
+    private List<AnswerPayload> answers;
+    private AnswerKey answerKey;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        rows = new ArrayList<>();
+        correctOptions = new HashMap<>();
+        answers = new ArrayList<>();
+        List<AnswerKey.Entry> entries = new ArrayList<>();
+        for (int q = 0; q < questions; q++) {
+            long questionId = 10_000L + q * 3L;
+            Double score = q % 5 == 0 ? null : 0.25 * (1 + random.nextInt(8));
+            long firstOption = 500_000L + q * 4L;
+            List<Long> correct = new ArrayList<>();
+            correct.add(firstOption + random.nextInt(4));
+            if (q % 3 == 0) {
+                long second = firstOption + random.nextInt(4);
+                if (!correct.contains(second)) {
+                    correct.add(second);
+                }
+            }
+            rows.add(new Row(questionId, score));
+            correctOptions.put(questionId, correct);
+            entries.add(new AnswerKey.Entry(questionId, score, correct.stream().mapToLong(Long::longValue).toArray()));
+
+            // ~70% đúng, còn lại chọn một phương án bất kỳ
+            List<Long> chosen = random.nextInt(10) < 7
+                    ? new ArrayList<>(correct)
+                    : List.of(firstOption + random.nextInt(4));
+            AnswerPayload answer = new AnswerPayload();
+            answer.setQuestionId(questionId);
+            answer.setSelectedOptionIds(chosen);
+            answers.add(answer);
+        }
+        Collections.shuffle(answers, new Random(7));
+        answerKey = new AnswerKey(entries);
+    }
+
+    // ---- previous ExamTakingServiceImpl.submitAttempt grading loop ----
+    @Benchmark
+    public double legacy() {
+        Map<Long, Row> examQuestionsByQid = rows.stream()
+                .collect(Collectors.toMap(Row::questionId, Function.identity()));
+        int totalCorrect = 0;
+        double totalScore = 0.0;
+        double maxScore = rows.stream()
+                .map(Row::score)
+                .map(s -> s == null ? 1.0 : s.doubleValue())
+                .reduce(0.0, Double::sum);
+        for (AnswerPayload ans : answers) {
+            Long qid = ans.getQuestionId();
+            Row eq = examQuestionsByQid.get(qid);
+            if (eq == null) continue;
+            List<Long> correctIds = List.copyOf(correctOptions.get(qid));
+            List<Long> chosen = ans.getSelectedOptionIds() == null ? Collections.emptyList() : ans.getSelectedOptionIds();
+            if (new HashSet<>(chosen).equals(new HashSet<>(correctIds))) {
+                totalCorrect++;
+                totalScore += eq.score() == null ? 1.0 : eq.score();
+            }
+        }
+        return totalScore + totalCorrect + maxScore;
+    }
+
+    @Benchmark
+    public double answerKey() {
+        AnswerKey.Result result = answerKey.grade(answers);
+        return result.totalScore() + result.totalCorrect() + result.maxScore();
+    }
+
+    private record Row(long questionId, Double score) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(AnswerKeyGradingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
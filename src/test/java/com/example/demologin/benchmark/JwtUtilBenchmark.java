@@ -0,0 +1,157 @@
+package com.example.demologin.benchmark;
+
+import com.example.demologin.entity.Role;
+import com.example.demologin.entity.User;
+import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.repository.TokenRevocationRepository;
+import com.example.demologin.repository.UserRepository;
+import com.example.demologin.security.AuthPrincipalCache;
+import com.example.demologin.security.JtiRevocationStore;
+import com.example.demologin.security.TokenVersionTable;
+import com.example.demologin.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-call parser of the previous JwtUtil ("legacy") with the precompiled
+ * parser + claims memo. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.demologin.benchmark.JwtUtilBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret!!";
+
+    private JwtUtil jwtUtil;
+    private RefreshTokenRepository refreshTokenRepository;
+    private String token;
+    private User user;
+
+    @Setup
+    public void setUp() throws Exception {
+        refreshTokenRepository = stubRepository();
+        TokenVersionTable tokenVersionTable = new TokenVersionTable(stub(UserRepository.class));
+        tokenVersionTable.set(42L, 0);
+        JtiRevocationStore revocationStore = new JtiRevocationStore(refreshTokenRepository,
+                stub(TokenRevocationRepository.class), tokenVersionTable,
+                new AuthPrincipalCache(stub(UserRepository.class), 10, 60), 3_600_000L, 1_000, 10_000L);
+        revocationStore.registerLive("jti-1", LocalDateTime.now().plusDays(1));
+        jwtUtil = new JwtUtil(refreshTokenRepository, revocationStore, tokenVersionTable);
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 10_000L);
+        Method init = JwtUtil.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(jwtUtil);
+
+        Role role = new Role();
+        role.setId(1L);
+        role.setName("TEACHER");
+        user = new User("teacher", "x", "Teacher", "teacher@example.com");
+        user.setUserId(42L);
+        user.setRoles(new HashSet<>(Set.of(role)));
+
+        token = Jwts.builder()
+                .claims(Map.of("tokenVersion", 0, "roles", List.of("TEACHER"), "jti", "jti-1"))
+                .subject("42")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(legacySigningKey())
+                .compact();
+    }
+
+    // ---- previous implementation: new key + new parser on every call ----
+
+    private static SecretKey legacySigningKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Claims legacyExtractAllClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(legacySigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Object extractRoles_legacy() {
+        @SuppressWarnings("unchecked")
+        List<String> roles = (List<String>) legacyExtractAllClaims(token).get("roles");
+        return new HashSet<>(roles);
+    }
+
+    @Benchmark
+    public Object extractRoles_memoized() {
+        return jwtUtil.extractRoles(token);
+    }
+
+    @Benchmark
+    public String extractUsername_legacy() {
+        return legacyExtractAllClaims(token).getSubject();
+    }
+
+    @Benchmark
+    public String extractUsername_memoized() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenWithJtiCheck_legacy() {
+        Claims claims = legacyExtractAllClaims(token);
+        String jti = claims.get("jti", String.class);
+        return refreshTokenRepository.existsByJti(jti)
+                && claims.getSubject().equals(String.valueOf(user.getUserId()))
+                && claims.get("tokenVersion", Integer.class).equals(user.getTokenVersion())
+                && !legacyExtractAllClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean validateTokenWithJtiCheck_memoized() {
+        return jwtUtil.validateTokenWithJtiCheck(token, user);
+    }
+
+    private static RefreshTokenRepository stubRepository() {
+        return stub(RefreshTokenRepository.class);
+    }
+
+    // existsByJti answers true, everything else is unused by the benchmark
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> "existsByJti".equals(method.getName()) ? Boolean.TRUE : null);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
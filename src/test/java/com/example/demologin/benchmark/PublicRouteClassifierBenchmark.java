@@ -0,0 +1,92 @@
+package com.example.demologin.benchmark;
+
+import com.example.demologin.config.PublicRouteClassifier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public-endpoint matching over ~150 mappings shaped like our controllers: the previous
+ * per-request AntPathMatcher scan ("legacy") against the compiled trie, uncached and cached.
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.demologin.benchmark.PublicRouteClassifierBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublicRouteClassifierBenchmark {
+
+    private static final String[] CONTROLLER_PREFIXES = {
+            "/api/payment/vnpay", "/api/admin/roles", "/api/questions", "/api/lesson-plans", "/api/users",
+            "/api/transactions", "/api/levels", "/api/exams", "/api/lesson-plan-edits", "/api/subscriptions",
+            "/api/question-types", "/api/grades", "/api/lessons", "/api/matrices", "/api/admin/permissions",
+            "/api/email", "/api/payments", "/api/plans", "/api/chapters", "/api/user-activity-logs",
+            "/api/auth", "/api/essays", "/api/teacher-essays", "/api/essay-images"
+    };
+    private static final String[] ROUTE_SHAPES = {"", "/{id}", "/search", "/{id}/items", "/page/**", "/{id}/status"};
+    private static final List<String> SYSTEM_PATTERNS = List.of(
+            "/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**", "/webjars/**",
+            "/login/oauth2/code/**", "/oauth2/authorization/**",
+            "/api/payment/vnpay/vnpay-return", "/vnpay-return");
+
+    private List<String> annotatedPatterns;
+    private PublicRouteClassifier classifier;
+
+    @Param({"/api/grades/17/items", "/api/users/me/profile", "/swagger-ui/index.html", "/api/unknown/path"})
+    public String uri;
+
+    @Setup
+    public void setUp() {
+        annotatedPatterns = new ArrayList<>();
+        for (String prefix : CONTROLLER_PREFIXES) {
+            for (String shape : ROUTE_SHAPES) {
+                annotatedPatterns.add(prefix + shape);
+            }
+        }
+        List<String> all = new ArrayList<>(annotatedPatterns);
+        all.addAll(SYSTEM_PATTERNS);
+        classifier = new PublicRouteClassifier(all, 10_000);
+    }
+
+    // ---- previous Filter.isPermitted ----
+    @Benchmark
+    public boolean legacy() {
+        AntPathMatcher pathMatcher = new AntPathMatcher();
+        List<String> annotated = new ArrayList<>(annotatedPatterns);
+        if (annotated.stream().anyMatch(pattern -> pathMatcher.match(pattern, uri))) {
+            return true;
+        }
+        List<String> system = List.of(
+                "/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**", "/webjars/**",
+                "/login/oauth2/code/**", "/oauth2/authorization/**",
+                "/api/payment/vnpay/vnpay-return", "/vnpay-return");
+        return system.stream().anyMatch(pattern -> pathMatcher.match(pattern, uri));
+    }
+
+    @Benchmark
+    public boolean compiled_uncached() {
+        return classifier.classify(uri);
+    }
+
+    @Benchmark
+    public boolean compiled_cached() {
+        return classifier.isPublic(uri);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(PublicRouteClassifierBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.dto.request.exam.AnswerPayload;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerKeyTest {
+
+    @Test
+    void gradesBySetEquality() {
+        AnswerKey key = new AnswerKey(List.of(
+                new AnswerKey.Entry(5L, 2.0, new long[]{51L}),
+                new AnswerKey.Entry(3L, null, new long[]{32L, 31L}),
+                new AnswerKey.Entry(9L, 0.5, new long[0])));
+
+        assertEquals(3, key.questionCount());
+        assertEquals(3.5, key.maxScore());
+        assertEquals(1, key.grade(List.of(answer(5L, 51L))).totalCorrect());
+        assertEquals(1, key.grade(List.of(answer(3L, 31L, 32L, 31L))).totalCorrect());
+        assertEquals(0, key.grade(List.of(answer(3L, 31L))).totalCorrect());
+        assertEquals(0, key.grade(List.of(answer(3L, 31L, 32L, 33L))).totalCorrect());
+        assertEquals(1, key.grade(List.of(answer(9L))).totalCorrect());
+        assertEquals(0, key.grade(List.of(answer(77L, 1L))).totalCorrect());
+        assertEquals(0, key.grade(null).totalCorrect());
+        assertEquals(1.0, key.grade(List.of(answer(3L, 32L, 31L))).totalScore());
+    }
+
+    @Test
+    void matchesThePreviousGradingOnRandomSubmissions() {
+        SplittableRandom random = new SplittableRandom(20240601L);
+        for (int round = 0; round < 2_000; round++) {
+            int questionCount = 1 + random.nextInt(40);
+            List<Row> rows = new ArrayList<>();
+            Map<Long, List<Long>> correctByQuestion = new HashMap<>();
+            Map<Long, List<Long>> optionsByQuestion = new HashMap<>();
+            long optionId = 1_000;
+            for (int q = 0; q < questionCount; q++) {
+                long questionId = 1 + q * 7L + random.nextInt(7);
+                Double score = random.nextInt(5) == 0 ? null : random.nextInt(1, 9) * 0.25;
+                rows.add(new Row(questionId, score));
+                List<Long> options = new ArrayList<>();
+                List<Long> correct = new ArrayList<>();
+                int optionCount = 2 + random.nextInt(4);
+                for (int o = 0; o < optionCount; o++) {
+                    options.add(optionId);
+                    if (random.nextInt(3) == 0) {
+                        correct.add(optionId);
+                    }
+                    optionId += 1 + random.nextInt(3);
+                }
+                optionsByQuestion.put(questionId, options);
+                correctByQuestion.put(questionId, correct);
+            }
+
+            List<AnswerPayload> answers = randomAnswers(random, rows, optionsByQuestion, correctByQuestion);
+            AnswerKey key = new AnswerKey(rows.stream()
+                    .map(row -> new AnswerKey.Entry(row.questionId(), row.score(),
+                            correctByQuestion.get(row.questionId()).stream().mapToLong(Long::longValue).toArray()))
+                    .toList());
+
+            AnswerKey.Result expected = legacyGrade(rows, correctByQuestion, answers);
+            AnswerKey.Result actual = key.grade(answers);
+            assertEquals(expected, actual, "round " + round);
+        }
+    }
+
+    private static List<AnswerPayload> randomAnswers(SplittableRandom random, List<Row> rows,
+                                                     Map<Long, List<Long>> optionsByQuestion,
+                                                     Map<Long, List<Long>> correctByQuestion) {
+        if (random.nextInt(50) == 0) {
+            return null;
+        }
+        List<AnswerPayload> answers = new ArrayList<>();
+        for (Row row : rows) {
+            int kind = random.nextInt(10);
+            if (kind == 0) {
+                continue; // bỏ trống
+            }
+            List<Long> options = optionsByQuestion.get(row.questionId());
+            List<Long> chosen;
+            if (kind <= 4) {
+                chosen = new ArrayList<>(correctByQuestion.get(row.questionId()));
+                Collections.reverse(chosen);
+            } else if (kind == 5) {
+                chosen = null;
+            } else {
+                chosen = new ArrayList<>();
+                for (Long option : options) {
+                    if (random.nextBoolean()) {
+                        chosen.add(option);
+                    }
+                }
+                if (kind == 6 && !chosen.isEmpty()) {
+                    chosen.add(chosen.get(0)); // trùng lựa chọn
+                }
+                if (kind == 7) {
+                    chosen.add(null);
+                }
+                if (kind == 8) {
+                    chosen.add(1L); // phương án của câu khác
+                }
+            }
+            AnswerPayload answer = new AnswerPayload();
+            answer.setQuestionId(row.questionId());
+            answer.setSelectedOptionIds(chosen);
+            answers.add(answer);
+        }
+        // câu không thuộc đề và câu trả lời hai lần
+        answers.add(answer(999_999L, 1L));
+        if (random.nextBoolean()) {
+            answers.add(answers.get(random.nextInt(answers.size())));
+        }
+        Collections.shuffle(answers, new Random(random.nextLong()));
+        return answers;
+    }
+
+    /**
+     * Vòng chấm cũ của submitAttempt, chỉ thay repository bằng map.
+     */
+    private static AnswerKey.Result legacyGrade(List<Row> eqs, Map<Long, List<Long>> correctOptions,
+                                                List<AnswerPayload> answers) {
+        Map<Long, Row> examQuestionsByQid = eqs.stream()
+                .collect(Collectors.toMap(Row::questionId, Function.identity()));
+
+        int totalQuestions = eqs.size();
+        int totalCorrect = 0;
+        double totalScore = 0.0;
+        double maxScore = eqs.stream()
+                .map(Row::score)
+                .map(s -> s == null ? 1.0 : s.doubleValue())
+                .reduce(0.0, Double::sum);
+
+        if (answers != null) {
+            for (AnswerPayload ans : answers) {
+                Long qid = ans.getQuestionId();
+                Row eq = examQuestionsByQid.get(qid);
+                if (eq == null) continue;
+
+                List<Long> correctIds = correctOptions.get(qid);
+                List<Long> chosen = (ans.getSelectedOptionIds() == null)
+                        ? Collections.emptyList()
+                        : ans.getSelectedOptionIds();
+
+                boolean isCorrect = new HashSet<>(chosen).equals(new HashSet<>(correctIds));
+                if (isCorrect) {
+                    totalCorrect++;
+                    double qScore = eq.score() == null ? 1.0 : eq.score().doubleValue();
+                    totalScore += qScore;
+                }
+            }
+        }
+        return new AnswerKey.Result(totalQuestions, totalCorrect, totalScore, maxScore);
+    }
+
+    private static AnswerPayload answer(Long questionId, Long... optionIds) {
+        AnswerPayload answer = new AnswerPayload();
+        answer.setQuestionId(questionId);
+        answer.setSelectedOptionIds(Arrays.asList(optionIds));
+        return answer;
+    }
+
+    private record Row(long questionId, Double score) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheDependencyIndexTest {
+
+    private final CacheDependencyIndex index = new CacheDependencyIndex();
+
+    @Test
+    void entityChangeBumpsOnlyDependentCaches() {
+        index.register("grades", Object.class, new Class<?>[]{Grade.class});
+        index.register("chapters", Object.class, new Class<?>[]{Chapter.class, Grade.class});
+        index.register("lessons", Object.class, new Class<?>[]{Lesson.class});
+
+        index.invalidateEntity(Grade.class);
+
+        assertEquals(1, index.generation("grades"));
+        assertEquals(1, index.generation("chapters"));
+        assertEquals(0, index.generation("lessons"));
+    }
+
+    @Test
+    void cacheRegisteredAfterFirstEventIsStillInvalidated() {
+        index.register("grades", Object.class, new Class<?>[]{Grade.class});
+        index.invalidateEntity(Chapter.class);
+
+        index.register("chapters", Object.class, new Class<?>[]{Chapter.class});
+        index.invalidateEntity(Chapter.class);
+
+        assertEquals(1, index.generation("chapters"));
+        assertEquals(0, index.generation("grades"));
+    }
+
+    @Test
+    void writeThroughOwnerInvalidatesItsCaches() {
+        index.register("RoleController.getAll", String.class, new Class<?>[0]);
+        index.register("RoleController.getById", String.class, new Class<?>[0]);
+        index.register("Other.get", Integer.class, new Class<?>[0]);
+
+        index.invalidateOwner(String.class);
+
+        assertEquals(1, index.generation("RoleController.getAll"));
+        assertEquals(1, index.generation("RoleController.getById"));
+        assertEquals(0, index.generation("Other.get"));
+    }
+
+    @Test
+    void onlyRemoteChangesMoveTheRemoteVersion() {
+        index.register("grades", Object.class, new Class<?>[]{Grade.class});
+
+        index.invalidateEntity(Grade.class);
+        assertEquals(1, index.entityVersion(Grade.class));
+        assertEquals(0, index.remoteEntityVersion(Grade.class));
+
+        index.invalidateRemoteEntity(Grade.class);
+        assertEquals(2, index.entityVersion(Grade.class));
+        assertEquals(1, index.remoteEntityVersion(Grade.class));
+        assertEquals(2, index.generation("grades"));
+    }
+}
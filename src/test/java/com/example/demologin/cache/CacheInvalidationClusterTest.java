@@ -0,0 +1,153 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.annotation.SmartCache;
+import com.example.demologin.entity.CacheInvalidationLog;
+import com.example.demologin.entity.Exam;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.RefreshToken;
+import com.example.demologin.repository.CacheInvalidationLogRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application contexts sharing one embedded database stand in for two nodes.
+ */
+class CacheInvalidationClusterTest {
+
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final long FLUSH_INTERVAL_MS = 50;
+    // Flush, then at most one poll interval, plus slack for a slow CI machine
+    private static final long CONVERGENCE_BOUND_MS = 2_000;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        for (ConfigurableApplicationContext node : new ConfigurableApplicationContext[]{nodeA, nodeB}) {
+            CacheDependencyIndex index = node.getBean(CacheDependencyIndex.class);
+            index.register("ExamServiceImpl.getAllExams", ExamCatalog.class, new Class<?>[]{Exam.class});
+            index.register("GradeServiceImpl.getAllGrades", ExamCatalog.class, new Class<?>[]{Grade.class});
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void entityChangeOnOneNodeReachesTheOtherWithinBound() throws InterruptedException {
+        CacheDependencyIndex indexA = nodeA.getBean(CacheDependencyIndex.class);
+        CacheDependencyIndex indexB = nodeB.getBean(CacheDependencyIndex.class);
+        long beforeA = indexA.generation("ExamServiceImpl.getAllExams");
+        long beforeB = indexB.generation("ExamServiceImpl.getAllExams");
+
+        nodeA.getBean(CacheInvalidationBus.class).invalidateEntity(Exam.class);
+
+        assertEquals(beforeA + 1, indexA.generation("ExamServiceImpl.getAllExams"));
+        long elapsedMs = awaitGeneration(() -> indexB.generation("ExamServiceImpl.getAllExams"), beforeB + 1);
+        assertTrue(elapsedMs <= CONVERGENCE_BOUND_MS, "converged after " + elapsedMs + "ms");
+
+        // The origin node skips its own event when it comes back through the feed
+        Thread.sleep(3 * POLL_INTERVAL_MS);
+        assertEquals(beforeA + 1, indexA.generation("ExamServiceImpl.getAllExams"));
+    }
+
+    @Test
+    void cacheClearedOnOneNodeIsClearedOnTheOther() throws InterruptedException {
+        CacheDependencyIndex indexA = nodeA.getBean(CacheDependencyIndex.class);
+        long beforeA = indexA.generation("GradeServiceImpl.getAllGrades");
+        long beforeExams = indexA.generation("ExamServiceImpl.getAllExams");
+
+        nodeB.getBean(CacheInvalidationBus.class).invalidateCache("GradeServiceImpl.getAllGrades");
+
+        long elapsedMs = awaitGeneration(() -> indexA.generation("GradeServiceImpl.getAllGrades"), beforeA + 1);
+        assertTrue(elapsedMs <= CONVERGENCE_BOUND_MS, "converged after " + elapsedMs + "ms");
+        assertEquals(beforeExams, indexA.generation("ExamServiceImpl.getAllExams"));
+    }
+
+    @Test
+    void entitiesNoCacheDependsOnAreNotPublished() throws InterruptedException {
+        CacheInvalidationLogRepository repository = nodeA.getBean(CacheInvalidationLogRepository.class);
+        Thread.sleep(3 * FLUSH_INTERVAL_MS);
+        long before = repository.count();
+
+        nodeA.getBean(CacheInvalidationBus.class).invalidateEntity(RefreshToken.class);
+        Thread.sleep(3 * FLUSH_INTERVAL_MS);
+
+        assertEquals(before, repository.count());
+    }
+
+    private static long awaitGeneration(LongSupplier generation, long expected) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(5 * CONVERGENCE_BOUND_MS);
+        while (generation.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, generation.getAsLong());
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(Node.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:cache-cluster;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.main.banner-mode=off",
+                        "--smart-cache.invalidation.poll-interval-ms=" + POLL_INTERVAL_MS,
+                        "--smart-cache.invalidation.flush-interval-ms=" + FLUSH_INTERVAL_MS);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class})
+    @EnableJpaRepositories(basePackageClasses = CacheInvalidationLogRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = CacheInvalidationLogRepository.class))
+    @EnableScheduling
+    @Import({CacheDependencyIndex.class, DatabaseCacheInvalidationTransport.class, CacheInvalidationBus.class,
+            ExamCatalog.class})
+    static class Node {
+
+        @Bean
+        PersistenceManagedTypes persistenceManagedTypes() {
+            return PersistenceManagedTypes.of(CacheInvalidationLog.class.getName());
+        }
+    }
+
+    // Declares the dependencies the bus publishes for, like a service bean would
+    static class ExamCatalog {
+
+        @SmartCache(entities = {Exam.class, Grade.class})
+        public String getAllExams() {
+            return "exams";
+        }
+    }
+}
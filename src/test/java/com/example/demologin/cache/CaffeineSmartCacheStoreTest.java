@@ -0,0 +1,59 @@
+package com.example.demologin.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineSmartCacheStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void weightStaysWithinBoundForUnboundedKeySpace() {
+        long maxBytes = 200_000;
+        CaffeineSmartCacheStore store = new CaffeineSmartCacheStore(registry, maxBytes);
+
+        for (int page = 0; page < 20_000; page++) {
+            List<String> rows = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                rows.add("exam-" + page + "-" + i);
+            }
+            store.put("ExamController:getAllExams:" + page + ",10,id,asc", rows, Duration.ofMinutes(10));
+        }
+        store.invalidateIf(key -> false); // forces pending maintenance
+
+        assertTrue(store.weightedSize() <= maxBytes, "weighted size " + store.weightedSize());
+        assertTrue(store.estimatedSize() < 20_000);
+    }
+
+    @Test
+    void entryExpiresAfterItsOwnTtl() throws InterruptedException {
+        CaffeineSmartCacheStore store = new CaffeineSmartCacheStore(registry, 1_000_000);
+        store.put("short", "v", Duration.ofMillis(1));
+        store.put("long", "v", Duration.ofMinutes(1));
+
+        Thread.sleep(20);
+
+        assertNull(store.get("short"));
+        assertEquals("v", store.get("long"));
+    }
+
+    @Test
+    void hitsAndMissesArePublished() {
+        CaffeineSmartCacheStore store = new CaffeineSmartCacheStore(registry, 1_000_000);
+        store.put("k", "v", Duration.ofMinutes(1));
+
+        store.get("k");
+        store.get("missing");
+
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "smartCache", "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "smartCache", "result", "miss")
+                .functionCounter().count());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Lesson;
+import com.example.demologin.repository.ChapterRepository;
+import com.example.demologin.repository.GradeRepository;
+import com.example.demologin.repository.LessonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurriculumRegistryTest {
+
+    private GradeRepository gradeRepository;
+    private ChapterRepository chapterRepository;
+    private LessonRepository lessonRepository;
+    private CacheDependencyIndex dependencyIndex;
+    private CurriculumRegistry registry;
+    private final List<LessonRepository.CurriculumRow> lessons = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        gradeRepository = mock(GradeRepository.class);
+        chapterRepository = mock(ChapterRepository.class);
+        lessonRepository = mock(LessonRepository.class);
+        dependencyIndex = new CacheDependencyIndex();
+        when(gradeRepository.findCurriculumRows()).thenReturn(List.of());
+        when(chapterRepository.findCurriculumRows()).thenReturn(List.of());
+        when(lessonRepository.findCurriculumRows()).thenAnswer(invocation -> List.copyOf(lessons));
+        lessons.add(lesson(1L));
+        registry = new CurriculumRegistry(gradeRepository, chapterRepository, lessonRepository,
+                dependencyIndex, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void snapshotIsReusedUntilACurriculumEntityChanges() {
+        CurriculumSnapshot first = registry.current();
+        assertSame(first, registry.current());
+        verify(lessonRepository, times(1)).findCurriculumRows();
+
+        dependencyIndex.invalidateEntity(Chapter.class);
+        lessons.add(lesson(2L));
+        CurriculumSnapshot second = registry.current();
+
+        assertNotSame(first, second);
+        assertTrue(second.containsLesson(2L));
+        assertFalse(first.containsLesson(2L));
+    }
+
+    @Test
+    void missForcesAtMostOneReloadPerInterval() {
+        registry.current();
+        // Committed on another node, invalidation not received yet
+        lessons.add(lesson(2L));
+
+        assertTrue(registry.current(snapshot -> snapshot.containsLesson(2L)).containsLesson(2L));
+        assertFalse(registry.current(snapshot -> snapshot.containsLesson(3L)).containsLesson(3L));
+        verify(lessonRepository, times(2)).findCurriculumRows();
+
+        dependencyIndex.invalidateEntity(Lesson.class);
+        registry.current();
+        verify(lessonRepository, times(3)).findCurriculumRows();
+    }
+
+    private static LessonRepository.CurriculumRow lesson(Long id) {
+        LessonRepository.CurriculumRow row = mock(LessonRepository.CurriculumRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getChapterId()).thenReturn(null);
+        when(row.getLessonName()).thenReturn("Bài " + id);
+        return row;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demologin.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurriculumSnapshotTest {
+
+    private final CurriculumSnapshot snapshot = new CurriculumSnapshot(7,
+            List.of(new CurriculumSnapshot.Grade(1L, 10, "Lớp 10"),
+                    new CurriculumSnapshot.Grade(2L, 11, "Lớp 11")),
+            List.of(new CurriculumSnapshot.Chapter(10L, 1L, "Chương 2", 2),
+                    new CurriculumSnapshot.Chapter(11L, 1L, "Chương 1", 1),
+                    new CurriculumSnapshot.Chapter(12L, 2L, "Chương 1", 1),
+                    new CurriculumSnapshot.Chapter(13L, 99L, "Mồ côi", 1)),
+            List.of(new CurriculumSnapshot.Lesson(100L, 11L, "Bài 1"),
+                    new CurriculumSnapshot.Lesson(101L, 10L, "Bài 2"),
+                    new CurriculumSnapshot.Lesson(102L, 11L, "Bài 3")));
+
+    @Test
+    void resolvesHierarchyById() {
+        assertEquals(7, snapshot.version());
+        assertTrue(snapshot.containsGrade(2L));
+        assertFalse(snapshot.containsGrade(3L));
+        assertFalse(snapshot.containsLesson(null));
+
+        assertEquals(1L, snapshot.gradeIdOfChapter(11L));
+        assertEquals(11L, snapshot.chapterIdOfLesson(102L));
+        assertNull(snapshot.gradeIdOfChapter(13L));
+        assertNull(snapshot.chapterIdOfLesson(999L));
+
+        assertEquals(11, snapshot.gradeNumber(2L));
+        assertEquals("Chương 2", snapshot.chapterName(10L));
+        assertEquals("Bài 3", snapshot.lessonName(102L));
+    }
+
+    @Test
+    void childrenAreGroupedUnderTheirParentInOrder() {
+        assertEquals(List.of(11L, 10L), snapshot.chaptersOf(1L).stream().map(CurriculumSnapshot.Chapter::id).toList());
+        assertEquals(List.of(12L), snapshot.chaptersOf(2L).stream().map(CurriculumSnapshot.Chapter::id).toList());
+        assertEquals(List.of(100L, 102L), snapshot.lessonsOf(11L).stream().map(CurriculumSnapshot.Lesson::id).toList());
+        assertTrue(snapshot.lessonsOf(13L).isEmpty());
+        assertTrue(snapshot.chaptersOf(42L).isEmpty());
+
+        // The orphan chapter stays addressable by id and in the flat list
+        assertEquals(4, snapshot.chapters().size());
+        assertNull(snapshot.chapters().get(3).gradeId());
+    }
+
+    @Test
+    void sparseIdsFallBackToMapIndex() {
+        CurriculumSnapshot.IdIndex dense = CurriculumSnapshot.IdIndex.of(new long[]{5, 6, 8});
+        CurriculumSnapshot.IdIndex sparse = CurriculumSnapshot.IdIndex.of(new long[]{1, 1_000_000_000L});
+
+        assertTrue(dense.isDense());
+        assertEquals(2, dense.positionOf(8L));
+        assertEquals(-1, dense.positionOf(7L));
+        assertEquals(-1, dense.positionOf(4L));
+
+        assertFalse(sparse.isDense());
+        assertEquals(1, sparse.positionOf(1_000_000_000L));
+        assertEquals(-1, sparse.positionOf(2L));
+    }
+}
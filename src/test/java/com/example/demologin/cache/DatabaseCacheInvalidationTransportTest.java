@@ -0,0 +1,81 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.CacheInvalidationLog;
+import com.example.demologin.repository.CacheInvalidationLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DatabaseCacheInvalidationTransportTest {
+
+    private CacheInvalidationLogRepository repository;
+    private DatabaseCacheInvalidationTransport transport;
+    private final List<CacheInvalidationEvent> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CacheInvalidationLogRepository.class);
+        when(repository.findMaxId()).thenReturn(10L);
+        transport = new DatabaseCacheInvalidationTransport(repository, 60_000, Duration.ofHours(1));
+        transport.start();
+        transport.subscribe(received::addAll);
+    }
+
+    @Test
+    void tailsFromTheIdSeenAtStartup() {
+        when(repository.findTop500ByIdGreaterThanOrderByIdAsc(10L)).thenReturn(List.of(row(11, "a")));
+
+        transport.poll();
+
+        assertEquals(List.of("a"), targets());
+        verify(repository).findTop500ByIdGreaterThanOrderByIdAsc(10L);
+    }
+
+    @Test
+    void idCommittedAfterAHigherIdIsStillDelivered() {
+        // Id 12 commits before 11: 11 is remembered as a gap and re-checked on the next poll
+        when(repository.findTop500ByIdGreaterThanOrderByIdAsc(10L)).thenReturn(List.of(row(12, "late-b")));
+        transport.poll();
+        assertEquals(List.of("late-b"), targets());
+
+        when(repository.findByIdIn(List.of(11L))).thenReturn(List.of(row(11, "late-a")));
+        when(repository.findTop500ByIdGreaterThanOrderByIdAsc(12L)).thenReturn(List.of());
+        transport.poll();
+        assertEquals(List.of("late-b", "late-a"), targets());
+
+        // Found once, no longer tracked
+        transport.poll();
+        verify(repository, times(1)).findByIdIn(anyCollection());
+    }
+
+    @Test
+    void publishesOneRowPerEvent() {
+        transport.publish(List.of(
+                new CacheInvalidationEvent(CacheInvalidationEvent.Kind.CACHE, "a", "node"),
+                new CacheInvalidationEvent(CacheInvalidationEvent.Kind.ENTITY, "com.example.Exam", "node")));
+
+        verify(repository).saveAll(argThat(rows -> rows instanceof List<?> list && list.size() == 2));
+    }
+
+    private List<String> targets() {
+        return received.stream().map(CacheInvalidationEvent::target).toList();
+    }
+
+    private static CacheInvalidationLog row(long id, String target) {
+        return CacheInvalidationLog.builder()
+                .id(id)
+                .kind(CacheInvalidationEvent.Kind.CACHE)
+                .target(target)
+                .origin("other-node")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.Exam;
+import com.example.demologin.entity.ExamQuestion;
+import com.example.demologin.entity.Lesson;
+import com.example.demologin.entity.Option;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.*;
+
+class ExamPaperChangeListenerTest {
+
+    private ExamPaperRegistry examPapers;
+    private ExamPaperChangeListener listener;
+
+    @BeforeEach
+    void setUp() {
+        examPapers = mock(ExamPaperRegistry.class);
+        listener = new ExamPaperChangeListener(mock(EntityManagerFactory.class), examPapers);
+    }
+
+    @Test
+    void changesEvictByIdOfTheirExamOrQuestion() {
+        Exam exam = Exam.builder().id(1L).build();
+        Question question = Question.builder().id(10L).build();
+
+        listener.onChange(ExamQuestion.builder().exam(exam).question(question).build());
+        listener.onChange(Option.builder().id(100L).question(question).build());
+        listener.onChange(Question.builder().id(11L).build());
+        listener.onChange(Exam.builder().id(2L).build());
+
+        verify(examPapers).evict(1L);
+        verify(examPapers).evict(2L);
+        verify(examPapers).evictQuestion(10L);
+        verify(examPapers).evictQuestion(11L);
+        verify(examPapers, never()).evictAll();
+    }
+
+    @Test
+    void typeEditEvictsEveryPaper() {
+        listener.onChange(QuestionType.builder().id(3L).description("Nhiều đáp án").build());
+        listener.onChange(new Lesson());
+
+        verify(examPapers).evictAll();
+        verifyNoMoreInteractions(examPapers);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.dto.request.exam.AnswerPayload;
+import com.example.demologin.dto.response.OptionView;
+import com.example.demologin.dto.response.QuestionView;
+import com.example.demologin.entity.Option;
+import com.example.demologin.repository.ExamQuestionRepository;
+import com.example.demologin.repository.OptionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ExamPaperRegistryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExamQuestionRepository examQuestionRepository;
+    private OptionRepository optionRepository;
+    private CacheDependencyIndex dependencyIndex;
+    private PlatformTransactionManager transactionManager;
+    private ExamPaperRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        examQuestionRepository = mock(ExamQuestionRepository.class);
+        optionRepository = mock(OptionRepository.class);
+        dependencyIndex = new CacheDependencyIndex();
+        List<ExamQuestionRepository.QuestionRow> questions = List.of(
+                question(10L, "1 + 1 = ?", 2.0),
+                question(11L, "Đạo hàm của x^2?", null));
+        List<OptionRepository.PaperOptionRow> options = List.of(
+                option(100L, 10L, "1", false), option(101L, 10L, "2", true), option(110L, 11L, "2x", true));
+        when(examQuestionRepository.findQuestionRows(List.of(1L))).thenReturn(questions);
+        when(optionRepository.findPaperOptions(anyCollection())).thenReturn(options);
+        transactionManager = mock(PlatformTransactionManager.class);
+        registry = new ExamPaperRegistry(examQuestionRepository, optionRepository, dependencyIndex,
+                objectMapper, transactionManager, 10);
+    }
+
+    @Test
+    void paperIsReusedUntilEvictedOrChangedRemotely() {
+        ExamPaper first = registry.get(1L);
+        assertSame(first, registry.get(1L));
+        verify(examQuestionRepository, times(1)).findQuestionRows(List.of(1L));
+
+        // Thay đổi trên node này đã evict theo id, không làm cũ mọi đề
+        dependencyIndex.invalidateEntity(Option.class);
+        assertSame(first, registry.get(1L));
+
+        dependencyIndex.invalidateRemoteEntity(Option.class);
+        ExamPaper second = registry.get(1L);
+        assertNotSame(first, second);
+        assertSame(second, registry.get(1L));
+
+        registry.evict(1L);
+        assertNotSame(second, registry.get(1L));
+        verify(examQuestionRepository, times(3)).findQuestionRows(List.of(1L));
+    }
+
+    @Test
+    void questionEditEvictsOnlyPapersContainingIt() {
+        ExamPaper paper = registry.get(1L);
+
+        registry.evictQuestion(99L);
+        assertSame(paper, registry.get(1L));
+
+        registry.evictQuestion(11L);
+        assertNotSame(paper, registry.get(1L));
+        verify(examQuestionRepository, times(2)).findQuestionRows(List.of(1L));
+    }
+
+    @Test
+    void evictionWaitsForABuildInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<ExamQuestionRepository.QuestionRow> questions = List.of(question(10L, "1 + 1 = ?", 2.0));
+        when(examQuestionRepository.findQuestionRows(List.of(1L))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return questions;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<ExamPaper> building = pool.submit(() -> registry.get(1L));
+            started.await();
+            // Đề đang build đọc dữ liệu trước khi câu 10 được sửa
+            Future<?> evicting = pool.submit(() -> registry.evictQuestion(10L));
+            Thread.sleep(50);
+            assertFalse(evicting.isDone());
+            release.countDown();
+            ExamPaper stale = building.get();
+            evicting.get();
+
+            assertNotSame(stale, registry.get(1L));
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(examQuestionRepository, times(2)).findQuestionRows(List.of(1L));
+    }
+
+    @Test
+    void missInsideATransactionUsesItsConnectionAndIsNotCached() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertEquals(2, registry.get(1L).size());
+            assertEquals(2, registry.get(1L).size());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verify(transactionManager, never()).getTransaction(any());
+        verify(examQuestionRepository, times(2)).findQuestionRows(List.of(1L));
+
+        ExamPaper paper = registry.get(1L);
+        assertSame(paper, registry.get(1L));
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void publishedPaperIsCompiledInTheBackground() {
+        registry.compileAfterCommit(1L);
+
+        verify(examQuestionRepository, timeout(1_000)).findQuestionRows(List.of(1L));
+        // the compiler thread may still be publishing the paper
+        verify(transactionManager, timeout(1_000)).commit(any());
+        registry.get(1L);
+        verify(examQuestionRepository, times(1)).findQuestionRows(List.of(1L));
+    }
+
+    @Test
+    void serializedPaperMatchesQuestionViews() throws Exception {
+        ExamPaper paper = registry.get(1L);
+
+        List<QuestionView> views = List.of(
+                view(10L, "1 + 1 = ?", 2.0, optionView(100L, "1"), optionView(101L, "2")),
+                view(11L, "Đạo hàm của x^2?", null, optionView(110L, "2x")));
+        assertEquals(objectMapper.writeValueAsString(Map.of("questions", views)),
+                objectMapper.writeValueAsString(Map.of("questions", paper.questionsJson())));
+        assertEquals(2, paper.size());
+        assertEquals(List.of(new ExamPaper.Option(110L, "2x")), paper.questions().get(1).options());
+    }
+
+    @Test
+    void answerKeyIsBuiltFromTheSameRows() {
+        AnswerKey key = registry.get(1L).answerKey();
+
+        AnswerKey.Result result = key.grade(List.of(answer(10L, 101L), answer(11L, 110L, 999L)));
+
+        assertEquals(2, result.totalQuestions());
+        assertEquals(1, result.totalCorrect());
+        assertEquals(2.0, result.totalScore());
+        assertEquals(3.0, result.maxScore());
+    }
+
+    @Test
+    void concurrentMissesBuildThePaperOnce() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        List<ExamQuestionRepository.QuestionRow> questions = List.of(question(10L, "1 + 1 = ?", 2.0));
+        when(examQuestionRepository.findQuestionRows(List.of(1L))).thenAnswer(invocation -> {
+            building.await();
+            return questions;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ExamPaper>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> registry.get(1L)));
+            }
+            Thread.sleep(50);
+            building.countDown();
+            ExamPaper paper = futures.get(0).get();
+            for (Future<ExamPaper> future : futures) {
+                assertSame(paper, future.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(examQuestionRepository, times(1)).findQuestionRows(List.of(1L));
+    }
+
+    private static ExamQuestionRepository.QuestionRow question(Long id, String text, Double score) {
+        ExamQuestionRepository.QuestionRow row = mock(ExamQuestionRepository.QuestionRow.class);
+        when(row.getExamId()).thenReturn(1L);
+        when(row.getQuestionId()).thenReturn(id);
+        when(row.getQuestionText()).thenReturn(text);
+        when(row.getQuestionType()).thenReturn("Một đáp án");
+        when(row.getScore()).thenReturn(score);
+        return row;
+    }
+
+    private static OptionRepository.PaperOptionRow option(Long id, Long questionId, String text, boolean correct) {
+        OptionRepository.PaperOptionRow row = mock(OptionRepository.PaperOptionRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getQuestionId()).thenReturn(questionId);
+        when(row.getOptionText()).thenReturn(text);
+        when(row.getIsCorrect()).thenReturn(correct);
+        return row;
+    }
+
+    private static AnswerPayload answer(Long questionId, Long... optionIds) {
+        AnswerPayload answer = new AnswerPayload();
+        answer.setQuestionId(questionId);
+        answer.setSelectedOptionIds(List.of(optionIds));
+        return answer;
+    }
+
+    private static QuestionView view(Long id, String text, Double score, OptionView... options) {
+        QuestionView view = new QuestionView();
+        view.setId(id);
+        view.setText(text);
+        view.setQuestionType("Một đáp án");
+        view.setOptions(List.of(options));
+        view.setScore(score);
+        return view;
+    }
+
+    private static OptionView optionView(Long id, String content) {
+        OptionView view = new OptionView();
+        view.setId(id);
+        view.setContent(content);
+        return view;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.demologin.cache;
+
+import com.example.demologin.entity.Lesson;
+import com.example.demologin.entity.Level;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
+import com.example.demologin.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class QuestionAvailabilityCubeTest {
+
+    private static final QuestionAvailabilityCube.Cell EASY_MCQ = new QuestionAvailabilityCube.Cell(12, 1, 7);
+    private static final QuestionAvailabilityCube.Cell HARD_MCQ = new QuestionAvailabilityCube.Cell(12, 2, 7);
+
+    private QuestionRepository questionRepository;
+    private CacheDependencyIndex dependencyIndex;
+    private QuestionAvailabilityCube cube;
+    private final List<QuestionRepository.CellCount> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        questionRepository = mock(QuestionRepository.class);
+        dependencyIndex = new CacheDependencyIndex();
+        when(questionRepository.countByCell()).thenAnswer(invocation -> List.copyOf(rows));
+        rows.add(row(12L, 1L, 7L, 5));
+        rows.add(row(null, 1L, 7L, 3));
+        cube = new QuestionAvailabilityCube(questionRepository, dependencyIndex, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void loadsOnceAndCountsPerCell() {
+        assertEquals(5, cube.count(EASY_MCQ));
+        assertEquals(0, cube.count(HARD_MCQ));
+        assertEquals(0, cube.count(null, 1L, 7L));
+        verify(questionRepository, times(1)).countByCell();
+    }
+
+    @Test
+    void serviceWritesAdjustTheirCells() {
+        cube.count(EASY_MCQ);
+
+        cube.questionAdded(question(12L, 1L, 7L));
+        cube.questionMoved(EASY_MCQ, HARD_MCQ);
+        cube.questionMoved(HARD_MCQ, HARD_MCQ);
+        cube.added(HARD_MCQ, 3);
+        cube.questionRemoved(null);
+
+        assertEquals(5, cube.count(EASY_MCQ));
+        assertEquals(4, cube.count(HARD_MCQ));
+        verify(questionRepository, times(1)).countByCell();
+    }
+
+    @Test
+    void reconcileReloadsOnlyWhenQuestionsChangedOnAnotherNode() {
+        cube.count(EASY_MCQ);
+        cube.reconcile();
+        dependencyIndex.invalidateEntity(Question.class);
+        cube.reconcile();
+        verify(questionRepository, times(1)).countByCell();
+
+        rows.set(0, row(12L, 1L, 7L, 9));
+        dependencyIndex.invalidateRemoteEntity(Question.class);
+        cube.reconcile();
+
+        assertEquals(9, cube.count(EASY_MCQ));
+        verify(questionRepository, times(2)).countByCell();
+    }
+
+    @Test
+    void deltaCommittedJustBeforeAReloadIsNotCountedTwice() throws Exception {
+        cube.count(EASY_MCQ);
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch finishCommit = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = pool.submit(() -> inTransaction(() -> cube.questionAdded(question(12L, 1L, 7L)), () -> {
+                rows.set(0, row(12L, 1L, 7L, 6));
+                committed.countDown();
+                await(finishCommit);
+            }));
+            committed.await();
+            // The row is visible now, but the writer has not applied its delta yet
+            Future<?> reload = pool.submit(cube::reload);
+            Thread.sleep(50);
+            assertFalse(reload.isDone());
+
+            finishCommit.countDown();
+            writer.get(5, TimeUnit.SECONDS);
+            reload.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(6, cube.count(EASY_MCQ));
+    }
+
+    @Test
+    void deltaCommittedDuringAReloadIsAppliedToTheNewCounts() throws Exception {
+        cube.count(EASY_MCQ);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        List<Future<?>> writers = new ArrayList<>();
+        try {
+            when(questionRepository.countByCell()).thenAnswer(invocation -> {
+                writers.add(pool.submit(() -> inTransaction(() -> cube.added(HARD_MCQ, 2), () -> { })));
+                Thread.sleep(50);
+                return List.copyOf(rows);
+            });
+
+            cube.reload();
+            writers.get(0).get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(2, cube.count(HARD_MCQ));
+    }
+
+    @Test
+    void rolledBackDeltaIsNotApplied() {
+        cube.count(EASY_MCQ);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cube.added(EASY_MCQ, 3);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(5, cube.count(EASY_MCQ));
+    }
+
+    /**
+     * Runs {@code work} in a simulated transaction; {@code commit} stands for the database commit.
+     */
+    private static void inTransaction(Runnable work, Runnable commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(sync -> sync.beforeCommit(false));
+            commit.run();
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Question question(Long lessonId, Long levelId, Long typeId) {
+        Question question = new Question();
+        question.setLesson(Lesson.builder().id(lessonId).build());
+        question.setLevel(Level.builder().id(levelId).build());
+        question.setType(QuestionType.builder().id(typeId).build());
+        return question;
+    }
+
+    private static QuestionRepository.CellCount row(Long lessonId, Long levelId, Long typeId, long total) {
+        return new QuestionRepository.CellCount() {
+            @Override
+            public Long getLessonId() {
+                return lessonId;
+            }
+
+            @Override
+            public Long getLevelId() {
+                return levelId;
+            }
+
+            @Override
+            public Long getTypeId() {
+                return typeId;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
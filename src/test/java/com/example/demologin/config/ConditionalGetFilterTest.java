@@ -0,0 +1,246 @@
+package com.example.demologin.config;
+
+import com.example.demologin.annotation.ConditionalGet;
+import com.example.demologin.cache.CacheDependencyIndex;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Level;
+import com.example.demologin.entity.Role;
+import com.example.demologin.entity.User;
+import com.example.demologin.security.AuthPrincipal;
+import com.example.demologin.security.PermissionMatrix;
+import com.example.demologin.security.VerifiedToken;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConditionalGetFilterTest {
+
+    static class LevelEndpoints {
+        @ConditionalGet(entities = Level.class)
+        public void getLevelById() {}
+
+        public void searchLevels() {}
+
+        @ConditionalGet(entities = Level.class)
+        public void getAllLevels() {}
+    }
+
+    private CacheDependencyIndex dependencyIndex;
+    private PermissionMatrix permissionMatrix;
+    private ConditionalGetFilter filter;
+    private final AtomicInteger handlerCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dependencyIndex = new CacheDependencyIndex();
+        permissionMatrix = mock(PermissionMatrix.class);
+        Map<RequestMappingInfo, HandlerMethod> handlerMethods = new LinkedHashMap<>();
+        handlerMethods.put(get("/api/levels/{id}"), handler("getLevelById"));
+        handlerMethods.put(get("/api/levels/search"), handler("searchLevels"));
+        handlerMethods.put(get("/api/levels"), handler("getAllLevels"));
+        RequestMappingHandlerMapping handlerMapping = mock(RequestMappingHandlerMapping.class);
+        when(handlerMapping.getHandlerMethods()).thenReturn(handlerMethods);
+        filter = new ConditionalGetFilter(handlerMapping, dependencyIndex, permissionMatrix);
+    }
+
+    @Test
+    void okResponseCarriesEtagAndBodyIsUntouched() throws Exception {
+        MockHttpServletResponse response = run(request("/api/levels/1", null));
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader("ETag"));
+        assertEquals("private, no-cache", response.getHeader("Cache-Control"));
+        assertEquals("{\"status\":200}", response.getContentAsString());
+        assertEquals(1, handlerCalls.get());
+    }
+
+    @Test
+    void matchingIfNoneMatchShortCircuitsBeforeHandler() throws Exception {
+        String etag = run(request("/api/levels/1", null)).getHeader("ETag");
+
+        MockHttpServletResponse response = run(request("/api/levels/1", "W/" + etag));
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(etag, response.getHeader("ETag"));
+        assertEquals("", response.getContentAsString());
+        assertEquals(1, handlerCalls.get());
+    }
+
+    @Test
+    void entityChangeInvalidatesEtag() throws Exception {
+        String etag = run(request("/api/levels", null)).getHeader("ETag");
+
+        dependencyIndex.invalidateEntity(Grade.class);
+        assertEquals(etag, run(request("/api/levels", null)).getHeader("ETag"));
+
+        dependencyIndex.invalidateEntity(Level.class);
+        MockHttpServletResponse response = run(request("/api/levels", etag));
+        assertEquals(200, response.getStatus());
+        assertNotEquals(etag, response.getHeader("ETag"));
+    }
+
+    @Test
+    void etagDependsOnQueryRolesAndPermissions() throws Exception {
+        String page0 = run(request("/api/levels", null, "page=0")).getHeader("ETag");
+        String page1 = run(request("/api/levels", null, "page=1")).getHeader("ETag");
+        assertNotEquals(page0, page1);
+
+        authenticate(userWithRole("ADMIN"));
+        assertNotEquals(page0, run(request("/api/levels", null, "page=0")).getHeader("ETag"));
+        SecurityContextHolder.clearContext();
+
+        when(permissionMatrix.fingerprint()).thenReturn(42L);
+        assertNotEquals(page0, run(request("/api/levels", null, "page=0")).getHeader("ETag"));
+    }
+
+    @Test
+    void roleChangeInvalidatesEtagWhileTheTokenStaysTheSame() throws Exception {
+        VerifiedToken token = VerifiedToken.from("token",
+                Jwts.claims().subject("1").add("roles", List.of("ADMIN")).build());
+        User user = userWithRole("ADMIN");
+        authenticate(user);
+        MockHttpServletRequest first = request("/api/levels", null);
+        first.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, token);
+        String etag = run(first).getHeader("ETag");
+
+        // updateAdmin hạ quyền: principal được nạp lại, token (và claim roles) giữ nguyên
+        user.setRoles(new HashSet<>(Set.of(Role.builder().id(3L).name("STUDENT").build())));
+        authenticate(user);
+        MockHttpServletRequest again = request("/api/levels", etag);
+        again.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, token);
+        MockHttpServletResponse response = run(again);
+
+        assertEquals(200, response.getStatus());
+        assertNotEquals(etag, response.getHeader("ETag"));
+        assertEquals(2, handlerCalls.get());
+    }
+
+    @Test
+    void moreSpecificRouteWithoutAnnotationIsNotConditional() throws Exception {
+        MockHttpServletResponse response = run(request("/api/levels/search", null));
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    void errorResponseCarriesNoEtag() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            ((HttpServletResponse) res).setStatus(404);
+            res.getWriter().write("{\"status\":404}");
+        };
+
+        filter.doFilter(request("/api/levels/99", null), response, chain);
+
+        assertEquals(404, response.getStatus());
+        assertNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    void wildcardIfNoneMatchDoesNotHideA404() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            handlerCalls.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(404);
+            res.getWriter().write("{\"status\":404}");
+        };
+
+        filter.doFilter(request("/api/levels/99", "*"), response, chain);
+
+        assertEquals(404, response.getStatus());
+        assertEquals("{\"status\":404}", response.getContentAsString());
+        assertEquals(1, handlerCalls.get());
+    }
+
+    @Test
+    void writesAreNotFiltered() throws Exception {
+        MockHttpServletRequest request = request("/api/levels/1", "*");
+        request.setMethod("PUT");
+
+        MockHttpServletResponse response = run(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1, handlerCalls.get());
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static User userWithRole(String roleName) {
+        User user = new User("user", "x", "User", "user@example.com");
+        user.setUserId(1L);
+        user.setRoles(new HashSet<>(Set.of(Role.builder().id(1L).name(roleName).build())));
+        return user;
+    }
+
+    private static void authenticate(User user) {
+        AuthPrincipal principal = AuthPrincipal.from(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, "token", principal.getAuthorities()));
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                handlerCalls.incrementAndGet();
+                res.setStatus(200);
+                res.getWriter().write("{\"status\":200}");
+            }
+        }));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri, String ifNoneMatch) {
+        return request(uri, ifNoneMatch, null);
+    }
+
+    private static MockHttpServletRequest request(String uri, String ifNoneMatch, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setQueryString(query);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return request;
+    }
+
+    private static RequestMappingInfo get(String path) {
+        RequestMappingInfo.BuilderConfiguration options = new RequestMappingInfo.BuilderConfiguration();
+        options.setPatternParser(new PathPatternParser());
+        return RequestMappingInfo.paths(path).methods(RequestMethod.GET).options(options).build();
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new LevelEndpoints(), LevelEndpoints.class.getMethod(name));
+    }
+}
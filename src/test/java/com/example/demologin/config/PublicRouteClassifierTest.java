@@ -0,0 +1,50 @@
+package com.example.demologin.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicRouteClassifierTest {
+
+    private static final List<String> PATTERNS = List.of(
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/questions/{id}",
+            "/api/questions/{id}/answers",
+            "/api/plans/*/public",
+            "/api/lessons/**/preview",
+            "/swagger-ui/**",
+            "/api/payment/vnpay/vnpay-return"
+    );
+
+    private final PublicRouteClassifier classifier = new PublicRouteClassifier(PATTERNS, 100);
+
+    @Test
+    void agreesWithAntPathMatcher() {
+        AntPathMatcher matcher = new AntPathMatcher();
+        List<String> uris = List.of(
+                "/api/auth/login", "/api/auth/login/", "/api/auth", "/api/auth/logout",
+                "/api/questions/5", "/api/questions/5/answers", "/api/questions", "/api/questions/5/other",
+                "/api/plans/3/public", "/api/plans/3/private",
+                "/api/lessons/1/2/preview", "/api/lessons/preview", "/api/lessons/1/edit",
+                "/swagger-ui", "/swagger-ui/", "/swagger-ui/index.html", "/swagger-uix",
+                "/api/payment/vnpay/vnpay-return", "/", "/api/users/1");
+
+        for (String uri : uris) {
+            boolean expected = PATTERNS.stream().anyMatch(p -> matcher.match(p, uri));
+            assertEquals(expected, classifier.classify(uri), uri);
+            assertEquals(expected, classifier.isPublic(uri), uri);
+        }
+    }
+
+    @Test
+    void cachedDecisionIsStable() {
+        assertTrue(classifier.isPublic("/api/questions/9"));
+        assertTrue(classifier.isPublic("/api/questions/9"));
+        assertFalse(classifier.isPublic("/api/users/9"));
+        assertFalse(classifier.isPublic("/api/users/9"));
+    }
+}
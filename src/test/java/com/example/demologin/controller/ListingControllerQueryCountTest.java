@@ -0,0 +1,238 @@
+package com.example.demologin.controller;
+
+import com.example.demologin.ai.QuestionGenerator;
+import com.example.demologin.cache.CurriculumRegistry;
+import com.example.demologin.cache.ExamPaperRegistry;
+import com.example.demologin.cache.QuestionAvailabilityCube;
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.Exam;
+import com.example.demologin.entity.ExamAttempt;
+import com.example.demologin.entity.ExamQuestion;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
+import com.example.demologin.entity.Level;
+import com.example.demologin.entity.Matrix;
+import com.example.demologin.entity.Option;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
+import com.example.demologin.entity.User;
+import com.example.demologin.enums.Gender;
+import com.example.demologin.enums.UserStatus;
+import com.example.demologin.mapper.examattempt.ExamAttemptMapper;
+import com.example.demologin.mapper.question.QuestionMapper;
+import com.example.demologin.repository.ExamQuestionBatchRepository;
+import com.example.demologin.search.SearchIndexManager;
+import com.example.demologin.service.QuestionGenerationService;
+import com.example.demologin.service.QuestionImportService;
+import com.example.demologin.service.SubscriptionService;
+import com.example.demologin.service.UserActivityLogService;
+import com.example.demologin.serviceImpl.ExamServiceImpl;
+import com.example.demologin.serviceImpl.ExamTakingServiceImpl;
+import com.example.demologin.serviceImpl.MatrixServiceImpl;
+import com.example.demologin.serviceImpl.QuestionServiceImpl;
+import com.example.demologin.utils.AccountUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+
+import static com.example.demologin.monitoring.QueryAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Statement budgets of the listing endpoints, measured through the controllers against H2.
+ * Security and response advice are not part of this slice; only the SQL a request runs is.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:listing-controller-query-count;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=64"
+})
+@Import({ExamManagementController.class, ExamMemberController.class, QuestionController.class,
+        ExamServiceImpl.class, MatrixServiceImpl.class, ExamTakingServiceImpl.class,
+        QuestionServiceImpl.class, QuestionMapper.class, ExamAttemptMapper.class})
+class ListingControllerQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ExamManagementController examManagementController;
+    @Autowired
+    private ExamMemberController examMemberController;
+    @Autowired
+    private QuestionController questionController;
+
+    @MockitoBean
+    private SearchIndexManager searchIndexManager;
+    @MockitoBean
+    private ExamQuestionBatchRepository examQuestionBatchRepository;
+    @MockitoBean(answers = Answers.RETURNS_DEEP_STUBS)
+    private CurriculumRegistry curriculumRegistry;
+    @MockitoBean
+    private QuestionAvailabilityCube availabilityCube;
+    @MockitoBean
+    private AccountUtils accountUtils;
+    @MockitoBean
+    private SubscriptionService subscriptionService;
+    @MockitoBean
+    private UserActivityLogService userActivityLogService;
+    @MockitoBean
+    private QuestionGenerator questionGenerator;
+    @MockitoBean
+    private ExamPaperRegistry examPaperRegistry;
+    @MockitoBean
+    private QuestionImportService questionImportService;
+    @MockitoBean
+    private QuestionGenerationService questionGenerationService;
+
+    private MockMvc mockMvc;
+    private User teacher;
+    private Lesson lesson;
+    private Level level;
+    private QuestionType type;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(examManagementController, examMemberController, questionController)
+                .build();
+        teacher = persistUser("teacher");
+        Grade grade = new Grade();
+        grade.setGradeNumber(10);
+        entityManager.persist(grade);
+        Chapter chapter = new Chapter();
+        chapter.setName("Chapter");
+        chapter.setGrade(grade);
+        entityManager.persist(chapter);
+        lesson = new Lesson();
+        lesson.setLessonName("Lesson");
+        lesson.setChapter(chapter);
+        entityManager.persist(lesson);
+        level = new Level();
+        level.setDifficulty("EASY");
+        level.setScore(1.0);
+        entityManager.persist(level);
+        type = new QuestionType();
+        type.setDescription("MCQ");
+        entityManager.persist(type);
+    }
+
+    @Test
+    void examListStaysWithinBudget() {
+        seedExams(8);
+        flushAndClear();
+
+        assertMaxQueries(3, () -> perform("/api/exams?page=0&size=20"));
+    }
+
+    @Test
+    void myAttemptsStaysWithinBudget() {
+        User student = persistUser("student");
+        seedExams(6);
+        for (Exam exam : entityManager.getEntityManager()
+                .createQuery("SELECT e FROM Exam e", Exam.class).getResultList()) {
+            ExamAttempt attempt = new ExamAttempt();
+            attempt.setExam(exam);
+            attempt.setUser(student);
+            attempt.setStartedAt(LocalDateTime.now());
+            entityManager.persist(attempt);
+        }
+        flushAndClear();
+        when(accountUtils.getCurrentUser()).thenReturn(student);
+
+        assertMaxQueries(6, () -> perform("/api/exams/my/attempts?page=0&size=20"));
+    }
+
+    @Test
+    void questionListStaysWithinBudget() {
+        for (int i = 0; i < 10; i++) {
+            Question question = persistQuestion();
+            for (int o = 0; o < 3; o++) {
+                Option option = new Option();
+                option.setQuestion(question);
+                option.setOptionText("Option " + o);
+                option.setIsCorrect(o == 0);
+                entityManager.persist(option);
+            }
+        }
+        flushAndClear();
+
+        assertMaxQueries(5, () -> perform("/api/questions?page=0&size=20"));
+        assertMaxQueries(5, () -> perform("/api/questions?cursor=&size=20"));
+    }
+
+    private MvcResult perform(String uri) {
+        try {
+            MvcResult result = mockMvc.perform(get(uri)).andReturn();
+            assertEquals(200, result.getResponse().getStatus(), uri);
+            return result;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void seedExams(int count) {
+        for (int i = 0; i < count; i++) {
+            Matrix matrix = new Matrix();
+            matrix.setTitle("Matrix " + sequence++);
+            matrix.setUser(teacher);
+            matrix.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(matrix);
+            Exam exam = new Exam();
+            exam.setTitle("Exam " + sequence);
+            exam.setStatus("PUBLISHED");
+            exam.setDurationMinutes(45);
+            exam.setMatrix(matrix);
+            exam.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(exam);
+            for (int q = 0; q < 2; q++) {
+                ExamQuestion examQuestion = new ExamQuestion();
+                examQuestion.setExam(exam);
+                examQuestion.setQuestion(persistQuestion());
+                examQuestion.setScore(1.0);
+                entityManager.persist(examQuestion);
+            }
+        }
+    }
+
+    private Question persistQuestion() {
+        Question question = new Question();
+        question.setQuestionText("Question " + sequence++);
+        question.setLesson(lesson);
+        question.setLevel(level);
+        question.setType(type);
+        entityManager.persist(question);
+        return question;
+    }
+
+    private User persistUser(String prefix) {
+        String username = prefix + sequence++;
+        User user = new User(username, "secret", username, username + "@example.com");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setGender(Gender.OTHER);
+        entityManager.persist(user);
+        return user;
+    }
+}
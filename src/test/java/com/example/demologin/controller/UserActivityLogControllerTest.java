@@ -80,7 +80,7 @@ class UserActivityLogControllerTest {
     void getAllActivityLogs() {
         Page<UserActivityLogResponse> page = new org.springframework.data.domain.PageImpl<>(java.util.Collections.emptyList(), org.springframework.data.domain.PageRequest.of(0, 20), 0);
         when(userActivityLogService.getAllActivityLogs(0, 20)).thenReturn(page);
-        Object result = controller.getAllActivityLogs(0, 20);
+        Object result = controller.getAllActivityLogs(0, 20, null, false);
         assertEquals(page, result);
         verify(userActivityLogService).getAllActivityLogs(0, 20);
     }
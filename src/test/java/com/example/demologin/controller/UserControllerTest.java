@@ -32,7 +32,7 @@ class UserControllerTest {
 	void testGetAllUsers_emptyPage() {
 		Page<MemberResponse> emptyPage = new PageImpl<>(Collections.emptyList(), PageRequest.of(0, 20), 0);
 		when(userService.getAllUsers(0, 20)).thenReturn(emptyPage);
-		Object result = userController.getAllUsers(0, 20);
+		Object result = userController.getAllUsers(0, 20, null, false);
 		assertNotNull(result);
 		assertTrue(result instanceof Page);
 		assertTrue(((Page<?>) result).isEmpty());
@@ -0,0 +1,146 @@
+package com.example.demologin.importer;
+
+import com.example.demologin.cache.CacheInvalidationBus;
+import com.example.demologin.cache.CurriculumRegistry;
+import com.example.demologin.cache.CurriculumSnapshot;
+import com.example.demologin.cache.QuestionAvailabilityCube;
+import com.example.demologin.entity.Level;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
+import com.example.demologin.enums.ImportJobStatus;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.repository.LevelRepository;
+import com.example.demologin.repository.QuestionTypeRepository;
+import com.example.demologin.search.SearchIndexManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class QuestionImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+    private CacheInvalidationBus invalidationBus;
+    private QuestionAvailabilityCube availabilityCube;
+    private SearchIndexManager searchIndex;
+    private QuestionImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:question-import;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE questions (id BIGINT AUTO_INCREMENT PRIMARY KEY, question_text VARCHAR(255), "
+                + "type BIGINT, lesson_id BIGINT, question_level BIGINT, created_at TIMESTAMP, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE options (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "question_id BIGINT NOT NULL REFERENCES questions(id), option_text CLOB, is_correct BOOLEAN)");
+
+        LevelRepository levelRepository = mock(LevelRepository.class);
+        when(levelRepository.findAll()).thenReturn(List.of(
+                Level.builder().id(1L).difficulty("Easy").build(),
+                Level.builder().id(2L).difficulty("Hard").build()));
+        QuestionTypeRepository typeRepository = mock(QuestionTypeRepository.class);
+        when(typeRepository.findAll()).thenReturn(List.of(
+                QuestionType.builder().id(7L).description("MCQ_SINGLE").build(),
+                QuestionType.builder().id(8L).description("TRUE_FALSE").build()));
+        CurriculumRegistry curriculumRegistry = mock(CurriculumRegistry.class);
+        when(curriculumRegistry.current()).thenReturn(new CurriculumSnapshot(1, List.of(), List.of(),
+                List.of(new CurriculumSnapshot.Lesson(12L, null, "Bài 12"))));
+        invalidationBus = mock(CacheInvalidationBus.class);
+        availabilityCube = mock(QuestionAvailabilityCube.class);
+        searchIndex = mock(SearchIndexManager.class);
+
+        QuestionBatchWriter writer = new QuestionBatchWriter(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                availabilityCube);
+        importer = new QuestionImporter(levelRepository, typeRepository, curriculumRegistry, writer,
+                invalidationBus, searchIndex, new ObjectMapper(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void validRowsAreWrittenInChunksAndBadRowsReported() throws IOException {
+        Path file = Files.writeString(dir.resolve("bank.csv"), """
+                question_text,type,lesson_id,level,options,correct
+                Q1,MCQ_SINGLE,12,Easy,a|b|c,A
+                Q2,,12,2,Đúng|Sai,1
+                Q3,MCQ_SINGLE,99,Easy,a|b,A
+                Q4,MCQ_SINGLE,12,Easy,a|b,A|B
+                Q5,MCQ_SINGLE,,Medium,a|b,A
+                Q6,MCQ_SINGLE,,,a|b,B
+                """);
+        QuestionImportJob job = new QuestionImportJob(1L, "bank.csv", QuestionImportFormat.CSV);
+
+        importer.run(job, file, importer.resolveReferences(new QuestionImporter.Defaults("true_false", 12L, 1L)));
+
+        assertEquals(ImportJobStatus.COMPLETED, job.getStatus());
+        assertEquals(6, job.getProcessedRows().get());
+        assertEquals(3, job.getImportedRows().get());
+        assertEquals(List.of(
+                new QuestionImportJob.RowError(4, "Lesson not found: 99"),
+                new QuestionImportJob.RowError(5, "MCQ_SINGLE requires exactly 1 correct option."),
+                new QuestionImportJob.RowError(6, "Invalid level: Medium")), job.errorsSnapshot());
+
+        List<Map<String, Object>> questions = jdbcTemplate.queryForList(
+                "SELECT question_text, type, lesson_id, question_level FROM questions ORDER BY id");
+        assertEquals(List.of("Q1", "Q2", "Q6"), questions.stream().map(q -> q.get("QUESTION_TEXT")).toList());
+        assertEquals(8L, ((Number) questions.get(1).get("TYPE")).longValue());
+        assertEquals(1L, ((Number) questions.get(2).get("QUESTION_LEVEL")).longValue());
+        assertEquals(7, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM options", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM options o JOIN questions q ON q.id = o.question_id WHERE o.is_correct", Integer.class));
+        verify(invalidationBus, atLeastOnce()).invalidateEntity(Question.class);
+        // Chunks of 2: Q1+Q2, then Q6
+        verify(availabilityCube, times(2)).added(new QuestionAvailabilityCube.Cell(12, 1, 7), 1);
+        verify(availabilityCube).added(new QuestionAvailabilityCube.Cell(12, 2, 8), 1);
+        long q6 = jdbcTemplate.queryForObject("SELECT id FROM questions WHERE question_text = 'Q6'", Long.class);
+        verify(searchIndex).questionSaved(q6, "Q6", List.of("a", "b"), 12L, 1L, 7L);
+        verify(searchIndex, times(3)).questionSaved(anyLong(), anyString(), anyList(), eq(12L), anyLong(), anyLong());
+    }
+
+    @Test
+    void unreadableFileFailsJobButKeepsCommittedChunks() throws IOException {
+        Path file = Files.writeString(dir.resolve("bank.csv"), """
+                question_text,type,lesson_id,level,options,correct
+                Q1,MCQ_SINGLE,12,Easy,a|b,A
+                Q2,MCQ_SINGLE,12,Easy,a|b,A
+                "Q3 is never closed
+                """);
+        QuestionImportJob job = new QuestionImportJob(1L, "bank.csv", QuestionImportFormat.CSV);
+
+        importer.run(job, file, importer.resolveReferences(new QuestionImporter.Defaults(null, null, null)));
+
+        assertEquals(ImportJobStatus.FAILED, job.getStatus());
+        assertTrue(job.getMessage().contains("Unterminated"));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM questions", Integer.class));
+    }
+
+    @Test
+    void unknownDefaultsAreRejectedUpFront() {
+        assertThrows(BadRequestException.class,
+                () -> importer.resolveReferences(new QuestionImporter.Defaults("ESSAY", null, null)));
+        assertThrows(BadRequestException.class,
+                () -> importer.resolveReferences(new QuestionImporter.Defaults(null, 13L, null)));
+        assertThrows(BadRequestException.class,
+                () -> importer.resolveReferences(new QuestionImporter.Defaults(null, null, 3L)));
+    }
+}
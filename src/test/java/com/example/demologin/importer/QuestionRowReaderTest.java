@@ -0,0 +1,139 @@
+package com.example.demologin.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionRowReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvHandlesQuotesLineBreaksAndCorrectMarkers() throws IOException {
+        Path file = write("questions.csv", """
+                \uFEFFquestion_text,type,lesson_id,level,options,correct
+                "Chọn đáp án đúng, ""2 + 2"" bằng?
+                (dòng 2)",MCQ_SINGLE,12,Easy,3|4|5,B
+
+                Câu thứ hai,MCQ_MULTI,abc,1,a|b,1|2
+                Câu thứ ba,MCQ_SINGLE,12,1,a|b,C
+                """);
+
+        List<QuestionImportRow> rows = readAll(QuestionImportFormat.CSV, file);
+
+        assertEquals(3, rows.size());
+        QuestionImportRow first = rows.get(0);
+        assertEquals(2, first.rowNumber());
+        assertEquals("Chọn đáp án đúng, \"2 + 2\" bằng?\n(dòng 2)", first.questionText());
+        assertEquals(12L, first.lessonId());
+        assertEquals("Easy", first.level());
+        assertEquals(List.of(false, true, false), first.options().stream().map(o -> o.getIsCorrect()).toList());
+        assertEquals("lesson_id is not a number: abc", rows.get(1).error());
+        assertEquals(5, rows.get(2).rowNumber());
+        assertTrue(rows.get(2).error().contains("does not match"));
+    }
+
+    @Test
+    void csvWithSemicolonHeaderSwitchesSeparator() throws IOException {
+        Path file = write("questions.csv", "question;type;lesson\nHỏi;TRUE_FALSE;3\n");
+
+        QuestionImportRow row = readAll(QuestionImportFormat.CSV, file).get(0);
+
+        assertEquals("Hỏi", row.questionText());
+        assertEquals("TRUE_FALSE", row.type());
+        assertEquals(3L, row.lessonId());
+    }
+
+    @Test
+    void jsonLinesReportsBadLinesAndKeepsGoing() throws IOException {
+        Path file = write("questions.jsonl", """
+                {"questionText":"A?","type":"MCQ_SINGLE","lessonId":1,"levelId":2,"options":[{"optionText":"x"},{"optionText":"y","isCorrect":true}]}
+                {not json
+                
+                {"questionText":"B?","level":"Hard"}
+                """);
+
+        List<QuestionImportRow> rows = readAll(QuestionImportFormat.JSONL, file);
+
+        assertEquals(3, rows.size());
+        assertEquals("2", rows.get(0).level());
+        assertTrue(rows.get(0).options().get(1).getIsCorrect());
+        assertTrue(rows.get(1).error().startsWith("Invalid JSON"));
+        assertEquals(4, rows.get(2).rowNumber());
+        assertEquals("Hard", rows.get(2).level());
+        assertNull(rows.get(2).lessonId());
+    }
+
+    @Test
+    void docxUsesGeneratorLayout() throws IOException {
+        Path file = dir.resolve("questions.docx");
+        XWPFDocument document = new XWPFDocument(); // POI 3.9: not Closeable
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (String line : List.of(
+                    "Đề kiểm tra chương 1",
+                    "1. 2 + 2 = ? (type: MCQ_SINGLE, difficulty: Easy, lesson: 12)",
+                    "A. 3",
+                    "B. 4 (đúng)",
+                    "Câu 2: Số nào là số nguyên tố",
+                    "lớn hơn 10?",
+                    "A. 11",
+                    "*B. 13",
+                    "C. 15")) {
+                document.createParagraph().createRun().setText(line);
+            }
+            document.write(out);
+        }
+
+        List<QuestionImportRow> rows = readAll(QuestionImportFormat.DOCX, file);
+
+        assertEquals(2, rows.size());
+        QuestionImportRow first = rows.get(0);
+        assertEquals("2 + 2 = ?", first.questionText());
+        assertEquals("MCQ_SINGLE", first.type());
+        assertEquals("Easy", first.level());
+        assertEquals(12L, first.lessonId());
+        assertEquals("4", first.options().get(1).getOptionText());
+        assertTrue(first.options().get(1).getIsCorrect());
+
+        QuestionImportRow second = rows.get(1);
+        assertEquals("Số nào là số nguyên tố lớn hơn 10?", second.questionText());
+        assertEquals(3, second.options().size());
+        assertEquals(List.of(false, true, false), second.options().stream().map(o -> o.getIsCorrect()).toList());
+    }
+
+    @Test
+    void formatIsDetectedFromExtension() {
+        assertEquals(QuestionImportFormat.JSONL, QuestionImportFormat.resolve(null, "bank.NDJSON"));
+        assertEquals(QuestionImportFormat.DOCX, QuestionImportFormat.resolve("docx", "bank.bin"));
+        assertThrows(RuntimeException.class, () -> QuestionImportFormat.resolve(null, "bank.xlsx"));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<QuestionImportRow> readAll(QuestionImportFormat format, Path file) throws IOException {
+        List<QuestionImportRow> rows = new ArrayList<>();
+        try (QuestionRowReader reader = format.open(file, new ObjectMapper())) {
+            QuestionImportRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
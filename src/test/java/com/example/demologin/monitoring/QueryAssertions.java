@@ -0,0 +1,46 @@
+package com.example.demologin.monitoring;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement-count assertions for tests that run against a real (H2) database, backed by the same
+ * {@link QueryStats} scope the request filter uses.
+ */
+public final class QueryAssertions {
+
+    private QueryAssertions() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Run {@code call} and fail when it prepared more than {@code max} SQL statements.
+     * Flush and clear the persistence context first, or cached entities will hide the selects.
+     */
+    public static <T> T assertMaxQueries(int max, Supplier<T> call) {
+        QueryStats stats = QueryStats.start();
+        T result;
+        try {
+            result = call.get();
+        } finally {
+            QueryStats.stop();
+        }
+        assertTrue(stats.getStatements() <= max, () -> "Expected at most " + max + " statements but "
+                + stats.getStatements() + " ran; repeated: " + stats.repeatedShapes(2));
+        return result;
+    }
+
+    /**
+     * @return the number of statements {@code call} prepared
+     */
+    public static int countQueries(Runnable call) {
+        QueryStats stats = QueryStats.start();
+        try {
+            call.run();
+        } finally {
+            QueryStats.stop();
+        }
+        return stats.getStatements();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demologin.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryStatsTest {
+
+    private final QueryStatsInspector inspector = new QueryStatsInspector();
+
+    @AfterEach
+    void tearDown() {
+        while (QueryStats.current() != null) {
+            QueryStats.stop();
+        }
+    }
+
+    @Test
+    void shapeCollapsesLiteralsWhitespaceAndInLists() {
+        assertEquals("select * from exams e where e.id in (?) and e.title=?",
+                QueryStats.shapeOf("SELECT *\n  FROM exams e WHERE e.id IN (?, ?,?) AND e.title='it''s'"));
+        assertEquals(QueryStats.shapeOf("select a from b where id=1"), QueryStats.shapeOf("select a from b where id=42"));
+    }
+
+    @Test
+    void nothingIsCountedOutsideAScope() {
+        assertEquals("select 1", inspector.inspect("select 1"));
+        assertNull(QueryStats.current());
+    }
+
+    @Test
+    void nestedScopesAlsoCountTowardsTheOuterOne() {
+        QueryStats outer = QueryStats.start();
+        inspector.inspect("select 1");
+        QueryStats inner = QueryStats.start();
+        inspector.inspect("select 2");
+        QueryStats.stop();
+
+        assertSame(outer, QueryStats.current());
+        assertEquals(1, inner.getStatements());
+        assertEquals(2, outer.getStatements());
+        QueryStats.stop();
+        assertNull(QueryStats.current());
+    }
+
+    @Test
+    void repeatedShapesAreTheNPlusOneSignature() {
+        QueryStats stats = QueryStats.start();
+        inspector.inspect("select * from exams");
+        for (int id = 1; id <= 6; id++) {
+            inspector.inspect("select * from exam_questions where exam_id=" + id);
+        }
+        QueryStats.stop();
+
+        Map<String, Integer> repeated = stats.repeatedShapes(5);
+        assertEquals(Map.of("select * from exam_questions where exam_id=?", 6), repeated);
+        assertEquals(2, stats.getDistinctShapes());
+        assertTrue(stats.repeatedShapes(7).isEmpty());
+    }
+
+    @Test
+    void recorderReportsCountAndRepeats() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryStatsRecorder recorder = new QueryStatsRecorder(registry, true, 3);
+        QueryStats stats = QueryStats.start();
+        for (int i = 0; i < 3; i++) {
+            inspector.inspect("select * from options where question_id=" + i);
+        }
+        QueryStats.stop();
+
+        assertEquals("db;dur=0.0;desc=\"3 statements\", db-repeat;desc=\"3x\"", recorder.serverTiming(stats));
+        recorder.record("http", "GET /api/questions", stats);
+        assertEquals(3.0, registry.get("sql.statements").tag("name", "GET /api/questions").summary().totalAmount());
+        assertEquals(1.0, registry.get("sql.repeated").counter().count());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demologin.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private static final long[] NO_FILTER = {InvertedIndex.ANY, InvertedIndex.ANY};
+
+    private static List<Long> ids(InvertedIndex.SearchResult result) {
+        return result.hits().stream().map(InvertedIndex.Hit::id).toList();
+    }
+
+    private static InvertedIndex sample() {
+        InvertedIndex index = new InvertedIndex(2);
+        index.put(1, "Giải phương trình bậc hai x² - 5x + 6 = 0", 10, 1);
+        index.put(2, "Phương trình bậc nhất một ẩn", 10, 2);
+        index.put(3, "Tính đạo hàm của hàm số y = x^2", 11, 1);
+        index.put(4, "Phương trình phương trình phương trình", 12, 1);
+        return index;
+    }
+
+    @Test
+    void matchesAllTermsAndRanksByBm25() {
+        InvertedIndex index = sample();
+
+        InvertedIndex.SearchResult result = index.search("phuong trinh bac hai ", NO_FILTER, 0, 10);
+
+        assertEquals(1, result.total());
+        assertEquals(List.of(1L), ids(result));
+
+        // Higher term frequency wins among documents of similar length
+        assertEquals(4L, ids(index.search("phương ", NO_FILTER, 0, 10)).get(0));
+    }
+
+    @Test
+    void fallsBackToAnyTermWhenNothingMatchesAll() {
+        InvertedIndex.SearchResult result = sample().search("đạo hàm logarit ", NO_FILTER, 0, 10);
+
+        assertEquals(List.of(3L), ids(result));
+    }
+
+    @Test
+    void lastTermMatchesAsPrefixWhileTyping() {
+        InvertedIndex index = sample();
+
+        assertEquals(List.of(3L), ids(index.search("đạo h", NO_FILTER, 0, 10)));
+        assertEquals(3, index.search("ph", NO_FILTER, 0, 10).total());
+        assertEquals(0, index.search("ph ", NO_FILTER, 0, 10).total());
+    }
+
+    @Test
+    void filtersOnAttributes() {
+        InvertedIndex index = sample();
+
+        assertEquals(List.of(1L, 2L), ids(index.search("bậc ", new long[]{10, InvertedIndex.ANY}, 0, 10)).stream().sorted().toList());
+        assertEquals(List.of(2L), ids(index.search("bậc ", new long[]{10, 2}, 0, 10)));
+        assertEquals(0, index.search("bậc ", new long[]{11, InvertedIndex.ANY}, 0, 10).total());
+        assertEquals(List.of(3L), ids(index.search("x^2 ", new long[]{11, InvertedIndex.ANY}, 0, 10)));
+    }
+
+    @Test
+    void updatesAndRemovesDocuments() {
+        InvertedIndex index = sample();
+
+        index.put(2, "Hệ phương trình tuyến tính", 10, 2);
+        assertEquals(0, index.search("nhất ", NO_FILTER, 0, 10).total());
+        assertEquals(List.of(2L), ids(index.search("tuyến tính ", NO_FILTER, 0, 10)));
+
+        assertTrue(index.remove(4));
+        assertFalse(index.remove(4));
+        assertEquals(3, index.size());
+        assertFalse(ids(index.search("phương ", NO_FILTER, 0, 10)).contains(4L));
+    }
+
+    @Test
+    void pagesThroughResultsAndSurvivesCompaction() {
+        InvertedIndex index = new InvertedIndex(0);
+        for (long id = 1; id <= 500; id++) {
+            index.put(id, "câu hỏi số " + id + (id % 2 == 0 ? " chẵn" : " lẻ"));
+        }
+        for (long id = 1; id <= 500; id += 2) {
+            index.remove(id);
+        }
+        index.optimize();
+
+        InvertedIndex.SearchResult first = index.search("câu hỏi ", null, 0, 20);
+        InvertedIndex.SearchResult second = index.search("câu hỏi ", null, 20, 20);
+        assertEquals(250, first.total());
+        assertEquals(20, first.hits().size());
+        assertTrue(ids(first).stream().noneMatch(ids(second)::contains));
+        assertEquals(List.of(42L), ids(index.search("42 chẵn ", null, 0, 10)));
+        assertEquals(0, index.search("lẻ ", null, 0, 10).total());
+    }
+}
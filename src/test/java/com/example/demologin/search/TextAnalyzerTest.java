@@ -0,0 +1,39 @@
+package com.example.demologin.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextAnalyzerTest {
+
+    @Test
+    void foldsVietnameseDiacriticsAndCase() {
+        assertEquals("phuong trinh bac hai", TextAnalyzer.fold("Phương Trình BẬC HAI"));
+        assertEquals("dao ham", TextAnalyzer.fold("Đạo hàm"));
+        assertEquals(List.of("tim", "gia", "tri", "lon", "nhat"), TextAnalyzer.analyze("Tìm giá trị lớn nhất?"));
+    }
+
+    @Test
+    void keepsDecimalsAndPowersTogether() {
+        assertEquals(List.of("pi", "3.14"), TextAnalyzer.analyze("π ≈ 3,14"));
+        assertEquals(List.of("x", "2", "x^2", "1"), TextAnalyzer.analyze("x^2 + 1"));
+        assertEquals(TextAnalyzer.analyze("x^2"), TextAnalyzer.analyze("x²"));
+        assertTrue(TextAnalyzer.analyze("x²³").contains("x^23"));
+    }
+
+    @Test
+    void namesMathSymbols() {
+        assertEquals(List.of("sqrt", "2"), TextAnalyzer.analyze("√2"));
+        assertEquals(List.of("delta", "0"), TextAnalyzer.analyze("Δ > 0"));
+        assertEquals(List.of("a", "in", "b"), TextAnalyzer.analyze("a ∈ B"));
+    }
+
+    @Test
+    void emptyAndOverlongInput() {
+        assertTrue(TextAnalyzer.analyze(null).isEmpty());
+        assertTrue(TextAnalyzer.analyze(" ?! ").isEmpty());
+        assertTrue(TextAnalyzer.analyze("a".repeat(TextAnalyzer.MAX_TERM_LENGTH + 1)).isEmpty());
+    }
+}
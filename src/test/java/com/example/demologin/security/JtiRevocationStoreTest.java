@@ -0,0 +1,193 @@
+package com.example.demologin.security;
+
+import com.example.demologin.entity.TokenRevocation;
+import com.example.demologin.repository.RefreshTokenRepository;
+import com.example.demologin.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JtiRevocationStoreTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+    @Mock
+    private TokenVersionTable tokenVersionTable;
+    @Mock
+    private AuthPrincipalCache authPrincipalCache;
+
+    private JtiRevocationStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new JtiRevocationStore(refreshTokenRepository, tokenRevocationRepository, tokenVersionTable, authPrincipalCache,
+                60_000L, 1_000, 10_000L);
+    }
+
+    @Test
+    void liveJtiIsActiveWithoutDbLookup() {
+        store.registerLive("a", LocalDateTime.now().plusHours(1));
+
+        assertTrue(store.isActive("a"));
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void unknownJtiIsResolvedOnceFromDb() {
+        when(refreshTokenRepository.findExpiryDateByJti("b"))
+                .thenReturn(Optional.of(LocalDateTime.now().plusHours(1)));
+
+        assertTrue(store.isActive("b"));
+        assertTrue(store.isActive("b"));
+        verify(refreshTokenRepository, times(1)).findExpiryDateByJti("b");
+    }
+
+    @Test
+    void jtiMissingFromDbIsDeniedAndRemembered() {
+        when(refreshTokenRepository.findExpiryDateByJti("c")).thenReturn(Optional.empty());
+
+        assertFalse(store.isActive("c"));
+        assertFalse(store.isActive("c"));
+        verify(refreshTokenRepository, times(1)).findExpiryDateByJti("c");
+    }
+
+    @Test
+    void localRevokeIsPublishedAndAppliedImmediately() {
+        store.registerLive("d", LocalDateTime.now().plusHours(1));
+
+        store.revoke("d");
+
+        assertFalse(store.isActive("d"));
+        verify(tokenRevocationRepository).save(argThat(r -> "d".equals(r.getJti())));
+    }
+
+    @Test
+    void revocationFromAnotherNodeIsAppliedByPoll() {
+        store.registerLive("e", LocalDateTime.now().plusHours(1));
+        TokenRevocation remote = TokenRevocation.builder()
+                .id(7L).jti("e")
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(tokenRevocationRepository.findTop500ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(remote));
+
+        store.pollChanges();
+
+        assertFalse(store.isActive("e"));
+    }
+
+    @Test
+    void revokeInsideATransactionAppliesOnlyAfterCommit() {
+        store.registerLive("g", LocalDateTime.now().plusHours(1));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.revoke("g");
+
+            assertTrue(store.isActive("g"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertFalse(store.isActive("g"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rolledBackRevokeLeavesTheJtiActive() {
+        store.registerLive("h", LocalDateTime.now().plusHours(1));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.revoke("h");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(store.isActive("h"));
+    }
+
+    @Test
+    void revocationCommittedBehindTheFeedPositionIsPickedUpLater() {
+        store.registerLive("late", LocalDateTime.now().plusHours(1));
+        TokenRevocation ahead = TokenRevocation.builder()
+                .id(12L).userId(42L).tokenVersion(3)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+        TokenRevocation behind = TokenRevocation.builder()
+                .id(11L).jti("late")
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(tokenRevocationRepository.findTop500ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(ahead));
+        store.pollChanges();
+        assertTrue(store.isActive("late"));
+
+        // id 11 commits after 12 was read
+        when(tokenRevocationRepository.findByIdIn(anyCollection())).thenReturn(List.of(behind));
+        store.pollChanges();
+
+        assertFalse(store.isActive("late"));
+        verify(tokenRevocationRepository).findByIdIn(argThat(ids -> ids.contains(11L) && ids.size() == 11));
+        verify(tokenRevocationRepository).findTop500ByIdGreaterThanOrderByIdAsc(12L);
+    }
+
+    @Test
+    void tokenVersionBumpFromAnotherNodeIsAppliedByPoll() {
+        TokenRevocation remote = TokenRevocation.builder()
+                .id(8L).userId(42L).tokenVersion(3)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(tokenRevocationRepository.findTop500ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(remote));
+
+        store.pollChanges();
+
+        verify(tokenVersionTable).set(42L, 3);
+        verify(authPrincipalCache).evict(42L);
+    }
+
+    @Test
+    void principalChangeFromAnotherNodeEvictsTheCachedPrincipal() {
+        TokenRevocation oneUser = TokenRevocation.builder()
+                .id(9L).userId(42L)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+        TokenRevocation everyUser = TokenRevocation.builder()
+                .id(10L)
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(tokenRevocationRepository.findTop500ByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(oneUser, everyUser));
+
+        store.pollChanges();
+
+        verify(authPrincipalCache).evict(42L);
+        verify(authPrincipalCache).evictAll();
+        verifyNoInteractions(tokenVersionTable);
+    }
+
+    @Test
+    void expiredLiveJtiFallsBackToDb() {
+        store.registerLive("f", LocalDateTime.now().minusSeconds(1));
+        when(refreshTokenRepository.findExpiryDateByJti("f")).thenReturn(Optional.empty());
+
+        store.expire();
+
+        assertFalse(store.isActive("f"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demologin.security;
+
+import com.example.demologin.entity.Permission;
+import com.example.demologin.entity.Role;
+import com.example.demologin.repository.PermissionRepository;
+import com.example.demologin.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PermissionMatrixTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    private PermissionMatrix matrix;
+    private List<Permission> permissions;
+
+    @BeforeEach
+    void setUp() {
+        matrix = new PermissionMatrix(roleRepository, permissionRepository);
+        // More than 64 codes so bitsets span several words
+        permissions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            permissions.add(permission("PERM_" + i));
+        }
+        when(permissionRepository.findAll()).thenReturn(permissions);
+    }
+
+    @Test
+    void roleHoldsExactlyItsPermissions() {
+        when(roleRepository.findAll()).thenReturn(List.of(
+                role("ADMIN", permissions.get(0), permissions.get(70)),
+                role("TEACHER", permissions.get(5))));
+        matrix.refresh();
+
+        assertTrue(matrix.hasPermission(Set.of("ADMIN"), matrix.bitOf("PERM_70")));
+        assertTrue(matrix.hasPermission(Set.of("TEACHER", "ADMIN"), matrix.bitOf("PERM_5")));
+        assertFalse(matrix.hasPermission(Set.of("TEACHER"), matrix.bitOf("PERM_70")));
+        assertFalse(matrix.hasPermission(Set.of("UNKNOWN_ROLE"), matrix.bitOf("PERM_0")));
+        assertFalse(matrix.hasPermission(Set.of("ADMIN"), matrix.bitOf("NOT_A_PERMISSION")));
+    }
+
+    @Test
+    void bitIndexesSurviveRebuild() {
+        Role teacher = role("TEACHER");
+        when(roleRepository.findAll()).thenReturn(List.of(teacher));
+        matrix.refresh();
+        int bit = matrix.bitOf("PERM_42");
+        assertFalse(matrix.hasPermission(Set.of("TEACHER"), bit));
+
+        teacher.getPermissions().add(permissions.get(42));
+        matrix.rebuildAfterCommit();
+
+        assertEquals(bit, matrix.bitOf("PERM_42"));
+        assertTrue(matrix.hasPermission(Set.of("TEACHER"), bit));
+    }
+
+    @Test
+    void fingerprintChangesOnlyWithAssignments() {
+        Role teacher = role("TEACHER", permissions.get(1));
+        when(roleRepository.findAll()).thenReturn(List.of(teacher, role("ADMIN", permissions.get(2))));
+        matrix.refresh();
+        long fingerprint = matrix.fingerprint();
+
+        matrix.refresh();
+        assertEquals(fingerprint, matrix.fingerprint());
+
+        teacher.getPermissions().add(permissions.get(3));
+        matrix.refresh();
+        assertNotEquals(fingerprint, matrix.fingerprint());
+    }
+
+    private static Permission permission(String code) {
+        Permission permission = new Permission();
+        permission.setCode(code);
+        return permission;
+    }
+
+    private static Role role(String name, Permission... granted) {
+        Role role = new Role();
+        role.setName(name);
+        role.setPermissions(new HashSet<>(List.of(granted)));
+        return role;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demologin.security;
+
+import com.example.demologin.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionTableTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenVersionTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new TokenVersionTable(userRepository);
+    }
+
+    @Test
+    void versionIsLoadedOnceThenServedFromMemory() {
+        when(userRepository.findTokenVersionByUserId(1L)).thenReturn(Optional.of(2));
+
+        assertTrue(table.isCurrent(1L, 2));
+        assertTrue(table.isCurrent(1L, 2));
+        assertFalse(table.isCurrent(1L, 1));
+        verify(userRepository, times(1)).findTokenVersionByUserId(1L);
+    }
+
+    @Test
+    void newerTokenVersionTriggersReload() {
+        table.set(1L, 2);
+        when(userRepository.findTokenVersionByUserId(1L)).thenReturn(Optional.of(3));
+
+        assertTrue(table.isCurrent(1L, 3));
+        assertEquals(3, table.current(1L));
+    }
+
+    @Test
+    void unknownUserIsNeverCurrent() {
+        when(userRepository.findTokenVersionByUserId(9L)).thenReturn(Optional.empty());
+
+        assertFalse(table.isCurrent(9L, 0));
+        assertEquals(-1, table.current(9L));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void writesSurviveTableGrowth() {
+        for (long userId = 1; userId <= 10_000; userId++) {
+            table.set(userId, (int) (userId % 7));
+        }
+
+        assertEquals(10_000, table.size());
+        for (long userId = 1; userId <= 10_000; userId++) {
+            assertEquals((int) (userId % 7), table.current(userId));
+        }
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.dto.request.exam.AddQuestionToExamRequest;
+import com.example.demologin.dto.request.exam.ExamQuestionBatchRequest;
+import com.example.demologin.dto.response.ExamCompositionResponse;
+import com.example.demologin.dto.response.ExamQuestionResponse;
+import com.example.demologin.entity.*;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import com.example.demologin.exception.exceptions.ConflictException;
+import com.example.demologin.exception.exceptions.NotFoundException;
+import com.example.demologin.repository.*;
+import com.example.demologin.search.SearchIndexManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExamServiceImplTest {
+
+    private static final long EXAM_ID = 7L;
+
+    @InjectMocks
+    private ExamServiceImpl examService;
+
+    @Mock
+    private ExamRepository examRepository;
+    @Mock
+    private ExamQuestionRepository examQuestionRepository;
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private ExamAttemptRepository examAttemptRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private MatrixRepository matrixRepository;
+    @Mock
+    private SearchIndexManager searchIndex;
+    @Mock
+    private ExamQuestionBatchRepository examQuestionBatchRepository;
+
+    private Exam exam;
+
+    @BeforeEach
+    void setUp() {
+        // Matrix: lesson 1 / level 10 / type 100 -> 2 câu (chia làm hai dòng), lesson 1 / level 11 / type 100 -> 1 câu
+        Matrix matrix = Matrix.builder().id(1L).details(List.of(
+                detail(1L, 10L, 100L, 1),
+                detail(1L, 10L, 100L, 1),
+                detail(1L, 11L, 100L, 1))).build();
+        exam = Exam.builder().id(EXAM_ID).title("Đề 1").status("DRAFT").matrix(matrix)
+                .examQuestions(new ArrayList<>()).build();
+        lenient().when(examRepository.findByIdForUpdate(EXAM_ID)).thenReturn(Optional.of(exam));
+    }
+
+    @Test
+    void addsWithinQuotaAreInsertedInOneBatch() {
+        when(examQuestionRepository.findCompositionRows(EXAM_ID))
+                .thenReturn(List.of(composition(50L, 1L, 10L, 100L, 1.0)));
+        when(questionRepository.findCellRows(anyCollection()))
+                .thenReturn(List.of(cellRow(51L, 1L, 10L, 100L, 1.0), cellRow(52L, 1L, 11L, 100L, 2.0)));
+
+        ExamCompositionResponse response = examService.applyQuestionBatch(EXAM_ID,
+                batch(List.of(add(51L, null), add(52L, 3.0)), List.of(), List.of()));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ExamQuestionBatchRepository.Row>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(examQuestionBatchRepository).insertAll(inserted.capture());
+        assertEquals(List.of(
+                new ExamQuestionBatchRepository.Row(EXAM_ID, 51L, 1.0),
+                new ExamQuestionBatchRepository.Row(EXAM_ID, 52L, 3.0)), inserted.getValue());
+        assertEquals(3, response.getTotalQuestions());
+        assertEquals(5.0, response.getTotalScore());
+        assertEquals(2, response.getCells().size());
+        assertEquals(2, response.getCells().get(0).getRequired());
+        assertEquals(2, response.getCells().get(0).getCurrent());
+    }
+
+    @Test
+    void addBeyondMergedQuotaIsRejectedAndNothingIsWritten() {
+        when(examQuestionRepository.findCompositionRows(EXAM_ID))
+                .thenReturn(List.of(composition(50L, 1L, 10L, 100L, 1.0), composition(51L, 1L, 10L, 100L, 1.0)));
+        when(questionRepository.findCellRows(anyCollection()))
+                .thenReturn(List.of(cellRow(52L, 1L, 10L, 100L, 1.0)));
+
+        assertThrows(ConflictException.class, () -> examService.applyQuestionBatch(EXAM_ID,
+                batch(List.of(add(52L, null)), List.of(), List.of())));
+        verifyNoInteractions(examQuestionBatchRepository);
+    }
+
+    @Test
+    void removeFreesTheSlotForAnAddInTheSameBatch() {
+        when(examQuestionRepository.findCompositionRows(EXAM_ID))
+                .thenReturn(List.of(composition(50L, 1L, 10L, 100L, 1.0), composition(51L, 1L, 10L, 100L, 1.0)));
+        when(questionRepository.findCellRows(anyCollection()))
+                .thenReturn(List.of(cellRow(52L, 1L, 10L, 100L, 1.0)));
+
+        ExamCompositionResponse response = examService.applyQuestionBatch(EXAM_ID,
+                batch(List.of(add(52L, null)), List.of(50L), List.of(score(51L, 4.0))));
+
+        verify(examQuestionBatchRepository).deleteAll(EXAM_ID, List.of(50L));
+        verify(examQuestionBatchRepository).updateScores(List.of(new ExamQuestionBatchRepository.Row(EXAM_ID, 51L, 4.0)));
+        assertEquals(2, response.getTotalQuestions());
+        assertEquals(5.0, response.getTotalScore());
+    }
+
+    @Test
+    void quotaIsCheckedPerLessonNotOnlyPerLevelAndType() {
+        when(examQuestionRepository.findCompositionRows(EXAM_ID)).thenReturn(List.of());
+        when(questionRepository.findCellRows(anyCollection()))
+                .thenReturn(List.of(cellRow(60L, 2L, 10L, 100L, 1.0)));
+
+        assertThrows(ConflictException.class, () -> examService.applyQuestionBatch(EXAM_ID,
+                batch(List.of(add(60L, null)), List.of(), List.of())));
+    }
+
+    @Test
+    void singleAddIsCheckedAgainstTheSameCellQuota() {
+        when(examQuestionRepository.findCompositionRows(EXAM_ID))
+                .thenReturn(List.of(composition(50L, 1L, 10L, 100L, 1.0), composition(51L, 1L, 10L, 100L, 1.0)));
+        when(questionRepository.findCellRows(anyCollection())).thenReturn(List.of(cellRow(52L, 1L, 10L, 100L, 1.0)));
+
+        assertThrows(ConflictException.class, () -> examService.addQuestionToExam(EXAM_ID, add(52L, null)));
+        verifyNoInteractions(examQuestionBatchRepository);
+
+        when(questionRepository.findCellRows(anyCollection())).thenReturn(List.of(cellRow(53L, 1L, 11L, 100L, 2.0)));
+        Question question = Question.builder().id(53L).questionText("Câu 53").build();
+        when(examQuestionRepository.findByExam_IdAndQuestion_Id(EXAM_ID, 53L)).thenReturn(Optional.of(
+                ExamQuestion.builder().id(9L).exam(exam).question(question).score(2.0).build()));
+
+        ExamQuestionResponse response = examService.addQuestionToExam(EXAM_ID, add(53L, null));
+
+        verify(examQuestionBatchRepository).insertAll(List.of(new ExamQuestionBatchRepository.Row(EXAM_ID, 53L, 2.0)));
+        assertEquals(53L, response.getQuestionId());
+        assertEquals(2.0, response.getScore());
+    }
+
+    @Test
+    void invalidBatchesAreRejected() {
+        assertThrows(BadRequestException.class, () -> examService.applyQuestionBatch(EXAM_ID,
+                batch(List.of(add(50L, null)), List.of(50L), List.of())));
+
+        when(examQuestionRepository.findCompositionRows(EXAM_ID)).thenReturn(List.of());
+        assertThrows(NotFoundException.class, () -> examService.applyQuestionBatch(EXAM_ID,
+                batch(List.of(), List.of(99L), List.of())));
+
+        when(questionRepository.findCellRows(anyCollection())).thenReturn(List.of());
+        assertThrows(NotFoundException.class, () -> examService.applyQuestionBatch(EXAM_ID,
+                batch(List.of(add(98L, null)), List.of(), List.of())));
+
+        exam.setStatus("PUBLISHED");
+        assertThrows(ConflictException.class, () -> examService.applyQuestionBatch(EXAM_ID,
+                batch(List.of(), List.of(), List.of())));
+        verifyNoInteractions(examQuestionBatchRepository);
+    }
+
+    private static MatrixDetail detail(long lessonId, long levelId, long typeId, int total) {
+        return MatrixDetail.builder()
+                .lesson(Lesson.builder().id(lessonId).build())
+                .level(Level.builder().id(levelId).score(1.0).build())
+                .questionType(QuestionType.builder().id(typeId).build())
+                .totalQuestions(total)
+                .build();
+    }
+
+    private static ExamQuestionBatchRequest batch(List<AddQuestionToExamRequest> adds, List<Long> removes,
+                                                  List<ExamQuestionBatchRequest.ScoreChange> updates) {
+        ExamQuestionBatchRequest request = new ExamQuestionBatchRequest();
+        request.setAdd(adds);
+        request.setRemove(removes);
+        request.setUpdateScores(updates);
+        return request;
+    }
+
+    private static AddQuestionToExamRequest add(Long questionId, Double score) {
+        AddQuestionToExamRequest add = new AddQuestionToExamRequest();
+        add.setQuestionId(questionId);
+        add.setScore(score);
+        return add;
+    }
+
+    private static ExamQuestionBatchRequest.ScoreChange score(Long questionId, Double score) {
+        ExamQuestionBatchRequest.ScoreChange change = new ExamQuestionBatchRequest.ScoreChange();
+        change.setQuestionId(questionId);
+        change.setScore(score);
+        return change;
+    }
+
+    private static ExamQuestionRepository.CompositionRow composition(Long questionId, Long lessonId, Long levelId,
+                                                                     Long typeId, Double score) {
+        return new ExamQuestionRepository.CompositionRow() {
+            public Long getQuestionId() { return questionId; }
+            public Long getLessonId() { return lessonId; }
+            public Long getLevelId() { return levelId; }
+            public Long getTypeId() { return typeId; }
+            public Double getScore() { return score; }
+        };
+    }
+
+    private static QuestionRepository.CellRow cellRow(Long id, Long lessonId, Long levelId, Long typeId, Double levelScore) {
+        return new QuestionRepository.CellRow() {
+            public Long getId() { return id; }
+            public Long getLessonId() { return lessonId; }
+            public Long getLevelId() { return levelId; }
+            public Long getTypeId() { return typeId; }
+            public Double getLevelScore() { return levelScore; }
+        };
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.demologin.serviceImpl;
+
+import com.example.demologin.ai.QuestionGenerator;
+import com.example.demologin.cache.CurriculumRegistry;
+import com.example.demologin.cache.ExamPaperRegistry;
+import com.example.demologin.cache.QuestionAvailabilityCube;
+import com.example.demologin.dto.response.KeysetPage;
+import com.example.demologin.entity.Chapter;
+import com.example.demologin.entity.EssayQuestion;
+import com.example.demologin.entity.EssaySubmission;
+import com.example.demologin.entity.Exam;
+import com.example.demologin.entity.ExamAttempt;
+import com.example.demologin.entity.ExamQuestion;
+import com.example.demologin.entity.Grade;
+import com.example.demologin.entity.Lesson;
+import com.example.demologin.entity.Level;
+import com.example.demologin.entity.Matrix;
+import com.example.demologin.entity.MatrixDetail;
+import com.example.demologin.entity.Option;
+import com.example.demologin.entity.Question;
+import com.example.demologin.entity.QuestionType;
+import com.example.demologin.entity.User;
+import com.example.demologin.enums.Gender;
+import com.example.demologin.enums.SubmissionStatus;
+import com.example.demologin.enums.UserStatus;
+import com.example.demologin.mapper.examattempt.ExamAttemptMapper;
+import com.example.demologin.mapper.question.QuestionMapper;
+import com.example.demologin.repository.ExamQuestionBatchRepository;
+import com.example.demologin.search.SearchIndexManager;
+import com.example.demologin.service.SubscriptionService;
+import com.example.demologin.service.UserActivityLogService;
+import com.example.demologin.utils.AccountUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static com.example.demologin.monitoring.QueryAssertions.assertMaxQueries;
+import static com.example.demologin.monitoring.QueryAssertions.countQueries;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the listing endpoints against N+1 selects: the number of statements for one page must
+ * not grow with the number of rows on it.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:listing-query-count;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.default_batch_fetch_size=64"
+})
+@Import({ExamServiceImpl.class, MatrixServiceImpl.class, ExamTakingServiceImpl.class, EssaySubmissionServiceImpl.class,
+        QuestionServiceImpl.class, QuestionMapper.class, ExamAttemptMapper.class})
+class ListingQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ExamServiceImpl examService;
+    @Autowired
+    private MatrixServiceImpl matrixService;
+    @Autowired
+    private ExamTakingServiceImpl examTakingService;
+    @Autowired
+    private EssaySubmissionServiceImpl essaySubmissionService;
+    @Autowired
+    private QuestionServiceImpl questionService;
+
+    @MockitoBean
+    private SearchIndexManager searchIndexManager;
+    @MockitoBean
+    private ExamQuestionBatchRepository examQuestionBatchRepository;
+    @MockitoBean(answers = Answers.RETURNS_DEEP_STUBS)
+    private CurriculumRegistry curriculumRegistry;
+    @MockitoBean
+    private QuestionAvailabilityCube availabilityCube;
+    @MockitoBean
+    private AccountUtils accountUtils;
+    @MockitoBean
+    private SubscriptionService subscriptionService;
+    @MockitoBean
+    private UserActivityLogService userActivityLogService;
+    @MockitoBean
+    private ObjectMapper objectMapper;
+    @MockitoBean
+    private QuestionGenerator questionGenerator;
+    @MockitoBean
+    private ExamPaperRegistry examPaperRegistry;
+
+    private User teacher;
+    private Grade grade;
+    private Chapter chapter;
+    private Lesson lesson;
+    private Level level;
+    private QuestionType type;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        teacher = persistUser("teacher");
+        grade = new Grade();
+        grade.setGradeNumber(10);
+        entityManager.persist(grade);
+        chapter = new Chapter();
+        chapter.setName("Chapter");
+        chapter.setGrade(grade);
+        entityManager.persist(chapter);
+        lesson = new Lesson();
+        lesson.setLessonName("Lesson");
+        lesson.setChapter(chapter);
+        entityManager.persist(lesson);
+        level = new Level();
+        level.setDifficulty("EASY");
+        level.setScore(1.0);
+        entityManager.persist(level);
+        type = new QuestionType();
+        type.setDescription("MCQ");
+        entityManager.persist(type);
+    }
+
+    @Test
+    void examPageDoesNotGrowWithRows() {
+        seedExams(2);
+        long few = statementsFor(() -> examService.getAllExams(0, 20, "createdAt", "desc"));
+        seedExams(6);
+        long many = statementsFor(() -> examService.getAllExams(0, 20, "createdAt", "desc"));
+
+        assertEquals(few, many);
+        assertTrue(many <= 3, "exam page used " + many + " statements");
+    }
+
+    @Test
+    void examListingStaysWithinBudget() {
+        seedExams(8);
+        flushAndClear();
+
+        assertEquals(8, assertMaxQueries(3, () -> examService.getAllExams(0, 20, "id", "asc")).getNumberOfElements());
+    }
+
+    @Test
+    void myAttemptsStaysWithinBudget() {
+        User student = persistUser("student");
+        seedExams(6);
+        for (Exam exam : entityManager.getEntityManager()
+                .createQuery("SELECT e FROM Exam e", Exam.class).getResultList()) {
+            ExamAttempt attempt = new ExamAttempt();
+            attempt.setExam(exam);
+            attempt.setUser(student);
+            attempt.setStartedAt(LocalDateTime.now());
+            entityManager.persist(attempt);
+        }
+        flushAndClear();
+        when(accountUtils.getCurrentUser()).thenReturn(student);
+
+        var attempts = assertMaxQueries(6, () -> examTakingService.myAttempts(0, 20));
+
+        assertEquals(6, attempts.getNumberOfElements());
+        assertEquals(2, attempts.getContent().get(0).getTotalQuestions());
+        assertEquals(2.0, attempts.getContent().get(0).getMaxScore());
+    }
+
+    @Test
+    void questionListingStaysWithinBudget() {
+        for (int i = 0; i < 10; i++) {
+            Question question = persistQuestion();
+            for (int o = 0; o < 3; o++) {
+                Option option = new Option();
+                option.setQuestion(question);
+                option.setOptionText("Option " + o);
+                option.setIsCorrect(o == 0);
+                entityManager.persist(option);
+            }
+        }
+        flushAndClear();
+
+        var questions = assertMaxQueries(5, () -> questionService.list(0, 20));
+
+        assertEquals(10, questions.getNumberOfElements());
+        assertEquals(3, questions.getContent().get(0).getOptions().size());
+    }
+
+    @Test
+    void keysetPageSizeIsCapped() {
+        for (int i = 0; i < KeysetPage.MAX_PAGE_SIZE + 5; i++) {
+            persistQuestion();
+        }
+        flushAndClear();
+
+        var questions = questionService.list(null, 10_000, false);
+
+        assertEquals(KeysetPage.MAX_PAGE_SIZE, questions.getNumberOfElements());
+        assertTrue(questions.hasNext());
+        assertEquals(1, questionService.list(null, 0, false).getNumberOfElements());
+    }
+
+    @Test
+    void publishedExamCardsUseOneQueryPlusCount() {
+        seedExams(2);
+        long few = statementsFor(() -> examTakingService.listAvailable(0, 20));
+        seedExams(6);
+        long many = statementsFor(() -> examTakingService.listAvailable(0, 20));
+
+        assertEquals(few, many);
+        assertTrue(many <= 2, "exam card page used " + many + " statements");
+    }
+
+    @Test
+    void matrixPageDoesNotGrowWithRows() {
+        seedMatrices(2);
+        long few = statementsFor(() -> matrixService.getAllMatrices(PageRequest.of(0, 20)));
+        seedMatrices(6);
+        long many = statementsFor(() -> matrixService.getAllMatrices(PageRequest.of(0, 20)));
+
+        assertEquals(few, many);
+        assertTrue(many <= 3, "matrix page used " + many + " statements");
+    }
+
+    @Test
+    void pendingEssayPageDoesNotGrowWithRows() {
+        seedSubmissions(2);
+        long few = statementsFor(() -> essaySubmissionService.getPendingSubmissions(PageRequest.of(0, 20)));
+        seedSubmissions(6);
+        long many = statementsFor(() -> essaySubmissionService.getPendingSubmissions(PageRequest.of(0, 20)));
+
+        assertEquals(few, many);
+    }
+
+    private long statementsFor(Supplier<?> call) {
+        flushAndClear();
+        return countQueries(call::get);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void seedExams(int count) {
+        for (int i = 0; i < count; i++) {
+            Matrix matrix = persistMatrix();
+            Exam exam = new Exam();
+            exam.setTitle("Exam " + sequence);
+            exam.setStatus("PUBLISHED");
+            exam.setDurationMinutes(45);
+            exam.setMatrix(matrix);
+            exam.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(exam);
+            for (int q = 0; q < 2; q++) {
+                ExamQuestion examQuestion = new ExamQuestion();
+                examQuestion.setExam(exam);
+                examQuestion.setQuestion(persistQuestion());
+                examQuestion.setScore(1.0);
+                entityManager.persist(examQuestion);
+            }
+        }
+    }
+
+    private void seedMatrices(int count) {
+        for (int i = 0; i < count; i++) {
+            Matrix matrix = persistMatrix();
+            MatrixDetail detail = new MatrixDetail();
+            detail.setMatrix(matrix);
+            detail.setLesson(lesson);
+            detail.setLevel(level);
+            detail.setQuestionType(type);
+            detail.setTotalQuestions(3);
+            entityManager.persist(detail);
+        }
+    }
+
+    private void seedSubmissions(int count) {
+        for (int i = 0; i < count; i++) {
+            EssayQuestion question = new EssayQuestion();
+            question.setGrade(grade);
+            question.setChapter(chapter);
+            question.setLesson(lesson);
+            question.setPrompt("Prompt " + sequence);
+            question.setRubric("Rubric");
+            question.setTimeLimitMinutes(30);
+            question.setMaxScore(10);
+            question.setCreatedBy(teacher);
+            entityManager.persist(question);
+
+            EssaySubmission submission = new EssaySubmission();
+            submission.setUser(persistUser("student"));
+            submission.setEssayQuestion(question);
+            submission.setAnswer("Answer");
+            submission.setStartedAt(LocalDateTime.now().minusMinutes(10));
+            submission.setSubmittedAt(LocalDateTime.now());
+            submission.setStatus(SubmissionStatus.SUBMITTED);
+            entityManager.persist(submission);
+        }
+    }
+
+    private Matrix persistMatrix() {
+        Matrix matrix = new Matrix();
+        matrix.setTitle("Matrix " + sequence++);
+        matrix.setUser(teacher);
+        matrix.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(matrix);
+        return matrix;
+    }
+
+    private Question persistQuestion() {
+        Question question = new Question();
+        question.setQuestionText("Question " + sequence++);
+        question.setLesson(lesson);
+        question.setLevel(level);
+        question.setType(type);
+        entityManager.persist(question);
+        return question;
+    }
+
+    private User persistUser(String prefix) {
+        String username = prefix + sequence++;
+        User user = new User(username, "secret", username, username + "@example.com");
+        user.setStatus(UserStatus.ACTIVE);
+        user.setGender(Gender.OTHER);
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demologin.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExamVariantAllocatorTest {
+
+    private static List<Long> ids(int count) {
+        return LongStream.rangeClosed(1, count).boxed().toList();
+    }
+
+    @Test
+    void singleVariantTakesTheHeadOfTheSample() {
+        List<List<Long>> result = ExamVariantAllocator.allocate(ids(5), 3, 3, 1);
+
+        assertEquals(List.of(List.of(1L, 2L, 3L)), result);
+    }
+
+    @Test
+    void variantsAreDisjointWhenTheSampleIsLargeEnough() {
+        List<List<Long>> result = ExamVariantAllocator.allocate(ids(8), 2, 3, 3);
+
+        assertEquals(List.of(1L, 2L), result.get(0));
+        assertEquals(List.of(3L, 4L, 5L), result.get(1));
+        assertEquals(List.of(6L, 7L, 8L), result.get(2));
+    }
+
+    @Test
+    void variantsOverlapButDifferWhenTheSampleIsShort() {
+        List<List<Long>> result = ExamVariantAllocator.allocate(ids(4), 3, 3, 3);
+
+        assertEquals(3, result.size());
+        for (List<Long> variant : result) {
+            assertEquals(3, variant.size());
+            assertEquals(3, new HashSet<>(variant).size());
+        }
+        Set<List<Long>> distinct = new HashSet<>(result.stream().map(v -> v.stream().sorted().toList()).toList());
+        assertTrue(distinct.size() > 1);
+    }
+
+    @Test
+    void returnsNullWhenAVariantCannotBeFilled() {
+        assertNull(ExamVariantAllocator.allocate(ids(2), 3, 3, 1));
+        assertNull(ExamVariantAllocator.allocate(ids(2), 0, 3, 2));
+    }
+
+    @Test
+    void zeroNeedForTheFirstVariantStillFillsTheOthers() {
+        List<List<Long>> result = ExamVariantAllocator.allocate(ids(3), 0, 3, 2);
+
+        assertEquals(List.of(), result.get(0));
+        assertEquals(List.of(1L, 2L, 3L), result.get(1));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demologin.utils;
+
+import com.example.demologin.dto.response.KeysetPage;
+import com.example.demologin.exception.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsTimeKeyAndId() {
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_000_000);
+        PageCursor decoded = PageCursor.decode(PageCursor.of(time, 42L).encode());
+
+        assertEquals(time, decoded.timeKey());
+        assertEquals(42L, decoded.id());
+    }
+
+    @Test
+    void roundTripsIdOnlyCursor() {
+        PageCursor decoded = PageCursor.decode(PageCursor.of(7L).encode());
+
+        assertNull(decoded.key());
+        assertNull(decoded.timeKey());
+        assertEquals(7L, decoded.id());
+    }
+
+    @Test
+    void blankTokenMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test
+    void rejectsForeignTokens() {
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("%%%"));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("bm90LWFuLWlk"));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode(new PageCursor("yesterday", 1).encode()).timeKey());
+    }
+
+    @Test
+    void keysetPageDropsTheLookAheadRowAndPointsAtTheLastReturnedRow() {
+        KeysetPage<String> page = KeysetPage.of(List.of(30L, 20L, 10L), 2, PageCursor::of, id -> "q" + id, null);
+
+        assertEquals(List.of("q30", "q20"), page.getContent());
+        assertTrue(page.hasNext());
+        assertEquals(20L, PageCursor.decode(page.getNextCursor()).id());
+
+        KeysetPage<String> last = KeysetPage.of(List.of(10L), 2, PageCursor::of, id -> "q" + id, 3L);
+        assertFalse(last.hasNext());
+        assertNull(last.getNextCursor());
+        assertEquals(3L, last.getTotal());
+    }
+}